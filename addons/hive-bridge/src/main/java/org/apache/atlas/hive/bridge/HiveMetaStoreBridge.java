@@ -19,6 +19,8 @@
 package org.apache.atlas.hive.bridge;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.sun.jersey.api.client.ClientResponse;
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasClientV2;
@@ -66,11 +68,18 @@ import org.slf4j.LoggerFactory;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.apache.atlas.hive.hook.events.BaseHiveEvent.*;
 
@@ -90,6 +99,8 @@ public class HiveMetaStoreBridge {
     public static final String ATLAS_ENDPOINT                  = "atlas.rest.address";
     public static final String SEP                             = ":".intern();
     public static final String HDFS_PATH                       = "hdfs_path";
+    public static final String IMPORT_NUM_WORKERS              = CONF_PREFIX + "import.num.workers";
+    public static final String IMPORT_BATCH_SIZE               = CONF_PREFIX + "import.batch.size";
 
     private static final int    EXIT_CODE_SUCCESS = 0;
     private static final int    EXIT_CODE_FAILED  = 1;
@@ -99,7 +110,12 @@ public class HiveMetaStoreBridge {
     private final Hive                    hiveClient;
     private final AtlasClientV2           atlasClientV2;
     private final boolean                 convertHdfsPathToLowerCase;
-
+    private final int                     importNumWorkers;
+    private final int                     importBatchSize;
+    private final AtomicInteger           importedTableCount = new AtomicInteger();
+    private       ImportCheckpoint        checkpoint;
+    private       ExecutorService         importExecutor;
+    private       long                    importStartTime;
 
     public static void main(String[] args) {
         int exitCode = EXIT_CODE_FAILED;
@@ -109,6 +125,7 @@ public class HiveMetaStoreBridge {
             options.addOption("d", "database", true, "Database name");
             options.addOption("t", "table", true, "Table name");
             options.addOption("f", "filename", true, "Filename");
+            options.addOption("c", "checkpoint", true, "Checkpoint file");
             options.addOption("failOnError", false, "failOnError");
 
             CommandLine   cmd              = new BasicParser().parse(options, args);
@@ -116,6 +133,7 @@ public class HiveMetaStoreBridge {
             String        databaseToImport = cmd.getOptionValue("d");
             String        tableToImport    = cmd.getOptionValue("t");
             String        fileToImport     = cmd.getOptionValue("f");
+            String        checkpointFile   = cmd.getOptionValue("c");
             Configuration atlasConf        = ApplicationProperties.get();
             String[]      atlasEndpoint    = atlasConf.getStringArray(ATLAS_ENDPOINT);
 
@@ -137,6 +155,10 @@ public class HiveMetaStoreBridge {
 
             HiveMetaStoreBridge hiveMetaStoreBridge = new HiveMetaStoreBridge(atlasConf, new HiveConf(), atlasClientV2);
 
+            if (StringUtils.isNotEmpty(checkpointFile)) {
+                hiveMetaStoreBridge.setCheckpoint(new ImportCheckpoint(new File(checkpointFile)));
+            }
+
             if (StringUtils.isNotEmpty(fileToImport)) {
                 File f = new File(fileToImport);
 
@@ -168,6 +190,10 @@ public class HiveMetaStoreBridge {
                 hiveMetaStoreBridge.importHiveMetadata(databaseToImport, tableToImport, failOnError);
             }
 
+            if (hiveMetaStoreBridge.getCheckpoint() != null) {
+                hiveMetaStoreBridge.getCheckpoint().close();
+            }
+
             exitCode = EXIT_CODE_SUCCESS;
         } catch(ParseException e) {
             LOG.error("Failed to parse arguments. Error: ", e.getMessage());
@@ -198,6 +224,10 @@ public class HiveMetaStoreBridge {
         System.out.println("    database1:tbl2");
         System.out.println("    database2:tbl2");
         System.out.println();
+        System.out.println("Any of the above can be combined with [-c <filename> OR --checkpoint <filename>]");
+        System.out.println("    Records imported tables in the file and skips tables already recorded in it, to resume an interrupted import...");
+        System.out.println("    Tables are imported in parallel batches when " + IMPORT_NUM_WORKERS + " or " + IMPORT_BATCH_SIZE + " is set to a value greater than 1");
+        System.out.println();
     }
 
     /**
@@ -205,7 +235,8 @@ public class HiveMetaStoreBridge {
      * @param hiveConf {@link HiveConf} for Hive component in the cluster
      */
     public HiveMetaStoreBridge(Configuration atlasProperties, HiveConf hiveConf, AtlasClientV2 atlasClientV2) throws Exception {
-        this(atlasProperties.getString(HIVE_CLUSTER_NAME, DEFAULT_CLUSTER_NAME), Hive.get(hiveConf), atlasClientV2, atlasProperties.getBoolean(HDFS_PATH_CONVERT_TO_LOWER_CASE, false));
+        this(atlasProperties.getString(HIVE_CLUSTER_NAME, DEFAULT_CLUSTER_NAME), Hive.get(hiveConf), atlasClientV2, atlasProperties.getBoolean(HDFS_PATH_CONVERT_TO_LOWER_CASE, false),
+             atlasProperties.getInt(IMPORT_NUM_WORKERS, 1), atlasProperties.getInt(IMPORT_BATCH_SIZE, 1));
     }
 
     /**
@@ -221,10 +252,16 @@ public class HiveMetaStoreBridge {
     }
 
     HiveMetaStoreBridge(String clusterName, Hive hiveClient, AtlasClientV2 atlasClientV2, boolean convertHdfsPathToLowerCase) {
+        this(clusterName, hiveClient, atlasClientV2, convertHdfsPathToLowerCase, 1, 1);
+    }
+
+    HiveMetaStoreBridge(String clusterName, Hive hiveClient, AtlasClientV2 atlasClientV2, boolean convertHdfsPathToLowerCase, int importNumWorkers, int importBatchSize) {
         this.clusterName                = clusterName;
         this.hiveClient                 = hiveClient;
         this.atlasClientV2              = atlasClientV2;
         this.convertHdfsPathToLowerCase = convertHdfsPathToLowerCase;
+        this.importNumWorkers           = Math.max(importNumWorkers, 1);
+        this.importBatchSize            = Math.max(importBatchSize, 1);
     }
 
     public String getClusterName() {
@@ -239,12 +276,40 @@ public class HiveMetaStoreBridge {
         return convertHdfsPathToLowerCase;
     }
 
+    public ImportCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(ImportCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
 
     @VisibleForTesting
     public void importHiveMetadata(String databaseToImport, String tableToImport, boolean failOnError) throws Exception {
         LOG.info("Importing Hive metadata");
 
-        importDatabases(failOnError, databaseToImport, tableToImport);
+        importStartTime = System.currentTimeMillis();
+
+        importedTableCount.set(0);
+
+        if (isBatchImport()) {
+            LOG.info("Importing tables in batches of {} with {} workers", importBatchSize, importNumWorkers);
+
+            importExecutor = Executors.newFixedThreadPool(importNumWorkers, new ThreadFactoryBuilder().setNameFormat("hive-import-%d").setDaemon(true).build());
+        }
+
+        try {
+            importDatabases(failOnError, databaseToImport, tableToImport);
+        } finally {
+            if (importExecutor != null) {
+                importExecutor.shutdownNow();
+
+                importExecutor = null;
+            }
+
+            LOG.info("Imported {} tables in {} secs", importedTableCount.get(), (System.currentTimeMillis() - importStartTime) / 1000);
+        }
     }
 
     private void importDatabases(boolean failOnError, String databaseToImport, String tableToImport) throws Exception {
@@ -306,11 +371,23 @@ public class HiveMetaStoreBridge {
         if(!CollectionUtils.isEmpty(tableNames)) {
             LOG.info("Found {} tables to import in database {}", tableNames.size(), databaseName);
 
+            List<String> tablesToImport = getTablesToImport(databaseName, tableNames);
+
+            tablesImported = tableNames.size() - tablesToImport.size();
+
             try {
-                for (String tableName : tableNames) {
-                    int imported = importTable(dbEntity, databaseName, tableName, failOnError);
+                if (isBatchImport()) {
+                    tablesImported += importTablesInBatches(dbEntity, databaseName, tablesToImport, failOnError);
+                } else {
+                    for (String tableName : tablesToImport) {
+                        int imported = importTable(dbEntity, databaseName, tableName, failOnError);
+
+                        if (imported > 0) {
+                            onTablesImported(databaseName, Collections.singletonList(tableName));
+                        }
 
-                    tablesImported += imported;
+                        tablesImported += imported;
+                    }
                 }
             } finally {
                 if (tablesImported == tableNames.size()) {
@@ -337,33 +414,7 @@ public class HiveMetaStoreBridge {
                 AtlasEntityWithExtInfo processEntity        = findProcessEntity(processQualifiedName);
 
                 if (processEntity == null) {
-                    String      tableLocation = isConvertHdfsPathToLowerCase() ? lower(table.getDataLocation().toString()) : table.getDataLocation().toString();
-                    String      query         = getCreateTableString(table, tableLocation);
-                    AtlasEntity pathInst      = toHdfsPathEntity(tableLocation);
-                    AtlasEntity tableInst     = tableEntity.getEntity();
-                    AtlasEntity processInst   = new AtlasEntity(HiveDataTypes.HIVE_PROCESS.getName());
-                    long        now           = System.currentTimeMillis();
-
-                    processInst.setAttribute(ATTRIBUTE_QUALIFIED_NAME, processQualifiedName);
-                    processInst.setAttribute(ATTRIBUTE_NAME, query);
-                    processInst.setAttribute(ATTRIBUTE_CLUSTER_NAME, clusterName);
-                    processInst.setAttribute(ATTRIBUTE_INPUTS, Collections.singletonList(BaseHiveEvent.getObjectId(pathInst)));
-                    processInst.setAttribute(ATTRIBUTE_OUTPUTS, Collections.singletonList(BaseHiveEvent.getObjectId(tableInst)));
-                    processInst.setAttribute(ATTRIBUTE_USER_NAME, table.getOwner());
-                    processInst.setAttribute(ATTRIBUTE_START_TIME, now);
-                    processInst.setAttribute(ATTRIBUTE_END_TIME, now);
-                    processInst.setAttribute(ATTRIBUTE_OPERATION_TYPE, "CREATETABLE");
-                    processInst.setAttribute(ATTRIBUTE_QUERY_TEXT, query);
-                    processInst.setAttribute(ATTRIBUTE_QUERY_ID, query);
-                    processInst.setAttribute(ATTRIBUTE_QUERY_PLAN, "{}");
-                    processInst.setAttribute(ATTRIBUTE_RECENT_QUERIES, Collections.singletonList(query));
-
-                    AtlasEntitiesWithExtInfo createTableProcess = new AtlasEntitiesWithExtInfo();
-
-                    createTableProcess.addEntity(processInst);
-                    createTableProcess.addEntity(pathInst);
-
-                    registerInstances(createTableProcess);
+                    registerInstances(toCreateTableProcess(table, tableEntity.getEntity()));
                 } else {
                     LOG.info("Process {} is already registered", processQualifiedName);
                 }
@@ -381,6 +432,219 @@ public class HiveMetaStoreBridge {
         }
     }
 
+    /**
+     * Imports the given tables with importNumWorkers workers, each sending importBatchSize tables - along with their
+     * columns and storage descriptors - to Atlas in a single createEntities() call. Entities are created or updated
+     * based on their unique attributes, hence unlike importTable() there is no lookup of the existing entities.
+     * @return number of tables imported
+     */
+    private int importTablesInBatches(final AtlasEntity dbEntity, final String databaseName, List<String> tableNames, final boolean failOnError) throws Exception {
+        List<Future<Integer>> futures = new ArrayList<>();
+        int                   ret     = 0;
+
+        for (final List<String> batch : Lists.partition(tableNames, importBatchSize)) {
+            futures.add(importExecutor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return importTableBatch(dbEntity, databaseName, batch, failOnError);
+                }
+            }));
+        }
+
+        try {
+            for (Future<Integer> future : futures) {
+                ret += future.get();
+            }
+        } catch (ExecutionException e) {
+            for (Future<Integer> future : futures) {
+                future.cancel(true);
+            }
+
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+
+        return ret;
+    }
+
+    private int importTableBatch(AtlasEntity dbEntity, String databaseName, List<String> tableNames, boolean failOnError) throws Exception {
+        final List<Table> tables;
+
+        // the metastore client is not thread-safe; it is called once per batch, so the workers hardly contend for it
+        synchronized (hiveClient) {
+            tables = getTables(databaseName, tableNames);
+        }
+
+        if (tables.size() < tableNames.size()) {
+            LOG.warn("Found only {} of {} tables in database {} - these might have been dropped after listing", tables.size(), tableNames.size(), databaseName);
+        }
+
+        List<AtlasEntitiesWithExtInfo> tableEntities = new ArrayList<>(tables.size());
+        AtlasEntitiesWithExtInfo       batch         = new AtlasEntitiesWithExtInfo();
+        List<String>                   imported      = new ArrayList<>(tables.size());
+
+        for (Table table : tables) {
+            AtlasEntitiesWithExtInfo entities = toTableEntities(dbEntity, table);
+
+            tableEntities.add(entities);
+
+            addEntities(batch, entities);
+        }
+
+        try {
+            if (CollectionUtils.isNotEmpty(batch.getEntities())) {
+                atlasClientV2.createEntities(batch);
+            }
+
+            for (Table table : tables) {
+                imported.add(table.getTableName());
+            }
+        } catch (Exception e) {
+            LOG.error("Import failed for a batch of {} tables in database {}. Importing these tables one at a time", tables.size(), databaseName, e);
+
+            for (int i = 0; i < tables.size(); i++) {
+                Table table = tables.get(i);
+
+                try {
+                    atlasClientV2.createEntities(tableEntities.get(i));
+
+                    imported.add(table.getTableName());
+                } catch (Exception excp) {
+                    LOG.error("Import failed for hive_table {}", table.getTableName(), excp);
+
+                    if (failOnError) {
+                        throw excp;
+                    }
+                }
+            }
+        }
+
+        onTablesImported(databaseName, imported);
+
+        return imported.size();
+    }
+
+    private List<Table> getTables(String databaseName, List<String> tableNames) throws Exception {
+        List<Table> ret = new ArrayList<>(tableNames.size());
+
+        for (org.apache.hadoop.hive.metastore.api.Table table : hiveClient.getMSC().getTableObjectsByName(databaseName, tableNames)) {
+            ret.add(new Table(table));
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return entities to create the given table, its columns and storage descriptor - and, for an external table, the process
+     * that created the table from its location. The database, already registered by then, is referred to by its id only.
+     */
+    private AtlasEntitiesWithExtInfo toTableEntities(AtlasEntity dbEntity, Table table) throws Exception {
+        AtlasEntitiesWithExtInfo ret         = new AtlasEntitiesWithExtInfo();
+        AtlasEntityWithExtInfo   tableEntity = toTableEntity(dbEntity, table);
+
+        ret.addEntity(tableEntity.getEntity());
+
+        for (AtlasEntity referredEntity : tableEntity.getReferredEntities().values()) {
+            if (!StringUtils.equals(referredEntity.getGuid(), dbEntity.getGuid())) {
+                ret.addReferredEntity(referredEntity);
+            }
+        }
+
+        if (table.getTableType() == TableType.EXTERNAL_TABLE) {
+            addEntities(ret, toCreateTableProcess(table, tableEntity.getEntity()));
+        }
+
+        return ret;
+    }
+
+    private AtlasEntitiesWithExtInfo toCreateTableProcess(Table table, AtlasEntity tableInst) {
+        String      processQualifiedName = getTableProcessQualifiedName(clusterName, table);
+        String      tableLocation        = isConvertHdfsPathToLowerCase() ? lower(table.getDataLocation().toString()) : table.getDataLocation().toString();
+        String      query                = getCreateTableString(table, tableLocation);
+        AtlasEntity pathInst             = toHdfsPathEntity(tableLocation);
+        AtlasEntity processInst          = new AtlasEntity(HiveDataTypes.HIVE_PROCESS.getName());
+        long        now                  = System.currentTimeMillis();
+
+        processInst.setAttribute(ATTRIBUTE_QUALIFIED_NAME, processQualifiedName);
+        processInst.setAttribute(ATTRIBUTE_NAME, query);
+        processInst.setAttribute(ATTRIBUTE_CLUSTER_NAME, clusterName);
+        processInst.setAttribute(ATTRIBUTE_INPUTS, Collections.singletonList(BaseHiveEvent.getObjectId(pathInst)));
+        processInst.setAttribute(ATTRIBUTE_OUTPUTS, Collections.singletonList(BaseHiveEvent.getObjectId(tableInst)));
+        processInst.setAttribute(ATTRIBUTE_USER_NAME, table.getOwner());
+        processInst.setAttribute(ATTRIBUTE_START_TIME, now);
+        processInst.setAttribute(ATTRIBUTE_END_TIME, now);
+        processInst.setAttribute(ATTRIBUTE_OPERATION_TYPE, "CREATETABLE");
+        processInst.setAttribute(ATTRIBUTE_QUERY_TEXT, query);
+        processInst.setAttribute(ATTRIBUTE_QUERY_ID, query);
+        processInst.setAttribute(ATTRIBUTE_QUERY_PLAN, "{}");
+        processInst.setAttribute(ATTRIBUTE_RECENT_QUERIES, Collections.singletonList(query));
+
+        AtlasEntitiesWithExtInfo ret = new AtlasEntitiesWithExtInfo();
+
+        ret.addEntity(processInst);
+        ret.addEntity(pathInst);
+
+        return ret;
+    }
+
+    private void addEntities(AtlasEntitiesWithExtInfo target, AtlasEntitiesWithExtInfo source) {
+        for (AtlasEntity entity : source.getEntities()) {
+            target.addEntity(entity);
+        }
+
+        if (MapUtils.isNotEmpty(source.getReferredEntities())) {
+            for (AtlasEntity entity : source.getReferredEntities().values()) {
+                target.addReferredEntity(entity);
+            }
+        }
+    }
+
+    private boolean isBatchImport() {
+        return importNumWorkers > 1 || importBatchSize > 1;
+    }
+
+    private List<String> getTablesToImport(String databaseName, List<String> tableNames) {
+        if (checkpoint == null) {
+            return tableNames;
+        }
+
+        List<String> ret = new ArrayList<>(tableNames.size());
+
+        for (String tableName : tableNames) {
+            if (!checkpoint.isImported(getTableQualifiedName(clusterName, databaseName, tableName))) {
+                ret.add(tableName);
+            }
+        }
+
+        if (ret.size() < tableNames.size()) {
+            LOG.info("Skipping {} tables in database {} that were imported earlier, as per the checkpoint", tableNames.size() - ret.size(), databaseName);
+        }
+
+        return ret;
+    }
+
+    private void onTablesImported(String databaseName, List<String> tableNames) throws IOException {
+        if (tableNames.isEmpty()) {
+            return;
+        }
+
+        if (checkpoint != null) {
+            List<String> tableQualifiedNames = new ArrayList<>(tableNames.size());
+
+            for (String tableName : tableNames) {
+                tableQualifiedNames.add(getTableQualifiedName(clusterName, databaseName, tableName));
+            }
+
+            checkpoint.markImported(tableQualifiedNames);
+        }
+
+        int  count       = importedTableCount.addAndGet(tableNames.size());
+        long elapsedSecs = Math.max((System.currentTimeMillis() - importStartTime) / 1000, 1);
+
+        if (isBatchImport() || count % 100 == 0) {
+            LOG.info("Progress: imported {} tables in {} secs ({} tables/sec)", count, elapsedSecs, count / elapsedSecs);
+        }
+    }
+
     /**
      * Checks if db is already registered, else creates and registers db entity
      * @param databaseName
@@ -0,0 +1,95 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.hive.bridge;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records qualified names of tables imported by HiveMetaStoreBridge in a file, one per line, so that
+ * an interrupted import can be resumed by skipping the tables already imported.
+ */
+public class ImportCheckpoint implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(ImportCheckpoint.class);
+
+    private final File           file;
+    private final Set<String>    importedTables = ConcurrentHashMap.newKeySet();
+    private final BufferedWriter writer;
+
+    public ImportCheckpoint(File file) throws IOException {
+        this.file = file;
+
+        if (file.exists()) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    if (StringUtils.isNotBlank(line)) {
+                        importedTables.add(line.trim());
+                    }
+                }
+            }
+
+            LOG.info("Resuming import from checkpoint {}: {} tables already imported", file, importedTables.size());
+        }
+
+        this.writer = new BufferedWriter(new FileWriter(file, true));
+    }
+
+    public boolean isImported(String tableQualifiedName) {
+        return importedTables.contains(tableQualifiedName);
+    }
+
+    public int getImportedCount() {
+        return importedTables.size();
+    }
+
+    public synchronized void markImported(Collection<String> tableQualifiedNames) throws IOException {
+        for (String tableQualifiedName : tableQualifiedNames) {
+            if (importedTables.add(tableQualifiedName)) {
+                writer.write(tableQualifiedName);
+                writer.newLine();
+            }
+        }
+
+        writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    @Override
+    public String toString() {
+        return "ImportCheckpoint{file=" + file + ", importedTables=" + importedTables.size() + "}";
+    }
+}
@@ -25,6 +25,7 @@ import org.apache.atlas.hive.model.HiveDataTypes;
 import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
 import org.apache.hadoop.hive.metastore.TableType;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
@@ -36,17 +37,25 @@ import org.apache.hadoop.mapred.TextInputFormat;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import static org.apache.atlas.hive.hook.events.BaseHiveEvent.*;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyMapOf;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -287,6 +296,62 @@ public class HiveMetaStoreBridgeTest {
         }
     }
 
+    @Test
+    public void testBatchImportResumesFromCheckpoint() throws Exception {
+        setupDB(hiveClient, TEST_DB_NAME);
+        final List<Table> hiveTables = setupTables(hiveClient, TEST_DB_NAME, TEST_TABLE_NAME, TEST_TABLE_NAME + "_1", TEST_TABLE_NAME + "_2");
+
+        returnExistingDatabase(TEST_DB_NAME, atlasClientV2, CLUSTER_NAME);
+
+        IMetaStoreClient metaStoreClient = mock(IMetaStoreClient.class);
+        when(hiveClient.getMSC()).thenReturn(metaStoreClient);
+        when(metaStoreClient.getTableObjectsByName(anyString(), anyListOf(String.class))).thenAnswer(new Answer<List<org.apache.hadoop.hive.metastore.api.Table>>() {
+            @Override
+            public List<org.apache.hadoop.hive.metastore.api.Table> answer(InvocationOnMock invocation) {
+                List<String>                                      tableNames = (List<String>) invocation.getArguments()[1];
+                List<org.apache.hadoop.hive.metastore.api.Table> ret        = new ArrayList<>();
+
+                for (Table table : hiveTables) {
+                    if (tableNames.contains(table.getTableName())) {
+                        ret.add(table.getTTable());
+                    }
+                }
+
+                return ret;
+            }
+        });
+        when(atlasClientV2.createEntities(anyObject())).thenReturn(entityMutationResponse);
+
+        File checkpointFile = File.createTempFile("hive-import", ".checkpoint");
+
+        checkpointFile.delete();
+        checkpointFile.deleteOnExit();
+
+        try (ImportCheckpoint checkpoint = new ImportCheckpoint(checkpointFile)) {
+            HiveMetaStoreBridge bridge = new HiveMetaStoreBridge(CLUSTER_NAME, hiveClient, atlasClientV2, true, 2, 2);
+
+            bridge.setCheckpoint(checkpoint);
+            bridge.importHiveMetadata(null, null, true);
+        }
+
+        // 3 tables in batches of 2, without looking up existing entities
+        verify(atlasClientV2, times(2)).createEntities(anyObject());
+        verify(atlasClientV2, never()).getEntityByAttribute(eq(HiveDataTypes.HIVE_TABLE.getName()), anyMapOf(String.class, String.class));
+
+        try (ImportCheckpoint checkpoint = new ImportCheckpoint(checkpointFile)) {
+            Assert.assertEquals(checkpoint.getImportedCount(), 3);
+            Assert.assertTrue(checkpoint.isImported(HiveMetaStoreBridge.getTableQualifiedName(CLUSTER_NAME, TEST_DB_NAME, TEST_TABLE_NAME)));
+
+            HiveMetaStoreBridge bridge = new HiveMetaStoreBridge(CLUSTER_NAME, hiveClient, atlasClientV2, true, 2, 2);
+
+            bridge.setCheckpoint(checkpoint);
+            bridge.importHiveMetadata(null, null, true);
+        }
+
+        // tables recorded in the checkpoint are not imported again
+        verify(atlasClientV2, times(2)).createEntities(anyObject());
+    }
+
     private AtlasEntity getEntity(String typeName, String attr, String value) {
         return new AtlasEntity(typeName, attr, value);
     }
@@ -20,22 +20,29 @@ package org.apache.atlas.authorize.simple;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.authorize.*;
-import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.*;
+import org.apache.atlas.authorize.simple.CompiledAuthzPolicy.CompiledAdminPermission;
+import org.apache.atlas.authorize.simple.CompiledAuthzPolicy.CompiledEntityPermission;
+import org.apache.atlas.authorize.simple.CompiledAuthzPolicy.CompiledRelationshipPermission;
+import org.apache.atlas.authorize.simple.CompiledAuthzPolicy.CompiledTypePermission;
+import org.apache.atlas.authorize.simple.CompiledAuthzPolicy.UserPermissions;
 import org.apache.atlas.model.discovery.AtlasSearchResult;
 import org.apache.atlas.model.discovery.AtlasSearchResult.AtlasFullTextResult;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.utils.AtlasJson;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
-import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,7 +52,7 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
     private final static String WILDCARD_ASTERISK = "*";
 
-    private AtlasSimpleAuthzPolicy authzPolicy;
+    private volatile CompiledAuthzPolicy authzPolicy;
 
 
     public AtlasSimpleAuthorizer() {
@@ -60,7 +67,9 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
         try {
             inputStream = ApplicationProperties.getFileAsInputStream(ApplicationProperties.get(), "atlas.authorizer.simple.authz.policy.file", "atlas-simple-authz-policy.json");
 
-            authzPolicy = AtlasJson.fromJson(inputStream, AtlasSimpleAuthzPolicy.class);
+            AtlasSimpleAuthzPolicy policy = AtlasJson.fromJson(inputStream, AtlasSimpleAuthzPolicy.class);
+
+            authzPolicy = new CompiledAuthzPolicy(policy, AtlasConfiguration.AUTHORIZER_SIMPLE_USER_CACHE_SIZE.getInt(), AtlasConfiguration.AUTHORIZER_SIMPLE_DECISION_CACHE_SIZE.getInt());
         } catch (IOException | AtlasException e) {
             LOG.error("SimpleAtlasAuthorizer.init(): initialization failed", e);
 
@@ -93,22 +102,17 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
             LOG.debug("==> SimpleAtlasAuthorizer.isAccessAllowed({})", request);
         }
 
-        boolean ret = false;
-
-        Set<String> roles = getRoles(request.getUser(), request.getUserGroups());
+        boolean         ret         = false;
+        UserPermissions permissions = getUserPermissions(request.getUser(), request.getUserGroups());
 
-        for (String role : roles) {
-            List<AtlasAdminPermission> permissions = getAdminPermissionsForRole(role);
+        if (permissions != null) {
+            final String action = request.getAction() != null ? request.getAction().getType() : null;
 
-            if (permissions != null) {
-                final String action = request.getAction() != null ? request.getAction().getType() : null;
-
-                for (AtlasAdminPermission permission : permissions) {
-                    if (isMatch(action, permission.getPrivileges())) {
-                        ret = true;
+            for (CompiledAdminPermission permission : permissions.adminPermissions) {
+                if (permission.privileges.isMatch(action)) {
+                    ret = true;
 
-                        break;
-                    }
+                    break;
                 }
             }
         }
@@ -126,26 +130,21 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
             LOG.debug("==> SimpleAtlasAuthorizer.isAccessAllowed({})", request);
         }
 
-        boolean ret = false;
-
-        Set<String> roles = getRoles(request.getUser(), request.getUserGroups());
-
-        for (String role : roles) {
-            List<AtlasTypePermission> permissions = getTypePermissionsForRole(role);
+        boolean         ret         = false;
+        UserPermissions permissions = getUserPermissions(request.getUser(), request.getUserGroups());
 
-            if (permissions != null) {
-                final String action       = request.getAction() != null ? request.getAction().getType() : null;
-                final String typeCategory = request.getTypeDef() != null ? request.getTypeDef().getCategory().name() : null;
-                final String typeName     = request.getTypeDef() != null ? request.getTypeDef().getName() : null;
+        if (permissions != null) {
+            final String action       = request.getAction() != null ? request.getAction().getType() : null;
+            final String typeCategory = request.getTypeDef() != null ? request.getTypeDef().getCategory().name() : null;
+            final String typeName     = request.getTypeDef() != null ? request.getTypeDef().getName() : null;
 
-                for (AtlasTypePermission permission : permissions) {
-                    if (isMatch(action, permission.getPrivileges()) &&
-                        isMatch(typeCategory, permission.getTypeCategories()) &&
-                        isMatch(typeName, permission.getTypeNames())) {
-                        ret = true;
+            for (CompiledTypePermission permission : permissions.typePermissions) {
+                if (permission.privileges.isMatch(action) &&
+                    permission.typeCategories.isMatch(typeCategory) &&
+                    permission.typeNames.isMatch(typeName)) {
+                    ret = true;
 
-                        break;
-                    }
+                    break;
                 }
             }
         }
@@ -159,56 +158,52 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
 
     @Override
     public boolean isAccessAllowed(AtlasRelationshipAccessRequest request) throws AtlasAuthorizationException {
-        final Set<String> roles                       = getRoles(request.getUser(), request.getUserGroups());
-        final String      relationShipType            = request.getRelationshipType();
-        final Set<String> end1EntityTypeAndSuperTypes = request.getEnd1EntityTypeAndAllSuperTypes();
-        final Set<String> end1Classifications         = new HashSet<>(request.getEnd1EntityClassifications());
-        final String      end1EntityId                = request.getEnd1EntityId();
-        final Set<String> end2EntityTypeAndSuperTypes = request.getEnd2EntityTypeAndAllSuperTypes();
-        final Set<String> end2Classifications         = new HashSet<>(request.getEnd2EntityClassifications());
-        final String      end2EntityId                = request.getEnd2EntityId();
-        final String      action                      = request.getAction() != null ? request.getAction().getType() : null;
+        final UserPermissions permissions                 = getUserPermissions(request.getUser(), request.getUserGroups());
+        final String          relationShipType            = request.getRelationshipType();
+        final Set<String>     end1EntityTypeAndSuperTypes = request.getEnd1EntityTypeAndAllSuperTypes();
+        final Set<String>     end1Classifications         = new HashSet<>(request.getEnd1EntityClassifications());
+        final String          end1EntityId                = request.getEnd1EntityId();
+        final Set<String>     end2EntityTypeAndSuperTypes = request.getEnd2EntityTypeAndAllSuperTypes();
+        final Set<String>     end2Classifications         = new HashSet<>(request.getEnd2EntityClassifications());
+        final String          end2EntityId                = request.getEnd2EntityId();
+        final String          action                      = request.getAction() != null ? request.getAction().getType() : null;
 
         boolean hasEnd1EntityAccess = false;
         boolean hasEnd2EntityAccess = false;
 
-        for (String role : roles) {
-            final List<AtlasRelationshipPermission> permissions = getRelationshipPermissionsForRole(role);
-
-            if (permissions == null) {
-                continue;
-            }
-
-            for (AtlasRelationshipPermission permission : permissions) {
-                if (isMatch(relationShipType, permission.getRelationshipTypes()) && isMatch(action, permission.getPrivileges())) {
-                    //End1 permission check
-                    if (!hasEnd1EntityAccess) {
-                         if (isMatchAny(end1EntityTypeAndSuperTypes, permission.getEnd1EntityType()) && isMatch(end1EntityId, permission.getEnd1EntityId())) {
-                             for (Iterator<String> iter = end1Classifications.iterator(); iter.hasNext();) {
-                                 String entityClassification = iter.next();
+        if (permissions == null) {
+            return false;
+        }
 
-                                 if (isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification), permission.getEnd1EntityClassification())) {
-                                     iter.remove();
-                                 }
-                             }
+        for (CompiledRelationshipPermission permission : permissions.relationshipPermissions) {
+            if (permission.relationshipTypes.isMatch(relationShipType) && permission.privileges.isMatch(action)) {
+                //End1 permission check
+                if (!hasEnd1EntityAccess) {
+                    if (permission.end1EntityType.isMatchAny(end1EntityTypeAndSuperTypes) && permission.end1EntityId.isMatch(end1EntityId)) {
+                        for (Iterator<String> iter = end1Classifications.iterator(); iter.hasNext();) {
+                            String entityClassification = iter.next();
 
-                             hasEnd1EntityAccess = CollectionUtils.isEmpty(end1Classifications);
+                            if (permission.end1EntityClassification.isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification))) {
+                                iter.remove();
+                            }
                         }
+
+                        hasEnd1EntityAccess = CollectionUtils.isEmpty(end1Classifications);
                     }
+                }
 
-                    //End2 permission chech
-                    if (!hasEnd2EntityAccess) {
-                        if (isMatchAny(end2EntityTypeAndSuperTypes, permission.getEnd2EntityType()) && isMatch(end2EntityId, permission.getEnd2EntityId())) {
-                            for (Iterator<String> iter = end2Classifications.iterator(); iter.hasNext();) {
-                                String entityClassification = iter.next();
+                //End2 permission chech
+                if (!hasEnd2EntityAccess) {
+                    if (permission.end2EntityType.isMatchAny(end2EntityTypeAndSuperTypes) && permission.end2EntityId.isMatch(end2EntityId)) {
+                        for (Iterator<String> iter = end2Classifications.iterator(); iter.hasNext();) {
+                            String entityClassification = iter.next();
 
-                                if (isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification), permission.getEnd2EntityClassification())) {
-                                    iter.remove();
-                                }
+                            if (permission.end2EntityClassification.isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification))) {
+                                iter.remove();
                             }
-
-                            hasEnd2EntityAccess = CollectionUtils.isEmpty(end2Classifications);
                         }
+
+                        hasEnd2EntityAccess = CollectionUtils.isEmpty(end2Classifications);
                     }
                 }
             }
@@ -223,54 +218,71 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
             LOG.debug("==> SimpleAtlasAuthorizer.isAccessAllowed({})", request);
         }
 
-        final String      action         = request.getAction() != null ? request.getAction().getType() : null;
-        final Set<String> entityTypes    = request.getEntityTypeAndAllSuperTypes();
-        final String      entityId       = request.getEntityId();
-        final String      classification = request.getClassification() != null ? request.getClassification().getTypeName() : null;
-        final String      attribute      = request.getAttributeName();
-        final Set<String> entClsToAuthz  = new HashSet<>(request.getEntityClassifications());
-        final Set<String> roles          = getRoles(request.getUser(), request.getUserGroups());
+        final String          action         = request.getAction() != null ? request.getAction().getType() : null;
+        final Set<String>     entityTypes    = request.getEntityTypeAndAllSuperTypes();
+        final String          entityId       = request.getEntityId();
+        final String          classification = request.getClassification() != null ? request.getClassification().getTypeName() : null;
+        final String          attribute      = request.getAttributeName();
+        final UserPermissions permissions    = getUserPermissions(request.getUser(), request.getUserGroups());
+
+        if (permissions == null) {
+            return false;
+        }
+
+        final Map<String, Set<String>> entClsToAuthz = new HashMap<>();
+
+        for (String entityClassification : request.getEntityClassifications()) {
+            entClsToAuthz.put(entityClassification, request.getClassificationTypeAndAllSuperTypes(entityClassification));
+        }
+
+        final List<Object> decisionKey = Arrays.asList(permissions.roles, action, entityTypes, entityId, classification, attribute, new HashMap<>(entClsToAuthz));
+        final Boolean      decision    = getDecision(decisionKey);
+
+        if (decision != null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("<== SimpleAtlasAuthorizer.isAccessAllowed({}): {} (cached)", request, decision);
+            }
+
+            return decision;
+        }
+
         boolean hasEntityAccess          = false;
         boolean hasClassificationsAccess = false;
 
-        for (String role : roles) {
-            List<AtlasEntityPermission> permissions = getEntityPermissionsForRole(role);
-
-            if (permissions != null) {
-                for (AtlasEntityPermission permission : permissions) {
-                    // match entity-type/entity-id/attribute
-                    if (isMatchAny(entityTypes, permission.getEntityTypes()) && isMatch(entityId, permission.getEntityIds()) && isMatch(attribute, permission.getAttributes())) {
-                        // match permission/classification
-                        if (!hasEntityAccess) {
-                            if (isMatch(action, permission.getPrivileges()) && isMatch(classification, permission.getClassifications())) {
-                                hasEntityAccess = true;
-                            }
-                        }
+        for (CompiledEntityPermission permission : permissions.entityPermissions) {
+            // match entity-type/entity-id/attribute
+            if (permission.entityTypes.isMatchAny(entityTypes) && permission.entityIds.isMatch(entityId) && permission.attributes.isMatch(attribute)) {
+                // match permission/classification
+                if (!hasEntityAccess) {
+                    if (permission.privileges.isMatch(action) && permission.classifications.isMatch(classification)) {
+                        hasEntityAccess = true;
+                    }
+                }
 
-                        // match entity-classifications
-                        for (Iterator<String> iter = entClsToAuthz.iterator(); iter.hasNext();) {
-                            String entityClassification = iter.next();
+                // match entity-classifications
+                for (Iterator<Set<String>> iter = entClsToAuthz.values().iterator(); iter.hasNext();) {
+                    Set<String> entityClassificationAndSuperTypes = iter.next();
 
-                            if (isMatchAny(request.getClassificationTypeAndAllSuperTypes(entityClassification), permission.getClassifications())) {
-                                iter.remove();
-                            }
-                        }
+                    if (permission.classifications.isMatchAny(entityClassificationAndSuperTypes)) {
+                        iter.remove();
+                    }
+                }
 
-                        hasClassificationsAccess = CollectionUtils.isEmpty(entClsToAuthz);
+                hasClassificationsAccess = MapUtils.isEmpty(entClsToAuthz);
 
-                        if (hasEntityAccess && hasClassificationsAccess) {
-                            break;
-                        }
-                    }
+                if (hasEntityAccess && hasClassificationsAccess) {
+                    break;
                 }
             }
         }
 
         boolean ret = hasEntityAccess && hasClassificationsAccess;
 
+        setDecision(decisionKey, ret);
+
         if (LOG.isDebugEnabled()) {
             if (!ret) {
-                LOG.debug("hasEntityAccess={}; hasClassificationsAccess={}, classificationsWithNoAccess={}", hasEntityAccess, hasClassificationsAccess, entClsToAuthz);
+                LOG.debug("hasEntityAccess={}; hasClassificationsAccess={}, classificationsWithNoAccess={}", hasEntityAccess, hasClassificationsAccess, entClsToAuthz.keySet());
             }
 
             LOG.debug("<== SimpleAtlasAuthorizer.isAccessAllowed({}): {}", request, ret);
@@ -312,139 +324,29 @@ public final class AtlasSimpleAuthorizer implements AtlasAuthorizer {
         }
     }
 
-    private Set<String> getRoles(String userName, Set<String> userGroups) {
-        Set<String> ret = new HashSet<>();
-
-        if (authzPolicy != null) {
-            if (userName != null && authzPolicy.getUserRoles() != null) {
-                List<String> userRoles = authzPolicy.getUserRoles().get(userName);
-
-                if (userRoles != null) {
-                    ret.addAll(userRoles);
-                }
-            }
-
-            if (userGroups != null && authzPolicy.getGroupRoles() != null) {
-                for (String groupName : userGroups) {
-                    List<String> groupRoles = authzPolicy.getGroupRoles().get(groupName);
-
-                    if (groupRoles != null) {
-                        ret.addAll(groupRoles);
-                    }
-                }
-            }
-        }
+    private UserPermissions getUserPermissions(String userName, Set<String> userGroups) {
+        CompiledAuthzPolicy policy = authzPolicy;
+        UserPermissions     ret    = policy != null ? policy.getUserPermissions(userName, userGroups) : null;
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug("<== getRoles({}, {}): {}", userName, userGroups, ret);
-        }
-
-        return ret;
-    }
-
-    private List<AtlasAdminPermission> getAdminPermissionsForRole(String roleName) {
-        List<AtlasAdminPermission> ret = null;
-
-        if (authzPolicy != null && roleName != null) {
-            AtlasAuthzRole role = authzPolicy.getRoles().get(roleName);
-
-            ret = role != null ? role.getAdminPermissions() : null;
-        }
-
-        return ret;
-    }
-
-    private List<AtlasTypePermission> getTypePermissionsForRole(String roleName) {
-        List<AtlasTypePermission> ret = null;
-
-        if (authzPolicy != null && roleName != null) {
-            AtlasAuthzRole role = authzPolicy.getRoles().get(roleName);
-
-            ret = role != null ? role.getTypePermissions() : null;
-        }
-
-        return ret;
-    }
-
-    private List<AtlasEntityPermission> getEntityPermissionsForRole(String roleName) {
-        List<AtlasEntityPermission> ret = null;
-
-        if (authzPolicy != null && roleName != null) {
-            AtlasAuthzRole role = authzPolicy.getRoles().get(roleName);
-
-            ret = role != null ? role.getEntityPermissions() : null;
-        }
-
-        return ret;
-    }
-
-
-    private List<AtlasRelationshipPermission> getRelationshipPermissionsForRole(String roleName) {
-        List<AtlasRelationshipPermission> ret = null;
-
-        if (authzPolicy != null && roleName != null) {
-            AtlasAuthzRole role = authzPolicy.getRoles().get(roleName);
-
-            ret = role != null ? role.getRelationshipPermissions() : null;
-        }
-
-        return ret;
-    }
-
-    private boolean isMatch(String value, List<String> patterns) {
-        boolean ret = false;
-
-        if (value == null) {
-            ret = true;
-        } if (CollectionUtils.isNotEmpty(patterns)) {
-            for (String pattern : patterns) {
-                if (isMatch(value, pattern)) {
-                    ret = true;
-
-                    break;
-                }
-            }
-        }
-
-        if (!ret && LOG.isDebugEnabled()) {
-            LOG.debug("<== isMatch({}, {}): {}", value, patterns, ret);
+            LOG.debug("<== getUserPermissions({}, {}): roles={}", userName, userGroups, ret != null ? ret.roles : null);
         }
 
         return ret;
     }
 
-    private boolean isMatchAny(Set<String> values, List<String> patterns) {
-        boolean ret = false;
-
-        if (CollectionUtils.isEmpty(values)) {
-            ret = true;
-        }if (CollectionUtils.isNotEmpty(patterns)) {
-            for (String value : values) {
-                if (isMatch(value, patterns)) {
-                    ret = true;
-
-                    break;
-                }
-            }
-        }
-
-        if (!ret && LOG.isDebugEnabled()) {
-            LOG.debug("<== isMatchAny({}, {}): {}", values, patterns, ret);
-        }
+    private Boolean getDecision(List<Object> decisionKey) {
+        CompiledAuthzPolicy policy = authzPolicy;
 
-        return ret;
+        return policy != null ? policy.getDecision(decisionKey) : null;
     }
 
-    private boolean isMatch(String value, String pattern) {
-        boolean ret;
+    private void setDecision(List<Object> decisionKey, boolean decision) {
+        CompiledAuthzPolicy policy = authzPolicy;
 
-        if (value == null) {
-            ret = true;
-        } else {
-            ret = StringUtils.equalsIgnoreCase(value, pattern) || value.matches(pattern);
+        if (policy != null) {
+            policy.setDecision(decisionKey, decision);
         }
-
-        return ret;
     }
 
     private void checkAccessAndScrub(AtlasEntityHeader entity, AtlasSearchResultScrubRequest request) throws AtlasAuthorizationException {
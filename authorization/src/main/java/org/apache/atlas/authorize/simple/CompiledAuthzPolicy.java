@@ -0,0 +1,252 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.authorize.simple;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasAdminPermission;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasAuthzRole;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasEntityPermission;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasRelationshipPermission;
+import org.apache.atlas.authorize.simple.AtlasSimpleAuthzPolicy.AtlasTypePermission;
+import org.apache.commons.collections.MapUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * AtlasSimpleAuthzPolicy with its patterns compiled, along with caches of the permissions of users and of access
+ * decisions. The caches are owned by the policy, hence are discarded along with it when the policy is reloaded.
+ */
+final class CompiledAuthzPolicy {
+    private final Map<String, List<String>>    userRoles;
+    private final Map<String, List<String>>    groupRoles;
+    private final Map<String, CompiledRole>     roles = new HashMap<>();
+    private final Cache<UserKey, UserPermissions> userPermissionsCache;
+    private final Cache<List<Object>, Boolean>    decisionCache;
+
+    CompiledAuthzPolicy(AtlasSimpleAuthzPolicy policy, int userCacheSize, int decisionCacheSize) {
+        this.userRoles            = policy.getUserRoles() != null ? policy.getUserRoles() : Collections.emptyMap();
+        this.groupRoles           = policy.getGroupRoles() != null ? policy.getGroupRoles() : Collections.emptyMap();
+        this.userPermissionsCache = CacheBuilder.newBuilder().maximumSize(userCacheSize).build();
+        this.decisionCache        = CacheBuilder.newBuilder().maximumSize(decisionCacheSize).build();
+
+        if (MapUtils.isNotEmpty(policy.getRoles())) {
+            for (Map.Entry<String, AtlasAuthzRole> entry : policy.getRoles().entrySet()) {
+                if (entry.getValue() != null) {
+                    roles.put(entry.getKey(), new CompiledRole(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    UserPermissions getUserPermissions(String userName, Set<String> userGroups) {
+        UserPermissions ret = userPermissionsCache.getIfPresent(new UserKey(userName, userGroups));
+
+        if (ret == null) {
+            Set<String> userGroupsCopy = userGroups != null ? new HashSet<>(userGroups) : null;
+
+            ret = new UserPermissions(getRoles(userName, userGroupsCopy));
+
+            userPermissionsCache.put(new UserKey(userName, userGroupsCopy), ret);
+        }
+
+        return ret;
+    }
+
+    Boolean getDecision(List<Object> key) {
+        return decisionCache.getIfPresent(key);
+    }
+
+    void setDecision(List<Object> key, boolean decision) {
+        decisionCache.put(key, decision);
+    }
+
+    private Set<String> getRoles(String userName, Set<String> userGroups) {
+        Set<String> ret = new LinkedHashSet<>();
+
+        if (userName != null) {
+            List<String> roles = userRoles.get(userName);
+
+            if (roles != null) {
+                ret.addAll(roles);
+            }
+        }
+
+        if (userGroups != null) {
+            for (String groupName : userGroups) {
+                List<String> roles = groupRoles.get(groupName);
+
+                if (roles != null) {
+                    ret.addAll(roles);
+                }
+            }
+        }
+
+        return Collections.unmodifiableSet(ret);
+    }
+
+    /**
+     * Roles of a user, and the permissions of these roles.
+     */
+    final class UserPermissions {
+        final Set<String>                          roles;
+        final List<CompiledAdminPermission>        adminPermissions        = new ArrayList<>();
+        final List<CompiledTypePermission>         typePermissions         = new ArrayList<>();
+        final List<CompiledEntityPermission>       entityPermissions       = new ArrayList<>();
+        final List<CompiledRelationshipPermission> relationshipPermissions = new ArrayList<>();
+
+        private UserPermissions(Set<String> roles) {
+            this.roles = roles;
+
+            for (String roleName : roles) {
+                CompiledRole role = CompiledAuthzPolicy.this.roles.get(roleName);
+
+                if (role != null) {
+                    adminPermissions.addAll(role.adminPermissions);
+                    typePermissions.addAll(role.typePermissions);
+                    entityPermissions.addAll(role.entityPermissions);
+                    relationshipPermissions.addAll(role.relationshipPermissions);
+                }
+            }
+        }
+    }
+
+    private static final class CompiledRole {
+        final List<CompiledAdminPermission>        adminPermissions        = new ArrayList<>();
+        final List<CompiledTypePermission>         typePermissions         = new ArrayList<>();
+        final List<CompiledEntityPermission>       entityPermissions       = new ArrayList<>();
+        final List<CompiledRelationshipPermission> relationshipPermissions = new ArrayList<>();
+
+        CompiledRole(AtlasAuthzRole role) {
+            if (role.getAdminPermissions() != null) {
+                for (AtlasAdminPermission permission : role.getAdminPermissions()) {
+                    adminPermissions.add(new CompiledAdminPermission(permission));
+                }
+            }
+
+            if (role.getTypePermissions() != null) {
+                for (AtlasTypePermission permission : role.getTypePermissions()) {
+                    typePermissions.add(new CompiledTypePermission(permission));
+                }
+            }
+
+            if (role.getEntityPermissions() != null) {
+                for (AtlasEntityPermission permission : role.getEntityPermissions()) {
+                    entityPermissions.add(new CompiledEntityPermission(permission));
+                }
+            }
+
+            if (role.getRelationshipPermissions() != null) {
+                for (AtlasRelationshipPermission permission : role.getRelationshipPermissions()) {
+                    relationshipPermissions.add(new CompiledRelationshipPermission(permission));
+                }
+            }
+        }
+    }
+
+    static final class CompiledAdminPermission {
+        final PatternMatcher privileges;
+
+        CompiledAdminPermission(AtlasAdminPermission permission) {
+            this.privileges = PatternMatcher.compile(permission.getPrivileges());
+        }
+    }
+
+    static final class CompiledTypePermission {
+        final PatternMatcher privileges;
+        final PatternMatcher typeCategories;
+        final PatternMatcher typeNames;
+
+        CompiledTypePermission(AtlasTypePermission permission) {
+            this.privileges     = PatternMatcher.compile(permission.getPrivileges());
+            this.typeCategories = PatternMatcher.compile(permission.getTypeCategories());
+            this.typeNames      = PatternMatcher.compile(permission.getTypeNames());
+        }
+    }
+
+    static final class CompiledEntityPermission {
+        final PatternMatcher privileges;
+        final PatternMatcher entityTypes;
+        final PatternMatcher entityIds;
+        final PatternMatcher classifications;
+        final PatternMatcher attributes;
+
+        CompiledEntityPermission(AtlasEntityPermission permission) {
+            this.privileges      = PatternMatcher.compile(permission.getPrivileges());
+            this.entityTypes     = PatternMatcher.compile(permission.getEntityTypes());
+            this.entityIds       = PatternMatcher.compile(permission.getEntityIds());
+            this.classifications = PatternMatcher.compile(permission.getClassifications());
+            this.attributes      = PatternMatcher.compile(permission.getAttributes());
+        }
+    }
+
+    static final class CompiledRelationshipPermission {
+        final PatternMatcher privileges;
+        final PatternMatcher relationshipTypes;
+        final PatternMatcher end1EntityType;
+        final PatternMatcher end1EntityId;
+        final PatternMatcher end1EntityClassification;
+        final PatternMatcher end2EntityType;
+        final PatternMatcher end2EntityId;
+        final PatternMatcher end2EntityClassification;
+
+        CompiledRelationshipPermission(AtlasRelationshipPermission permission) {
+            this.privileges               = PatternMatcher.compile(permission.getPrivileges());
+            this.relationshipTypes        = PatternMatcher.compile(permission.getRelationshipTypes());
+            this.end1EntityType           = PatternMatcher.compile(permission.getEnd1EntityType());
+            this.end1EntityId             = PatternMatcher.compile(permission.getEnd1EntityId());
+            this.end1EntityClassification = PatternMatcher.compile(permission.getEnd1EntityClassification());
+            this.end2EntityType           = PatternMatcher.compile(permission.getEnd2EntityType());
+            this.end2EntityId             = PatternMatcher.compile(permission.getEnd2EntityId());
+            this.end2EntityClassification = PatternMatcher.compile(permission.getEnd2EntityClassification());
+        }
+    }
+
+    private static final class UserKey {
+        private final String      userName;
+        private final Set<String> userGroups;
+
+        UserKey(String userName, Set<String> userGroups) {
+            this.userName   = userName;
+            this.userGroups = userGroups;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) { return true; }
+            if (o == null || getClass() != o.getClass()) { return false; }
+            UserKey that = (UserKey) o;
+
+            return Objects.equals(userName, that.userName) && Objects.equals(userGroups, that.userGroups);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userName, userGroups);
+        }
+    }
+}
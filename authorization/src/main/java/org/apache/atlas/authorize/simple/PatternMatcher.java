@@ -0,0 +1,191 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.authorize.simple;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Patterns of a policy, compiled once at load. A value matches a pattern when it is equal to the pattern ignoring case,
+ * or when it matches the pattern as a regular expression. Literals are looked up in a hash set, patterns of the form
+ * "literal.*" in a prefix trie; only the remaining patterns are evaluated as regular expressions.
+ */
+final class PatternMatcher {
+    private static final Logger LOG = LoggerFactory.getLogger(PatternMatcher.class);
+
+    private static final String         REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+    private static final String         ANY_SUFFIX       = ".*";
+    private static final PatternMatcher EMPTY            = new PatternMatcher(null);
+
+    private final List<String>  patterns;
+    private final Set<String>   literals  = new HashSet<>();
+    private final PrefixTrie    prefixes  = new PrefixTrie();
+    private final List<Pattern> regexes   = new ArrayList<>();
+
+    private PatternMatcher(List<String> patterns) {
+        this.patterns = patterns;
+
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (pattern == null) {
+                    continue;
+                }
+
+                literals.add(pattern.toLowerCase(Locale.ROOT));
+
+                if (!hasRegexMetaChars(pattern)) { // regex match is same as exact match, hence covered by literals
+                    continue;
+                }
+
+                String prefix = pattern.endsWith(ANY_SUFFIX) ? pattern.substring(0, pattern.length() - ANY_SUFFIX.length()) : null;
+
+                if (prefix != null && !hasRegexMetaChars(prefix)) {
+                    prefixes.add(prefix);
+                } else {
+                    try {
+                        regexes.add(Pattern.compile(pattern));
+                    } catch (PatternSyntaxException excp) {
+                        LOG.warn("invalid pattern {} in authorization policy; only exact matches will be allowed", pattern, excp);
+                    }
+                }
+            }
+        }
+    }
+
+    static PatternMatcher compile(List<String> patterns) {
+        return CollectionUtils.isEmpty(patterns) ? EMPTY : new PatternMatcher(patterns);
+    }
+
+    /**
+     * @return true if the value is null, or it matches one of the patterns
+     */
+    boolean isMatch(String value) {
+        final boolean ret;
+
+        if (value == null) {
+            ret = true;
+        } else if (patterns == null) {
+            ret = false;
+        } else {
+            ret = literals.contains(value.toLowerCase(Locale.ROOT)) || prefixes.matches(value) || matchesRegex(value);
+        }
+
+        if (!ret && LOG.isDebugEnabled()) {
+            LOG.debug("<== isMatch({}, {}): {}", value, patterns, ret);
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return true if values is empty, or one of the values matches one of the patterns
+     */
+    boolean isMatchAny(Set<String> values) {
+        boolean ret = CollectionUtils.isEmpty(values);
+
+        if (!ret && patterns != null) {
+            for (String value : values) {
+                if (isMatch(value)) {
+                    ret = true;
+
+                    break;
+                }
+            }
+        }
+
+        if (!ret && LOG.isDebugEnabled()) {
+            LOG.debug("<== isMatchAny({}, {}): {}", values, patterns, ret);
+        }
+
+        return ret;
+    }
+
+    private boolean matchesRegex(String value) {
+        for (Pattern regex : regexes) {
+            if (regex.matcher(value).matches()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean hasRegexMetaChars(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            if (REGEX_META_CHARS.indexOf(str.charAt(i)) != -1) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    // '.' in the regex "prefix.*" doesn't match line terminators
+    private static boolean hasLineTerminator(String str, int fromIndex) {
+        for (int i = fromIndex; i < str.length(); i++) {
+            char c = str.charAt(i);
+
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static class PrefixTrie {
+        private final Map<Character, PrefixTrie> children = new HashMap<>();
+        private       boolean                    isPrefixEnd;
+
+        void add(String prefix) {
+            PrefixTrie node = this;
+
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new PrefixTrie());
+            }
+
+            node.isPrefixEnd = true;
+        }
+
+        boolean matches(String value) {
+            PrefixTrie node = this;
+
+            for (int i = 0; node != null; i++) {
+                if (node.isPrefixEnd && !hasLineTerminator(value, i)) {
+                    return true;
+                }
+
+                node = i < value.length() ? node.children.get(value.charAt(i)) : null;
+            }
+
+            return false;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.atlas.authorize.simple;
+
+import org.apache.commons.lang.StringUtils;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class PatternMatcherTest {
+    private static final List<String> PATTERNS = Arrays.asList("hive_table", "hdfs_.*", "kafka_topic@cl[0-9]+", ".*@prod", "(invalid");
+    private static final List<String> VALUES   = Arrays.asList("hive_table", "HIVE_TABLE", "hive_table_ddl", "hdfs_path", "HDFS_path", "hdfs_",
+                                                               "hdfs_a\nb", "kafka_topic@cl1", "kafka_topic@clx", "db.tbl@prod", "db.tbl@dev",
+                                                               "(invalid", "(INVALID", "");
+
+    @Test
+    public void matchesAsRegexOrIgnoringCase() {
+        PatternMatcher matcher = PatternMatcher.compile(PATTERNS);
+
+        for (String value : VALUES) {
+            assertEquals(matcher.isMatch(value), isMatch(value, PATTERNS), "value=" + value);
+        }
+    }
+
+    @Test
+    public void matchesAll() {
+        PatternMatcher matcher = PatternMatcher.compile(Collections.singletonList(".*"));
+
+        for (String value : VALUES) {
+            assertEquals(matcher.isMatch(value), isMatch(value, Collections.singletonList(".*")), "value=" + value);
+        }
+    }
+
+    @Test
+    public void nullAndEmpty() {
+        PatternMatcher empty   = PatternMatcher.compile(null);
+        PatternMatcher matcher = PatternMatcher.compile(PATTERNS);
+
+        assertTrue(empty.isMatch(null));
+        assertFalse(empty.isMatch("hive_table"));
+        assertTrue(empty.isMatchAny(Collections.emptySet()));
+        assertFalse(empty.isMatchAny(Collections.singleton("hive_table")));
+
+        assertTrue(matcher.isMatchAny(new HashSet<>(Arrays.asList("DataSet", "hdfs_path"))));
+        assertFalse(matcher.isMatchAny(new HashSet<>(Arrays.asList("DataSet", "Referenceable"))));
+    }
+
+    // matching as done before patterns were compiled
+    private static boolean isMatch(String value, List<String> patterns) {
+        for (String pattern : patterns) {
+            try {
+                if (StringUtils.equalsIgnoreCase(value, pattern) || value.matches(pattern)) {
+                    return true;
+                }
+            } catch (RuntimeException excp) {
+                // invalid pattern
+            }
+        }
+
+        return false;
+    }
+}
@@ -165,6 +165,41 @@ public final class Constants {
     public static final String ATTRIBUTE_INDEX_PROPERTY_KEY                   = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "index");
     public static final String ATTRIBUTE_KEY_PROPERTY_KEY                     = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "key");
 
+    /*
+     * background task vertex properties
+     */
+    public static final String TASK_TYPE_NAME           = INTERNAL_PROPERTY_KEY_PREFIX + "AtlasTaskDef";
+    public static final String TASK_GUID                = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task_guid");
+    public static final String TASK_TYPE_PROPERTY_KEY   = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task_type");
+    public static final String TASK_STATUS              = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task_status");
+    public static final String TASK_CREATED_BY          = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task_createdBy");
+    public static final String TASK_CREATED_TIME        = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task_createdTime");
+    public static final String TASK_UPDATED_TIME        = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task_updatedTime");
+    public static final String TASK_START_TIME          = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task_startTime");
+    public static final String TASK_END_TIME            = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task_endTime");
+    public static final String TASK_PARAMETERS          = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task_parameters");
+    public static final String TASK_ATTEMPT_COUNT       = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task_attemptCount");
+    public static final String TASK_ERROR_MESSAGE       = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "task_errorMessage");
+
+    /*
+     * entity count metrics vertex properties
+     */
+    public static final String ENTITY_COUNTS_TYPE_NAME    = INTERNAL_PROPERTY_KEY_PREFIX + "AtlasEntityCounts";
+    public static final String ENTITY_COUNTS_PROPERTY_KEY = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "entityCounts");
+    public static final String ENTITY_COUNTS_SAVED_TIME   = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "entityCounts_savedTime");
+
+    /*
+     * type definitions version vertex properties
+     */
+    public static final String TYPEDEF_VERSION_TYPE_NAME    = INTERNAL_PROPERTY_KEY_PREFIX + "AtlasTypeDefVersion";
+    public static final String TYPEDEF_VERSION_PROPERTY_KEY = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "typeDefVersion");
+    public static final String TYPEDEF_VERSION_UPDATE_TIME  = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "typeDefVersion_updateTime");
+    public static final String TYPEDEF_SNAPSHOT             = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "typeDefSnapshot");
+    public static final String TYPEDEF_SNAPSHOT_VERSION     = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "typeDefSnapshot_version");
+    public static final String TYPEDEF_SNAPSHOT_CHECKSUM    = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "typeDefSnapshot_checksum");
+    public static final String TYPEDEF_MODELS_CHECKSUM      = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "typeDefModels_checksum");
+    public static final String TYPEDEF_MODELS_VERSION       = encodePropertyKey(INTERNAL_PROPERTY_KEY_PREFIX + "typeDefModels_version");
+
     public static final String VERTEX_ID_IN_IMPORT_KEY = "__vIdInImport";
     public static final String EDGE_ID_IN_IMPORT_KEY   = "__eIdInImport";
 
@@ -25,6 +25,7 @@ import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -135,6 +136,15 @@ public interface AtlasGraph<V, E> {
      */
     Iterable<AtlasVertex<V, E>> getVertices(String key, Object value);
 
+    /**
+     * Reads the properties of the given vertices in a single batch, instead of a read per vertex.
+     * Values of multi-valued properties are returned as a list.
+     *
+     * @param vertices
+     * @return properties of the vertices, keyed by vertex id
+     */
+    Map<Object, Map<String, Object>> getVertexProperties(Collection<AtlasVertex<V, E>> vertices);
+
     /**
      * Creates a graph query.
      *
@@ -288,6 +298,13 @@ public interface AtlasGraph<V, E> {
      */
     void releaseGremlinScriptEngine(ScriptEngine scriptEngine);
 
+    /**
+     * Get statistics of the script engines and compiled scripts cache, like cache hits/misses and compile time.
+     *
+     * @return map of metric name to value
+     */
+    Map<String, Object> getGremlinScriptEngineMetrics();
+
     /**
      * Executes a Gremlin script, returns an object with the result.
      *
@@ -315,6 +332,23 @@ public interface AtlasGraph<V, E> {
      */
     Object executeGremlinScript(ScriptEngine scriptEngine, Map<? extends  String, ? extends  Object> bindings, String query, boolean isPath) throws ScriptException;
 
+    /**
+     * Executes a Gremlin script, like executeGremlinScript(scriptEngine, bindings, query, isPath); when cacheScript is
+     * true, the compiled script is cached and reused for later executions of the same query text.
+     * Only scripts that pass all variable values via bindings should be cached - i.e. the query text is a fixed template.
+     *
+     * @param scriptEngine: ScriptEngine initialized by consumer.
+     * @param bindings: Update bindings with Graph instance for ScriptEngine that is initilized externally.
+     * @param query
+     * @param isPath whether this is a path query
+     * @param cacheScript whether the compiled script is to be cached
+     *
+     * @return the result from executing the script
+     *
+     * @throws ScriptException
+     */
+    Object executeGremlinScript(ScriptEngine scriptEngine, Map<? extends  String, ? extends  Object> bindings, String query, boolean isPath, boolean cacheScript) throws ScriptException;
+
 
     /**
      * Convenience method to check whether the given property is
@@ -324,4 +358,11 @@ public interface AtlasGraph<V, E> {
      * @return
      */
     boolean isMultiProperty(String name);
+
+    /**
+     * Checks whether index queries can be sorted by the index backend, see AtlasIndexQuery.orderBy().
+     *
+     * @return true if results of index queries are sorted as requested
+     */
+    boolean isIndexSortSupported();
 }
@@ -43,6 +43,14 @@ public interface AtlasIndexQuery<V, E> {
      */
     Iterator<Result<V, E>> vertices(int offset, int limit);
 
+    /**
+     * Orders the query results on the given property; the ordering is done by the index, ahead of offset and limit.
+     * @param propertyKey property to sort on; the property must be indexed
+     * @param sortOrder ASC or DESC
+     * @return
+     */
+    AtlasIndexQuery<V, E> orderBy(String propertyKey, AtlasGraphQuery.SortOrder sortOrder);
+
     /**
      * Gets the total count of query results
      * @return
@@ -39,8 +39,6 @@ import org.apache.atlas.repository.graphdb.utils.IteratorToIterableAdapter;
 import org.apache.atlas.type.AtlasType;
 import org.apache.commons.configuration.Configuration;
 import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
-import org.apache.tinkerpop.gremlin.jsr223.DefaultImportCustomizer;
-import org.apache.tinkerpop.gremlin.process.traversal.P;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversal;
 import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
 import org.apache.tinkerpop.gremlin.process.traversal.step.map.GraphStep;
@@ -55,23 +53,33 @@ import org.janusgraph.core.Cardinality;
 import org.janusgraph.core.JanusGraph;
 import org.janusgraph.core.JanusGraphFactory;
 import org.janusgraph.core.JanusGraphIndexQuery;
+import org.janusgraph.core.JanusGraphVertex;
+import org.janusgraph.core.JanusGraphVertexProperty;
 import org.janusgraph.core.PropertyKey;
 import org.janusgraph.core.SchemaViolationException;
 import org.janusgraph.core.schema.JanusGraphIndex;
 import org.janusgraph.core.schema.JanusGraphManagement;
+import org.janusgraph.core.schema.Parameter;
 import org.janusgraph.diskstorage.BackendException;
+import org.janusgraph.graphdb.database.StandardJanusGraph;
+import org.janusgraph.graphdb.types.ParameterType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.script.Bindings;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -82,13 +90,20 @@ import static org.apache.atlas.repository.Constants.INDEX_SEARCH_VERTEX_PREFIX_P
  * Janus implementation of AtlasGraph.
  */
 public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusEdge> {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasJanusGraph.class);
 
     private static Configuration APPLICATION_PROPERTIES = null;
 
     private final ConvertGremlinValueFunction GREMLIN_VALUE_CONVERSION_FUNCTION = new ConvertGremlinValueFunction();
     private final Set<String>                 multiProperties                   = new HashSet<>();
+    private final Map<String, String>         indexFieldNames                   = new ConcurrentHashMap<>();
+    private final AtlasJanusGremlinScriptEnginePool scriptEnginePool;
 
     public AtlasJanusGraph() {
+        initApplicationProperties();
+
+        scriptEnginePool = new AtlasJanusGremlinScriptEnginePool();
+
         //determine multi-properties once at startup
         JanusGraphManagement mgmt = null;
 
@@ -208,7 +223,7 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
         String               prefix = getIndexQueryPrefix();
         JanusGraphIndexQuery query  = getGraph().indexQuery(fulltextIndex, graphQuery).setElementIdentifier(prefix).offset(offset);
 
-        return new AtlasJanusIndexQuery(this, query);
+        return new AtlasJanusIndexQuery(this, fulltextIndex, query);
     }
 
     @Override
@@ -218,6 +233,8 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
 
     @Override
     public void shutdown() {
+        scriptEnginePool.close();
+
         getGraph().close();
     }
 
@@ -248,6 +265,40 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
         return query.vertices();
     }
 
+    @Override
+    public Map<Object, Map<String, Object>> getVertexProperties(Collection<AtlasVertex<AtlasJanusVertex, AtlasJanusEdge>> vertices) {
+        Map<Object, Map<String, Object>> ret           = new HashMap<>();
+        List<JanusGraphVertex>           janusVertices = new ArrayList<>(vertices.size());
+
+        for (AtlasVertex<AtlasJanusVertex, AtlasJanusEdge> vertex : vertices) {
+            Vertex wrapped = vertex.getV().getWrappedElement();
+
+            if (wrapped instanceof JanusGraphVertex) {
+                janusVertices.add((JanusGraphVertex) wrapped);
+            }
+        }
+
+        if (!janusVertices.isEmpty()) {
+            Map<JanusGraphVertex, Iterable<JanusGraphVertexProperty>> properties = getGraph().multiQuery(janusVertices).properties();
+
+            for (Map.Entry<JanusGraphVertex, Iterable<JanusGraphVertexProperty>> entry : properties.entrySet()) {
+                Map<String, Object> values = new HashMap<>();
+
+                for (JanusGraphVertexProperty property : entry.getValue()) {
+                    if (property.propertyKey().cardinality() == Cardinality.SINGLE) {
+                        values.put(property.key(), property.value());
+                    } else {
+                        ((List<Object>) values.computeIfAbsent(property.key(), k -> new ArrayList<>())).add(property.value());
+                    }
+                }
+
+                ret.put(entry.getKey().id(), values);
+            }
+        }
+
+        return ret;
+    }
+
     @Override
     public GremlinVersion getSupportedGremlinVersion() {
         return GremlinVersion.THREE;
@@ -286,24 +337,17 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
 
     @Override
     public GremlinGroovyScriptEngine getGremlinScriptEngine() {
-        DefaultImportCustomizer.Builder importBuilder = DefaultImportCustomizer.build()
-                                                                               .addClassImports(java.util.function.Function.class)
-                                                                               .addMethodImports(__.class.getMethods())
-                                                                               .addMethodImports(P.class.getMethods());
-        GremlinGroovyScriptEngine scriptEngine = new GremlinGroovyScriptEngine(importBuilder.create());
-
-        return scriptEngine;
+        return scriptEnginePool.borrowEngine();
     }
 
     @Override
     public void releaseGremlinScriptEngine(ScriptEngine scriptEngine) {
-        if (scriptEngine instanceof GremlinGroovyScriptEngine) {
-            try {
-                ((GremlinGroovyScriptEngine) scriptEngine).close();
-            } catch (Exception e) {
-                // ignore
-            }
-        }
+        scriptEnginePool.releaseEngine(scriptEngine);
+    }
+
+    @Override
+    public Map<String, Object> getGremlinScriptEngineMetrics() {
+        return scriptEnginePool.getMetrics();
     }
 
     @Override
@@ -316,12 +360,18 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
     @Override
     public Object executeGremlinScript(ScriptEngine scriptEngine, Map<? extends String, ? extends Object> userBindings,
                                        String query, boolean isPath) throws ScriptException {
+        return executeGremlinScript(scriptEngine, userBindings, query, isPath, false);
+    }
+
+    @Override
+    public Object executeGremlinScript(ScriptEngine scriptEngine, Map<? extends String, ? extends Object> userBindings,
+                                       String query, boolean isPath, boolean cacheScript) throws ScriptException {
         Bindings bindings = scriptEngine.createBindings();
 
         bindings.putAll(userBindings);
         bindings.put("g", getGraph().traversal());
 
-        Object result = scriptEngine.eval(query, bindings);
+        Object result = scriptEnginePool.eval(scriptEngine, query, bindings, cacheScript);
 
         return convertGremlinValue(result);
     }
@@ -375,6 +425,58 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
         multiProperties.addAll(names);
     }
 
+    /**
+     * Name of the field, in the backend of the given mixed index, that holds the given property. Index queries refer to
+     * properties by their names, which the graph maps to these fields; parameters passed to the backend, like sort,
+     * must use the field names.
+     *
+     * @return null if the property is not in the index or has multiple values
+     */
+    String getIndexFieldName(String indexName, String propertyName) {
+        String key = indexName + ":" + propertyName;
+        String ret = indexFieldNames.get(key);
+
+        if (ret == null && !multiProperties.contains(propertyName)) {
+            JanusGraphManagement mgmt = getGraph().openManagement();
+
+            try {
+                JanusGraphIndex index       = mgmt.getGraphIndex(indexName);
+                PropertyKey     propertyKey = mgmt.getPropertyKey(propertyName);
+
+                if (index != null && index.isMixedIndex() && propertyKey != null && propertyKey.cardinality() == Cardinality.SINGLE) {
+                    for (PropertyKey fieldKey : index.getFieldKeys()) {
+                        if (fieldKey.equals(propertyKey)) {
+                            Parameter[] parameters = index.getParametersFor(propertyKey);
+
+                            ret = ParameterType.MAPPED_NAME.findParameter(parameters, null);
+
+                            if (ret == null) {
+                                ret = ((StandardJanusGraph) getGraph()).getIndexSerializer().getDefaultFieldName(propertyKey, parameters, index.getBackingIndex());
+                            }
+
+                            indexFieldNames.put(key, ret);
+
+                            break;
+                        }
+                    }
+                }
+            } finally {
+                mgmt.rollback();
+            }
+        }
+
+        return ret;
+    }
+
+    @Override
+    public boolean isIndexSortSupported() {
+        initApplicationProperties();
+
+        String indexBackend = APPLICATION_PROPERTIES != null ? APPLICATION_PROPERTIES.getString(AtlasJanusGraphDatabase.GRAPH_PREFIX + "." + AtlasJanusGraphDatabase.INDEX_BACKEND_CONF) : null;
+
+        return AtlasJanusGraphDatabase.INDEX_BACKEND_SOLR.equalsIgnoreCase(indexBackend);
+    }
+
 
     private String getIndexQueryPrefix() {
         final String ret;
@@ -456,7 +558,7 @@ public class AtlasJanusGraph implements AtlasGraph<AtlasJanusVertex, AtlasJanusE
             bindings.put("graph", getGraph());
             bindings.put("g", getGraph().traversal());
 
-            Object result = scriptEngine.eval(gremlinQuery, bindings);
+            Object result = scriptEnginePool.eval(scriptEngine, gremlinQuery, bindings, false);
 
             return result;
         } catch (ScriptException e) {
@@ -68,6 +68,7 @@ public class AtlasJanusGraphDatabase implements GraphDatabase<AtlasJanusVertex,
     public static final String SOLR_ZOOKEEPER_URLS  = "atlas.graph.index.search.solr.zookeeper-urls";
     public static final String INDEX_BACKEND_LUCENE = "lucene";
     public static final String INDEX_BACKEND_ES     = "elasticsearch";
+    public static final String INDEX_BACKEND_SOLR   = "solr";
 
     private static volatile AtlasJanusGraph atlasGraphInstance = null;
     private static volatile JanusGraph graphInstance;
@@ -0,0 +1,219 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.graphdb.janus;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
+import org.apache.tinkerpop.gremlin.jsr223.DefaultImportCustomizer;
+import org.apache.tinkerpop.gremlin.process.traversal.P;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.__;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool of pre-warmed Gremlin script engines, along with a cache of scripts compiled by the pooled engines.
+ *
+ * Creating a GremlinGroovyScriptEngine and compiling a script are expensive operations; the engines in this pool
+ * are created once and reused across requests. Compiled scripts are cached by their query text only when the caller
+ * asks for it - for queries that pass all variable values via bindings, so that the query text stays the same across
+ * invocations. Queries with inlined values would otherwise fill the cache with single-use entries, evicting the
+ * reusable ones.
+ *
+ * When all pooled engines are in use, a transient engine is created; such engines are closed on release and scripts
+ * evaluated with them are not cached.
+ */
+public class AtlasJanusGremlinScriptEnginePool {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasJanusGremlinScriptEnginePool.class);
+
+    public static final String METRIC_POOL_SIZE            = "poolSize";
+    public static final String METRIC_POOL_IDLE            = "poolIdle";
+    public static final String METRIC_TRANSIENT_ENGINES    = "transientEngines";
+    public static final String METRIC_SCRIPT_CACHE_SIZE    = "scriptCacheSize";
+    public static final String METRIC_SCRIPT_CACHE_HITS    = "scriptCacheHits";
+    public static final String METRIC_SCRIPT_CACHE_MISSES  = "scriptCacheMisses";
+    public static final String METRIC_SCRIPT_COMPILE_COUNT = "scriptCompileCount";
+    public static final String METRIC_SCRIPT_COMPILE_TIME  = "scriptCompileTimeMs";
+
+    private final int                                     poolSize;
+    private final BlockingQueue<GremlinGroovyScriptEngine> idleEngines;
+    private final Set<ScriptEngine>                       pooledEngines;
+    private final Cache<String, CompiledScript>           compiledScripts;
+    private final AtomicLong                              transientEngineCount = new AtomicLong();
+    private final AtomicLong                              cacheHitCount        = new AtomicLong();
+    private final AtomicLong                              cacheMissCount       = new AtomicLong();
+    private final AtomicLong                              compileCount         = new AtomicLong();
+    private final AtomicLong                              compileTimeMs        = new AtomicLong();
+
+    public AtlasJanusGremlinScriptEnginePool() {
+        this(AtlasConfiguration.GRAPH_GREMLIN_SCRIPT_ENGINE_POOL_SIZE.getInt(), AtlasConfiguration.GRAPH_GREMLIN_SCRIPT_CACHE_SIZE.getInt());
+    }
+
+    public AtlasJanusGremlinScriptEnginePool(int poolSize, int scriptCacheSize) {
+        this.poolSize        = Math.max(poolSize, 0);
+        this.idleEngines     = new ArrayBlockingQueue<>(Math.max(this.poolSize, 1));
+        this.pooledEngines   = Collections.newSetFromMap(Collections.synchronizedMap(new IdentityHashMap<>()));
+        this.compiledScripts = CacheBuilder.newBuilder().maximumSize(Math.max(scriptCacheSize, 0)).build();
+
+        long startTime = System.currentTimeMillis();
+
+        for (int i = 0; i < this.poolSize; i++) {
+            GremlinGroovyScriptEngine engine = createEngine();
+
+            pooledEngines.add(engine);
+            idleEngines.offer(engine);
+        }
+
+        LOG.info("Gremlin script engine pool initialized: poolSize={}, scriptCacheSize={}, timeTakenMs={}", this.poolSize, scriptCacheSize, (System.currentTimeMillis() - startTime));
+    }
+
+    public GremlinGroovyScriptEngine borrowEngine() {
+        GremlinGroovyScriptEngine ret = idleEngines.poll();
+
+        if (ret == null) {
+            transientEngineCount.incrementAndGet();
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("all {} pooled script engines are in use; creating a transient engine", poolSize);
+            }
+
+            ret = createEngine();
+        }
+
+        return ret;
+    }
+
+    public void releaseEngine(ScriptEngine engine) {
+        if (engine == null) {
+            return;
+        }
+
+        if (isPooled(engine)) {
+            if (!idleEngines.contains(engine)) {
+                idleEngines.offer((GremlinGroovyScriptEngine) engine);
+            }
+        } else {
+            closeEngine(engine);
+        }
+    }
+
+    public Object eval(ScriptEngine engine, String query, Bindings bindings, boolean cacheScript) throws ScriptException {
+        final Object ret;
+
+        if (cacheScript && isPooled(engine)) {
+            ret = getCompiledScript((GremlinGroovyScriptEngine) engine, query).eval(bindings);
+        } else {
+            ret = engine.eval(query, bindings);
+        }
+
+        return ret;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> ret = new LinkedHashMap<>();
+
+        ret.put(METRIC_POOL_SIZE, poolSize);
+        ret.put(METRIC_POOL_IDLE, idleEngines.size());
+        ret.put(METRIC_TRANSIENT_ENGINES, transientEngineCount.get());
+        ret.put(METRIC_SCRIPT_CACHE_SIZE, compiledScripts.size());
+        ret.put(METRIC_SCRIPT_CACHE_HITS, cacheHitCount.get());
+        ret.put(METRIC_SCRIPT_CACHE_MISSES, cacheMissCount.get());
+        ret.put(METRIC_SCRIPT_COMPILE_COUNT, compileCount.get());
+        ret.put(METRIC_SCRIPT_COMPILE_TIME, compileTimeMs.get());
+
+        return ret;
+    }
+
+    public void close() {
+        compiledScripts.invalidateAll();
+
+        synchronized (pooledEngines) {
+            for (ScriptEngine engine : pooledEngines) {
+                closeEngine(engine);
+            }
+
+            pooledEngines.clear();
+        }
+
+        idleEngines.clear();
+    }
+
+    boolean isPooled(ScriptEngine engine) {
+        return engine != null && pooledEngines.contains(engine);
+    }
+
+    private CompiledScript getCompiledScript(GremlinGroovyScriptEngine engine, String query) throws ScriptException {
+        CompiledScript ret = compiledScripts.getIfPresent(query);
+
+        if (ret == null) {
+            cacheMissCount.incrementAndGet();
+
+            long startTime = System.currentTimeMillis();
+
+            ret = engine.compile(query);
+
+            long timeTaken = System.currentTimeMillis() - startTime;
+
+            compileCount.incrementAndGet();
+            compileTimeMs.addAndGet(timeTaken);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("compiled gremlin script in {} ms: {}", timeTaken, query);
+            }
+
+            compiledScripts.put(query, ret);
+        } else {
+            cacheHitCount.incrementAndGet();
+        }
+
+        return ret;
+    }
+
+    private static GremlinGroovyScriptEngine createEngine() {
+        DefaultImportCustomizer.Builder importBuilder = DefaultImportCustomizer.build()
+                                                                               .addClassImports(java.util.function.Function.class)
+                                                                               .addMethodImports(__.class.getMethods())
+                                                                               .addMethodImports(P.class.getMethods());
+
+        return new GremlinGroovyScriptEngine(importBuilder.create());
+    }
+
+    private static void closeEngine(ScriptEngine engine) {
+        if (engine instanceof GremlinGroovyScriptEngine) {
+            try {
+                ((GremlinGroovyScriptEngine) engine).close();
+            } catch (Exception e) {
+                // ignore
+            }
+        }
+    }
+}
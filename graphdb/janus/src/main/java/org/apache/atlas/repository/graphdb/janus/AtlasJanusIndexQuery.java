@@ -20,6 +20,7 @@ package org.apache.atlas.repository.graphdb.janus;
 import java.util.Iterator;
 
 import com.google.common.base.Preconditions;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
 import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 
@@ -27,17 +28,26 @@ import com.google.common.base.Function;
 import com.google.common.collect.Iterators;
 import org.janusgraph.core.JanusGraphIndexQuery;
 import org.janusgraph.core.JanusGraphVertex;
+import org.janusgraph.core.schema.Parameter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Janus implementation of AtlasIndexQuery.
  */
 public class AtlasJanusIndexQuery implements AtlasIndexQuery<AtlasJanusVertex, AtlasJanusEdge> {
+    private static final Logger LOG = LoggerFactory.getLogger(AtlasJanusIndexQuery.class);
+
+    private static final String SOLR_SORT_PARAM = "sort";
+
     private AtlasJanusGraph      graph;
+    private String               indexName;
     private JanusGraphIndexQuery query;
 
-    public AtlasJanusIndexQuery(AtlasJanusGraph graph, JanusGraphIndexQuery query) {
-        this.query = query;
-        this.graph = graph;
+    public AtlasJanusIndexQuery(AtlasJanusGraph graph, String indexName, JanusGraphIndexQuery query) {
+        this.query     = query;
+        this.graph     = graph;
+        this.indexName = indexName;
     }
 
     @Override
@@ -77,6 +87,24 @@ public class AtlasJanusIndexQuery implements AtlasIndexQuery<AtlasJanusVertex, A
         return Iterators.transform(results, function);
     }
 
+    @Override
+    public AtlasIndexQuery<AtlasJanusVertex, AtlasJanusEdge> orderBy(String propertyKey, AtlasGraphQuery.SortOrder sortOrder) {
+        // the graph doesn't support sorting of index queries; the sort is handed over to the index backend as a parameter
+        if (!graph.isIndexSortSupported()) {
+            LOG.warn("orderBy({}): sorting is supported only with Solr index backend; results will not be sorted", propertyKey);
+        } else {
+            String fieldName = graph.getIndexFieldName(indexName, propertyKey);
+
+            if (fieldName == null) {
+                LOG.warn("orderBy({}): property is not a single-valued property in index {}; results will not be sorted", propertyKey, indexName);
+            } else {
+                query.addParameter(Parameter.of(SOLR_SORT_PARAM, fieldName + (sortOrder == AtlasGraphQuery.SortOrder.DESC ? " desc" : " asc")));
+            }
+        }
+
+        return this;
+    }
+
     @Override
     public Long vertexTotals() {
         return query.vertexTotals();
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.graphdb.janus;
+
+import org.apache.tinkerpop.gremlin.groovy.jsr223.GremlinGroovyScriptEngine;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.script.Bindings;
+import java.util.Map;
+
+import static org.apache.atlas.repository.graphdb.janus.AtlasJanusGremlinScriptEnginePool.METRIC_POOL_IDLE;
+import static org.apache.atlas.repository.graphdb.janus.AtlasJanusGremlinScriptEnginePool.METRIC_SCRIPT_CACHE_HITS;
+import static org.apache.atlas.repository.graphdb.janus.AtlasJanusGremlinScriptEnginePool.METRIC_SCRIPT_CACHE_MISSES;
+import static org.apache.atlas.repository.graphdb.janus.AtlasJanusGremlinScriptEnginePool.METRIC_SCRIPT_CACHE_SIZE;
+import static org.apache.atlas.repository.graphdb.janus.AtlasJanusGremlinScriptEnginePool.METRIC_SCRIPT_COMPILE_COUNT;
+import static org.apache.atlas.repository.graphdb.janus.AtlasJanusGremlinScriptEnginePool.METRIC_TRANSIENT_ENGINES;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class AtlasJanusGremlinScriptEnginePoolTest {
+    private AtlasJanusGremlinScriptEnginePool pool;
+
+    @BeforeClass
+    public void setUp() {
+        pool = new AtlasJanusGremlinScriptEnginePool(1, 10);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void borrowAndRelease() {
+        GremlinGroovyScriptEngine engine1 = pool.borrowEngine();
+        GremlinGroovyScriptEngine engine2 = pool.borrowEngine();
+
+        assertTrue(pool.isPooled(engine1));
+        assertFalse(pool.isPooled(engine2));
+        assertNotSame(engine1, engine2);
+
+        pool.releaseEngine(engine2);
+        pool.releaseEngine(engine1);
+        pool.releaseEngine(engine1);
+
+        Map<String, Object> metrics = pool.getMetrics();
+
+        assertEquals(metrics.get(METRIC_POOL_IDLE), 1);
+        assertEquals(metrics.get(METRIC_TRANSIENT_ENGINES), 1L);
+
+        GremlinGroovyScriptEngine engine3 = pool.borrowEngine();
+
+        assertSame(engine3, engine1);
+
+        pool.releaseEngine(engine3);
+    }
+
+    @Test(dependsOnMethods = "borrowAndRelease")
+    public void compiledScriptsAreCached() throws Exception {
+        String                    query  = "x + y";
+        GremlinGroovyScriptEngine engine = pool.borrowEngine();
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                Bindings bindings = engine.createBindings();
+
+                bindings.put("x", i);
+                bindings.put("y", 10);
+
+                assertEquals(pool.eval(engine, query, bindings, true), i + 10);
+            }
+        } finally {
+            pool.releaseEngine(engine);
+        }
+
+        Map<String, Object> metrics = pool.getMetrics();
+
+        assertEquals(metrics.get(METRIC_SCRIPT_CACHE_MISSES), 1L);
+        assertEquals(metrics.get(METRIC_SCRIPT_CACHE_HITS), 2L);
+        assertEquals(metrics.get(METRIC_SCRIPT_COMPILE_COUNT), 1L);
+    }
+
+    @Test(dependsOnMethods = "compiledScriptsAreCached")
+    public void scriptsAreNotCachedUnlessRequested() throws Exception {
+        GremlinGroovyScriptEngine engine = pool.borrowEngine();
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                assertEquals(pool.eval(engine, i + " + 10", engine.createBindings(), false), i + 10);
+            }
+        } finally {
+            pool.releaseEngine(engine);
+        }
+
+        Map<String, Object> metrics = pool.getMetrics();
+
+        assertEquals(metrics.get(METRIC_SCRIPT_CACHE_SIZE), 1L);
+        assertEquals(metrics.get(METRIC_SCRIPT_CACHE_MISSES), 1L);
+        assertEquals(metrics.get(METRIC_SCRIPT_COMPILE_COUNT), 1L);
+    }
+}
@@ -45,9 +45,86 @@ public enum AtlasConfiguration {
 
     GRAPHSTORE_INDEXED_STRING_SAFE_LENGTH("atlas.graphstore.indexed.string.safe.length", Short.MAX_VALUE),  // based on org.apache.hadoop.hbase.client.Mutation.checkRow()
 
+    //gremlin script engines are pooled; scripts compiled by pooled engines are cached by their query text
+    GRAPH_GREMLIN_SCRIPT_ENGINE_POOL_SIZE("atlas.graph.gremlin.script.engine.pool.size", 8),
+    GRAPH_GREMLIN_SCRIPT_CACHE_SIZE("atlas.graph.gremlin.script.cache.size", 500),
+
     //search configuration
     SEARCH_MAX_LIMIT("atlas.search.maxlimit", 10000),
-    SEARCH_DEFAULT_LIMIT("atlas.search.defaultlimit", 100);
+    SEARCH_DEFAULT_LIMIT("atlas.search.defaultlimit", 100),
+
+    //lineage configuration
+    LINEAGE_QUERY_USING_GREMLIN("atlas.lineage.query.use.gremlin", false),
+    LINEAGE_QUERY_THREADS("atlas.lineage.query.threads", 10),
+    LINEAGE_INDEX_ENABLED("atlas.lineage.index.enabled", false),
+
+    //import configuration
+    IMPORT_USE_BACKING_FILE("atlas.import.backing.file.enabled", true),
+    IMPORT_ENTRY_CACHE_SIZE("atlas.import.entry.cache.size", 100),
+    IMPORT_TEMP_DIRECTORY("atlas.import.temp.directory", ""),
+    IMPORT_NUM_WORKERS("atlas.import.num.workers", 1),
+    IMPORT_BATCH_SIZE("atlas.import.batch.size", 1),
+
+    //export configuration; entities are fetched by export workers up to fetch.buffer.size entities ahead of being written
+    EXPORT_NUM_WORKERS("atlas.export.num.workers", 1),
+    EXPORT_FETCH_BUFFER_SIZE("atlas.export.fetch.buffer.size", 100),
+    //incremental export reads entities changed after the change marker from the index on __modificationTimestamp
+    EXPORT_INCREMENTAL_USE_CHANGE_LOG("atlas.export.incremental.change.log.enabled", true),
+
+    //export/import jobs run in the background; spool directory defaults to ${atlas.home}/data/export-import-jobs
+    EXPORT_IMPORT_JOBS_QUEUE_SIZE("atlas.export.import.jobs.queue.size", 10),
+    EXPORT_IMPORT_JOBS_DIRECTORY("atlas.export.import.jobs.directory", ""),
+    EXPORT_IMPORT_JOBS_RETENTION_HOURS("atlas.export.import.jobs.retention.hours", 24),
+
+    //background task configuration
+    TASKS_ENABLED("atlas.tasks.enabled", false),
+    TASKS_WORKER_THREADS("atlas.tasks.worker.threads", 1),
+    TASKS_CHUNK_SIZE("atlas.tasks.chunk.size", 200),
+    TASKS_MAX_ATTEMPTS("atlas.tasks.max.attempts", 3),
+    TASKS_RETRY_BACKOFF_MS("atlas.tasks.retry.backoff.ms", 1000),
+
+    //vertex-id cache configuration
+    VERTEX_ID_CACHE_ENABLED("atlas.vertex.id.cache.enabled", true),
+    VERTEX_ID_CACHE_SIZE("atlas.vertex.id.cache.size", 100000),
+
+    //DSL query plan cache configuration; the cache is disabled when size is 0
+    DSL_QUERY_PLAN_CACHE_SIZE("atlas.dsl.query.plan.cache.size", 1000),
+
+    //entity count metrics configuration
+    METRICS_COUNTS_SAVE_INTERVAL_SECS("atlas.metrics.counts.save.interval.secs", 300),
+    METRICS_RECOUNT_THREADS("atlas.metrics.recount.threads", 4),
+    METRICS_RECOUNT_BATCH_SIZE("atlas.metrics.recount.batch.size", 50),
+    METRICS_COUNTS_MAX_AGE_SECS("atlas.metrics.counts.max.age.secs", 86400),
+    METRICS_QUERY_CACHE_TTL_SECS("atlas.metric.query.cache.ttlInSecs", 900),
+
+    //asynchronous entity audit configuration; journal directory defaults to ${atlas.home}/data/audit-journal
+    AUDIT_ASYNC_ENABLED("atlas.audit.async.enabled", false),
+    AUDIT_ASYNC_BUFFER_SIZE("atlas.audit.async.buffer.size", 10000),
+    AUDIT_ASYNC_BATCH_SIZE("atlas.audit.async.batch.size", 500),
+    AUDIT_ASYNC_FLUSH_INTERVAL_MS("atlas.audit.async.flush.interval.ms", 100),
+    AUDIT_ASYNC_JOURNAL_DIRECTORY("atlas.audit.async.journal.directory", ""),
+    AUDIT_ASYNC_JOURNAL_SEGMENT_SIZE_MB("atlas.audit.async.journal.segment.size.mb", 64),
+    AUDIT_ASYNC_JOURNAL_MAX_SIZE_MB("atlas.audit.async.journal.max.size.mb", 4096),
+    AUDIT_ASYNC_JOURNAL_SYNC("atlas.audit.async.journal.sync", false),
+
+    //number of entities, referenced by a relationship attribute, whose properties are read in a single batch; 0 disables batch reads
+    ENTITY_RETRIEVER_PREFETCH_BATCH_SIZE("atlas.entity.retriever.prefetch.batch.size", 500),
+
+    //number of locks that entity guids are hashed to, when locking entities for update; rounded up to a power of 2
+    GRAPH_TXN_LOCK_STRIPES("atlas.graph.txn.lock.stripes", 4096),
+    //time to wait for entity locks before failing the update; 0 or less waits until the locks are released
+    GRAPH_TXN_LOCK_TIMEOUT_MS("atlas.graph.txn.lock.timeout.ms", 0),
+
+    //number of (user, groups) whose roles and permissions are cached, and number of access decisions cached, by the simple authorizer
+    AUTHORIZER_SIMPLE_USER_CACHE_SIZE("atlas.authorizer.simple.user.cache.size", 1000),
+    AUTHORIZER_SIMPLE_DECISION_CACHE_SIZE("atlas.authorizer.simple.decision.cache.size", 100000),
+
+    //when enabled, passive instances in an HA setup serve read-only REST calls, instead of redirecting them to the active instance
+    HA_PASSIVE_READS_ENABLED("atlas.server.ha.passive.reads.enabled", false),
+    HA_PASSIVE_TYPES_REFRESH_INTERVAL_MS("atlas.server.ha.passive.types.refresh.interval.ms", 5000),
+
+    //when enabled, type definitions are loaded from a snapshot kept in the graph, and unchanged model files are not reloaded on startup
+    TYPEDEF_SNAPSHOT_ENABLED("atlas.typedef.snapshot.enabled", true);
 
     private static final Configuration APPLICATION_PROPERTIES;
 
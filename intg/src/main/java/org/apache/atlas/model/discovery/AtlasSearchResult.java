@@ -52,6 +52,7 @@ public class AtlasSearchResult implements Serializable {
     private AttributeSearchResult          attributes;
     private List<AtlasFullTextResult>      fullTextResult;
     private Map<String, AtlasEntityHeader> referredEntities;
+    private String                         continuationToken;
 
     public AtlasSearchResult() {}
 
@@ -126,8 +127,15 @@ public class AtlasSearchResult implements Serializable {
         this.referredEntities = referredEntities;
     }
 
+    /**
+     * @return token to fetch the next page of a basic search; null when there are no more results
+     */
+    public String getContinuationToken() { return continuationToken; }
+
+    public void setContinuationToken(String continuationToken) { this.continuationToken = continuationToken; }
+
     @Override
-    public int hashCode() { return Objects.hash(queryType, searchParameters, queryText, type, classification, entities, attributes, fullTextResult, referredEntities); }
+    public int hashCode() { return Objects.hash(queryType, searchParameters, queryText, type, classification, entities, attributes, fullTextResult, referredEntities, continuationToken); }
 
     @Override
     public boolean equals(Object o) {
@@ -142,7 +150,8 @@ public class AtlasSearchResult implements Serializable {
                Objects.equals(entities, that.entities) &&
                Objects.equals(attributes, that.attributes) &&
                Objects.equals(fullTextResult, that.fullTextResult) &&
-               Objects.equals(referredEntities, that.referredEntities);
+               Objects.equals(referredEntities, that.referredEntities) &&
+               Objects.equals(continuationToken, that.continuationToken);
     }
 
     public void addEntity(AtlasEntityHeader newEntity) {
@@ -184,6 +193,7 @@ public class AtlasSearchResult implements Serializable {
                 ", attributes=" + attributes +
                 ", fullTextResult=" + fullTextResult +
                 ", referredEntities=" + referredEntities +
+                ", continuationToken='" + continuationToken + '\'' +
                 '}';
     }
 
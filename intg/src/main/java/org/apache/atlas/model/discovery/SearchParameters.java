@@ -23,6 +23,7 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.apache.atlas.SortOrder;
 
 import java.io.Serializable;
 import java.util.HashMap;
@@ -54,6 +55,9 @@ public class SearchParameters implements Serializable {
     private FilterCriteria entityFilters;
     private FilterCriteria tagFilters;
     private Set<String>    attributes;
+    private String         sortBy;
+    private SortOrder      sortOrder;
+    private String         continuationToken;
 
     public static final String WILDCARD_CLASSIFICATIONS = "*";
     public static final String ALL_CLASSIFICATIONS      = "_CLASSIFIED";
@@ -258,6 +262,53 @@ public class SearchParameters implements Serializable {
         this.attributes = attributes;
     }
 
+    /**
+     * Attribute of the entity type (typeName) to sort the results on; the attribute must be indexed
+     * @return
+     */
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    /**
+     * @param sortBy
+     */
+    public void setSortBy(String sortBy) {
+        this.sortBy = sortBy;
+    }
+
+    /**
+     * @return ASCENDING (default) or DESCENDING; used only when sortBy is specified
+     */
+    public SortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    /**
+     * @param sortOrder
+     */
+    public void setSortOrder(SortOrder sortOrder) {
+        this.sortOrder = sortOrder;
+    }
+
+    /**
+     * Token returned with the previous page of results (see AtlasSearchResult.getContinuationToken()); when
+     * specified, the search resumes where the previous page stopped and offset is ignored. No result is skipped when
+     * paging with the token; however when searching by classification, an entity that has more than one matching
+     * classification can be returned again in a later page - clients should de-duplicate results by guid
+     * @return
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * @param continuationToken
+     */
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -273,13 +324,16 @@ public class SearchParameters implements Serializable {
                 Objects.equals(termName, that.termName) &&
                 Objects.equals(entityFilters, that.entityFilters) &&
                 Objects.equals(tagFilters, that.tagFilters) &&
-                Objects.equals(attributes, that.attributes);
+                Objects.equals(attributes, that.attributes) &&
+                Objects.equals(sortBy, that.sortBy) &&
+                sortOrder == that.sortOrder &&
+                Objects.equals(continuationToken, that.continuationToken);
     }
 
     @Override
     public int hashCode() {
         return Objects.hash(query, typeName, classification, termName, excludeDeletedEntities, includeClassificationAttributes,
-                            limit, offset, entityFilters, tagFilters, attributes);
+                            limit, offset, entityFilters, tagFilters, attributes, sortBy, sortOrder, continuationToken);
     }
 
     public StringBuilder toString(StringBuilder sb) {
@@ -299,6 +353,9 @@ public class SearchParameters implements Serializable {
         sb.append(", entityFilters=").append(entityFilters);
         sb.append(", tagFilters=").append(tagFilters);
         sb.append(", attributes=").append(attributes);
+        sb.append(", sortBy='").append(sortBy).append('\'');
+        sb.append(", sortOrder=").append(sortOrder);
+        sb.append(", continuationToken='").append(continuationToken).append('\'');
         sb.append('}');
 
         return sb;
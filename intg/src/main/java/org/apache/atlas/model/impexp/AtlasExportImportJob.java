@@ -0,0 +1,212 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.model.impexp;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serializable;
+
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
+import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.PUBLIC_ONLY;
+
+/**
+ * Status of an export or import run in the background. Output of an export job is kept on the server, to be
+ * downloaded after the job completes.
+ */
+@JsonAutoDetect(getterVisibility = PUBLIC_ONLY, setterVisibility = PUBLIC_ONLY, fieldVisibility = NONE)
+@JsonSerialize(include = JsonSerialize.Inclusion.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AtlasExportImportJob implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum JobType { EXPORT, IMPORT }
+
+    public enum Status { QUEUED, IN_PROGRESS, COMPLETE, FAILED }
+
+    private String            guid;
+    private JobType           type;
+    private Status            status;
+    private String            createdBy;
+    private long              createdTime;
+    private Long              startTime;
+    private Long              endTime;
+    private long              processedCount;
+    private long              totalCount = -1;
+    private long              fileSize;
+    private String            checksum;
+    private String            errorMessage;
+    private AtlasExportResult exportResult;
+    private AtlasImportResult importResult;
+
+    public AtlasExportImportJob() { }
+
+    public AtlasExportImportJob(String guid, JobType type, String createdBy) {
+        this.guid        = guid;
+        this.type        = type;
+        this.status      = Status.QUEUED;
+        this.createdBy   = createdBy;
+        this.createdTime = System.currentTimeMillis();
+    }
+
+    public String getGuid() {
+        return guid;
+    }
+
+    public void setGuid(String guid) {
+        this.guid = guid;
+    }
+
+    public JobType getType() {
+        return type;
+    }
+
+    public void setType(JobType type) {
+        this.type = type;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getCreatedBy() {
+        return createdBy;
+    }
+
+    public void setCreatedBy(String createdBy) {
+        this.createdBy = createdBy;
+    }
+
+    public long getCreatedTime() {
+        return createdTime;
+    }
+
+    public void setCreatedTime(long createdTime) {
+        this.createdTime = createdTime;
+    }
+
+    public Long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Long startTime) {
+        this.startTime = startTime;
+    }
+
+    public Long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Long endTime) {
+        this.endTime = endTime;
+    }
+
+    /**
+     * @return number of entities exported or imported so far
+     */
+    public long getProcessedCount() {
+        return processedCount;
+    }
+
+    public void setProcessedCount(long processedCount) {
+        this.processedCount = processedCount;
+    }
+
+    /**
+     * @return number of entities to import; -1 when not known, as for export
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * @return size, in bytes, of the exported or the uploaded ZIP file
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    /**
+     * @return SHA-256 checksum, in hex, of the exported or the uploaded ZIP file
+     */
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public void setChecksum(String checksum) {
+        this.checksum = checksum;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public AtlasExportResult getExportResult() {
+        return exportResult;
+    }
+
+    public void setExportResult(AtlasExportResult exportResult) {
+        this.exportResult = exportResult;
+    }
+
+    public AtlasImportResult getImportResult() {
+        return importResult;
+    }
+
+    public void setImportResult(AtlasImportResult importResult) {
+        this.importResult = importResult;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AtlasExportImportJob{");
+
+        sb.append("guid='").append(guid).append('\'');
+        sb.append(", type=").append(type);
+        sb.append(", status=").append(status);
+        sb.append(", createdBy='").append(createdBy).append('\'');
+        sb.append(", createdTime=").append(createdTime);
+        sb.append(", startTime=").append(startTime);
+        sb.append(", endTime=").append(endTime);
+        sb.append(", processedCount=").append(processedCount);
+        sb.append(", totalCount=").append(totalCount);
+        sb.append(", fileSize=").append(fileSize);
+        sb.append(", checksum='").append(checksum).append('\'');
+        sb.append(", errorMessage='").append(errorMessage).append('\'');
+        sb.append('}');
+
+        return sb.toString();
+    }
+}
@@ -16,9 +16,8 @@
  * limitations under the License.
  */
 
-package org.apache.atlas.repository.graphdb.janus.migration.pc;
+package org.apache.atlas.pc;
 
-import com.google.common.base.Stopwatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,6 +32,7 @@ public abstract class WorkItemConsumer<T> implements Runnable {
     private final BlockingQueue<T> queue;
     private       boolean          isDirty              = false;
     private       long             maxCommitTimeSeconds = 0;
+    private volatile boolean       waitForItems         = false;
 
     public WorkItemConsumer(BlockingQueue<T> queue) {
         this.queue = queue;
@@ -45,6 +45,11 @@ public abstract class WorkItemConsumer<T> implements Runnable {
 
                 if (item == null) {
                     commitDirty();
+
+                    if (waitForItems) {
+                        continue;
+                    }
+
                     return;
                 }
 
@@ -53,10 +58,19 @@ public abstract class WorkItemConsumer<T> implements Runnable {
                 processItem(item);
             } catch (InterruptedException e) {
                 LOG.error("WorkItemConsumer: Interrupted: ", e);
+
+                Thread.currentThread().interrupt();
             }
         }
     }
 
+    /**
+     * When set, the consumer keeps polling an empty queue until this is reset, instead of exiting on the first idle poll.
+     */
+    public void setWaitForItems(boolean waitForItems) {
+        this.waitForItems = waitForItems;
+    }
+
     public long getMaxCommitTimeSeconds() {
         return (this.maxCommitTimeSeconds > 0 ? this.maxCommitTimeSeconds : 15);
     }
@@ -71,13 +85,11 @@ public abstract class WorkItemConsumer<T> implements Runnable {
     }
 
     protected void commit() {
-        Stopwatch sw = Stopwatch.createStarted();
+        long startTime = System.currentTimeMillis();
 
         doCommit();
 
-        sw.stop();
-
-        updateCommitTime(sw.elapsed(TimeUnit.SECONDS));
+        updateCommitTime(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - startTime));
 
         isDirty = false;
     }
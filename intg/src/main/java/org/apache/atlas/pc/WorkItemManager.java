@@ -16,7 +16,7 @@
  * limitations under the License.
  */
 
-package org.apache.atlas.repository.graphdb.janus.migration.pc;
+package org.apache.atlas.pc;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +24,7 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class WorkItemManager<T, U extends WorkItemConsumer> {
     private static final Logger LOG = LoggerFactory.getLogger(WorkItemManager.class);
@@ -33,12 +34,26 @@ public class WorkItemManager<T, U extends WorkItemConsumer> {
     private final List<U>          consumers = new ArrayList<>();
 
     public WorkItemManager(WorkItemBuilder builder, int batchSize, int numWorkers) {
-        workQueue = new LinkedBlockingQueue<>(batchSize * numWorkers);
-        service   = Executors.newFixedThreadPool(numWorkers);
+        this(builder, batchSize, numWorkers, Executors.newFixedThreadPool(numWorkers), false);
+    }
+
+    /**
+     * Consumers created with this constructor run in daemon threads named with the given prefix, and keep waiting for
+     * items until shutdown() is called, even when the producer is slower than the poll timeout.
+     */
+    public WorkItemManager(WorkItemBuilder builder, String threadNamePrefix, int batchSize, int numWorkers) {
+        this(builder, batchSize, numWorkers, Executors.newFixedThreadPool(numWorkers, new NamedDaemonThreadFactory(threadNamePrefix)), true);
+    }
+
+    private WorkItemManager(WorkItemBuilder builder, int batchSize, int numWorkers, ExecutorService service, boolean waitForItems) {
+        this.workQueue = new LinkedBlockingQueue<>(batchSize * numWorkers);
+        this.service   = service;
 
         for (int i = 0; i < numWorkers; i++) {
             U c = (U) builder.build(workQueue);
 
+            c.setWaitForItems(waitForItems);
+
             service.submit(c);
             consumers.add(c);
         }
@@ -57,6 +72,10 @@ public class WorkItemManager<T, U extends WorkItemConsumer> {
 
         LOG.info("WorkItemManager: Shutdown started. Will wait for: {} minutes...", avgCommitTimeSeconds);
 
+        for (U c : consumers) {
+            c.setWaitForItems(false);
+        }
+
         service.shutdown();
         service.awaitTermination(avgCommitTimeSeconds, TimeUnit.MINUTES);
 
@@ -72,4 +91,22 @@ public class WorkItemManager<T, U extends WorkItemConsumer> {
 
         return commitTimeSeconds / consumers.size();
     }
+
+    private static class NamedDaemonThreadFactory implements ThreadFactory {
+        private final String        namePrefix;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        NamedDaemonThreadFactory(String namePrefix) {
+            this.namePrefix = namePrefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread ret = new Thread(r, namePrefix + "-" + threadCount.getAndIncrement());
+
+            ret.setDaemon(true);
+
+            return ret;
+        }
+    }
 }
@@ -26,6 +26,8 @@ import org.apache.atlas.utils.AtlasJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Objects;
 
@@ -138,6 +140,10 @@ public abstract class AtlasType {
         return AtlasJson.toJson(obj);
     }
 
+    public static void toJson(OutputStream outputStream, Object obj) throws IOException {
+        AtlasJson.toJson(outputStream, obj);
+    }
+
     public static <T> T fromJson(String jsonStr, Class<T> type) {
         return AtlasJson.fromJson(jsonStr, type);
     }
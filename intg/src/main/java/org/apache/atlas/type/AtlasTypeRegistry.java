@@ -56,6 +56,7 @@ public class AtlasTypeRegistry {
 
     protected       RegistryData                   registryData;
     private   final TypeRegistryUpdateSynchronizer updateSynchronizer;
+    private   volatile long                        version = 0;
 
     public AtlasTypeRegistry() {
         registryData       = new RegistryData();
@@ -68,6 +69,11 @@ public class AtlasTypeRegistry {
         updateSynchronizer = other.updateSynchronizer;
     }
 
+    /**
+     * @return a number that is incremented every time updates to this registry are committed
+     */
+    public long getVersion() { return version; }
+
     public Collection<String> getAllTypeNames() { return registryData.allTypes.getAllTypeNames(); }
 
     public Collection<AtlasType> getAllTypes() { return registryData.allTypes.getAllTypes(); }
@@ -894,6 +900,7 @@ public class AtlasTypeRegistry {
                     } else if (typeRegistryUpdateLock.getHoldCount() == 1) {
                         if (ttr != null && commitUpdates) {
                             typeRegistry.registryData = ttr.registryData;
+                            typeRegistry.version++;
                         }
                     }
 
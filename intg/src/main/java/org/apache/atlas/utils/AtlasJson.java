@@ -47,6 +47,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -117,6 +118,17 @@ public class AtlasJson {
         return ret;
     }
 
+    /**
+     * Writes JSON of the given object to the stream, without creating an intermediate String. The stream is not closed.
+     */
+    public static void toJson(OutputStream outputStream, Object obj) throws IOException {
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            mapper.writeValue(generator, obj);
+        }
+    }
+
     public static <T> T fromJson(String jsonStr, Class<T> type) {
         T ret = null;
 
@@ -183,6 +195,27 @@ public class AtlasJson {
         return fromJson(jsonStr, type);
     }
 
+    public static JsonParser createV1Parser(String jsonStr) throws IOException {
+        return mapper.getFactory().createParser(jsonStr);
+    }
+
+    public static JsonParser createV1Parser(InputStream inputStream) throws IOException {
+        return mapper.getFactory().createParser(inputStream);
+    }
+
+    /**
+     * Reads the value at the current token of the given parser, which must have been created by createV1Parser().
+     */
+    public static <T> T fromV1Json(JsonParser parser, TypeReference<T> type) throws IOException {
+        T ret = parser.readValueAs(type);
+
+        if (ret instanceof Struct) {
+            ((Struct) ret).normalize();
+        }
+
+        return ret;
+    }
+
     public static String toV1SearchJson(Object obj) {
         String ret;
         try {
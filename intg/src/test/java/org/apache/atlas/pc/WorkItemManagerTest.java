@@ -16,12 +16,8 @@
  * limitations under the License.
  */
 
-package org.apache.atlas.repository.graphdb.janus.migration;
+package org.apache.atlas.pc;
 
-import org.apache.atlas.repository.graphdb.janus.migration.pc.WorkItemBuilder;
-import org.apache.atlas.repository.graphdb.janus.migration.pc.WorkItemConsumer;
-import org.apache.atlas.repository.graphdb.janus.migration.pc.WorkItemManager;
-import org.apache.commons.lang3.RandomUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.SkipException;
@@ -29,6 +25,7 @@ import org.testng.annotations.Test;
 
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static org.testng.Assert.assertEquals;
 
@@ -47,7 +44,7 @@ public class WorkItemManagerTest {
         @Override
         protected void doCommit() {
             try {
-                Thread.sleep(20 * RandomUtils.nextInt(10, 15));
+                Thread.sleep(20 * ThreadLocalRandom.current().nextInt(10, 15));
             } catch (InterruptedException e) {
                 e.printStackTrace();
             }
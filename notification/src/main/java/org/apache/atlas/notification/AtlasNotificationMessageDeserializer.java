@@ -18,26 +18,35 @@
 
 package org.apache.atlas.notification;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
 import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
 import org.apache.atlas.model.notification.AtlasNotificationMessage;
-import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.model.notification.MessageVersion;
+import org.apache.atlas.utils.AtlasJson;
+import org.apache.commons.codec.binary.Base64InputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
 
 import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_BUFFER_PURGE_INTERVAL_SECONDS;
 import static org.apache.atlas.AtlasConfiguration.NOTIFICATION_SPLIT_MESSAGE_SEGMENTS_WAIT_TIME_SECONDS;
+import static org.apache.atlas.model.notification.AtlasNotificationBaseMessage.MESSAGE_MAX_LENGTH_BYTES;
 
 /**
  * Deserializer that works with notification messages.  The version of each deserialized message is checked against an
@@ -50,6 +59,8 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
     public static final String VERSION_MISMATCH_MSG =
         "Notification message version mismatch. Expected %s but recieved %s. Message %s";
 
+    private static final int PAYLOAD_BUFFER_POOL_SIZE = 8;
+
     private final TypeReference<T> messageType;
     private final TypeReference<AtlasNotificationMessage<T>> notificationMessageType;
     private final MessageVersion                             expectedVersion;
@@ -62,6 +73,7 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
     private long                                      splitMessagesLastPurgeTime    = System.currentTimeMillis();
     private final AtomicLong                          messageCountTotal             = new AtomicLong(0);
     private final AtomicLong                          messageCountSinceLastInterval = new AtomicLong(0);
+    private final ByteArrayPool                       bufferPool                    = new ByteArrayPool(MESSAGE_MAX_LENGTH_BYTES, PAYLOAD_BUFFER_POOL_SIZE);
     // ----- Constructors ----------------------------------------------------
 
     /**
@@ -103,139 +115,162 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
     // ----- MessageDeserializer ---------------------------------------------
     @Override
     public T deserialize(String messageJson) {
-        final T ret;
+        T ret = null;
 
         messageCountTotal.incrementAndGet();
         messageCountSinceLastInterval.incrementAndGet();
 
-        AtlasNotificationBaseMessage msg = AtlasType.fromV1Json(messageJson, AtlasNotificationBaseMessage.class);
-
-        if (msg == null || msg.getVersion() == null) { // older style messages not wrapped with AtlasNotificationMessage
-            ret = AtlasType.fromV1Json(messageJson, messageType);
-        } else  {
-            String msgJson = messageJson;
-
-            if (msg.getMsgSplitCount() > 1) { // multi-part message
-                AtlasNotificationStringMessage splitMsg = AtlasType.fromV1Json(msgJson, AtlasNotificationStringMessage.class);
+        MessageEnvelope msg = null;
 
-                checkVersion(splitMsg, msgJson);
-
-                String msgId = splitMsg.getMsgId();
+        try (JsonParser parser = AtlasJson.createV1Parser(messageJson)) {
+            try {
+                msg = MessageEnvelope.read(parser, bufferPool);
+            } catch (IOException | IllegalArgumentException excp) {
+                LOG.debug("failed to read notification message envelope; deserializing as older style message", excp);
+            }
 
-                if (StringUtils.isEmpty(msgId)) {
-                    LOG.error("Received multi-part message with no message ID. Ignoring message");
+            if (msg == null || msg.version == null) { // older style messages not wrapped with AtlasNotificationMessage
+                ret = AtlasType.fromV1Json(messageJson, messageType);
+            } else {
+                checkVersion(msg.toBaseMessage(), messageJson);
 
-                    msg = null;
-                } else {
-                    final int splitIdx   = splitMsg.getMsgSplitIdx();
-                    final int splitCount = splitMsg.getMsgSplitCount();
+                if (msg.splitCount > 1) { // multi-part message
+                    ret = addSplitMessage(msg);
+                } else if (CompressionKind.GZIP.equals(msg.compressionKind) && msg.payload != null) {
+                    InputStream payload = new GZIPInputStream(new Base64InputStream(new ByteArrayInputStream(msg.payload, 0, msg.payloadLength)));
 
-                    final SplitMessageAggregator splitMsgs;
+                    LOG.info("Received msgID={}: compressed={} bytes", msg.msgId, msg.payloadLength);
 
-                    if (splitIdx == 0) {
-                        splitMsgs = new SplitMessageAggregator(splitMsg);
+                    ret = deserializePayload(msg.msgId, payload);
+                } else if (msg.content != null) {
+                    try (JsonParser contentParser = msg.content.asParser()) {
+                        contentParser.nextToken();
 
-                        splitMsgBuffer.put(splitMsgs.getMsgId(), splitMsgs);
-                    } else {
-                        splitMsgs = splitMsgBuffer.get(msgId);
+                        ret = AtlasJson.fromV1Json(contentParser, messageType);
                     }
+                } else if (msg.payload != null) { // message is a string value
+                    AtlasNotificationMessage<T> atlasNotificationMessage = AtlasType.fromV1Json(messageJson, notificationMessageType);
 
-                    if (splitMsgs == null) {
-                        LOG.error("Received msgID={}: {} of {}, but first message didn't arrive. Ignoring message", msgId, splitIdx + 1, splitCount);
+                    ret = atlasNotificationMessage != null ? atlasNotificationMessage.getMessage() : null;
+                }
+            }
+        } catch (IOException excp) {
+            LOG.error("failed to deserialize notification message", excp);
 
-                        msg = null;
-                    } else if (splitMsgs.getTotalSplitCount() <= splitIdx) {
-                        LOG.error("Received msgID={}: {} of {} - out of bounds. Ignoring message", msgId, splitIdx + 1, splitCount);
+            ret = null;
+        } finally {
+            if (msg != null) {
+                msg.releasePayload(bufferPool);
+            }
+        }
 
-                        msg = null;
-                    } else {
-                        LOG.info("Received msgID={}: {} of {}", msgId, splitIdx + 1, splitCount);
+        long now                = System.currentTimeMillis();
+        long timeSinceLastPurge = now - splitMessagesLastPurgeTime;
 
-                        boolean isReady = splitMsgs.add(splitMsg);
+        if(timeSinceLastPurge >= splitMessageBufferPurgeIntervalMs) {
+            purgeStaleMessages(splitMsgBuffer, now, splitMessageSegmentsWaitTimeMs);
 
-                        if (isReady) { // last message
-                            splitMsgBuffer.remove(msgId);
+            LOG.info("Notification processing stats: total={}, sinceLastStatsReport={}", messageCountTotal.get(), messageCountSinceLastInterval.getAndSet(0));
 
-                            boolean isValidMessage = true;
+            splitMessagesLastPurgeTime = now;
+        }
 
-                            StringBuilder sb = new StringBuilder();
+        return ret;
+    }
 
-                            for (int i = 0; i < splitMsgs.getTotalSplitCount(); i++) {
-                                splitMsg = splitMsgs.get(i);
+    private T addSplitMessage(MessageEnvelope msg) throws IOException {
+        T            ret        = null;
+        final String msgId      = msg.msgId;
+        final int    splitIdx   = msg.splitIdx;
+        final int    splitCount = msg.splitCount;
 
-                                if (splitMsg == null) {
-                                    LOG.warn("MsgID={}: message {} of {} is missing. Ignoring message", msgId, i + 1, splitCount);
+        if (StringUtils.isEmpty(msgId)) {
+            LOG.error("Received multi-part message with no message ID. Ignoring message");
+        } else {
+            final SplitMessageAggregator splitMsgs;
 
-                                    isValidMessage = false;
+            if (splitIdx == 0) {
+                splitMsgs = new SplitMessageAggregator(msgId, splitCount, msg.compressionKind, bufferPool);
 
-                                    break;
-                                }
+                SplitMessageAggregator prevSplitMsgs = splitMsgBuffer.put(msgId, splitMsgs);
 
-                                sb.append(splitMsg.getMessage());
-                            }
+                if (prevSplitMsgs != null) {
+                    prevSplitMsgs.release();
+                }
+            } else {
+                splitMsgs = splitMsgBuffer.get(msgId);
+            }
 
-                            if (isValidMessage) {
-                                msgJson = sb.toString();
+            if (splitMsgs == null) {
+                LOG.error("Received msgID={}: {} of {}, but first message didn't arrive. Ignoring message", msgId, splitIdx + 1, splitCount);
+            } else if (splitMsgs.getTotalSplitCount() <= splitIdx) {
+                LOG.error("Received msgID={}: {} of {} - out of bounds. Ignoring message", msgId, splitIdx + 1, splitCount);
+            } else {
+                LOG.info("Received msgID={}: {} of {}", msgId, splitIdx + 1, splitCount);
 
-                                if (CompressionKind.GZIP.equals(splitMsg.getMsgCompressionKind())) {
-                                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(msgJson);
-                                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64AndGzipUncompress(encodedBytes);
+                boolean isReady = splitMsgs.add(splitIdx, msg.takePayload(), msg.payloadLength);
 
-                                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+                if (isReady) { // last message
+                    splitMsgBuffer.remove(msgId);
 
-                                    LOG.info("Received msgID={}: splitCount={}, compressed={} bytes, uncompressed={} bytes", msgId, splitCount, encodedBytes.length, bytes.length);
-                                } else {
-                                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(msgJson);
-                                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64(encodedBytes);
+                    try {
+                        boolean isValidMessage = true;
 
-                                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+                        for (int i = 0; i < splitMsgs.getTotalSplitCount(); i++) {
+                            if (!splitMsgs.isReceived(i)) {
+                                LOG.warn("MsgID={}: message {} of {} is missing. Ignoring message", msgId, i + 1, splitCount);
 
-                                    LOG.info("Received msgID={}: splitCount={}, length={} bytes", msgId, splitCount, bytes.length);
-                                }
+                                isValidMessage = false;
 
-                                msg = AtlasType.fromV1Json(msgJson, AtlasNotificationBaseMessage.class);
-                            } else {
-                                msg = null;
+                                break;
                             }
-                        } else { // more messages to arrive
-                            msg = null;
                         }
-                    }
-                }
-            }
 
-            if (msg != null) {
-                if (CompressionKind.GZIP.equals(msg.getMsgCompressionKind())) {
-                    AtlasNotificationStringMessage compressedMsg = AtlasType.fromV1Json(msgJson, AtlasNotificationStringMessage.class);
+                        if (isValidMessage) {
+                            InputStream payload = new Base64InputStream(splitMsgs.getPayloadStream());
 
-                    byte[] encodedBytes = AtlasNotificationBaseMessage.getBytesUtf8(compressedMsg.getMessage());
-                    byte[] bytes        = AtlasNotificationBaseMessage.decodeBase64AndGzipUncompress(encodedBytes);
+                            if (CompressionKind.GZIP.equals(splitMsgs.getCompressionKind())) {
+                                payload = new GZIPInputStream(payload);
+                            }
 
-                    msgJson = AtlasNotificationBaseMessage.getStringUtf8(bytes);
+                            LOG.info("Received msgID={}: splitCount={}, compressed={}, length={} bytes", msgId, splitCount, splitMsgs.getCompressionKind(), splitMsgs.getPayloadLength());
 
-                    LOG.info("Received msgID={}: compressed={} bytes, uncompressed={} bytes", compressedMsg.getMsgId(), encodedBytes.length, bytes.length);
+                            ret = deserializePayload(msgId, payload);
+                        }
+                    } finally {
+                        splitMsgs.release();
+                    }
                 }
-
-                AtlasNotificationMessage<T> atlasNotificationMessage = AtlasType.fromV1Json(msgJson, notificationMessageType);
-
-                checkVersion(atlasNotificationMessage, msgJson);
-
-                ret = atlasNotificationMessage.getMessage();
-            } else {
-                ret = null;
             }
         }
 
+        return ret;
+    }
 
-        long now                = System.currentTimeMillis();
-        long timeSinceLastPurge = now - splitMessagesLastPurgeTime;
+    /**
+     * Deserializes a message carried, after encoding, as the payload of a compressed or split message.
+     */
+    private T deserializePayload(String msgId, InputStream payload) throws IOException {
+        T ret = null;
 
-        if(timeSinceLastPurge >= splitMessageBufferPurgeIntervalMs) {
-            purgeStaleMessages(splitMsgBuffer, now, splitMessageSegmentsWaitTimeMs);
+        try (JsonParser parser = AtlasJson.createV1Parser(payload)) {
+            MessageEnvelope msg = MessageEnvelope.read(parser, bufferPool);
 
-            LOG.info("Notification processing stats: total={}, sinceLastStatsReport={}", messageCountTotal.get(), messageCountSinceLastInterval.getAndSet(0));
+            if (msg == null || msg.version == null) {
+                LOG.error("msgID={}: payload is not a notification message. Ignoring message", msgId);
+            } else {
+                msg.releasePayload(bufferPool);
 
-            splitMessagesLastPurgeTime = now;
+                checkVersion(msg.toBaseMessage(), "msgID=" + msgId);
+
+                if (msg.content != null) {
+                    try (JsonParser contentParser = msg.content.asParser()) {
+                        contentParser.nextToken();
+
+                        ret = AtlasJson.fromV1Json(contentParser, messageType);
+                    }
+                }
+            }
         }
 
         return ret;
@@ -267,6 +302,7 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
             for (SplitMessageAggregator aggregrator : evictionList) {
                 LOG.error("evicting notification msgID={}, totalSplitCount={}, receivedSplitCount={}", aggregrator.getMsgId(), aggregrator.getTotalSplitCount(), aggregrator.getReceivedSplitCount());
                 splitMsgBuffer.remove(aggregrator.getMsgId());
+                aggregrator.release();
             }
         }
 
@@ -302,4 +338,107 @@ public abstract class AtlasNotificationMessageDeserializer<T> implements Message
             notificationLogger.info(String.format(VERSION_MISMATCH_MSG, expectedVersion, notificationMessage.getVersion(), messageJson));
         }
     }
+
+    /**
+     * Envelope of a notification message, read in a single pass over the message. The message carried in the envelope
+     * is kept as tokens, to be deserialized once its type is known; an encoded message is kept as bytes in an array
+     * taken from the buffer pool.
+     */
+    private static class MessageEnvelope {
+        private MessageVersion  version;
+        private String          msgId;
+        private CompressionKind compressionKind = CompressionKind.NONE;
+        private int             splitIdx        = 1;
+        private int             splitCount      = 1;
+        private TokenBuffer     content;
+        private byte[]          payload;
+        private int             payloadLength;
+
+        static MessageEnvelope read(JsonParser parser, ByteArrayPool bufferPool) throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            MessageEnvelope ret = new MessageEnvelope();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String    fieldName = parser.getCurrentName();
+                JsonToken token     = parser.nextToken();
+
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+
+                switch (fieldName) {
+                    case "version":
+                        ret.version = parser.readValueAs(MessageVersion.class);
+                        break;
+
+                    case "msgId":
+                        ret.msgId = parser.getText();
+                        break;
+
+                    case "msgCompressionKind":
+                        ret.compressionKind = CompressionKind.valueOf(parser.getText());
+                        break;
+
+                    case "msgSplitIdx":
+                        ret.splitIdx = parser.getIntValue();
+                        break;
+
+                    case "msgSplitCount":
+                        ret.splitCount = parser.getIntValue();
+                        break;
+
+                    case "message":
+                        if (token == JsonToken.VALUE_STRING) {
+                            ret.readPayload(parser, bufferPool);
+                        } else {
+                            ret.content = new TokenBuffer(parser);
+
+                            ret.content.copyCurrentStructure(parser);
+                        }
+                        break;
+
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+
+            return ret;
+        }
+
+        AtlasNotificationBaseMessage toBaseMessage() {
+            return new AtlasNotificationBaseMessage(version, msgId, compressionKind, splitIdx, splitCount);
+        }
+
+        byte[] takePayload() {
+            byte[] ret = payload;
+
+            payload = null;
+
+            return ret;
+        }
+
+        void releasePayload(ByteArrayPool bufferPool) {
+            bufferPool.release(takePayload());
+        }
+
+        // encoded payload is base64 text, hence each character is copied as a single byte
+        private void readPayload(JsonParser parser, ByteArrayPool bufferPool) throws IOException {
+            char[] text   = parser.getTextCharacters();
+            int    offset = parser.getTextOffset();
+            int    length = parser.getTextLength();
+
+            releasePayload(bufferPool);
+
+            payload       = bufferPool.acquire(length);
+            payloadLength = length;
+
+            for (int i = 0; i < length; i++) {
+                payload[i] = (byte) text[offset + i];
+            }
+        }
+    }
 }
@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of byte arrays of a fixed size, used to hold payloads of notification messages while they are decoded. Arrays
+ * larger than the pooled size are allocated on demand and are not pooled.
+ */
+public class ByteArrayPool {
+    private final int                   arraySize;
+    private final BlockingQueue<byte[]> pool;
+
+    public ByteArrayPool(int arraySize, int maxPooledArrays) {
+        this.arraySize = arraySize;
+        this.pool      = new ArrayBlockingQueue<>(maxPooledArrays);
+    }
+
+    public byte[] acquire(int minSize) {
+        byte[] ret = minSize <= arraySize ? pool.poll() : null;
+
+        if (ret == null) {
+            ret = new byte[Math.max(minSize, arraySize)];
+        }
+
+        return ret;
+    }
+
+    public void release(byte[] array) {
+        if (array != null && array.length == arraySize) {
+            pool.offer(array);
+        }
+    }
+
+    public int getPooledCount() {
+        return pool.size();
+    }
+}
@@ -18,34 +18,52 @@
 package org.apache.atlas.notification;
 
 
-import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
 
-public class SplitMessageAggregator {
-    private final String                           msgId;
-    private final AtlasNotificationStringMessage[] splitMessagesBuffer;
-    private final long                             firstSplitTimestamp;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
-    public SplitMessageAggregator(AtlasNotificationStringMessage message) {
-        msgId               = message.getMsgId();
-        splitMessagesBuffer = new AtlasNotificationStringMessage[message.getMsgSplitCount()];
-        firstSplitTimestamp = System.currentTimeMillis();
+/**
+ * Collects payloads of the parts of a split message, in byte arrays taken from the given pool, until all parts arrive.
+ */
+public class SplitMessageAggregator {
+    private final String          msgId;
+    private final CompressionKind compressionKind;
+    private final ByteArrayPool   bufferPool;
+    private final byte[][]        splitPayloads;
+    private final int[]           splitLengths;
+    private final long            firstSplitTimestamp;
 
-        add(message);
+    public SplitMessageAggregator(String msgId, int splitCount, CompressionKind compressionKind, ByteArrayPool bufferPool) {
+        this.msgId               = msgId;
+        this.compressionKind     = compressionKind;
+        this.bufferPool          = bufferPool;
+        this.splitPayloads       = new byte[splitCount][];
+        this.splitLengths        = new int[splitCount];
+        this.firstSplitTimestamp = System.currentTimeMillis();
     }
 
     public String getMsgId() {
         return msgId;
     }
 
+    public CompressionKind getCompressionKind() {
+        return compressionKind;
+    }
+
     public long getTotalSplitCount() {
-        return splitMessagesBuffer.length;
+        return splitPayloads.length;
     }
 
     public long getReceivedSplitCount() {
         long ret = 0;
 
-        for (AtlasNotificationStringMessage split : splitMessagesBuffer) {
-            if (split != null) {
+        for (byte[] payload : splitPayloads) {
+            if (payload != null) {
                 ret++;
             }
         }
@@ -57,15 +75,57 @@ public class SplitMessageAggregator {
         return firstSplitTimestamp;
     }
 
-    public boolean add(AtlasNotificationStringMessage message) {
-        if (message.getMsgSplitIdx() < splitMessagesBuffer.length) {
-            splitMessagesBuffer[message.getMsgSplitIdx()] = message;
+    /**
+     * @param payload payload of the part, taken from the pool of this aggregator; the aggregator releases it to the pool
+     * @return true if this is the last part of the message
+     */
+    public boolean add(int splitIdx, byte[] payload, int length) {
+        if (splitIdx < splitPayloads.length) {
+            bufferPool.release(splitPayloads[splitIdx]);
+
+            splitPayloads[splitIdx] = payload;
+            splitLengths[splitIdx]  = length;
+        } else {
+            bufferPool.release(payload);
         }
 
-        return message.getMsgSplitIdx() == (message.getMsgSplitCount() - 1);
+        return splitIdx == (splitPayloads.length - 1);
+    }
+
+    public boolean isReceived(int splitIdx) {
+        return splitPayloads[splitIdx] != null;
     }
 
-    public AtlasNotificationStringMessage get(int i) {
-        return splitMessagesBuffer[i];
+    public long getPayloadLength() {
+        long ret = 0;
+
+        for (int length : splitLengths) {
+            ret += length;
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return payloads of all parts, in order, as a single stream; the stream reads from the pooled arrays, hence must
+     *         not be used after release()
+     */
+    public InputStream getPayloadStream() {
+        List<InputStream> streams = new ArrayList<>(splitPayloads.length);
+
+        for (int i = 0; i < splitPayloads.length; i++) {
+            streams.add(new ByteArrayInputStream(splitPayloads[i], 0, splitLengths[i]));
+        }
+
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    public void release() {
+        for (int i = 0; i < splitPayloads.length; i++) {
+            bufferPool.release(splitPayloads[i]);
+
+            splitPayloads[i] = null;
+            splitLengths[i]  = 0;
+        }
     }
 }
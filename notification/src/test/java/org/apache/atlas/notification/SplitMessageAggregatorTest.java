@@ -17,11 +17,13 @@
  */
 package org.apache.atlas.notification;
 
+import org.apache.atlas.model.notification.AtlasNotificationBaseMessage;
 import org.apache.atlas.model.notification.AtlasNotificationBaseMessage.CompressionKind;
-import org.apache.atlas.model.notification.AtlasNotificationStringMessage;
+import org.apache.commons.io.IOUtils;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -51,6 +53,31 @@ public class SplitMessageAggregatorTest {
         Assert.assertEquals(map.size(), expectedSize);
     }
 
+    @Test
+    public void verifyPayloadStreamAndRelease() throws IOException {
+        ByteArrayPool          pool = new ByteArrayPool(8, 4);
+        SplitMessageAggregator sma  = new SplitMessageAggregator("1", 3, CompressionKind.NONE, pool);
+        String[]               parts = { "abc", "de", "fgh" };
+
+        for (int i = parts.length - 1; i >= 0; i--) {
+            byte[] payload = pool.acquire(parts[i].length());
+
+            System.arraycopy(AtlasNotificationBaseMessage.getBytesUtf8(parts[i]), 0, payload, 0, parts[i].length());
+
+            Assert.assertEquals(sma.add(i, payload, parts[i].length()), i == parts.length - 1);
+        }
+
+        Assert.assertEquals(sma.getReceivedSplitCount(), 3);
+        Assert.assertEquals(sma.getPayloadLength(), 8);
+        Assert.assertEquals(AtlasNotificationBaseMessage.getStringUtf8(IOUtils.toByteArray(sma.getPayloadStream())), "abcdefgh");
+        Assert.assertEquals(pool.getPooledCount(), 0);
+
+        sma.release();
+
+        Assert.assertEquals(pool.getPooledCount(), 3);
+        Assert.assertEquals(sma.getReceivedSplitCount(), 0);
+    }
+
     private Map<String, SplitMessageAggregator> getStringSplitMessageAggregatorMap() {
         Map<String, SplitMessageAggregator> map = new HashMap<>();
 
@@ -61,16 +88,12 @@ public class SplitMessageAggregatorTest {
     }
 
     private SplitMessageAggregator getSplitMessageAggregator(String id, int splitCount) {
-        SplitMessageAggregator sma = null;
+        SplitMessageAggregator sma = new SplitMessageAggregator(id, splitCount, CompressionKind.NONE, new ByteArrayPool(16, 1));
 
         for (int i = 0; i < splitCount; i++) {
-            AtlasNotificationStringMessage sm = new AtlasNotificationStringMessage("aaaaa", id, CompressionKind.NONE, i, splitCount);
+            byte[] payload = AtlasNotificationBaseMessage.getBytesUtf8("aaaaa");
 
-            if(sma == null) {
-                sma = new SplitMessageAggregator(sm);
-            } else {
-                sma.add(sm);
-            }
+            sma.add(i, payload, payload.length);
         }
 
         return sma;
@@ -32,10 +32,13 @@ import javax.inject.Inject;
 import javax.ws.rs.core.Response;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Component
@@ -164,11 +167,11 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
         graph.rollback();
     }
 
-    public static void lockObjectAndReleasePostCommit(final String guid) {
+    public static void lockObjectAndReleasePostCommit(final String guid) throws AtlasBaseException {
         OBJECT_UPDATE_SYNCHRONIZER.lockObject(guid);
     }
 
-    public static void lockObjectAndReleasePostCommit(final List<String> guids) {
+    public static void lockObjectAndReleasePostCommit(final List<String> guids) throws AtlasBaseException {
         OBJECT_UPDATE_SYNCHRONIZER.lockObject(guids);
     }
 
@@ -198,105 +201,196 @@ public class GraphTransactionInterceptor implements MethodInterceptor {
         public abstract void onComplete(boolean isSuccess);
     }
 
-    private static class RefCountedReentrantLock extends ReentrantLock {
-        private int refCount;
-
-        public RefCountedReentrantLock() {
-            this.refCount = 0;
-        }
-
-        public int increment() {
-            return ++refCount;
-        }
+    public static Map<String, Object> getLockMetrics() {
+        return OBJECT_UPDATE_SYNCHRONIZER.getMetrics();
+    }
 
-        public int decrement() {
-            return --refCount;
+    /**
+     * Locks entities, by guid, for the duration of a transaction. Guids are hashed to a fixed number of locks, so that
+     * the lock table does not grow with the number of entities being updated; unrelated guids that hash to the same lock
+     * are serialized. Locks for a set of guids are acquired in the order of their index in the table, to avoid deadlocks
+     * between threads locking overlapping sets of guids. Locks still held from an earlier call in the same transaction
+     * might not follow this order; when a timeout is configured, acquisition fails after the timeout instead of blocking
+     * forever. With no timeout (the default), a thread waits for the locks until they are released.
+     */
+    public static class ObjectUpdateSynchronizer {
+        private static final long[] WAIT_TIME_BUCKETS_MS = { 1, 10, 100, 1000, 10000, Long.MAX_VALUE };
+
+        private final ReentrantLock[] locks;
+        private final int             mask;
+        private final long            timeoutMs;
+        private final LongAdder       lockRequests    = new LongAdder();
+        private final LongAdder       contendedLocks  = new LongAdder();
+        private final LongAdder       timeouts        = new LongAdder();
+        private final LongAdder       totalWaitTimeMs = new LongAdder();
+        private final LongAdder[]     waitTimeCounts  = new LongAdder[WAIT_TIME_BUCKETS_MS.length];
+        private final ThreadLocal<List<ReentrantLock>> lockedObjects = ThreadLocal.withInitial(ArrayList::new);
+
+        public ObjectUpdateSynchronizer() {
+            this(AtlasConfiguration.GRAPH_TXN_LOCK_STRIPES.getInt(), AtlasConfiguration.GRAPH_TXN_LOCK_TIMEOUT_MS.getLong());
         }
 
-        public int getRefCount() { return refCount; }
-    }
+        public ObjectUpdateSynchronizer(int numLocks, long timeoutMs) {
+            int size = Integer.highestOneBit(Math.max(numLocks, 1) * 2 - 1);
 
+            this.locks     = new ReentrantLock[size];
+            this.mask      = size - 1;
+            this.timeoutMs = timeoutMs;
 
-    public static class ObjectUpdateSynchronizer {
-        private final Map<String, RefCountedReentrantLock> guidLockMap = new ConcurrentHashMap<>();
-        private final ThreadLocal<List<String>>  lockedGuids = new ThreadLocal<List<String>>() {
-            @Override
-            protected List<String> initialValue() {
-                return new ArrayList<>();
+            for (int i = 0; i < locks.length; i++) {
+                locks[i] = new ReentrantLock();
             }
-        };
 
-        public void lockObject(final List<String> guids) {
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("==> lockObject(): guids: {}", guids);
+            for (int i = 0; i < waitTimeCounts.length; i++) {
+                waitTimeCounts[i] = new LongAdder();
             }
+        }
 
-            Collections.sort(guids);
-            for (String g : guids) {
-                lockObject(g);
-            }
+        public void lockObject(final String guid) throws AtlasBaseException {
+            lockObject(Collections.singletonList(guid));
         }
 
-        private void lockObject(final String guid) {
+        public void lockObject(final List<String> guids) throws AtlasBaseException {
             if (LOG.isDebugEnabled()) {
-                LOG.debug("==> lockObject(): guid: {}, guidLockMap.size: {}", guid, guidLockMap.size());
+                LOG.debug("==> lockObject(): guids: {}", guids);
             }
 
-            ReentrantLock lock = getOrCreateObjectLock(guid);
-            lock.lock();
+            int[] indexes = getLockIndexes(guids);
+            long  waitNs  = 0;
+            int   count   = 0;
+
+            lockRequests.increment();
 
-            lockedGuids.get().add(guid);
+            try {
+                for (; count < indexes.length; count++) {
+                    ReentrantLock lock = locks[indexes[count]];
+
+                    if (!lock.tryLock()) {
+                        waitNs += waitForLock(lock, guids, waitNs);
+                    }
+
+                    lockedObjects.get().add(lock);
+                }
+            } finally {
+                if (count < indexes.length) { // release locks acquired in this call, when failed to acquire all of them
+                    List<ReentrantLock> lockedList = lockedObjects.get();
+
+                    for (int i = 0; i < count; i++) {
+                        lockedList.remove(lockedList.size() - 1).unlock();
+                    }
+                }
+
+                recordWaitTime(TimeUnit.NANOSECONDS.toMillis(waitNs));
+            }
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("<== lockObject(): guid: {}, guidLockMap.size: {}", guid, guidLockMap.size());
+                LOG.debug("<== lockObject(): guids: {}, waitTimeMs: {}", guids, TimeUnit.NANOSECONDS.toMillis(waitNs));
             }
         }
 
         public void releaseLockedObjects() {
+            List<ReentrantLock> lockedList = lockedObjects.get();
+
             if (LOG.isDebugEnabled()) {
-                LOG.debug("==> releaseLockedObjects(): lockedGuids.size: {}", lockedGuids.get().size());
+                LOG.debug("==> releaseLockedObjects(): lockedObjects.size: {}", lockedList.size());
             }
 
-            for (String guid : lockedGuids.get()) {
-                releaseObjectLock(guid);
+            for (int i = lockedList.size() - 1; i >= 0; i--) {
+                ReentrantLock lock = lockedList.get(i);
+
+                if (lock.isHeldByCurrentThread()) {
+                    lock.unlock();
+                } else {
+                    LOG.warn("releaseLockedObjects: attempting to release a lock not held by current thread.");
+                }
             }
 
-            lockedGuids.get().clear();
+            lockedList.clear();
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("<== releaseLockedObjects(): lockedGuids.size: {}", lockedGuids.get().size());
+                LOG.debug("<== releaseLockedObjects(): lockedObjects.size: {}", lockedList.size());
             }
         }
 
-        private RefCountedReentrantLock getOrCreateObjectLock(String guid) {
-            synchronized (guidLockMap) {
-                RefCountedReentrantLock ret = guidLockMap.get(guid);
-                if (ret == null) {
-                    ret = new RefCountedReentrantLock();
-                    guidLockMap.put(guid, ret);
-                }
+        public Map<String, Object> getMetrics() {
+            Map<String, Object> ret      = new LinkedHashMap<>();
+            Map<String, Long>   waitTime = new LinkedHashMap<>();
 
-                ret.increment();
-                return ret;
+            for (int i = 0; i < WAIT_TIME_BUCKETS_MS.length; i++) {
+                String bucket = WAIT_TIME_BUCKETS_MS[i] == Long.MAX_VALUE ? (">=" + WAIT_TIME_BUCKETS_MS[i - 1]) : ("<" + WAIT_TIME_BUCKETS_MS[i]);
+
+                waitTime.put(bucket, waitTimeCounts[i].sum());
             }
+
+            ret.put("numLocks", locks.length);
+            ret.put("lockRequests", lockRequests.sum());
+            ret.put("contendedLocks", contendedLocks.sum());
+            ret.put("timeouts", timeouts.sum());
+            ret.put("totalWaitTimeMs", totalWaitTimeMs.sum());
+            ret.put("waitTimeMs", waitTime);
+
+            return ret;
         }
 
-        private RefCountedReentrantLock releaseObjectLock(String guid) {
-            synchronized (guidLockMap) {
-                RefCountedReentrantLock lock = guidLockMap.get(guid);
-                if (lock != null && lock.isHeldByCurrentThread()) {
-                    int refCount = lock.decrement();
+        int getLockIndex(String guid) {
+            int h = guid.hashCode();
 
-                    if (refCount == 0) {
-                        guidLockMap.remove(guid);
-                    }
+            return (h ^ (h >>> 16)) & mask;
+        }
 
-                    lock.unlock();
+        private int[] getLockIndexes(List<String> guids) {
+            int[] ret = new int[guids.size()];
+
+            for (int i = 0; i < ret.length; i++) {
+                ret[i] = getLockIndex(guids.get(i));
+            }
+
+            return Arrays.stream(ret).sorted().distinct().toArray();
+        }
+
+        private long waitForLock(ReentrantLock lock, List<String> guids, long waitedNs) throws AtlasBaseException {
+            MetricRecorder metric  = RequestContext.get().startMetricRecord("lockObjectWait");
+            long           startNs = System.nanoTime();
+            boolean        locked  = false;
+
+            contendedLocks.increment();
+
+            try {
+                if (timeoutMs > 0) {
+                    long timeoutNs = TimeUnit.MILLISECONDS.toNanos(timeoutMs) - waitedNs;
+
+                    locked = timeoutNs > 0 && lock.tryLock(timeoutNs, TimeUnit.NANOSECONDS);
                 } else {
-                    LOG.warn("releaseLockedObjects: {} Attempting to release a lock not held by current thread.", guid);
+                    lock.lockInterruptibly();
+
+                    locked = true;
                 }
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+            } finally {
+                RequestContext.get().endMetricRecord(metric);
+            }
+
+            if (!locked) {
+                timeouts.increment();
+
+                LOG.warn("lockObject(): failed to get the lock on guids {} in {} ms", guids, timeoutMs);
 
-                return lock;
+                throw new AtlasBaseException(AtlasErrorCode.FAILED_TO_OBTAIN_ENTITY_LOCK, guids.toString(), String.valueOf(timeoutMs));
+            }
+
+            return System.nanoTime() - startNs;
+        }
+
+        private void recordWaitTime(long waitTimeMs) {
+            totalWaitTimeMs.add(waitTimeMs);
+
+            for (int i = 0; i < WAIT_TIME_BUCKETS_MS.length; i++) {
+                if (waitTimeMs < WAIT_TIME_BUCKETS_MS[i]) {
+                    waitTimeCounts[i].increment();
+
+                    break;
+                }
             }
         }
     }
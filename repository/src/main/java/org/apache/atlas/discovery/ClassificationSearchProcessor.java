@@ -216,25 +216,34 @@ public class ClassificationSearchProcessor extends SearchProcessor {
         }
 
         try {
-            final int     startIdx   = context.getSearchParameters().getOffset();
-            final int     limit      = context.getSearchParameters().getLimit();
-            final boolean activeOnly = context.getSearchParameters().getExcludeDeletedEntities();
+            final SearchContinuation continuation = context.getContinuation();
+            final int                startIdx     = continuation != null ? 0 : context.getSearchParameters().getOffset();
+            final int                limit        = context.getSearchParameters().getLimit();
+            final boolean            activeOnly   = context.getSearchParameters().getExcludeDeletedEntities();
 
             // query to start at 0, even though startIdx can be higher - because few results in earlier retrieval could
             // have been dropped: like non-active-entities or duplicate-entities (same entity pointed to by multiple
             // classifications in the result)
+            // - unless resuming from a continuation, in which case query starts at the page where the previous search stopped,
+            // skipping the first 'skipCount' entries of that page. Entities are de-duplicated within each query page before
+            // the skip, so that the page is consumed identically on resume; duplicates across query pages are eliminated
+            // only from the resumed page on - i.e. an entity returned in an earlier page, due to another classification, can
+            // be returned again in a later page. See SearchParameters.continuationToken
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = 0;
-            int resultIdx = qryOffset;
+            int qryOffset = continuation != null ? continuation.getQueryOffset() : 0;
+            int pageSkip  = continuation != null ? continuation.getSkipCount() : 0;
+            int resultIdx = 0;
 
             final Set<String>       processedGuids         = new HashSet<>();
+            final Set<String>       pageGuids              = new HashSet<>();
             final List<AtlasVertex> entityVertices         = new ArrayList<>();
             final List<AtlasVertex> classificationVertices = new ArrayList<>();
 
             for (; ret.size() < limit; qryOffset += limit) {
                 entityVertices.clear();
                 classificationVertices.clear();
+                pageGuids.clear();
 
                 if (context.terminateSearch()) {
                     LOG.warn("query terminated: {}", context.getSearchParameters());
@@ -288,20 +297,42 @@ public class ClassificationSearchProcessor extends SearchProcessor {
 
                             String guid = AtlasGraphUtilsV2.getIdFromVertex(entityVertex);
 
-                            if (processedGuids.contains(guid)) {
-                                continue;
+                            if (pageGuids.add(guid)) {
+                                entityVertices.add(entityVertex);
                             }
-
-                            entityVertices.add(entityVertex);
-
-                            processedGuids.add(guid);
                         }
                     }
                 }
 
                 super.filter(entityVertices);
 
-                resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
+                int consumedCount = 0;
+
+                for (AtlasVertex entityVertex : entityVertices) {
+                    if (ret.size() == limit) {
+                        break;
+                    }
+
+                    consumedCount++;
+
+                    boolean isNewEntity = processedGuids.add(AtlasGraphUtilsV2.getIdFromVertex(entityVertex));
+
+                    if (consumedCount <= pageSkip || !isNewEntity) {
+                        continue;
+                    }
+
+                    resultIdx++;
+
+                    if (resultIdx > startIdx) {
+                        ret.add(entityVertex);
+                    }
+                }
+
+                pageSkip = 0;
+
+                if (ret.size() == limit) {
+                    setNextContinuation(qryOffset, limit, consumedCount, entityVertices.size(), isLastResultPage);
+                }
 
                 if (isLastResultPage) {
                     break;
@@ -334,16 +365,21 @@ public class ClassificationSearchProcessor extends SearchProcessor {
             if (CollectionUtils.isNotEmpty(guids)) {
                 gremlinQueryBindings.put("guids", guids);
 
+                AtlasGraph   graph               = context.getGraph();
+                ScriptEngine gremlinScriptEngine = null;
+
                 try {
-                    AtlasGraph        graph               = context.getGraph();
-                    ScriptEngine      gremlinScriptEngine = graph.getGremlinScriptEngine();
-                    List<AtlasVertex> atlasVertices       = (List<AtlasVertex>) graph.executeGremlinScript(gremlinScriptEngine, gremlinQueryBindings, gremlinTagFilterQuery, false);
+                    gremlinScriptEngine = graph.getGremlinScriptEngine();
+
+                    List<AtlasVertex> atlasVertices = (List<AtlasVertex>) graph.executeGremlinScript(gremlinScriptEngine, gremlinQueryBindings, gremlinTagFilterQuery, false);
 
                     if (CollectionUtils.isNotEmpty(atlasVertices)) {
                         entityVertices.addAll(atlasVertices);
                     }
                 } catch (AtlasBaseException | ScriptException e) {
                     LOG.warn(e.getMessage(), e);
+                } finally {
+                    graph.releaseGremlinScriptEngine(gremlinScriptEngine);
                 }
             }
         } else if (entityPredicateTraitNames != null) {
@@ -34,7 +34,7 @@ import org.apache.atlas.model.discovery.SearchParameters;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.profile.AtlasUserSavedSearch;
-import org.apache.atlas.query.AtlasDSL;
+import org.apache.atlas.query.DSLQueryPlanCache;
 import org.apache.atlas.query.GremlinQuery;
 import org.apache.atlas.query.QueryParams;
 import org.apache.atlas.repository.Constants;
@@ -100,11 +100,12 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
     private final int                             maxTagsLengthInIdxQuery;
     private final String                          indexSearchPrefix;
     private final UserProfileService              userProfileService;
+    private final DSLQueryPlanCache               dslQueryPlanCache;
 
     @Inject
     EntityDiscoveryService(AtlasTypeRegistry typeRegistry,
                            AtlasGraph graph, GraphBackedSearchIndexer indexer, SearchTracker searchTracker,
-                           UserProfileService userProfileService) throws AtlasException {
+                           UserProfileService userProfileService, DSLQueryPlanCache dslQueryPlanCache) throws AtlasException {
         this.graph                    = graph;
         this.entityRetriever          = new EntityGraphRetriever(typeRegistry);
         this.indexer                  = indexer;
@@ -116,6 +117,7 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         this.maxTagsLengthInIdxQuery  = ApplicationProperties.get().getInt(Constants.INDEX_SEARCH_TAGS_MAX_QUERY_STR_LENGTH, 512);
         this.indexSearchPrefix        = AtlasGraphUtilsV2.getIndexSearchPrefix();
         this.userProfileService       = userProfileService;
+        this.dslQueryPlanCache        = dslQueryPlanCache;
     }
 
     @Override
@@ -129,7 +131,7 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
             LOG.debug("Executing DSL: query={}, gremlinQuery={}", dslQuery, queryStr);
         }
 
-        Object result = graph.executeGremlinScript(queryStr, false);
+        Object result = executeGremlinQuery(gremlinQuery);
 
         if (result instanceof List && CollectionUtils.isNotEmpty((List)result)) {
             List   queryResult  = (List) result;
@@ -433,6 +435,10 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         try {
             List<AtlasVertex> resultList = context.getSearchProcessor().execute();
 
+            if (context.getNextContinuation() != null) {
+                ret.setContinuationToken(context.getNextContinuation().toToken(searchParameters));
+            }
+
             // By default any attribute that shows up in the search parameter should be sent back in the response
             // If additional values are requested then the entityAttributes will be a superset of the all search attributes
             // and the explicitly requested attribute(s)
@@ -591,7 +597,7 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
         bindings.put("endIdx", params.offset() + params.limit());
 
         try {
-            Object result = graph.executeGremlinScript(scriptEngine, bindings, relatedEntitiesQuery, false);
+            Object result = graph.executeGremlinScript(scriptEngine, bindings, relatedEntitiesQuery, false, true);
 
             if (result instanceof List && CollectionUtils.isNotEmpty((List) result)) {
                 List<?> queryResult  = (List) result;
@@ -686,15 +692,31 @@ public class EntityDiscoveryService implements AtlasDiscoveryService {
 
     private GremlinQuery toGremlinQuery(String query, int limit, int offset) throws AtlasBaseException {
         QueryParams                 params       = QueryParams.getNormalizedParams(limit, offset);
-        GremlinQuery                gremlinQuery = new AtlasDSL.Translator(query, typeRegistry, params.offset(), params.limit()).translate();
+        GremlinQuery                gremlinQuery = dslQueryPlanCache.getGremlinQuery(query, params.limit(), params.offset());
 
         if (LOG.isDebugEnabled()) {
-            LOG.debug("Translated Gremlin Query: {}", gremlinQuery.queryStr());
+            LOG.debug("Translated Gremlin Query: {}, bindings: {}", gremlinQuery.queryStr(), gremlinQuery.getBindings());
         }
 
         return gremlinQuery;
     }
 
+    private Object executeGremlinQuery(GremlinQuery gremlinQuery) throws AtlasBaseException {
+        if (MapUtils.isEmpty(gremlinQuery.getBindings())) {
+            return graph.executeGremlinScript(gremlinQuery.queryStr(), false);
+        }
+
+        ScriptEngine scriptEngine = graph.getGremlinScriptEngine();
+
+        try {
+            return graph.executeGremlinScript(scriptEngine, gremlinQuery.getBindings(), gremlinQuery.queryStr(), false);
+        } catch (ScriptException e) {
+            throw new AtlasBaseException(AtlasErrorCode.GREMLIN_SCRIPT_EXECUTION_FAILED, e, gremlinQuery.queryStr());
+        } finally {
+            graph.releaseGremlinScriptEngine(scriptEngine);
+        }
+    }
+
     private AtlasIndexQuery toAtlasIndexQuery(String fullTextQuery) {
         String graphQuery = String.format(indexSearchPrefix + "\"%s\":(%s)", Constants.ENTITY_TEXT_PROPERTY_KEY, fullTextQuery);
         return graph.indexQuery(Constants.FULLTEXT_INDEX, graphQuery);
@@ -19,7 +19,10 @@
 package org.apache.atlas.discovery;
 
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.RequestContext;
 import org.apache.atlas.annotation.GraphTransaction;
 import org.apache.atlas.authorize.AtlasAuthorizationUtils;
 import org.apache.atlas.authorize.AtlasEntityAccessRequest;
@@ -49,6 +52,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
@@ -58,6 +62,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static org.apache.atlas.AtlasClient.DATA_SET_SUPER_TYPE;
@@ -76,21 +84,35 @@ import static org.apache.atlas.util.AtlasGremlinQueryProvider.AtlasGremlinQuery.
 public class EntityLineageService implements AtlasLineageService {
     private static final Logger LOG = LoggerFactory.getLogger(EntityLineageService.class);
 
-    private static final String PROCESS_INPUTS_EDGE  = "__Process.inputs";
-    private static final String PROCESS_OUTPUTS_EDGE = "__Process.outputs";
+    private static final String PROCESS_INPUTS_EDGE  = LineageTraverser.PROCESS_INPUTS_EDGE;
+    private static final String PROCESS_OUTPUTS_EDGE = LineageTraverser.PROCESS_OUTPUTS_EDGE;
     private static final String COLUMNS              = "columns";
 
     private final AtlasGraph                graph;
     private final AtlasGremlinQueryProvider gremlinQueryProvider;
     private final EntityGraphRetriever      entityRetriever;
     private final AtlasTypeRegistry         atlasTypeRegistry;
+    private final LineageTraverser          lineageTraverser;
+    private final LineageIndex              lineageIndex;
+    private final boolean                   useGremlinQuery;
+    private final ExecutorService           lineageExecutor;
 
     @Inject
-    EntityLineageService(AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph) {
+    EntityLineageService(AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph, LineageIndex lineageIndex) {
         this.graph = atlasGraph;
         this.gremlinQueryProvider = AtlasGremlinQueryProvider.INSTANCE;
         this.entityRetriever = new EntityGraphRetriever(typeRegistry);
         this.atlasTypeRegistry = typeRegistry;
+        this.lineageTraverser = new LineageTraverser(atlasGraph, entityRetriever);
+        this.lineageIndex = lineageIndex;
+        this.useGremlinQuery = AtlasConfiguration.LINEAGE_QUERY_USING_GREMLIN.getBoolean();
+        this.lineageExecutor = Executors.newFixedThreadPool(Math.max(AtlasConfiguration.LINEAGE_QUERY_THREADS.getInt(), 1),
+                                                            new ThreadFactoryBuilder().setNameFormat("atlas-lineage-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void cleanUp() {
+        lineageExecutor.shutdownNow();
     }
 
     @Override
@@ -205,6 +227,25 @@ public class EntityLineageService implements AtlasLineageService {
     }
 
     private AtlasLineageInfo getLineageInfo(String guid, LineageDirection direction, int depth, boolean isDataSet) throws AtlasBaseException {
+        AtlasLineageInfo ret = null;
+
+        if (useGremlinQuery) {
+            ret = getLineageInfoUsingGremlin(guid, direction, depth, isDataSet);
+        } else {
+            if (lineageIndex.isReady()) {
+                // null if the index got discarded after the check
+                ret = lineageIndex.getLineageInfo(guid, direction, depth, isDataSet);
+            }
+
+            if (ret == null) {
+                ret = lineageTraverser.getLineageInfo(guid, direction, depth, isDataSet);
+            }
+        }
+
+        return ret;
+    }
+
+    private AtlasLineageInfo getLineageInfoUsingGremlin(String guid, LineageDirection direction, int depth, boolean isDataSet) throws AtlasBaseException {
         final Map<String, Object>      bindings     = new HashMap<>();
         String                         lineageQuery = getLineageQuery(guid, direction, depth, isDataSet, bindings);
         List                           results      = executeGremlinScript(bindings, lineageQuery);
@@ -246,7 +287,7 @@ public class EntityLineageService implements AtlasLineageService {
         ScriptEngine engine = graph.getGremlinScriptEngine();
 
         try {
-            ret = (List) graph.executeGremlinScript(engine, bindings, lineageQuery, false);
+            ret = (List) graph.executeGremlinScript(engine, bindings, lineageQuery, false, true);
         } catch (ScriptException e) {
             throw new AtlasBaseException(INSTANCE_LINEAGE_QUERY_FAILED, lineageQuery);
         } finally {
@@ -282,8 +323,37 @@ public class EntityLineageService implements AtlasLineageService {
     }
 
     private AtlasLineageInfo getBothLineageInfo(String guid, int depth, boolean isDataSet) throws AtlasBaseException {
-        AtlasLineageInfo inputLineage  = getLineageInfo(guid, INPUT, depth, isDataSet);
-        AtlasLineageInfo outputLineage = getLineageInfo(guid, OUTPUT, depth, isDataSet);
+        // output lineage is computed in a separate thread, with its own graph transaction, while this thread computes input lineage
+        RequestContext           requestContext      = RequestContext.get();
+        String                   user                = requestContext.getUser();
+        Set<String>              userGroups          = requestContext.getUserGroups();
+        String                   clientIPAddress     = requestContext.getClientIPAddress();
+        Future<AtlasLineageInfo> outputLineageFuture = lineageExecutor.submit(() -> {
+            try {
+                RequestContext workerContext = RequestContext.get();
+
+                workerContext.setUser(user, userGroups);
+                workerContext.setClientIPAddress(clientIPAddress);
+
+                return getLineageInfo(guid, OUTPUT, depth, isDataSet);
+            } finally {
+                graph.rollback();
+
+                RequestContext.clear();
+            }
+        });
+
+        AtlasLineageInfo inputLineage;
+
+        try {
+            inputLineage = getLineageInfo(guid, INPUT, depth, isDataSet);
+        } catch (AtlasBaseException e) {
+            outputLineageFuture.cancel(true);
+
+            throw e;
+        }
+
+        AtlasLineageInfo outputLineage = getLineageInfo(outputLineageFuture, guid);
         AtlasLineageInfo ret           = inputLineage;
 
         ret.getRelations().addAll(outputLineage.getRelations());
@@ -293,6 +363,22 @@ public class EntityLineageService implements AtlasLineageService {
         return ret;
     }
 
+    private AtlasLineageInfo getLineageInfo(Future<AtlasLineageInfo> lineageFuture, String guid) throws AtlasBaseException {
+        try {
+            return lineageFuture.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new AtlasBaseException(INSTANCE_LINEAGE_QUERY_FAILED, e, guid);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AtlasBaseException) {
+                throw (AtlasBaseException) e.getCause();
+            }
+
+            throw new AtlasBaseException(INSTANCE_LINEAGE_QUERY_FAILED, e.getCause(), guid);
+        }
+    }
+
     private String getLineageQuery(String entityGuid, LineageDirection direction, int depth, boolean isDataSet, Map<String, Object> bindings) {
         String incomingFrom = null;
         String outgoingTo   = null;
@@ -211,6 +211,15 @@ public class EntitySearchProcessor extends SearchProcessor {
             graphQueryPredicate = null;
         }
 
+        // sort in the query the results are read from
+        if (context.getSortKey() != null) {
+            if (this.indexQuery != null) {
+                this.indexQuery.orderBy(context.getSortKey(), context.getSortOrder());
+            } else {
+                graphQuery.orderBy(context.getSortKey(), context.getSortOrder());
+            }
+        }
+
 
         // Prepare the graph query and in-memory filter for the filtering phase
         filterGraphQueryPredicate = typeNamePredicate;
@@ -246,14 +255,23 @@ public class EntitySearchProcessor extends SearchProcessor {
         }
 
         try {
-            final int startIdx = context.getSearchParameters().getOffset();
-            final int limit    = context.getSearchParameters().getLimit();
+            final SearchContinuation continuation = context.getContinuation();
+            final int                startIdx     = continuation != null ? continuation.getSkipCount() : context.getSearchParameters().getOffset();
+            final int                limit        = context.getSearchParameters().getLimit();
 
-            // when subsequent filtering stages are involved, query should start at 0 even though startIdx can be higher
+            // when resuming from a continuation, query starts at the page where the previous search stopped; else when
+            // subsequent filtering stages are involved, query should start at 0 even though startIdx can be higher
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = (nextProcessor != null || (graphQuery != null && indexQuery != null)) ? 0 : startIdx;
-            int resultIdx = qryOffset;
+            int qryOffset;
+
+            if (continuation != null) {
+                qryOffset = continuation.getQueryOffset();
+            } else {
+                qryOffset = (nextProcessor != null || (graphQuery != null && indexQuery != null)) ? 0 : startIdx;
+            }
+
+            int resultIdx = continuation != null ? 0 : qryOffset;
 
             final List<AtlasVertex> entityVertices = new ArrayList<>();
 
@@ -291,8 +309,14 @@ public class EntitySearchProcessor extends SearchProcessor {
 
                 super.filter(entityVertices);
 
+                int pageStartIdx = resultIdx;
+
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
 
+                if (ret.size() == limit) {
+                    setNextContinuation(qryOffset, limit, resultIdx - pageStartIdx, entityVertices.size(), isLastResultPage);
+                }
+
                 if (isLastResultPage) {
                     break;
                 }
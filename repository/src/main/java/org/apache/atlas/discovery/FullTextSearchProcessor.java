@@ -98,16 +98,18 @@ public class FullTextSearchProcessor extends SearchProcessor {
         }
 
         try {
-            final int     startIdx   = context.getSearchParameters().getOffset();
-            final int     limit      = context.getSearchParameters().getLimit();
-            final boolean activeOnly = context.getSearchParameters().getExcludeDeletedEntities();
+            final SearchContinuation continuation = context.getContinuation();
+            final int                startIdx     = continuation != null ? continuation.getSkipCount() : context.getSearchParameters().getOffset();
+            final int                limit        = context.getSearchParameters().getLimit();
+            final boolean            activeOnly   = context.getSearchParameters().getExcludeDeletedEntities();
 
             // query to start at 0, even though startIdx can be higher - because few results in earlier retrieval could
             // have been dropped: like vertices of non-entity or non-active-entity
+            // - unless resuming from a continuation, in which case query starts at the page where the previous search stopped
             //
             // first 'startIdx' number of entries will be ignored
-            int qryOffset = 0;
-            int resultIdx = qryOffset;
+            int qryOffset = continuation != null ? continuation.getQueryOffset() : 0;
+            int resultIdx = 0;
 
             final List<AtlasVertex> entityVertices = new ArrayList<>();
 
@@ -150,8 +152,14 @@ public class FullTextSearchProcessor extends SearchProcessor {
 
                 super.filter(entityVertices);
 
+                int pageStartIdx = resultIdx;
+
                 resultIdx = collectResultVertices(ret, startIdx, limit, resultIdx, entityVertices);
 
+                if (ret.size() == limit) {
+                    setNextContinuation(qryOffset, limit, resultIdx - pageStartIdx, entityVertices.size(), isLastResultPage);
+                }
+
                 if (isLastResultPage) {
                     break;
                 }
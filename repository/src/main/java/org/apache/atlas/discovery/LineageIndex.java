@@ -0,0 +1,932 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.lineage.AtlasLineageInfo;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
+import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.utils.AtlasPerfTracer;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.apache.atlas.AtlasClient.PROCESS_SUPER_TYPE;
+import static org.apache.atlas.discovery.LineageTraverser.PROCESS_INPUTS_EDGE;
+import static org.apache.atlas.discovery.LineageTraverser.PROCESS_OUTPUTS_EDGE;
+import static org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection.INPUT;
+import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.RELATIONSHIP_GUID_PROPERTY_KEY;
+
+/**
+ * Materialized DataSet -> Process -> DataSet adjacency, used to serve lineage requests without traversing the graph.
+ *
+ * The index is built in the background, on first use or on an explicit rebuild request. Once built, it is kept
+ * current by re-reading the edges of Process entities created, updated or deleted in a transaction, and applying
+ * them to the index after the transaction is committed. Until the index is built, lineage is computed from the graph.
+ *
+ * Only the active server sees the updates, hence the index is used only while this server is active; lineage is
+ * computed from the graph otherwise. The index is discarded when the server becomes passive, and is rebuilt on first
+ * use after it becomes active again.
+ */
+@Component
+public class LineageIndex implements ActiveStateChangeHandler {
+    private static final Logger LOG      = LoggerFactory.getLogger(LineageIndex.class);
+    private static final Logger PERF_LOG = AtlasPerfTracer.getPerfLogger("LineageIndex");
+
+    private static final long[]   EMPTY_IDS   = new long[0];
+    private static final String[] EMPTY_GUIDS = new String[0];
+
+    public static final String METRIC_ENABLED                = "enabled";
+    public static final String METRIC_READY                  = "ready";
+    public static final String METRIC_REBUILD_IN_PROGRESS    = "rebuildInProgress";
+    public static final String METRIC_PROCESS_COUNT          = "processCount";
+    public static final String METRIC_DATASET_COUNT          = "dataSetCount";
+    public static final String METRIC_EDGE_COUNT             = "edgeCount";
+    public static final String METRIC_LINEAGE_REQUESTS       = "lineageRequests";
+    public static final String METRIC_LINEAGE_FALLBACKS      = "lineageFallbacks";
+    public static final String METRIC_UPDATES_APPLIED        = "updatesApplied";
+    public static final String METRIC_UPDATES_DISCARDED      = "updatesDiscarded";
+    public static final String METRIC_UPDATE_FAILURES        = "updateFailures";
+    public static final String METRIC_STALE_VERTICES         = "staleVertices";
+    public static final String METRIC_REBUILD_COUNT          = "rebuildCount";
+    public static final String METRIC_LAST_REBUILD_TIME      = "lastRebuildTime";
+    public static final String METRIC_LAST_REBUILD_DURATION  = "lastRebuildDurationMs";
+
+    private final AtlasGraph                     graph;
+    private final AtlasTypeRegistry              typeRegistry;
+    private final EntityGraphRetriever           entityRetriever;
+    private final boolean                        isEnabled;
+    private final ReentrantReadWriteLock         lock               = new ReentrantReadWriteLock();
+    private final AtomicBoolean                  rebuildInProgress  = new AtomicBoolean(false);
+    private final ThreadLocal<IndexUpdateHook>   updateHooks        = new ThreadLocal<>();
+    private final AtomicLong                     lineageRequests    = new AtomicLong();
+    private final AtomicLong                     lineageFallbacks   = new AtomicLong();
+    private final AtomicLong                     updatesApplied     = new AtomicLong();
+    private final AtomicLong                     updatesDiscarded   = new AtomicLong();
+    private final AtomicLong                     updateFailures     = new AtomicLong();
+    private final AtomicLong                     staleVertices      = new AtomicLong();
+    private final AtomicLong                     rebuildCount       = new AtomicLong();
+    private final ExecutorService                rebuildExecutor;
+    private volatile Adjacency                   adjacency          = null;
+    private          Adjacency                   rebuildAdjacency   = null; // guarded by lock
+    private          long                        generation         = 0;    // guarded by lock; incremented when the index is discarded
+    private volatile long                        lastRebuildTime    = 0;
+    private volatile long                        lastRebuildDuration = 0;
+    private volatile boolean                     isActive;
+
+    @Inject
+    public LineageIndex(AtlasGraph graph, AtlasTypeRegistry typeRegistry, Configuration configuration) {
+        this(graph, typeRegistry, new EntityGraphRetriever(typeRegistry), AtlasConfiguration.LINEAGE_INDEX_ENABLED.getBoolean(), !HAConfiguration.isHAEnabled(configuration));
+    }
+
+    @VisibleForTesting
+    LineageIndex(AtlasGraph graph, AtlasTypeRegistry typeRegistry, EntityGraphRetriever entityRetriever, boolean isEnabled, boolean isActive) {
+        this.graph           = graph;
+        this.typeRegistry    = typeRegistry;
+        this.entityRetriever = entityRetriever;
+        this.isEnabled       = isEnabled;
+        this.isActive        = isActive;
+        this.rebuildExecutor = isEnabled ? Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-lineage-index-%d").setDaemon(true).build()) : null;
+
+        LOG.info("LineageIndex: enabled={}", isEnabled);
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * @return true if lineage requests can be served from the index; a rebuild is started if the index was never built
+     */
+    public boolean isReady() {
+        if (!isEnabled) {
+            return false;
+        }
+
+        if (!isActive) {
+            lineageFallbacks.incrementAndGet();
+
+            return false;
+        }
+
+        if (adjacency == null) {
+            lineageFallbacks.incrementAndGet();
+
+            rebuild();
+
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Starts rebuilding the index in the background, unless a rebuild is already in progress.
+     *
+     * @return true if a rebuild was started
+     */
+    public boolean rebuild() {
+        if (!isEnabled || !isActive || !rebuildInProgress.compareAndSet(false, true)) {
+            return false;
+        }
+
+        rebuildExecutor.submit(() -> {
+            try {
+                doRebuild();
+            } catch (Throwable t) {
+                LOG.error("LineageIndex: rebuild failed", t);
+            } finally {
+                rebuildInProgress.set(false);
+            }
+        });
+
+        return true;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> ret     = new LinkedHashMap<>();
+        Adjacency           current = adjacency;
+
+        ret.put(METRIC_ENABLED, isEnabled);
+        ret.put(METRIC_READY, current != null && isActive);
+        ret.put(METRIC_REBUILD_IN_PROGRESS, rebuildInProgress.get());
+
+        lock.readLock().lock();
+
+        try {
+            ret.put(METRIC_PROCESS_COUNT, current != null ? current.processes.size() : 0);
+            ret.put(METRIC_DATASET_COUNT, current != null ? current.dataSetCount() : 0);
+            ret.put(METRIC_EDGE_COUNT, current != null ? current.edgeCount : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        ret.put(METRIC_LINEAGE_REQUESTS, lineageRequests.get());
+        ret.put(METRIC_LINEAGE_FALLBACKS, lineageFallbacks.get());
+        ret.put(METRIC_UPDATES_APPLIED, updatesApplied.get());
+        ret.put(METRIC_UPDATES_DISCARDED, updatesDiscarded.get());
+        ret.put(METRIC_UPDATE_FAILURES, updateFailures.get());
+        ret.put(METRIC_STALE_VERTICES, staleVertices.get());
+        ret.put(METRIC_REBUILD_COUNT, rebuildCount.get());
+        ret.put(METRIC_LAST_REBUILD_TIME, lastRebuildTime);
+        ret.put(METRIC_LAST_REBUILD_DURATION, lastRebuildDuration);
+
+        return ret;
+    }
+
+    @Override
+    public void instanceIsActive() {
+        if (isEnabled) {
+            LOG.info("LineageIndex: reacting to active state; index will be rebuilt on first use");
+
+            discard();
+
+            isActive = true;
+        }
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        if (isEnabled) {
+            LOG.info("LineageIndex: reacting to passive state; lineage will be computed from the graph");
+
+            isActive = false;
+
+            discard();
+        }
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.LINEAGE_INDEX.getOrder();
+    }
+
+    /**
+     * Records changes to Process entities in the given mutation; the changes are applied to the index after the
+     * current transaction is committed. Should be called within the transaction that made the changes.
+     */
+    public void onEntitiesMutated(EntityMutationResponse mutationResponse) {
+        if (!isEnabled || mutationResponse == null) {
+            return;
+        }
+
+        try {
+            recordProcessUpdates(mutationResponse.getCreatedEntities());
+            recordProcessUpdates(mutationResponse.getUpdatedEntities());
+            recordProcessUpdates(mutationResponse.getPartialUpdatedEntities());
+
+            if (CollectionUtils.isNotEmpty(mutationResponse.getDeletedEntities())) {
+                for (AtlasEntityHeader entity : mutationResponse.getDeletedEntities()) {
+                    AtlasVertex vertex = AtlasGraphUtilsV2.findByGuid(entity.getGuid());
+
+                    if (vertex == null) { // entity was purged; remove it from the index
+                        getUpdateHook().removedGuids.add(entity.getGuid());
+                    } else if (isProcess(entity.getTypeName())) {
+                        getUpdateHook().processes.add(loadProcess(vertex));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            updateFailures.incrementAndGet();
+
+            LOG.warn("LineageIndex: failed to record updates; lineage index might be stale until rebuilt", e);
+        }
+    }
+
+    /**
+     * Records change to a __Process.inputs/__Process.outputs relationship, made outside of an entity update.
+     */
+    public void onLineageEdgeMutated(String edgeLabel, AtlasVertex processVertex) {
+        if (!isEnabled || processVertex == null) {
+            return;
+        }
+
+        if (PROCESS_INPUTS_EDGE.equals(edgeLabel) || PROCESS_OUTPUTS_EDGE.equals(edgeLabel)) {
+            try {
+                getUpdateHook().processes.add(loadProcess(processVertex));
+            } catch (Exception e) {
+                updateFailures.incrementAndGet();
+
+                LOG.warn("LineageIndex: failed to record update; lineage index might be stale until rebuilt", e);
+            }
+        }
+    }
+
+    /**
+     * Computes lineage from the index; caller should first check isReady().
+     *
+     * @return null if the index was discarded after isReady() was checked - for example on transition to passive state;
+     *         the caller should then compute lineage from the graph
+     */
+    public AtlasLineageInfo getLineageInfo(String guid, LineageDirection direction, int depth, boolean isDataSet) throws AtlasBaseException {
+        AtlasPerfTracer perf = null;
+
+        if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+            perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "LineageIndex.getLineageInfo(" + guid + "," + direction + "," + depth + ")");
+        }
+
+        try {
+            lineageRequests.incrementAndGet();
+
+            Map<Long, String>    vertexGuids = new HashMap<>();
+            Set<LineageRelation> relations   = new HashSet<>();
+
+            lock.readLock().lock();
+
+            try {
+                Adjacency current = adjacency;
+
+                if (current == null) {
+                    lineageFallbacks.incrementAndGet();
+
+                    return null;
+                }
+
+                current.traverse(guid, direction, depth, isDataSet, vertexGuids, relations);
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            Map<String, AtlasEntityHeader> entities = getEntityHeaders(vertexGuids);
+
+            if (entities.size() < vertexGuids.size()) {
+                Iterator<LineageRelation> iter = relations.iterator();
+
+                while (iter.hasNext()) {
+                    LineageRelation relation = iter.next();
+
+                    if (!entities.containsKey(relation.getFromEntityId()) || !entities.containsKey(relation.getToEntityId())) {
+                        iter.remove();
+                    }
+                }
+            }
+
+            return new AtlasLineageInfo(guid, entities, relations, direction, depth);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    @VisibleForTesting
+    void apply(List<ProcessNode> processes, Set<String> removedGuids) {
+        lock.writeLock().lock();
+
+        try {
+            for (Adjacency adj : new Adjacency[] { adjacency, rebuildAdjacency }) {
+                if (adj == null) {
+                    continue;
+                }
+
+                for (String guid : removedGuids) {
+                    adj.remove(guid);
+                }
+
+                for (ProcessNode process : processes) {
+                    adj.put(process);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        updatesApplied.addAndGet(processes.size() + removedGuids.size());
+    }
+
+    // a rebuild in progress is let to complete, but its result is not used
+    private void discard() {
+        lock.writeLock().lock();
+
+        try {
+            adjacency = null;
+
+            generation++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void doRebuild() {
+        LOG.info("==> LineageIndex.rebuild()");
+
+        long      startTime = System.currentTimeMillis();
+        Adjacency building  = new Adjacency();
+        long      count     = 0;
+        long      buildGeneration;
+
+        lock.writeLock().lock();
+
+        try {
+            rebuildAdjacency = building;
+            buildGeneration  = generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            for (AtlasEntityType entityType : typeRegistry.getAllEntityTypes()) {
+                if (!entityType.getTypeAndAllSuperTypes().contains(PROCESS_SUPER_TYPE)) {
+                    continue;
+                }
+
+                Iterable<AtlasVertex> vertices = graph.query().has(ENTITY_TYPE_PROPERTY_KEY, entityType.getTypeName()).vertices();
+
+                for (AtlasVertex vertex : vertices) {
+                    ProcessNode process = loadProcess(vertex);
+
+                    lock.writeLock().lock();
+
+                    try {
+                        building.putIfNotUpdated(process);
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+
+                    count++;
+                }
+            }
+
+            lock.writeLock().lock();
+
+            try {
+                if (buildGeneration != generation) {
+                    LOG.info("LineageIndex: index was discarded during rebuild; rebuilt index will not be used");
+
+                    return;
+                }
+
+                building.updatedDuringBuild = null;
+                adjacency                   = building;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            rebuildCount.incrementAndGet();
+
+            lastRebuildTime     = System.currentTimeMillis();
+            lastRebuildDuration = lastRebuildTime - startTime;
+        } finally {
+            lock.writeLock().lock();
+
+            try {
+                rebuildAdjacency = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            graph.rollback();
+        }
+
+        LOG.info("<== LineageIndex.rebuild(): processes={}, timeTakenMs={}", count, lastRebuildDuration);
+    }
+
+    private void recordProcessUpdates(List<AtlasEntityHeader> entities) {
+        if (CollectionUtils.isEmpty(entities)) {
+            return;
+        }
+
+        for (AtlasEntityHeader entity : entities) {
+            if (!isProcess(entity.getTypeName())) {
+                continue;
+            }
+
+            AtlasVertex vertex = AtlasGraphUtilsV2.findByGuid(entity.getGuid());
+
+            if (vertex != null) {
+                getUpdateHook().processes.add(loadProcess(vertex));
+            }
+        }
+    }
+
+    private boolean isProcess(String typeName) {
+        AtlasEntityType entityType = typeRegistry.getEntityTypeByName(typeName);
+
+        return entityType != null && entityType.getTypeAndAllSuperTypes().contains(PROCESS_SUPER_TYPE);
+    }
+
+    private ProcessNode loadProcess(AtlasVertex processVertex) {
+        List<AtlasEdge> inputEdges  = toList(processVertex.getEdges(AtlasEdgeDirection.OUT, PROCESS_INPUTS_EDGE));
+        List<AtlasEdge> outputEdges = toList(processVertex.getEdges(AtlasEdgeDirection.OUT, PROCESS_OUTPUTS_EDGE));
+        ProcessNode     ret         = new ProcessNode(toLong(processVertex.getId()), AtlasGraphUtilsV2.getIdFromVertex(processVertex), inputEdges.size(), outputEdges.size());
+
+        for (int i = 0; i < inputEdges.size(); i++) {
+            AtlasEdge   edge    = inputEdges.get(i);
+            AtlasVertex dataSet = edge.getInVertex();
+
+            ret.inputs[i]        = toLong(dataSet.getId());
+            ret.inputRelGuids[i] = AtlasGraphUtilsV2.getEncodedProperty(edge, RELATIONSHIP_GUID_PROPERTY_KEY, String.class);
+
+            ret.dataSetGuids.put(ret.inputs[i], AtlasGraphUtilsV2.getIdFromVertex(dataSet));
+        }
+
+        for (int i = 0; i < outputEdges.size(); i++) {
+            AtlasEdge   edge    = outputEdges.get(i);
+            AtlasVertex dataSet = edge.getInVertex();
+
+            ret.outputs[i]        = toLong(dataSet.getId());
+            ret.outputRelGuids[i] = AtlasGraphUtilsV2.getEncodedProperty(edge, RELATIONSHIP_GUID_PROPERTY_KEY, String.class);
+
+            ret.dataSetGuids.put(ret.outputs[i], AtlasGraphUtilsV2.getIdFromVertex(dataSet));
+        }
+
+        return ret;
+    }
+
+    private Map<String, AtlasEntityHeader> getEntityHeaders(Map<Long, String> vertexGuids) throws AtlasBaseException {
+        Map<String, AtlasEntityHeader> ret = new HashMap<>();
+
+        if (vertexGuids.isEmpty()) {
+            return ret;
+        }
+
+        List<AtlasVertex> vertices = graph.V(vertexGuids.keySet().toArray()).getAtlasVertexList();
+
+        for (AtlasVertex vertex : vertices) {
+            AtlasEntityHeader entityHeader = entityRetriever.toAtlasEntityHeader(vertex);
+
+            if (entityHeader != null && entityHeader.getGuid() != null) {
+                ret.put(entityHeader.getGuid(), entityHeader);
+            }
+        }
+
+        if (ret.size() < vertexGuids.size()) {
+            staleVertices.addAndGet(vertexGuids.size() - ret.size());
+
+            LOG.warn("LineageIndex: {} vertices in the index were not found in the graph; lineage index might be stale until rebuilt", vertexGuids.size() - ret.size());
+        }
+
+        return ret;
+    }
+
+    private IndexUpdateHook getUpdateHook() {
+        IndexUpdateHook ret = updateHooks.get();
+
+        if (ret == null) {
+            ret = new IndexUpdateHook();
+
+            updateHooks.set(ret);
+        }
+
+        return ret;
+    }
+
+    private static List<AtlasEdge> toList(Iterable<AtlasEdge> edges) {
+        List<AtlasEdge> ret = new ArrayList<>();
+
+        if (edges != null) {
+            for (AtlasEdge edge : edges) {
+                ret.add(edge);
+            }
+        }
+
+        return ret;
+    }
+
+    private static long toLong(Object vertexId) {
+        return vertexId instanceof Number ? ((Number) vertexId).longValue() : Long.parseLong(vertexId.toString());
+    }
+
+    private class IndexUpdateHook extends GraphTransactionInterceptor.PostTransactionHook {
+        private final List<ProcessNode> processes    = new ArrayList<>();
+        private final Set<String>       removedGuids = new HashSet<>();
+
+        @Override
+        public void onComplete(boolean isSuccess) {
+            updateHooks.remove();
+
+            if (isSuccess) {
+                apply(processes, removedGuids);
+            } else {
+                updatesDiscarded.addAndGet(processes.size() + removedGuids.size());
+            }
+        }
+    }
+
+    @VisibleForTesting
+    static class ProcessNode {
+        final long              processId;
+        final String            guid;
+        final long[]            inputs;
+        final String[]          inputRelGuids;
+        final long[]            outputs;
+        final String[]          outputRelGuids;
+        final Map<Long, String> dataSetGuids = new HashMap<>();
+
+        ProcessNode(long processId, String guid, int inputCount, int outputCount) {
+            this.processId      = processId;
+            this.guid           = guid;
+            this.inputs         = inputCount > 0 ? new long[inputCount] : EMPTY_IDS;
+            this.inputRelGuids  = inputCount > 0 ? new String[inputCount] : EMPTY_GUIDS;
+            this.outputs        = outputCount > 0 ? new long[outputCount] : EMPTY_IDS;
+            this.outputRelGuids = outputCount > 0 ? new String[outputCount] : EMPTY_GUIDS;
+        }
+
+        long[] getDataSets(boolean isInput) {
+            return isInput ? inputs : outputs;
+        }
+
+        String getRelationshipGuid(boolean isInput, long dataSetId) {
+            long[]   ids   = isInput ? inputs : outputs;
+            String[] guids = isInput ? inputRelGuids : outputRelGuids;
+
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == dataSetId) {
+                    return guids[i];
+                }
+            }
+
+            return null;
+        }
+
+        ProcessNode withoutDataSet(long dataSetId) {
+            int         inputCount  = (int) Arrays.stream(inputs).filter(id -> id != dataSetId).count();
+            int         outputCount = (int) Arrays.stream(outputs).filter(id -> id != dataSetId).count();
+            ProcessNode ret         = new ProcessNode(processId, guid, inputCount, outputCount);
+
+            for (int i = 0, j = 0; i < inputs.length; i++) {
+                if (inputs[i] != dataSetId) {
+                    ret.inputs[j]        = inputs[i];
+                    ret.inputRelGuids[j] = inputRelGuids[i];
+                    j++;
+                }
+            }
+
+            for (int i = 0, j = 0; i < outputs.length; i++) {
+                if (outputs[i] != dataSetId) {
+                    ret.outputs[j]        = outputs[i];
+                    ret.outputRelGuids[j] = outputRelGuids[i];
+                    j++;
+                }
+            }
+
+            ret.dataSetGuids.putAll(dataSetGuids);
+            ret.dataSetGuids.remove(dataSetId);
+
+            return ret;
+        }
+    }
+
+    /**
+     * Adjacency lists keyed by vertex-id. Not thread-safe: reads should be done with the read-lock held, and
+     * updates with the write-lock held.
+     */
+    @VisibleForTesting
+    static class Adjacency {
+        final Map<Long, ProcessNode> processes = new HashMap<>();
+        final Map<Long, long[]>      consumers = new HashMap<>(); // DataSet -> Processes that have the DataSet as input
+        final Map<Long, long[]>      producers = new HashMap<>(); // DataSet -> Processes that have the DataSet as output
+        final Map<Long, String>      guids     = new HashMap<>();
+        final Map<String, Long>      vertexIds = new HashMap<>();
+        Set<Long>                    updatedDuringBuild = new HashSet<>();
+        long                         edgeCount = 0;
+
+        int dataSetCount() {
+            return guids.size() - processes.size();
+        }
+
+        void putIfNotUpdated(ProcessNode process) {
+            if (updatedDuringBuild == null || !updatedDuringBuild.contains(process.processId)) {
+                put(process);
+            }
+        }
+
+        void put(ProcessNode process) {
+            removeProcess(process.processId);
+
+            for (long dataSetId : process.inputs) {
+                consumers.put(dataSetId, addId(consumers.get(dataSetId), process.processId));
+            }
+
+            for (long dataSetId : process.outputs) {
+                producers.put(dataSetId, addId(producers.get(dataSetId), process.processId));
+            }
+
+            for (Map.Entry<Long, String> entry : process.dataSetGuids.entrySet()) {
+                setGuid(entry.getKey(), entry.getValue());
+            }
+
+            setGuid(process.processId, process.guid);
+
+            processes.put(process.processId, process);
+
+            edgeCount += process.inputs.length + process.outputs.length;
+
+            if (updatedDuringBuild != null) {
+                updatedDuringBuild.add(process.processId);
+            }
+        }
+
+        void remove(String guid) {
+            Long vertexId = vertexIds.get(guid);
+
+            if (vertexId == null) {
+                return;
+            }
+
+            if (processes.containsKey(vertexId)) {
+                removeProcess(vertexId);
+
+                removeGuid(vertexId);
+            } else {
+                Set<Long> processIds = new HashSet<>();
+
+                addAll(processIds, consumers.remove(vertexId));
+                addAll(processIds, producers.remove(vertexId));
+
+                for (Long processId : processIds) {
+                    ProcessNode process = processes.get(processId);
+
+                    if (process != null) {
+                        put(process.withoutDataSet(vertexId));
+                    }
+                }
+
+                removeGuid(vertexId);
+            }
+
+            if (updatedDuringBuild != null) {
+                updatedDuringBuild.add(vertexId);
+            }
+        }
+
+        void traverse(String guid, LineageDirection direction, int depth, boolean isDataSet, Map<Long, String> vertexGuids, Set<LineageRelation> relations) {
+            Long startId = vertexIds.get(guid);
+
+            if (startId == null) {
+                return;
+            }
+
+            // for INPUT lineage: DataSet <- outputs - Process - inputs -> DataSet
+            boolean           isInput          = direction == INPUT;
+            Map<Long, long[]> incoming         = isInput ? producers : consumers;
+            Set<Long>         visitedDataSets  = new HashSet<>();
+            Set<Long>         visitedProcesses = new HashSet<>();
+            Set<Long>         frontier         = new LinkedHashSet<>();
+            int               maxLevels;
+
+            if (isDataSet) {
+                frontier.add(startId);
+                visitedDataSets.add(startId);
+
+                maxLevels = depth;
+            } else {
+                ProcessNode process = processes.get(startId);
+
+                visitedProcesses.add(startId);
+
+                if (process != null) {
+                    for (long dataSetId : process.getDataSets(isInput)) {
+                        addRelation(process, dataSetId, isInput, false, vertexGuids, relations);
+
+                        if (visitedDataSets.add(dataSetId)) {
+                            frontier.add(dataSetId);
+                        }
+                    }
+                }
+
+                maxLevels = depth - 1;
+            }
+
+            for (int level = 0; !frontier.isEmpty() && (depth < 1 || level < maxLevels); level++) {
+                Set<Long> nextFrontier = new LinkedHashSet<>();
+
+                for (Long dataSetId : frontier) {
+                    long[] processIds = incoming.get(dataSetId);
+
+                    if (processIds == null) {
+                        continue;
+                    }
+
+                    for (long processId : processIds) {
+                        ProcessNode process = processes.get(processId);
+
+                        if (process == null) {
+                            continue;
+                        }
+
+                        long[] outgoing = process.getDataSets(isInput);
+
+                        // as in the lineage gremlin queries, a process is included only when it leads to a DataSet, unless lineage is for a Process
+                        if (isDataSet && outgoing.length == 0) {
+                            continue;
+                        }
+
+                        addRelation(process, dataSetId, !isInput, true, vertexGuids, relations);
+
+                        if (visitedProcesses.add(processId)) {
+                            for (long nextDataSetId : outgoing) {
+                                addRelation(process, nextDataSetId, isInput, false, vertexGuids, relations);
+
+                                if (visitedDataSets.add(nextDataSetId)) {
+                                    nextFrontier.add(nextDataSetId);
+                                }
+                            }
+                        }
+                    }
+                }
+
+                frontier = nextFrontier;
+            }
+        }
+
+        private void addRelation(ProcessNode process, long dataSetId, boolean isInputEdge, boolean isIncoming, Map<Long, String> vertexGuids, Set<LineageRelation> relations) {
+            String dataSetGuid  = guids.get(dataSetId);
+            String relationGuid = process.getRelationshipGuid(isInputEdge, dataSetId);
+
+            vertexGuids.put(process.processId, process.guid);
+            vertexGuids.put(dataSetId, dataSetGuid);
+
+            // data flows from input DataSet to Process, and from Process to output DataSet
+            if (isInputEdge) {
+                relations.add(new LineageRelation(dataSetGuid, process.guid, relationGuid));
+            } else {
+                relations.add(new LineageRelation(process.guid, dataSetGuid, relationGuid));
+            }
+        }
+
+        private void removeProcess(long processId) {
+            ProcessNode existing = processes.remove(processId);
+
+            if (existing != null) {
+                for (long dataSetId : existing.inputs) {
+                    updateOrRemove(consumers, dataSetId, removeId(consumers.get(dataSetId), processId));
+                }
+
+                for (long dataSetId : existing.outputs) {
+                    updateOrRemove(producers, dataSetId, removeId(producers.get(dataSetId), processId));
+                }
+
+                for (Long dataSetId : existing.dataSetGuids.keySet()) {
+                    if (!consumers.containsKey(dataSetId) && !producers.containsKey(dataSetId)) {
+                        removeGuid(dataSetId);
+                    }
+                }
+
+                edgeCount -= existing.inputs.length + existing.outputs.length;
+            }
+        }
+
+        private void setGuid(long vertexId, String guid) {
+            if (guid != null) {
+                String existing = guids.put(vertexId, guid);
+
+                if (existing != null && !existing.equals(guid)) {
+                    vertexIds.remove(existing);
+                }
+
+                vertexIds.put(guid, vertexId);
+            }
+        }
+
+        private void removeGuid(long vertexId) {
+            String guid = guids.remove(vertexId);
+
+            if (guid != null) {
+                vertexIds.remove(guid);
+            }
+        }
+
+        private static void updateOrRemove(Map<Long, long[]> map, long key, long[] value) {
+            if (value == null || value.length == 0) {
+                map.remove(key);
+            } else {
+                map.put(key, value);
+            }
+        }
+
+        private static long[] addId(long[] ids, long id) {
+            if (ids == null) {
+                return new long[] { id };
+            }
+
+            for (long existing : ids) {
+                if (existing == id) {
+                    return ids;
+                }
+            }
+
+            long[] ret = Arrays.copyOf(ids, ids.length + 1);
+
+            ret[ids.length] = id;
+
+            return ret;
+        }
+
+        private static long[] removeId(long[] ids, long id) {
+            if (ids == null) {
+                return null;
+            }
+
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    long[] ret = new long[ids.length - 1];
+
+                    System.arraycopy(ids, 0, ret, 0, i);
+                    System.arraycopy(ids, i + 1, ret, i, ids.length - i - 1);
+
+                    return ret;
+                }
+            }
+
+            return ids;
+        }
+
+        private static void addAll(Set<Long> set, long[] ids) {
+            if (ids != null) {
+                for (long id : ids) {
+                    set.add(id);
+                }
+            }
+        }
+    }
+}
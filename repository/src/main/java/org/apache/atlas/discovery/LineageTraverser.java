@@ -0,0 +1,272 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.lineage.AtlasLineageInfo;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
+import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphTraversal;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.atlas.utils.AtlasPerfTracer;
+import org.apache.commons.collections.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection.INPUT;
+import static org.apache.atlas.repository.Constants.RELATIONSHIP_GUID_PROPERTY_KEY;
+
+/**
+ * Computes lineage of an entity by a breadth-first traversal over __Process.inputs/__Process.outputs edges.
+ *
+ * Each level of the traversal fetches the edges of all vertices in the frontier with a single graph traversal,
+ * instead of executing a Groovy script; vertices already visited are not traversed again, which also makes the
+ * traversal safe in the presence of cycles.
+ */
+public class LineageTraverser {
+    private static final Logger LOG      = LoggerFactory.getLogger(LineageTraverser.class);
+    private static final Logger PERF_LOG = AtlasPerfTracer.getPerfLogger("LineageTraverser");
+
+    public static final String PROCESS_INPUTS_EDGE  = "__Process.inputs";
+    public static final String PROCESS_OUTPUTS_EDGE = "__Process.outputs";
+
+    private final AtlasGraph           graph;
+    private final EntityGraphRetriever entityRetriever;
+
+    public LineageTraverser(AtlasGraph graph, EntityGraphRetriever entityRetriever) {
+        this.graph           = graph;
+        this.entityRetriever = entityRetriever;
+    }
+
+    /**
+     * @param guid      guid of the DataSet or Process entity to compute the lineage for
+     * @param direction INPUT or OUTPUT
+     * @param depth     number of DataSet hops to traverse; a value less than 1 traverses the complete lineage
+     * @param isDataSet true if the entity is a DataSet, false if it is a Process
+     */
+    public AtlasLineageInfo getLineageInfo(String guid, LineageDirection direction, int depth, boolean isDataSet) throws AtlasBaseException {
+        AtlasPerfTracer perf = null;
+
+        if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+            perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "LineageTraverser.getLineageInfo(" + guid + "," + direction + "," + depth + ")");
+        }
+
+        try {
+            AtlasVertex startVertex = AtlasGraphUtilsV2.findByGuid(guid);
+
+            if (startVertex == null) {
+                throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
+            }
+
+            LineageContext context = new LineageContext(direction);
+            Set<Object>    frontier;
+            int            maxLevels;
+
+            if (isDataSet) {
+                frontier  = new HashSet<>();
+                maxLevels = depth;
+
+                frontier.add(startVertex.getId());
+                context.visitedDataSets.add(startVertex.getId());
+            } else {
+                List<AtlasEdge> processEdges = getEdges(startVertex.getId(), AtlasEdgeDirection.OUT, context.outgoingEdgeLabel);
+
+                context.visitedProcesses.add(startVertex.getId());
+
+                frontier  = addProcessEdges(context, processEdges);
+                maxLevels = depth - 1;
+            }
+
+            for (int level = 0; CollectionUtils.isNotEmpty(frontier) && (depth < 1 || level < maxLevels); level++) {
+                frontier = traverseLevel(context, frontier, !isDataSet);
+            }
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("LineageTraverser.getLineageInfo({}, {}, {}): entities={}, relations={}", guid, direction, depth, context.entities.size(), context.relations.size());
+            }
+
+            return new AtlasLineageInfo(guid, context.entities, context.relations, direction, depth);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Traverses one DataSet hop: DataSet <- incoming edge - Process - outgoing edge -> DataSet
+     *
+     * @return vertex-ids of DataSets reached for the first time in this level
+     */
+    private Set<Object> traverseLevel(LineageContext context, Set<Object> dataSetIds, boolean includeProcessWithoutOutgoing) throws AtlasBaseException {
+        List<AtlasEdge>              incomingEdges = getEdges(dataSetIds, AtlasEdgeDirection.IN, context.incomingEdgeLabel);
+        Map<Object, List<AtlasEdge>> processEdges  = new LinkedHashMap<>();
+
+        for (AtlasEdge edge : incomingEdges) {
+            Object processId = edge.getOutVertex().getId();
+
+            processEdges.computeIfAbsent(processId, k -> new ArrayList<>()).add(edge);
+        }
+
+        Set<Object> newProcessIds = new LinkedHashSet<>();
+
+        for (Object processId : processEdges.keySet()) {
+            if (context.visitedProcesses.add(processId)) {
+                newProcessIds.add(processId);
+            }
+        }
+
+        Set<Object> ret = new LinkedHashSet<>();
+
+        if (!newProcessIds.isEmpty()) {
+            for (AtlasEdge edge : getEdges(newProcessIds, AtlasEdgeDirection.OUT, context.outgoingEdgeLabel)) {
+                Object processId = edge.getOutVertex().getId();
+                Object dataSetId = edge.getInVertex().getId();
+
+                context.processesWithOutgoing.add(processId);
+
+                addEdge(context, edge);
+
+                if (context.visitedDataSets.add(dataSetId)) {
+                    ret.add(dataSetId);
+                }
+            }
+        }
+
+        // as in the lineage gremlin queries, an edge to a process is included only when the process leads to a DataSet
+        for (Map.Entry<Object, List<AtlasEdge>> entry : processEdges.entrySet()) {
+            if (!includeProcessWithoutOutgoing && !context.processesWithOutgoing.contains(entry.getKey())) {
+                continue;
+            }
+
+            for (AtlasEdge edge : entry.getValue()) {
+                addEdge(context, edge);
+            }
+        }
+
+        return ret;
+    }
+
+    private Set<Object> addProcessEdges(LineageContext context, List<AtlasEdge> processEdges) throws AtlasBaseException {
+        Set<Object> ret = new LinkedHashSet<>();
+
+        for (AtlasEdge edge : processEdges) {
+            Object dataSetId = edge.getInVertex().getId();
+
+            addEdge(context, edge);
+
+            if (context.visitedDataSets.add(dataSetId)) {
+                ret.add(dataSetId);
+            }
+        }
+
+        return ret;
+    }
+
+    private void addEdge(LineageContext context, AtlasEdge edge) throws AtlasBaseException {
+        if (!context.visitedEdges.add(edge.getId())) {
+            return;
+        }
+
+        AtlasVertex inVertex     = edge.getInVertex();
+        AtlasVertex outVertex    = edge.getOutVertex();
+        String      inGuid       = getEntityGuid(context, inVertex);
+        String      outGuid      = getEntityGuid(context, outVertex);
+        String      relationGuid = AtlasGraphUtilsV2.getEncodedProperty(edge, RELATIONSHIP_GUID_PROPERTY_KEY, String.class);
+        boolean     isInputEdge  = edge.getLabel().equalsIgnoreCase(PROCESS_INPUTS_EDGE);
+
+        if (isInputEdge) {
+            context.relations.add(new LineageRelation(inGuid, outGuid, relationGuid));
+        } else {
+            context.relations.add(new LineageRelation(outGuid, inGuid, relationGuid));
+        }
+    }
+
+    private String getEntityGuid(LineageContext context, AtlasVertex vertex) throws AtlasBaseException {
+        Object vertexId = vertex.getId();
+        String ret      = context.vertexIdToGuid.get(vertexId);
+
+        if (ret == null) {
+            AtlasEntityHeader entityHeader = entityRetriever.toAtlasEntityHeader(vertex);
+
+            ret = entityHeader.getGuid();
+
+            context.vertexIdToGuid.put(vertexId, ret);
+            context.entities.put(ret, entityHeader);
+        }
+
+        return ret;
+    }
+
+    private List<AtlasEdge> getEdges(Object vertexId, AtlasEdgeDirection direction, String edgeLabel) {
+        return getEdges(new Object[] { vertexId }, direction, edgeLabel);
+    }
+
+    private List<AtlasEdge> getEdges(Collection<Object> vertexIds, AtlasEdgeDirection direction, String edgeLabel) {
+        return getEdges(vertexIds.toArray(), direction, edgeLabel);
+    }
+
+    private List<AtlasEdge> getEdges(Object[] vertexIds, AtlasEdgeDirection direction, String edgeLabel) {
+        AtlasGraphTraversal traversal = graph.V(vertexIds);
+
+        if (direction == AtlasEdgeDirection.IN) {
+            traversal.inE(edgeLabel);
+        } else {
+            traversal.outE(edgeLabel);
+        }
+
+        return traversal.getAtlasEdgeList();
+    }
+
+    private static class LineageContext {
+        final String                         incomingEdgeLabel;
+        final String                         outgoingEdgeLabel;
+        final Set<Object>                    visitedDataSets       = new HashSet<>();
+        final Set<Object>                    visitedProcesses      = new HashSet<>();
+        final Set<Object>                    processesWithOutgoing = new HashSet<>();
+        final Set<Object>                    visitedEdges          = new HashSet<>();
+        final Map<Object, String>            vertexIdToGuid        = new HashMap<>();
+        final Map<String, AtlasEntityHeader> entities              = new HashMap<>();
+        final Set<LineageRelation>           relations             = new HashSet<>();
+
+        LineageContext(LineageDirection direction) {
+            if (direction == INPUT) {
+                incomingEdgeLabel = PROCESS_OUTPUTS_EDGE;
+                outgoingEdgeLabel = PROCESS_INPUTS_EDGE;
+            } else {
+                incomingEdgeLabel = PROCESS_INPUTS_EDGE;
+                outgoingEdgeLabel = PROCESS_OUTPUTS_EDGE;
+            }
+        }
+    }
+}
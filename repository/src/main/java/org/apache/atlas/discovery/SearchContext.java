@@ -19,6 +19,7 @@ package org.apache.atlas.discovery;
 
 
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.SortOrder;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.discovery.SearchParameters;
 import org.apache.atlas.model.discovery.SearchParameters.FilterCriteria;
@@ -55,15 +56,19 @@ import static org.apache.atlas.model.discovery.SearchParameters.WILDCARD_CLASSIF
  * possible chaining of processor(s)
  */
 public class SearchContext {
-    private final SearchParameters        searchParameters;
-    private final AtlasTypeRegistry       typeRegistry;
-    private final AtlasGraph              graph;
-    private final Set<String>             indexedKeys;
-    private final Set<String>             entityAttributes;
-    private final AtlasEntityType         entityType;
-    private final AtlasClassificationType classificationType;
-    private       SearchProcessor         searchProcessor;
-    private       boolean                 terminateSearch = false;
+    private final SearchParameters          searchParameters;
+    private final AtlasTypeRegistry         typeRegistry;
+    private final AtlasGraph                graph;
+    private final Set<String>               indexedKeys;
+    private final Set<String>               entityAttributes;
+    private final AtlasEntityType           entityType;
+    private final AtlasClassificationType   classificationType;
+    private final SearchContinuation        continuation;
+    private final String                    sortKey;
+    private final AtlasGraphQuery.SortOrder sortOrder;
+    private       SearchContinuation        nextContinuation;
+    private       SearchProcessor           searchProcessor;
+    private       boolean                   terminateSearch = false;
 
     public final static AtlasClassificationType MATCH_ALL_WILDCARD_CLASSIFICATION = new AtlasClassificationType(new AtlasClassificationDef(WILDCARD_CLASSIFICATIONS));
     public final static AtlasClassificationType MATCH_ALL_CLASSIFIED              = new AtlasClassificationType(new AtlasClassificationDef(ALL_CLASSIFICATIONS));
@@ -79,6 +84,7 @@ public class SearchContext {
         this.entityAttributes   = new HashSet<>();
         this.entityType         = typeRegistry.getEntityTypeByName(searchParameters.getTypeName());
         this.classificationType = getClassificationType(classificationName);
+        this.continuation       = SearchContinuation.fromToken(searchParameters.getContinuationToken(), searchParameters);
 
         // Validate if the type name exists
         if (StringUtils.isNotEmpty(searchParameters.getTypeName()) && entityType == null) {
@@ -103,6 +109,14 @@ public class SearchContext {
         // Invalid attributes will raise an exception with 400 error code
         validateAttributes(classificationType, searchParameters.getTagFilters());
 
+        if (StringUtils.isNotEmpty(searchParameters.getSortBy())) {
+            this.sortKey   = getSortKey(searchParameters.getSortBy());
+            this.sortOrder = searchParameters.getSortOrder() == SortOrder.DESCENDING ? AtlasGraphQuery.SortOrder.DESC : AtlasGraphQuery.SortOrder.ASC;
+        } else {
+            this.sortKey   = null;
+            this.sortOrder = null;
+        }
+
         if (glossaryTermVertex != null) {
             addProcessor(new TermSearchProcessor(this, getAssignedEntities(glossaryTermVertex)));
         }
@@ -118,6 +132,12 @@ public class SearchContext {
         if (needEntityProcessor()) {
             addProcessor(new EntitySearchProcessor(this));
         }
+
+        // results are read in the order of the first processor; full-text and classification processors read from
+        // indexes that don't have the entity attributes to sort on
+        if (sortKey != null && !(searchProcessor instanceof EntitySearchProcessor || searchProcessor instanceof TermSearchProcessor)) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "sortBy is not supported with full-text query or classification attribute filters");
+        }
     }
 
     public SearchParameters getSearchParameters() { return searchParameters; }
@@ -136,6 +156,25 @@ public class SearchContext {
 
     public SearchProcessor getSearchProcessor() { return searchProcessor; }
 
+    /**
+     * @return position to resume the search from, as given by the continuation token; null to start at the offset
+     */
+    public SearchContinuation getContinuation() { return continuation; }
+
+    /**
+     * @return property to sort the results on; null if results are not to be sorted
+     */
+    public String getSortKey() { return sortKey; }
+
+    public AtlasGraphQuery.SortOrder getSortOrder() { return sortOrder; }
+
+    /**
+     * @return position the next page of results starts at; null when there are no more results
+     */
+    public SearchContinuation getNextContinuation() { return nextContinuation; }
+
+    public void setNextContinuation(SearchContinuation nextContinuation) { this.nextContinuation = nextContinuation; }
+
     public boolean terminateSearch() { return terminateSearch; }
 
     public void terminateSearch(boolean terminateSearch) { this.terminateSearch = terminateSearch; }
@@ -189,6 +228,21 @@ public class SearchContext {
         }
     }
 
+    private String getSortKey(String sortBy) throws AtlasBaseException {
+        if (entityType == null) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "sortBy requires typeName");
+        }
+
+        // sort is done by the index, hence only on indexed attributes
+        String ret = entityType.getQualifiedAttributeName(sortBy);
+
+        if (indexedKeys == null || !indexedKeys.contains(ret)) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "sortBy attribute " + sortBy + " is not indexed");
+        }
+
+        return ret;
+    }
+
     private boolean hasAttributeFilter(FilterCriteria filterCriteria) {
         return filterCriteria != null &&
                (CollectionUtils.isNotEmpty(filterCriteria.getCriterion()) || StringUtils.isNotEmpty(filterCriteria.getAttributeName()));
@@ -0,0 +1,116 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/*
+ * Position in the results of a basic search from which the next page is to be read: offset of the query page (in
+ * the underlying index/graph query) the last returned result was read from, and the number of results from that
+ * page, after all filtering stages, that were already returned.
+ *
+ * The position is handed to the client as an opaque token, along with a fingerprint of the search parameters so that
+ * a token is not applied to a different search.
+ */
+public class SearchContinuation {
+    private static final String VERSION   = "1";
+    private static final String SEPARATOR = ":";
+
+    private final int queryOffset;
+    private final int skipCount;
+
+    public SearchContinuation(int queryOffset, int skipCount) {
+        this.queryOffset = queryOffset;
+        this.skipCount   = skipCount;
+    }
+
+    public int getQueryOffset() { return queryOffset; }
+
+    public int getSkipCount() { return skipCount; }
+
+    public String toToken(SearchParameters searchParameters) {
+        String value = VERSION + SEPARATOR + queryOffset + SEPARATOR + skipCount + SEPARATOR + getFingerprint(searchParameters);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchContinuation fromToken(String token, SearchParameters searchParameters) throws AtlasBaseException {
+        if (StringUtils.isEmpty(token)) {
+            return null;
+        }
+
+        final String[] parts;
+
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(SEPARATOR);
+        } catch (IllegalArgumentException excp) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken: " + token);
+        }
+
+        if (parts.length != 4 || !VERSION.equals(parts[0])) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken: " + token);
+        }
+
+        if (!getFingerprint(searchParameters).equals(parts[3])) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken does not match the search parameters");
+        }
+
+        try {
+            int queryOffset = Integer.parseInt(parts[1]);
+            int skipCount   = Integer.parseInt(parts[2]);
+
+            if (queryOffset < 0 || skipCount < 0) {
+                throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken: " + token);
+            }
+
+            return new SearchContinuation(queryOffset, skipCount);
+        } catch (NumberFormatException excp) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "continuationToken: " + token);
+        }
+    }
+
+    // parameters that determine the results and their order; limit, offset and attributes to return don't
+    private static String getFingerprint(SearchParameters params) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(params.getQuery()).append('|')
+          .append(params.getTypeName()).append('|')
+          .append(params.getClassification()).append('|')
+          .append(params.getTermName()).append('|')
+          .append(params.getExcludeDeletedEntities()).append('|')
+          .append(params.getIncludeSubTypes()).append('|')
+          .append(params.getIncludeSubClassifications()).append('|')
+          .append(params.getEntityFilters()).append('|')
+          .append(params.getTagFilters()).append('|')
+          .append(params.getSortBy()).append('|')
+          .append(params.getSortOrder());
+
+        return Integer.toHexString(sb.toString().hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return "SearchContinuation{queryOffset=" + queryOffset + ", skipCount=" + skipCount + "}";
+    }
+}
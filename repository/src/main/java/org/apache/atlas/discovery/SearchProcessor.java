@@ -159,6 +159,30 @@ public abstract class SearchProcessor {
         return resultIdx;
     }
 
+    /**
+     * Records, once the page of results is full, where the next page starts: the rest of the current query page when
+     * not all its results were consumed, else the next query page - unless this is the last one.
+     *
+     * @param qryOffset        offset of the query page the last result was collected from
+     * @param limit            size of the query page
+     * @param consumedCount    number of results from the query page consumed, including the ones skipped
+     * @param resultCount      number of results in the query page, after filtering
+     * @param isLastResultPage true if the query has no results beyond this page
+     */
+    protected void setNextContinuation(int qryOffset, int limit, int consumedCount, int resultCount, boolean isLastResultPage) {
+        final SearchContinuation next;
+
+        if (consumedCount < resultCount) {
+            next = new SearchContinuation(qryOffset, consumedCount);
+        } else if (!isLastResultPage) {
+            next = new SearchContinuation(qryOffset + limit, 0);
+        } else {
+            next = null;
+        }
+
+        context.setNextContinuation(next);
+    }
+
     public void filter(List<AtlasVertex> entityVertices) {
         if (nextProcessor != null && CollectionUtils.isNotEmpty(entityVertices)) {
             nextProcessor.filter(entityVertices);
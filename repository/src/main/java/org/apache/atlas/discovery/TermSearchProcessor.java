@@ -17,6 +17,7 @@
  */
 package org.apache.atlas.discovery;
 
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.utils.AtlasPerfTracer;
 import org.apache.commons.collections.CollectionUtils;
@@ -24,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 
 
@@ -59,13 +61,23 @@ public class TermSearchProcessor extends SearchProcessor {
 
         try {
             if (CollectionUtils.isNotEmpty(assignedEntities)) {
-                final int               startIdx = context.getSearchParameters().getOffset();
-                final int               limit    = context.getSearchParameters().getLimit();
-                final List<AtlasVertex> tmpList  = new ArrayList<>(assignedEntities);
+                final SearchContinuation continuation = context.getContinuation();
+                final int                startIdx     = continuation != null ? continuation.getSkipCount() : context.getSearchParameters().getOffset();
+                final int                limit        = context.getSearchParameters().getLimit();
+                final List<AtlasVertex>  tmpList      = new ArrayList<>(assignedEntities);
 
                 super.filter(tmpList);
 
-                collectResultVertices(ret, startIdx, limit, 0, tmpList);
+                // assigned entities are in memory already, hence sorted here
+                if (context.getSortKey() != null) {
+                    tmpList.sort(getComparator(context.getSortKey(), context.getSortOrder()));
+                }
+
+                int resultIdx = collectResultVertices(ret, startIdx, limit, 0, tmpList);
+
+                if (ret.size() == limit) {
+                    setNextContinuation(0, limit, resultIdx, tmpList.size(), true);
+                }
             }
         } finally {
             AtlasPerfTracer.log(perf);
@@ -110,4 +122,22 @@ public class TermSearchProcessor extends SearchProcessor {
             LOG.debug("<== TermSearchProcessor.filter(): ret.size()={}", entityVertices.size());
         }
     }
+
+    // vertices without a value for the property are placed last, in either order
+    private static Comparator<AtlasVertex> getComparator(String propertyKey, AtlasGraphQuery.SortOrder sortOrder) {
+        final boolean isDescending = sortOrder == AtlasGraphQuery.SortOrder.DESC;
+
+        return (v1, v2) -> {
+            Object val1 = v1.getProperty(propertyKey, Object.class);
+            Object val2 = v2.getProperty(propertyKey, Object.class);
+
+            if (val1 == null || val2 == null) {
+                return val1 == val2 ? 0 : (val1 == null ? 1 : -1);
+            }
+
+            int ret = ((Comparable) val1).compareTo(val2);
+
+            return isDescending ? -ret : ret;
+        };
+    }
 }
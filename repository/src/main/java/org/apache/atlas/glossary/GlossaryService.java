@@ -17,17 +17,28 @@
  */
 package org.apache.atlas.glossary;
 
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.SortOrder;
 import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.discovery.AtlasDiscoveryService;
 import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.AtlasSearchResult;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.model.discovery.SearchParameters.FilterCriteria;
 import org.apache.atlas.model.glossary.AtlasGlossary;
 import org.apache.atlas.model.glossary.AtlasGlossaryCategory;
 import org.apache.atlas.model.glossary.AtlasGlossaryTerm;
 import org.apache.atlas.model.glossary.relations.AtlasRelatedCategoryHeader;
 import org.apache.atlas.model.glossary.relations.AtlasRelatedTermHeader;
 import org.apache.atlas.model.glossary.relations.AtlasTermCategorizationHeader;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasRelatedObjectId;
+import org.apache.atlas.repository.graph.GraphHelper;
+import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.ogm.DataAccess;
 import org.apache.atlas.repository.store.graph.AtlasRelationshipStore;
@@ -60,23 +71,29 @@ public class GlossaryService {
     private static final Logger  LOG                 = LoggerFactory.getLogger(GlossaryService.class);
     private static final boolean DEBUG_ENABLED       = LOG.isDebugEnabled();
     private static final String  QUALIFIED_NAME_ATTR = "qualifiedName";
+    private static final String  NAME_ATTR           = "name";
 
     private final DataAccess                dataAccess;
     private final GlossaryTermUtils         glossaryTermUtils;
     private final GlossaryCategoryUtils     glossaryCategoryUtils;
     private final AtlasTypeRegistry         atlasTypeRegistry;
     private final AtlasEntityChangeNotifier entityChangeNotifier;
+    private final AtlasDiscoveryService     discoveryService;
+    private final AtlasGraph                graph;
 
     private final char[] invalidNameChars = {'@', '.'};
 
     @Inject
     public GlossaryService(DataAccess dataAccess, final AtlasRelationshipStore relationshipStore,
-                           final AtlasTypeRegistry typeRegistry, AtlasEntityChangeNotifier entityChangeNotifier) {
+                           final AtlasTypeRegistry typeRegistry, AtlasEntityChangeNotifier entityChangeNotifier,
+                           AtlasDiscoveryService discoveryService, AtlasGraph graph) {
         this.dataAccess           = dataAccess;
         atlasTypeRegistry         = typeRegistry;
         glossaryTermUtils         = new GlossaryTermUtils(relationshipStore, typeRegistry, dataAccess);
         glossaryCategoryUtils     = new GlossaryCategoryUtils(relationshipStore, typeRegistry, dataAccess);
         this.entityChangeNotifier = entityChangeNotifier;
+        this.discoveryService     = discoveryService;
+        this.graph                = graph;
     }
 
     /**
@@ -702,9 +719,22 @@ public class GlossaryService {
             LOG.debug("==> GlossaryService.getGlossaryTermsHeaders({}, {}, {}, {})", glossaryGuid, offset, limit, sortOrder);
         }
 
+        List<AtlasRelatedTermHeader> ret;
+
+        // a page of terms is read from the index, sorted on the name, instead of loading all terms of the glossary;
+        // when the index backend can't sort, all terms are loaded and sorted in memory
+        if (limit > 0 && limit <= AtlasConfiguration.SEARCH_MAX_LIMIT.getInt() && graph.isIndexSortSupported()) {
+            ret = searchGlossaryTermsHeaders(glossaryGuid, offset, limit, sortOrder);
+
+            if (DEBUG_ENABLED) {
+                LOG.debug("<== GlossaryService.getGlossaryTermsHeaders() : {}", ret);
+            }
+
+            return ret;
+        }
+
         AtlasGlossary glossary = getGlossary(glossaryGuid);
 
-        List<AtlasRelatedTermHeader> ret;
         if (CollectionUtils.isNotEmpty(glossary.getTerms())) {
             List<AtlasRelatedTermHeader> terms = new ArrayList<>(glossary.getTerms());
             if (sortOrder != null) {
@@ -917,6 +947,67 @@ public class GlossaryService {
         return ret;
     }
 
+    // terms of a glossary have qualifiedName of the form termName@glossaryQualifiedName
+    private List<AtlasRelatedTermHeader> searchGlossaryTermsHeaders(String glossaryGuid, int offset, int limit, SortOrder sortOrder) throws AtlasBaseException {
+        AtlasVertex glossaryVertex = AtlasGraphUtilsV2.findByGuid(glossaryGuid);
+
+        if (glossaryVertex == null || !GlossaryUtils.ATLAS_GLOSSARY_TYPENAME.equals(GraphHelper.getTypeName(glossaryVertex))) {
+            throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, glossaryGuid);
+        }
+
+        String           glossaryQName = glossaryVertex.getProperty(atlasTypeRegistry.getEntityTypeByName(GlossaryUtils.ATLAS_GLOSSARY_TYPENAME).getQualifiedAttributeName(QUALIFIED_NAME_ATTR), String.class);
+        SearchParameters params        = new SearchParameters();
+        FilterCriteria   qNameFilter   = new FilterCriteria();
+
+        qNameFilter.setAttributeName(QUALIFIED_NAME_ATTR);
+        qNameFilter.setOperator(SearchParameters.Operator.ENDS_WITH);
+        qNameFilter.setAttributeValue("@" + glossaryQName);
+
+        params.setTypeName(GlossaryUtils.ATLAS_GLOSSARY_TERM_TYPENAME);
+        params.setEntityFilters(qNameFilter);
+        params.setExcludeDeletedEntities(true);
+        params.setAttributes(Collections.singleton(NAME_ATTR));
+        params.setOffset(offset);
+        params.setLimit(limit);
+
+        if (sortOrder != null) {
+            params.setSortBy(NAME_ATTR);
+            params.setSortOrder(sortOrder);
+        }
+
+        AtlasSearchResult            result      = discoveryService.searchWithParameters(params);
+        List<AtlasRelatedTermHeader> ret         = new ArrayList<>();
+        String                       anchorLabel = atlasTypeRegistry.getRelationshipDefByName(GlossaryUtils.TERM_ANCHOR).getRelationshipLabel();
+
+        if (CollectionUtils.isNotEmpty(result.getEntities())) {
+            for (AtlasEntityHeader entityHeader : result.getEntities()) {
+                AtlasRelatedTermHeader header = new AtlasRelatedTermHeader();
+
+                header.setTermGuid(entityHeader.getGuid());
+                header.setDisplayText((String) entityHeader.getAttribute(NAME_ATTR));
+                header.setRelationGuid(getAnchorRelationGuid(entityHeader.getGuid(), anchorLabel));
+
+                ret.add(header);
+            }
+        }
+
+        return ret;
+    }
+
+    private String getAnchorRelationGuid(String termGuid, String anchorLabel) {
+        AtlasVertex termVertex = AtlasGraphUtilsV2.findByGuid(termGuid);
+
+        if (termVertex != null) {
+            for (AtlasEdge edge : (Iterable<AtlasEdge>) termVertex.getEdges(AtlasEdgeDirection.IN, anchorLabel)) {
+                if (AtlasGraphUtilsV2.getState(edge) == AtlasEntity.Status.ACTIVE) {
+                    return GraphHelper.getRelationshipGuid(edge);
+                }
+            }
+        }
+
+        return null;
+    }
+
     private boolean glossaryExists(AtlasGlossary atlasGlossary) {
         AtlasVertex vertex = AtlasGraphUtilsV2.findByUniqueAttributes(atlasTypeRegistry.getEntityTypeByName(GlossaryUtils.ATLAS_GLOSSARY_TYPENAME), new HashMap<String, Object>() {{
             put(QUALIFIED_NAME_ATTR, atlasGlossary.getQualifiedName());
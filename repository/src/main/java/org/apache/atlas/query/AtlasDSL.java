@@ -23,6 +23,7 @@ import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.TokenStream;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.exception.AtlasBaseException;
@@ -37,8 +38,10 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class AtlasDSL {
@@ -52,10 +55,121 @@ public class AtlasDSL {
                                             "as", "times", "withPath", "limit", "offset", "orderby", "count", "max", "min",
                                             "sum", "by", "order", "like"));
 
+        private static final Set<Integer> COMPARISON_OPERATORS =
+                new HashSet<>(Arrays.asList(AtlasDSLLexer.K_LT, AtlasDSLLexer.K_LTE, AtlasDSLLexer.K_EQ, AtlasDSLLexer.K_NEQ,
+                                            AtlasDSLLexer.K_GT, AtlasDSLLexer.K_GTE, AtlasDSLLexer.K_LIKE));
+
+        private static final Set<Integer> SCALAR_VALUES =
+                new HashSet<>(Arrays.asList(AtlasDSLLexer.ID, AtlasDSLLexer.STRING, AtlasDSLLexer.NUMBER,
+                                            AtlasDSLLexer.FLOATING_NUMBER, AtlasDSLLexer.BOOL));
+
+        // tokens that end the right-hand side of a comparison; a value followed by any other token, like '+' or '.',
+        // is not normalized
+        private static final Set<Integer> VALUE_TERMINATORS =
+                new HashSet<>(Arrays.asList(AtlasDSLLexer.K_AND, AtlasDSLLexer.K_OR, AtlasDSLLexer.K_RPAREN, AtlasDSLLexer.K_COMMA,
+                                            AtlasDSLLexer.K_SELECT, AtlasDSLLexer.K_GROUPBY, AtlasDSLLexer.K_ORDERBY,
+                                            AtlasDSLLexer.K_LIMIT, AtlasDSLLexer.K_OFFSET));
+
         public static boolean isKeyword(String word) {
             return RESERVED_KEYWORDS.contains(word);
         }
 
+        /**
+         * Replaces the values compared against in the given query, like "db1" in: hive_db where name = "db1", with
+         * placeholders; queries that differ only in such values have the same shape and can share a translation.
+         *
+         * @return the normalized query; null if the query could not be tokenized
+         */
+        public static NormalizedQuery normalize(String queryStr) {
+            Validator     validator = new Validator();
+            AtlasDSLLexer lexer     = new AtlasDSLLexer(CharStreams.fromString(queryStr));
+
+            lexer.removeErrorListeners();
+            lexer.addErrorListener(validator);
+
+            List<Token> tokens = new ArrayList<>();
+
+            for (Token token : lexer.getAllTokens()) {
+                if (token.getChannel() == Token.DEFAULT_CHANNEL) {
+                    tokens.add(token);
+                }
+            }
+
+            if (!validator.isValid()) {
+                return null;
+            }
+
+            StringBuilder shape  = new StringBuilder();
+            List<Object>  values = new ArrayList<>();
+
+            for (int i = 0; i < tokens.size(); i++) {
+                int valueEndIdx = (i > 0 && COMPARISON_OPERATORS.contains(tokens.get(i - 1).getType())) ? getValueEndIndex(tokens, i) : -1;
+
+                if (shape.length() > 0) {
+                    shape.append(' ');
+                }
+
+                if (valueEndIdx == -1) {
+                    shape.append(tokens.get(i).getText());
+                } else {
+                    boolean isList = valueEndIdx > i;
+
+                    if (isList) {
+                        List<String> elements = new ArrayList<>();
+
+                        for (int j = i + 1; j < valueEndIdx; j += 2) {
+                            elements.add(tokens.get(j).getText());
+                        }
+
+                        values.add(elements);
+                    } else {
+                        values.add(tokens.get(i).getText());
+                    }
+
+                    shape.append(NormalizedQuery.getPlaceholder(values.size() - 1, isList));
+
+                    i = valueEndIdx;
+                }
+            }
+
+            return new NormalizedQuery(queryStr, shape.toString(), values);
+        }
+
+        /**
+         * @return index of the last token of the scalar value or the value-array that starts at startIdx; -1 if
+         * there is no such value at startIdx or if the value is followed by a token other than VALUE_TERMINATORS
+         */
+        private static int getValueEndIndex(List<Token> tokens, int startIdx) {
+            int ret  = -1;
+            int type = tokens.get(startIdx).getType();
+
+            if (SCALAR_VALUES.contains(type)) {
+                ret = startIdx;
+            } else if (type == AtlasDSLLexer.K_LBRACKET) {
+                for (int i = startIdx + 1; i + 1 < tokens.size(); i += 2) {
+                    if (tokens.get(i).getType() != AtlasDSLLexer.ID) {
+                        break;
+                    }
+
+                    int nextType = tokens.get(i + 1).getType();
+
+                    if (nextType == AtlasDSLLexer.K_RBRACKET) {
+                        ret = i + 1;
+
+                        break;
+                    } else if (nextType != AtlasDSLLexer.K_COMMA) {
+                        break;
+                    }
+                }
+            }
+
+            if (ret != -1 && ret + 1 < tokens.size() && !VALUE_TERMINATORS.contains(tokens.get(ret + 1).getType())) {
+                ret = -1;
+            }
+
+            return ret;
+        }
+
         @VisibleForTesting
         static AtlasDSLParser.QueryContext parse(String queryStr) throws AtlasBaseException {
             AtlasDSLParser.QueryContext ret;
@@ -121,10 +235,22 @@ public class AtlasDSL {
         }
 
         public GremlinQuery translate() throws AtlasBaseException {
+            return translate(null);
+        }
+
+        /**
+         * @param queryParams when not null, values in the query are expected to be placeholders of these params and the
+         *                    translated query references the values, along with the limit and offset, as variables
+         */
+        GremlinQuery translate(List<DSLQueryPlan.QueryParam> queryParams) throws AtlasBaseException {
             QueryMetadata queryMetadata = new QueryMetadata(queryContext);
             GremlinQueryComposer gremlinQueryComposer = new GremlinQueryComposer(typeRegistry, queryMetadata, limit, offset);
             DSLVisitor dslVisitor = new DSLVisitor(gremlinQueryComposer);
 
+            if (queryParams != null) {
+                gremlinQueryComposer.setQueryParams(queryParams);
+            }
+
             queryContext.accept(dslVisitor);
 
             processErrorList(gremlinQueryComposer);
@@ -145,6 +271,41 @@ public class AtlasDSL {
         }
     }
 
+    /**
+     * A DSL query along with its shape, i.e. the query with values replaced by placeholders.
+     */
+    public static class NormalizedQuery {
+        private final String       query;
+        private final String       shape;
+        private final List<Object> values;
+
+        NormalizedQuery(String query, String shape, List<Object> values) {
+            this.query  = query;
+            this.shape  = shape;
+            this.values = values;
+        }
+
+        public String getQuery() {
+            return query;
+        }
+
+        public String getShape() {
+            return shape;
+        }
+
+        /**
+         * @return the values replaced by placeholders, in the order of the placeholders; each value is either the text
+         * of a token, like "db1" (with quotes) or 10, or a list of such text for a value-array
+         */
+        public List<Object> getValues() {
+            return values;
+        }
+
+        static String getPlaceholder(int idx, boolean isList) {
+            return (isList ? "'$list" : "'$value") + idx + "'";
+        }
+    }
+
     public static class QueryMetadata {
         private boolean hasSelect;
         private boolean hasGroupBy;
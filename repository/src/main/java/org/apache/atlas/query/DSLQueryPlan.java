@@ -0,0 +1,279 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.type.AtlasTypeRegistry;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gremlin translation of the shape of a DSL query, i.e. the query with values replaced by placeholders. The values,
+ * along with limit and offset, are referenced as variables in the translation and are bound when the query is
+ * executed; hence a plan can be reused for all queries having the same shape, and the Gremlin script compiled for
+ * the translation can be reused as well.
+ */
+public class DSLQueryPlan {
+    public static final String PARAM_LIMIT  = "dslLimit";
+    public static final String PARAM_OFFSET = "dslOffset";
+    public static final String PARAM_PREFIX = "dslParam";
+
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("([+-]?\\d+)(\\.\\d+)?([eE][+-]?\\d+)?([lLiIgGfFdD]?)");
+
+    private final String           gremlinQuery;
+    private final boolean          hasSelect;
+    private final List<QueryParam> queryParams;
+
+    private DSLQueryPlan(String gremlinQuery, boolean hasSelect, List<QueryParam> queryParams) {
+        this.gremlinQuery = gremlinQuery;
+        this.hasSelect    = hasSelect;
+        this.queryParams  = queryParams;
+    }
+
+    /**
+     * @return the plan for the shape of the given query; null if the shape can't be translated with values as
+     * variables, for example when a value is used other than in a comparison
+     */
+    public static DSLQueryPlan create(AtlasDSL.NormalizedQuery normalizedQuery, AtlasTypeRegistry typeRegistry) throws AtlasBaseException {
+        List<QueryParam> queryParams = new ArrayList<>();
+
+        for (int i = 0; i < normalizedQuery.getValues().size(); i++) {
+            boolean isList = normalizedQuery.getValues().get(i) instanceof List;
+
+            queryParams.add(new QueryParam(PARAM_PREFIX + i, AtlasDSL.NormalizedQuery.getPlaceholder(i, isList), isList));
+        }
+
+        GremlinQuery gremlinQuery = new AtlasDSL.Translator(normalizedQuery.getShape(), typeRegistry, 0, 0).translate(queryParams);
+
+        for (QueryParam queryParam : queryParams) {
+            if (!queryParam.hasTarget()) {
+                return null;
+            }
+        }
+
+        return new DSLQueryPlan(gremlinQuery.queryStr(), gremlinQuery.hasSelectList(), queryParams);
+    }
+
+    public String getGremlinQuery() {
+        return gremlinQuery;
+    }
+
+    /**
+     * @return the query to execute for the given values; null if a value can't be bound to a variable, in which case
+     * the query should be translated with values inlined
+     */
+    public GremlinQuery bind(AtlasDSL.NormalizedQuery normalizedQuery, int limit, int offset) throws AtlasBaseException {
+        Map<String, Object> bindings = new HashMap<>();
+        List<Object>        values   = normalizedQuery.getValues();
+
+        if (values.size() != queryParams.size()) {
+            return null;
+        }
+
+        for (int i = 0; i < values.size(); i++) {
+            QueryParam queryParam = queryParams.get(i);
+            Object     value      = queryParam.toValue(values.get(i), normalizedQuery.getQuery());
+
+            if (value == null) {
+                return null;
+            }
+
+            bindings.put(queryParam.getName(), value);
+        }
+
+        bindings.put(PARAM_LIMIT, limit);
+        bindings.put(PARAM_OFFSET, offset);
+
+        return new GremlinQuery(gremlinQuery, hasSelect, bindings);
+    }
+
+    /**
+     * Returns the value that Groovy would evaluate the given literal to, or null for literals that are not simple
+     * numbers, strings or booleans - like strings having escape sequences or interpolations.
+     */
+    static Object toGroovyValue(String literal) {
+        if (literal.length() > 1 && literal.startsWith("'") && literal.endsWith("'")) {
+            String ret = literal.substring(1, literal.length() - 1);
+
+            return (ret.indexOf('\'') == -1 && ret.indexOf('\\') == -1) ? ret : null;
+        } else if (literal.length() > 1 && literal.startsWith("\"") && literal.endsWith("\"")) {
+            String ret = literal.substring(1, literal.length() - 1);
+
+            return (ret.indexOf('"') == -1 && ret.indexOf('\\') == -1 && ret.indexOf('$') == -1) ? ret : null;
+        } else if (literal.equals("true") || literal.equals("false")) {
+            return Boolean.valueOf(literal);
+        }
+
+        Matcher matcher = NUMBER_LITERAL.matcher(literal);
+
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        boolean isDecimal = matcher.group(2) != null || matcher.group(3) != null;
+
+        if (!isDecimal && matcher.group(1).matches("[+-]?0\\d+")) { // octal in Groovy
+            return null;
+        }
+        String  number    = literal.substring(0, matcher.start(4));
+        Object  ret;
+
+        try {
+            switch (matcher.group(4).toLowerCase()) {
+                case "l":
+                    ret = isDecimal ? null : Long.valueOf(number);
+                    break;
+
+                case "i":
+                    ret = isDecimal ? null : Integer.valueOf(number);
+                    break;
+
+                case "g":
+                    ret = isDecimal ? new BigDecimal(number) : new BigInteger(number);
+                    break;
+
+                case "f":
+                    ret = Float.valueOf(number);
+                    break;
+
+                case "d":
+                    ret = Double.valueOf(number);
+                    break;
+
+                default:
+                    if (isDecimal) {
+                        ret = new BigDecimal(number);
+                    } else {
+                        BigInteger value = new BigInteger(number);
+
+                        if (value.bitLength() < Integer.SIZE) {
+                            ret = value.intValue();
+                        } else if (value.bitLength() < Long.SIZE) {
+                            ret = value.longValue();
+                        } else {
+                            ret = value;
+                        }
+                    }
+                    break;
+            }
+        } catch (NumberFormatException excp) {
+            ret = null;
+        }
+
+        return ret;
+    }
+
+    /**
+     * A value in the query, bound to a variable. How the value is converted depends on the attribute it is compared
+     * against, which is set while the query is translated.
+     */
+    public static class QueryParam {
+        private final String  name;
+        private final String  placeholder;
+        private final boolean isList;
+        private boolean       hasTarget;
+        private boolean       isDate;
+        private String        numericTypeFormatter;
+        private boolean       isRegex;
+
+        QueryParam(String name, String placeholder, boolean isList) {
+            this.name        = name;
+            this.placeholder = placeholder;
+            this.isList      = isList;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPlaceholder() {
+            return placeholder;
+        }
+
+        public boolean isList() {
+            return isList;
+        }
+
+        public boolean hasTarget() {
+            return hasTarget;
+        }
+
+        /**
+         * @param numericTypeFormatter suffix for values compared against a numeric attribute, like "L"; null for
+         *                             non-numeric attributes
+         */
+        void setTarget(boolean isDate, String numericTypeFormatter, boolean isRegex) {
+            this.hasTarget            = true;
+            this.isDate               = isDate;
+            this.numericTypeFormatter = numericTypeFormatter;
+            this.isRegex              = isRegex;
+        }
+
+        Object toValue(Object value, String query) throws AtlasBaseException {
+            if (!isList) {
+                return toScalarValue((String) value, query);
+            }
+
+            List<Object> ret = new ArrayList<>();
+
+            for (Object element : (List) value) {
+                Object elementValue = toScalarValue((String) element, query);
+
+                if (elementValue == null) {
+                    return null;
+                }
+
+                ret.add(elementValue);
+            }
+
+            return ret;
+        }
+
+        // same conversions as GremlinQueryComposer.addWhere() does for inlined values
+        private Object toScalarValue(String value, String query) throws AtlasBaseException {
+            final String literal;
+
+            if (isDate) {
+                String dateStr = IdentifierHelper.isQuoted(value) ? IdentifierHelper.removeQuotes(value) : value;
+                Long   date    = GremlinQueryComposer.parseDateValue(dateStr);
+
+                if (date == null) {
+                    throw new AtlasBaseException(AtlasErrorCode.INVALID_DSL_QUERY, query, AtlasErrorCode.INVALID_DSL_INVALID_DATE.getFormattedErrorMessage(dateStr));
+                }
+
+                return String.valueOf(date);
+            } else if (numericTypeFormatter != null) {
+                literal = value.replace("'", "").replace("\"", "") + numericTypeFormatter;
+            } else if (IdentifierHelper.isTrueOrFalse(value) || IdentifierHelper.isQuoted(value)) {
+                literal = value;
+            } else {
+                literal = IdentifierHelper.getQuoted(value);
+            }
+
+            return toGroovyValue(isRegex ? IdentifierHelper.getFixedRegEx(literal) : literal);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of DSL query plans, keyed by the shape of the query. A query whose shape is in the cache is executed without
+ * being parsed and translated again; and, since values are passed as bindings, the Gremlin script compiled for the
+ * plan is reused as well.
+ *
+ * Plans depend on the types in the registry; the cache is cleared whenever updates to the type registry are committed.
+ */
+@Singleton
+@Component
+public class DSLQueryPlanCache {
+    private static final Logger LOG = LoggerFactory.getLogger(DSLQueryPlanCache.class);
+
+    public static final String METRIC_SIZE          = "size";
+    public static final String METRIC_HITS          = "hits";
+    public static final String METRIC_MISSES        = "misses";
+    public static final String METRIC_HIT_RATIO     = "hitRatio";
+    public static final String METRIC_NOT_CACHEABLE = "notCacheable";
+    public static final String METRIC_INVALIDATIONS = "invalidations";
+
+    private final AtlasTypeRegistry                     typeRegistry;
+    private final Cache<String, Optional<DSLQueryPlan>> plans;
+    private final AtomicLong                            hits          = new AtomicLong();
+    private final AtomicLong                            misses        = new AtomicLong();
+    private final AtomicLong                            notCacheable  = new AtomicLong();
+    private final AtomicLong                            invalidations = new AtomicLong();
+    private volatile long                               typeRegistryVersion;
+
+    @Inject
+    public DSLQueryPlanCache(AtlasTypeRegistry typeRegistry) {
+        this(typeRegistry, AtlasConfiguration.DSL_QUERY_PLAN_CACHE_SIZE.getInt());
+    }
+
+    DSLQueryPlanCache(AtlasTypeRegistry typeRegistry, int cacheSize) {
+        this.typeRegistry        = typeRegistry;
+        this.plans               = cacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(cacheSize).build() : null;
+        this.typeRegistryVersion = typeRegistry.getVersion();
+
+        LOG.info("DSL query plan cache: size={}", cacheSize);
+    }
+
+    /**
+     * @return Gremlin query for the given DSL query; values in the query are passed as bindings when a plan is
+     * available for the shape of the query, otherwise they are inlined in the Gremlin query
+     */
+    public GremlinQuery getGremlinQuery(String query, int limit, int offset) throws AtlasBaseException {
+        GremlinQuery ret = null;
+
+        if (plans != null) {
+            AtlasDSL.NormalizedQuery normalizedQuery = AtlasDSL.Parser.normalize(query);
+            DSLQueryPlan             plan            = normalizedQuery != null ? getPlan(normalizedQuery) : null;
+
+            if (plan != null) {
+                ret = plan.bind(normalizedQuery, limit, offset);
+            }
+
+            if (ret == null) {
+                notCacheable.incrementAndGet();
+            }
+        }
+
+        if (ret == null) {
+            ret = new AtlasDSL.Translator(query, typeRegistry, offset, limit).translate();
+        }
+
+        return ret;
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> ret       = new LinkedHashMap<>();
+        long                hitCount  = hits.get();
+        long                missCount = misses.get();
+
+        ret.put(METRIC_SIZE, plans != null ? plans.size() : 0);
+        ret.put(METRIC_HITS, hitCount);
+        ret.put(METRIC_MISSES, missCount);
+        ret.put(METRIC_HIT_RATIO, (hitCount + missCount) > 0 ? (double) hitCount / (hitCount + missCount) : 0d);
+        ret.put(METRIC_NOT_CACHEABLE, notCacheable.get());
+        ret.put(METRIC_INVALIDATIONS, invalidations.get());
+
+        return ret;
+    }
+
+    private DSLQueryPlan getPlan(AtlasDSL.NormalizedQuery normalizedQuery) {
+        long version = typeRegistry.getVersion();
+
+        if (version != typeRegistryVersion) {
+            synchronized (this) {
+                if (version != typeRegistryVersion) {
+                    LOG.info("type registry updated: clearing {} cached DSL query plans", plans.size());
+
+                    plans.invalidateAll();
+
+                    typeRegistryVersion = version;
+
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+
+        // version is part of the key, so that a plan translated with an older version of types is not used
+        String                 key  = version + ":" + normalizedQuery.getShape();
+        Optional<DSLQueryPlan> plan = plans.getIfPresent(key);
+
+        if (plan != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+
+            try {
+                plan = Optional.ofNullable(DSLQueryPlan.create(normalizedQuery, typeRegistry));
+
+                plans.put(key, plan);
+            } catch (AtlasBaseException excp) {
+                // invalid query: translating the query with its values inlined will report the error
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("failed to create plan for query shape: {}", normalizedQuery.getShape(), excp);
+                }
+
+                plan = Optional.empty();
+            }
+        }
+
+        return plan.orElse(null);
+    }
+}
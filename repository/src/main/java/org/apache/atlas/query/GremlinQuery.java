@@ -17,13 +17,22 @@
  */
 package org.apache.atlas.query;
 
+import java.util.Collections;
+import java.util.Map;
+
 public class GremlinQuery {
-    private final String queryStr;
-    private final boolean hasSelect;
+    private final String              queryStr;
+    private final boolean             hasSelect;
+    private final Map<String, Object> bindings;
 
     public GremlinQuery(String text, boolean hasSelect) {
-        this.queryStr = text;
+        this(text, hasSelect, Collections.emptyMap());
+    }
+
+    public GremlinQuery(String text, boolean hasSelect, Map<String, Object> bindings) {
+        this.queryStr  = text;
         this.hasSelect = hasSelect;
+        this.bindings  = bindings;
     }
 
     public String queryStr() {
@@ -33,4 +42,11 @@ public class GremlinQuery {
     public boolean hasSelectList() {
         return hasSelect;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return values of the variables referenced in the query string; empty when all values are inlined in the query
+     */
+    public Map<String, Object> getBindings() {
+        return bindings;
+    }
+}
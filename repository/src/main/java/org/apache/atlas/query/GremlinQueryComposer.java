@@ -183,16 +183,30 @@ public class GremlinQueryComposer {
             return;
         }
 
-        if (lhsI.isDate()) {
-            rhs = parseDate(rhs);
-        } else if (lhsI.isNumeric()) {
-            rhs = parseNumber(rhs, this.context);
+        SearchParameters.Operator op         = SearchParameters.Operator.fromString(operator);
+        DSLQueryPlan.QueryParam   queryParam = context.getQueryParam(rhs);
+
+        if (queryParam != null) {
+            // the value is bound to a variable when the query is executed, after the conversions done below
+            queryParam.setTarget(lhsI.isDate(), lhsI.isNumeric() ? context.getNumericTypeFormatter() : null, op == SearchParameters.Operator.LIKE);
+
+            rhs = queryParam.getName();
+
+            if (queryParam.isList()) {
+                op = SearchParameters.Operator.IN;
+            }
+        } else {
+            if (lhsI.isDate()) {
+                rhs = parseDate(rhs);
+            } else if (lhsI.isNumeric()) {
+                rhs = parseNumber(rhs, this.context);
+            }
+
+            rhs = addQuotesIfNecessary(lhsI, rhs);
         }
 
-        rhs = addQuotesIfNecessary(lhsI, rhs);
-        SearchParameters.Operator op = SearchParameters.Operator.fromString(operator);
         if (op == SearchParameters.Operator.LIKE) {
-            add(GremlinClause.TEXT_CONTAINS, lhsI.getQualifiedName(), IdentifierHelper.getFixedRegEx(rhs));
+            add(GremlinClause.TEXT_CONTAINS, lhsI.getQualifiedName(), queryParam != null ? rhs : IdentifierHelper.getFixedRegEx(rhs));
         } else if (op == SearchParameters.Operator.IN) {
             add(GremlinClause.HAS_OPERATOR, lhsI.getQualifiedName(), "within", rhs);
         } else {
@@ -290,7 +304,11 @@ public class GremlinQueryComposer {
     }
 
     public void addDefaultLimit() {
-        addLimit(Integer.toString(providedLimit), Integer.toString(providedOffset));
+        if (context != null && context.hasQueryParams()) {
+            addLimit(DSLQueryPlan.PARAM_LIMIT, DSLQueryPlan.PARAM_OFFSET);
+        } else {
+            addLimit(Integer.toString(providedLimit), Integer.toString(providedOffset));
+        }
     }
 
     public String get() {
@@ -330,7 +348,17 @@ public class GremlinQueryComposer {
     }
 
     public long getDateFormat(String s) {
+        Long ret = parseDateValue(s);
+
+        if (ret != null) {
+            return ret;
+        }
 
+        context.validator.check(false, AtlasErrorCode.INVALID_DSL_INVALID_DATE, s);
+        return -1;
+    }
+
+    static Long parseDateValue(String s) {
         for (DateFormat dateFormat : DSL_DATE_FORMAT.get()) {
             try {
                 return dateFormat.parse(s).getTime();
@@ -338,8 +366,15 @@ public class GremlinQueryComposer {
             }
         }
 
-        context.validator.check(false, AtlasErrorCode.INVALID_DSL_INVALID_DATE, s);
-        return -1;
+        return null;
+    }
+
+    /**
+     * Values compared against attributes in the query will be referenced by the variable names of the given params,
+     * instead of being inlined; the query is expected to contain the placeholders of these params as values.
+     */
+    void setQueryParams(List<DSLQueryPlan.QueryParam> queryParams) {
+        context.setQueryParams(queryParams);
     }
 
     public boolean hasFromClause() {
@@ -645,6 +680,7 @@ public class GremlinQueryComposer {
         private SelectClauseComposer        selectClauseComposer;
         private ClauseValidator             validator;
         private String                      numericTypeFormatter = "";
+        private Map<String, DSLQueryPlan.QueryParam> queryParams;
 
         public Context(Lookup lookup) {
             this.lookup = lookup;
@@ -744,6 +780,22 @@ public class GremlinQueryComposer {
         public String getNumericTypeFormatter() {
             return this.numericTypeFormatter;
         }
+
+        public void setQueryParams(List<DSLQueryPlan.QueryParam> queryParams) {
+            this.queryParams = new HashMap<>();
+
+            for (DSLQueryPlan.QueryParam queryParam : queryParams) {
+                this.queryParams.put(queryParam.getPlaceholder(), queryParam);
+            }
+        }
+
+        public boolean hasQueryParams() {
+            return queryParams != null;
+        }
+
+        public DSLQueryPlan.QueryParam getQueryParam(String placeholder) {
+            return queryParams != null ? queryParams.get(placeholder) : null;
+        }
     }
 
     private static class ClauseValidator {
@@ -0,0 +1,396 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.repository.audit.AuditJournal.Entry;
+import org.apache.atlas.service.Service;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes entity audit events to the audit repository in the background, when atlas.audit.async.enabled is true;
+ * otherwise events are written in the caller's thread.
+ *
+ * Events are first appended to a local journal, for durability, and then queued in a bounded lock-free buffer. A
+ * writer thread takes events from the buffer and writes them to the repository in groups, of up to batch-size events
+ * or the events queued within flush-interval, retrying failed writes. When the buffer is full, like when the audit
+ * repository is slow or unavailable, events are kept only in the journal and are read back by the writer once it
+ * catches up; un-acked events in the journal are written after a restart as well. Once the journal grows beyond its
+ * maximum size, events are written in the caller's thread.
+ */
+@Singleton
+@Component
+public class AsyncEntityAuditWriter implements Service {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncEntityAuditWriter.class);
+
+    public static final String METRIC_ENABLED          = "enabled";
+    public static final String METRIC_QUEUED_ENTRIES   = "queuedEntries";
+    public static final String METRIC_SPILLING         = "spilling";
+    public static final String METRIC_JOURNAL_SIZE     = "journalSize";
+    public static final String METRIC_JOURNAL_SEGMENTS = "journalSegments";
+    public static final String METRIC_EVENTS_WRITTEN   = "eventsWritten";
+    public static final String METRIC_BATCHES_WRITTEN  = "batchesWritten";
+    public static final String METRIC_WRITE_FAILURES   = "writeFailures";
+    public static final String METRIC_SYNC_WRITES      = "syncWrites";
+
+    private static final long RETRY_INITIAL_WAIT_MS = 100;
+    private static final long RETRY_MAX_WAIT_MS     = 30000;
+    private static final long STOP_WAIT_MS          = 30000;
+
+    private final EntityAuditRepository auditRepository;
+    private final boolean               isEnabled;
+    private final int                   bufferSize;
+    private final int                   batchSize;
+    private final long                  flushIntervalMs;
+    private final File                  journalDirectory;
+    private final long                  journalSegmentSize;
+    private final long                  journalMaxSize;
+    private final boolean               journalSync;
+    private final Queue<Entry>          buffer         = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger         bufferCount    = new AtomicInteger();
+    private final AtomicLong            eventsWritten  = new AtomicLong();
+    private final AtomicLong            batchesWritten = new AtomicLong();
+    private final AtomicLong            writeFailures  = new AtomicLong();
+    private final AtomicLong            syncWrites     = new AtomicLong();
+    private volatile AuditJournal       journal;
+    private volatile Thread             writerThread;
+    private volatile boolean            isRunning      = false;
+    private boolean                     isSpilling     = false; // guarded by journal
+    private long                        spillFromSeq   = 0;     // guarded by journal
+
+    @Inject
+    public AsyncEntityAuditWriter(EntityAuditRepository auditRepository) {
+        this(auditRepository, AtlasConfiguration.AUDIT_ASYNC_ENABLED.getBoolean(), AtlasConfiguration.AUDIT_ASYNC_BUFFER_SIZE.getInt(),
+             AtlasConfiguration.AUDIT_ASYNC_BATCH_SIZE.getInt(), AtlasConfiguration.AUDIT_ASYNC_FLUSH_INTERVAL_MS.getLong(),
+             getJournalDirectory(), AtlasConfiguration.AUDIT_ASYNC_JOURNAL_SEGMENT_SIZE_MB.getLong() * 1024 * 1024,
+             AtlasConfiguration.AUDIT_ASYNC_JOURNAL_MAX_SIZE_MB.getLong() * 1024 * 1024, AtlasConfiguration.AUDIT_ASYNC_JOURNAL_SYNC.getBoolean());
+    }
+
+    @VisibleForTesting
+    AsyncEntityAuditWriter(EntityAuditRepository auditRepository, boolean isEnabled, int bufferSize, int batchSize, long flushIntervalMs,
+                           File journalDirectory, long journalSegmentSize, long journalMaxSize, boolean journalSync) {
+        this.auditRepository    = auditRepository;
+        this.isEnabled          = isEnabled;
+        this.bufferSize         = Math.max(bufferSize, 1);
+        this.batchSize          = Math.max(batchSize, 1);
+        this.flushIntervalMs    = Math.max(flushIntervalMs, 1);
+        this.journalDirectory   = journalDirectory;
+        this.journalSegmentSize = journalSegmentSize;
+        this.journalMaxSize     = journalMaxSize;
+        this.journalSync        = journalSync;
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (!isEnabled) {
+            return;
+        }
+
+        try {
+            AuditJournal journal = new AuditJournal(journalDirectory, journalSegmentSize, journalSync);
+
+            synchronized (journal) {
+                // un-acked entries left by an earlier run are read back from the journal
+                isSpilling   = journal.getFirstSeq() < journal.getNextSeq();
+                spillFromSeq = journal.getFirstSeq();
+            }
+
+            this.journal = journal;
+        } catch (IOException excp) {
+            throw new AtlasException("failed to open audit journal in " + journalDirectory, excp);
+        }
+
+        isRunning    = true;
+        writerThread = new Thread(this::run, "atlas-audit-writer");
+
+        writerThread.setDaemon(true);
+        writerThread.start();
+
+        LOG.info("AsyncEntityAuditWriter: started; journalDirectory={}, bufferSize={}, batchSize={}, flushIntervalMs={}", journalDirectory, bufferSize, batchSize, flushIntervalMs);
+    }
+
+    @Override
+    public void stop() throws AtlasException {
+        Thread writerThread = this.writerThread;
+
+        if (writerThread == null) {
+            return;
+        }
+
+        isRunning = false;
+
+        LockSupport.unpark(writerThread);
+
+        try {
+            writerThread.join(STOP_WAIT_MS);
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writerThread.isAlive()) {
+            LOG.warn("AsyncEntityAuditWriter: writer did not stop in {} ms; pending events will be written after restart", STOP_WAIT_MS);
+        }
+
+        journal.close();
+
+        this.writerThread = null;
+
+        LOG.info("AsyncEntityAuditWriter: stopped");
+    }
+
+    public void putEventsV2(List<EntityAuditEventV2> events) throws AtlasBaseException {
+        AuditJournal journal = this.journal;
+
+        if (!isRunning || journal == null || CollectionUtils.isEmpty(events)) {
+            auditRepository.putEventsV2(events);
+
+            return;
+        }
+
+        if (journal.getSize() > journalMaxSize) { // audit repository is not keeping up; slow down the caller
+            syncWrites.incrementAndGet();
+
+            auditRepository.putEventsV2(events);
+
+            return;
+        }
+
+        boolean isQueued;
+
+        try {
+            synchronized (journal) {
+                Entry entry = journal.append(events);
+
+                isQueued = !isSpilling && bufferCount.get() < bufferSize;
+
+                if (isQueued) {
+                    bufferCount.incrementAndGet();
+                    buffer.offer(entry);
+                } else if (!isSpilling) {
+                    isSpilling   = true;
+                    spillFromSeq = entry.getSeq();
+                }
+            }
+        } catch (IOException excp) {
+            LOG.warn("AsyncEntityAuditWriter: failed to append to journal; writing events synchronously", excp);
+
+            syncWrites.incrementAndGet();
+
+            auditRepository.putEventsV2(events);
+
+            return;
+        }
+
+        if (isQueued && bufferCount.get() >= batchSize) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> ret     = new LinkedHashMap<>();
+        AuditJournal        journal = this.journal;
+
+        ret.put(METRIC_ENABLED, isRunning);
+        ret.put(METRIC_QUEUED_ENTRIES, bufferCount.get());
+
+        if (journal != null) {
+            synchronized (journal) {
+                ret.put(METRIC_SPILLING, isSpilling);
+                ret.put(METRIC_JOURNAL_SIZE, journal.getSize());
+                ret.put(METRIC_JOURNAL_SEGMENTS, journal.getSegmentCount());
+            }
+        }
+
+        ret.put(METRIC_EVENTS_WRITTEN, eventsWritten.get());
+        ret.put(METRIC_BATCHES_WRITTEN, batchesWritten.get());
+        ret.put(METRIC_WRITE_FAILURES, writeFailures.get());
+        ret.put(METRIC_SYNC_WRITES, syncWrites.get());
+
+        return ret;
+    }
+
+    private void run() {
+        while (true) {
+            List<Entry> batch = nextBatch();
+
+            if (batch.isEmpty()) {
+                if (!isRunning) {
+                    break;
+                }
+
+                continue;
+            }
+
+            if (!write(batch)) { // stopped while retrying; entries remain in the journal
+                break;
+            }
+        }
+    }
+
+    private List<Entry> nextBatch() {
+        List<Entry> ret       = new ArrayList<>();
+        int         numEvents = 0;
+        long        deadline  = 0;
+
+        while (numEvents < batchSize) {
+            Entry entry = buffer.poll();
+
+            if (entry != null) {
+                bufferCount.decrementAndGet();
+
+                ret.add(entry);
+
+                numEvents += entry.getEvents().size();
+
+                if (deadline == 0) {
+                    deadline = System.currentTimeMillis() + flushIntervalMs;
+                }
+
+                continue;
+            }
+
+            if (ret.isEmpty()) {
+                if (!isRunning) { // entries not in the buffer remain in the journal
+                    break;
+                }
+
+                List<Entry> spilled = readSpilled();
+
+                if (!spilled.isEmpty()) {
+                    return spilled;
+                }
+
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            } else {
+                long waitMs = deadline - System.currentTimeMillis();
+
+                if (waitMs <= 0 || !isRunning) {
+                    break;
+                }
+
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(waitMs));
+            }
+        }
+
+        return ret;
+    }
+
+    private List<Entry> readSpilled() {
+        synchronized (journal) {
+            if (!isSpilling) {
+                return Collections.emptyList();
+            }
+
+            List<Entry> ret = Collections.emptyList();
+
+            try {
+                ret = journal.read(spillFromSeq, batchSize);
+            } catch (IOException excp) {
+                LOG.error("AsyncEntityAuditWriter: failed to read journal; entries from seq {} will be written after restart", spillFromSeq, excp);
+
+                spillFromSeq = journal.getNextSeq();
+            }
+
+            if (!ret.isEmpty()) {
+                spillFromSeq = ret.get(ret.size() - 1).getSeq() + 1;
+            }
+
+            if (spillFromSeq >= journal.getNextSeq()) { // caught up; new entries can be queued again
+                isSpilling = false;
+            }
+
+            return ret;
+        }
+    }
+
+    /**
+     * @return false if the writer was stopped before the events could be written
+     */
+    private boolean write(List<Entry> batch) {
+        List<EntityAuditEventV2> events = new ArrayList<>();
+
+        for (Entry entry : batch) {
+            events.addAll(entry.getEvents());
+        }
+
+        for (long waitMs = RETRY_INITIAL_WAIT_MS; ; waitMs = Math.min(waitMs * 2, RETRY_MAX_WAIT_MS)) {
+            try {
+                auditRepository.putEventsV2(events);
+
+                break;
+            } catch (Throwable t) {
+                writeFailures.incrementAndGet();
+
+                LOG.warn("AsyncEntityAuditWriter: failed to write {} events; will retry in {} ms", events.size(), waitMs, t);
+
+                if (!isRunning) {
+                    return false;
+                }
+
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(waitMs));
+            }
+        }
+
+        eventsWritten.addAndGet(events.size());
+        batchesWritten.incrementAndGet();
+
+        try {
+            journal.ack(batch);
+        } catch (IOException excp) {
+            LOG.warn("AsyncEntityAuditWriter: failed to ack journal entries; these events might be written again after restart", excp);
+        }
+
+        return true;
+    }
+
+    private static File getJournalDirectory() {
+        String directory = AtlasConfiguration.AUDIT_ASYNC_JOURNAL_DIRECTORY.getString();
+
+        if (StringUtils.isEmpty(directory)) {
+            String atlasHomeDir = System.getProperty("atlas.home");
+
+            directory = (StringUtils.isEmpty(atlasHomeDir) ? "." : atlasHomeDir) + File.separator + "data" + File.separator + "audit-journal";
+        }
+
+        return new File(directory);
+    }
+}
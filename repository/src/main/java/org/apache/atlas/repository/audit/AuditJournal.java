@@ -0,0 +1,441 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Append-only journal of entity audit events, kept in segment files in a local directory.
+ *
+ * Each line of a segment holds the sequence number and the events of one append. Sequence numbers of entries that
+ * were written to the audit repository are appended to the segment's ack file; a segment is deleted once all its
+ * entries are acked. Segments found when the journal is opened, i.e. left by an earlier run, are not appended to;
+ * their un-acked entries are available through read().
+ */
+public class AuditJournal implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(AuditJournal.class);
+
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final String ACK_SUFFIX     = ".ack";
+
+    private static final char FIELD_SEPARATOR = '\t';
+
+    private final File                   directory;
+    private final long                   segmentSize;
+    private final boolean                sync;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private Segment                      current;
+    private long                         nextSeq;
+    private long                         size;
+    private Cursor                       cursor;
+
+    public AuditJournal(File directory, long segmentSize, boolean sync) throws IOException {
+        this.directory   = directory;
+        this.segmentSize = segmentSize;
+        this.sync        = sync;
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(directory + ": failed to create journal directory");
+        }
+
+        recover();
+    }
+
+    public static class Entry {
+        private final long                     seq;
+        private final Segment                  segment;
+        private final List<EntityAuditEventV2> events;
+
+        Entry(long seq, Segment segment, List<EntityAuditEventV2> events) {
+            this.seq     = seq;
+            this.segment = segment;
+            this.events  = events;
+        }
+
+        public long getSeq() { return seq; }
+
+        public List<EntityAuditEventV2> getEvents() { return events; }
+    }
+
+    public synchronized Entry append(List<EntityAuditEventV2> events) throws IOException {
+        if (current == null || current.size >= segmentSize) {
+            roll();
+        }
+
+        long   seq   = nextSeq;
+        byte[] bytes = (Long.toString(seq) + FIELD_SEPARATOR + AtlasType.toJson(events) + '\n').getBytes(StandardCharsets.UTF_8);
+
+        current.out.write(bytes);
+        current.out.flush();
+
+        if (sync) {
+            current.out.getFD().sync();
+        }
+
+        nextSeq++;
+
+        current.size += bytes.length;
+        current.pending++;
+        size         += bytes.length;
+
+        return new Entry(seq, current, events);
+    }
+
+    /**
+     * Records that the given entries were written to the audit repository.
+     */
+    public synchronized void ack(Collection<Entry> entries) throws IOException {
+        Map<Segment, List<Long>> segmentSeqs = new HashMap<>();
+
+        for (Entry entry : entries) {
+            segmentSeqs.computeIfAbsent(entry.segment, s -> new ArrayList<>()).add(entry.seq);
+        }
+
+        for (Map.Entry<Segment, List<Long>> e : segmentSeqs.entrySet()) {
+            Segment segment = e.getKey();
+
+            if (!segments.containsKey(segment.id)) { // already deleted
+                continue;
+            }
+
+            segment.pending -= e.getValue().size();
+
+            if (segment.pending <= 0 && segment != current) {
+                delete(segment);
+            } else {
+                try (FileOutputStream out = new FileOutputStream(segment.ackFile, true)) {
+                    out.write((StringUtils.join(e.getValue(), ',') + '\n').getBytes(StandardCharsets.UTF_8));
+
+                    if (sync) {
+                        out.getFD().sync();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads un-acked entries having sequence number fromSeq or higher, in the order of their sequence numbers.
+     *
+     * @param maxEvents reading stops once entries read have this many events
+     */
+    public synchronized List<Entry> read(long fromSeq, int maxEvents) throws IOException {
+        List<Entry> ret       = new ArrayList<>();
+        int         numEvents = 0;
+
+        while (numEvents < maxEvents) {
+            if (cursor == null || cursor.nextSeq > fromSeq || !segments.containsKey(cursor.segment.id)) {
+                Long segmentId = segments.floorKey(fromSeq);
+
+                if (segmentId == null) {
+                    segmentId = segments.ceilingKey(fromSeq);
+                }
+
+                if (segmentId == null) {
+                    break;
+                }
+
+                openCursor(segments.get(segmentId));
+            }
+
+            String line = cursor.reader.readLine();
+
+            if (line == null) { // end of segment
+                Long nextSegmentId = segments.higherKey(cursor.segment.id);
+
+                if (nextSegmentId == null) {
+                    break;
+                }
+
+                openCursor(segments.get(nextSegmentId));
+
+                continue;
+            }
+
+            int idx = line.indexOf(FIELD_SEPARATOR);
+
+            if (!isComplete(line, idx)) {
+                continue;
+            }
+
+            long seq = Long.parseLong(line.substring(0, idx));
+
+            cursor.nextSeq = seq + 1;
+
+            if (seq < fromSeq) {
+                continue;
+            }
+
+            if (cursor.segment.acked.contains(seq)) {
+                fromSeq = seq + 1; // keeps the cursor, which is now past fromSeq, from being reopened
+
+                continue;
+            }
+
+            List<EntityAuditEventV2> events = Arrays.asList(AtlasType.fromJson(line.substring(idx + 1), EntityAuditEventV2[].class));
+
+            ret.add(new Entry(seq, cursor.segment, events));
+
+            numEvents += events.size();
+            fromSeq    = seq + 1;
+        }
+
+        return ret;
+    }
+
+    /**
+     * @return sequence number of the oldest un-acked entry; getNextSeq() if there are none
+     */
+    public synchronized long getFirstSeq() {
+        for (Segment segment : segments.values()) {
+            if (segment.pending > 0) {
+                return segment.id;
+            }
+        }
+
+        return nextSeq;
+    }
+
+    public synchronized long getNextSeq() {
+        return nextSeq;
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        closeCursor();
+
+        if (current != null) {
+            IOUtils.closeQuietly(current.out);
+
+            if (current.pending <= 0) {
+                delete(current);
+            }
+
+            current = null;
+        }
+    }
+
+    private void recover() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            String  name    = file.getName();
+            long    id      = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = new Segment(id);
+
+            readAcks(segment);
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    int idx = line.indexOf(FIELD_SEPARATOR);
+
+                    if (!isComplete(line, idx)) {
+                        LOG.warn("{}: ignoring incomplete journal entry", file);
+
+                        continue;
+                    }
+
+                    long seq = Long.parseLong(line.substring(0, idx));
+
+                    if (!segment.acked.contains(seq)) {
+                        segment.pending++;
+                    }
+
+                    nextSeq = Math.max(nextSeq, seq + 1);
+                }
+            }
+
+            segment.size = file.length();
+            size        += segment.size;
+
+            segments.put(id, segment);
+
+            if (segment.pending <= 0) {
+                delete(segment);
+            }
+        }
+
+        LOG.info("AuditJournal: {} segments with un-acked entries found in {}", segments.size(), directory);
+    }
+
+    // the last line of a segment might be incomplete, if the server went down while it was being written
+    private static boolean isComplete(String line, int separatorIdx) {
+        return separatorIdx > 0 && line.endsWith("]");
+    }
+
+    // like segments, the last line of an ack file might be incomplete; it is ignored, leaving its entries un-acked
+    private void readAcks(Segment segment) throws IOException {
+        if (!segment.ackFile.exists()) {
+            return;
+        }
+
+        String content;
+
+        try (FileInputStream in = new FileInputStream(segment.ackFile)) {
+            content = IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+
+        int lineStart = 0;
+
+        for (int lineEnd = content.indexOf('\n'); lineEnd != -1; lineEnd = content.indexOf('\n', lineStart)) {
+            String line = content.substring(lineStart, lineEnd);
+
+            lineStart = lineEnd + 1;
+
+            try {
+                List<Long> seqs = new ArrayList<>();
+
+                for (String seq : StringUtils.split(line, ',')) {
+                    long value = Long.parseLong(seq.trim());
+
+                    if (value < 0) {
+                        throw new NumberFormatException(seq);
+                    }
+
+                    seqs.add(value);
+                }
+
+                segment.acked.addAll(seqs);
+            } catch (NumberFormatException excp) {
+                LOG.warn("{}: ignoring invalid ack entry: {}", segment.ackFile, line);
+            }
+        }
+
+        if (lineStart < content.length()) {
+            LOG.warn("{}: ignoring incomplete ack entry", segment.ackFile);
+        }
+    }
+
+    private void roll() throws IOException {
+        if (current != null) {
+            IOUtils.closeQuietly(current.out);
+
+            Segment previous = current;
+
+            current = null;
+
+            if (previous.pending <= 0) {
+                delete(previous);
+            }
+        }
+
+        Segment segment = new Segment(nextSeq);
+
+        segment.out = new FileOutputStream(segment.file, true);
+
+        segments.put(segment.id, segment);
+
+        current = segment;
+    }
+
+    private void delete(Segment segment) {
+        segments.remove(segment.id);
+
+        size -= segment.size;
+
+        if (cursor != null && cursor.segment == segment) {
+            closeCursor();
+        }
+
+        if (segment.file.exists() && !segment.file.delete()) {
+            LOG.warn("{}: failed to delete journal segment", segment.file);
+        }
+
+        if (segment.ackFile.exists() && !segment.ackFile.delete()) {
+            LOG.warn("{}: failed to delete journal ack file", segment.ackFile);
+        }
+    }
+
+    private void openCursor(Segment segment) throws IOException {
+        closeCursor();
+
+        cursor = new Cursor(segment, new BufferedReader(new InputStreamReader(new FileInputStream(segment.file), StandardCharsets.UTF_8)));
+    }
+
+    private void closeCursor() {
+        if (cursor != null) {
+            IOUtils.closeQuietly(cursor.reader);
+
+            cursor = null;
+        }
+    }
+
+    private class Segment {
+        private final long      id;
+        private final File      file;
+        private final File      ackFile;
+        private final Set<Long> acked = new HashSet<>();
+        private FileOutputStream out;
+        private long            size;
+        private int             pending;
+
+        Segment(long id) {
+            this.id      = id;
+            this.file    = new File(directory, SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+            this.ackFile = new File(directory, SEGMENT_PREFIX + id + ACK_SUFFIX);
+        }
+    }
+
+    private static class Cursor {
+        private final Segment        segment;
+        private final BufferedReader reader;
+        private long                 nextSeq;
+
+        Cursor(Segment segment, BufferedReader reader) {
+            this.segment = segment;
+            this.reader  = reader;
+            this.nextSeq = segment.id;
+        }
+    }
+}
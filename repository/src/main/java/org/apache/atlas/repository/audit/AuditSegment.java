@@ -0,0 +1,616 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A file of entity audit records, used by FileBasedAuditRepository.
+ * <p>
+ * A segment is either a log, to which records are appended as they arrive, or a sorted segment written by compaction,
+ * with records in the order of their keys. A log keeps an index entry for every record; a sorted segment keeps an index
+ * entry only for every indexInterval-th record, and is read sequentially from the nearest entry. Segments that are no
+ * longer appended to are read from a memory-mapped buffer.
+ * <p>
+ * Layout: magic (int), minSourceId (long), followed by records - length (int), key length (int), key, timestamp (long),
+ * type (byte), value. minSourceId is the id of the oldest log whose records are included in the segment; a segment
+ * whose ids are covered by another segment is left over from an interrupted compaction.
+ */
+final class AuditSegment {
+    private static final Logger LOG = LoggerFactory.getLogger(AuditSegment.class);
+
+    static final String LOG_SUFFIX    = ".log";
+    static final String SORTED_SUFFIX = ".sorted";
+    static final String TMP_SUFFIX    = ".tmp";
+
+    private static final String  FILE_PREFIX     = "audit-";
+    private static final Pattern FILE_NAME       = Pattern.compile("audit-(\\d+)(\\.log|\\.sorted)");
+    private static final int     MAGIC_LOG       = 0x41554c47; // AULG
+    private static final int     MAGIC_SORTED    = 0x41555354; // AUST
+    private static final int     HEADER_SIZE     = 4 + 8;
+    private static final int     RECORD_OVERHEAD = 4 + 8 + 1; // key length, timestamp, type
+
+    private final File                                file;
+    private final long                                id;
+    private final long                                minSourceId;
+    private final boolean                             isSorted;
+    private final ConcurrentNavigableMap<String, Long> index        = new ConcurrentSkipListMap<>();
+    private volatile FileChannel                      channel;                       // set only while the log is appended to
+    private volatile ByteBuffer                       buffer;                        // set once the segment is no longer appended to
+    private volatile long                             size;
+    private volatile long                             maxTimestamp = Long.MIN_VALUE;
+    private volatile int                              recordCount;
+
+    private AuditSegment(File file, long id, long minSourceId, boolean isSorted) {
+        this.file        = file;
+        this.id          = id;
+        this.minSourceId = minSourceId;
+        this.isSorted    = isSorted;
+    }
+
+    static AuditSegment createLog(File directory, long id) throws IOException {
+        File         file    = new File(directory, getFileName(id, LOG_SUFFIX));
+        FileChannel  channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer   header  = ByteBuffer.allocate(HEADER_SIZE);
+        AuditSegment ret     = new AuditSegment(file, id, id, false);
+
+        header.putInt(MAGIC_LOG).putLong(id).flip();
+
+        try {
+            writeFully(channel, header, 0);
+        } catch (IOException excp) {
+            channel.close();
+
+            throw excp;
+        }
+
+        ret.channel = channel;
+        ret.size    = HEADER_SIZE;
+
+        return ret;
+    }
+
+    static AuditSegment open(File file, int indexInterval) throws IOException {
+        Long id = getId(file);
+
+        if (id == null) {
+            throw new IOException(file + ": not an audit segment");
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+
+            if (fileSize < HEADER_SIZE || fileSize > Integer.MAX_VALUE) {
+                throw new IOException(file + ": invalid audit segment size " + fileSize);
+            }
+
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            int        magic  = buffer.getInt(0);
+
+            if (magic != MAGIC_LOG && magic != MAGIC_SORTED) {
+                throw new IOException(file + ": not an audit segment");
+            }
+
+            AuditSegment ret = new AuditSegment(file, id, buffer.getLong(4), magic == MAGIC_SORTED);
+
+            ret.buffer = buffer;
+
+            ret.load(ret.isSorted ? Math.max(indexInterval, 1) : 1);
+
+            return ret;
+        }
+    }
+
+    /**
+     * Writes the given records, which must be in the order of their keys, to a new sorted segment. The segment file
+     * replaces an existing file for the same id, if any.
+     */
+    static AuditSegment writeSorted(File directory, long id, long minSourceId, Iterator<Record> records, int indexInterval) throws IOException {
+        File file    = new File(directory, getFileName(id, SORTED_SUFFIX));
+        File tmpFile = new File(directory, getFileName(id, SORTED_SUFFIX) + TMP_SUFFIX);
+
+        try (FileOutputStream fos = new FileOutputStream(tmpFile); DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+            out.writeInt(MAGIC_SORTED);
+            out.writeLong(minSourceId);
+
+            while (records.hasNext()) {
+                Record     record = records.next();
+                ByteBuffer buf    = ByteBuffer.allocate(record.getSize());
+
+                record.write(buf);
+
+                out.write(buf.array());
+            }
+
+            out.flush();
+            fos.getFD().sync();
+        } catch (IOException excp) {
+            Files.deleteIfExists(tmpFile.toPath());
+
+            throw excp;
+        }
+
+        Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        return open(file, indexInterval);
+    }
+
+    /**
+     * @return id of the segment in the given file; null if the file is not a segment
+     */
+    static Long getId(File file) {
+        Matcher matcher = FILE_NAME.matcher(file.getName());
+
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : null;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    long getMinSourceId() {
+        return minSourceId;
+    }
+
+    boolean isSorted() {
+        return isSorted;
+    }
+
+    boolean isAppendable() {
+        return channel != null;
+    }
+
+    long getSize() {
+        return size;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * @return true if the records of the given segment are included in this segment
+     */
+    boolean covers(AuditSegment other) {
+        return other != this && isSorted && other.minSourceId >= minSourceId && other.id <= id;
+    }
+
+    /**
+     * Appends records to the log. Calls must not be concurrent with each other, but can be concurrent with reads.
+     */
+    void append(List<Record> records, boolean sync) throws IOException {
+        FileChannel channel = this.channel;
+
+        if (channel == null) {
+            throw new IOException(file + ": segment is not appendable");
+        }
+
+        int totalSize = 0;
+
+        for (Record record : records) {
+            totalSize += record.getSize();
+        }
+
+        ByteBuffer buf     = ByteBuffer.allocate(totalSize);
+        long[]     offsets = new long[records.size()];
+        long       maxTs   = maxTimestamp;
+
+        for (int i = 0; i < offsets.length; i++) {
+            Record record = records.get(i);
+
+            offsets[i] = size + buf.position();
+            maxTs      = Math.max(maxTs, record.getTimestamp());
+
+            record.write(buf);
+        }
+
+        buf.flip();
+
+        writeFully(channel, buf, size);
+
+        if (sync) {
+            channel.force(false);
+        }
+
+        size         += totalSize;
+        maxTimestamp  = maxTs;
+        recordCount  += offsets.length;
+
+        for (int i = 0; i < offsets.length; i++) {
+            index.put(records.get(i).getKey(), offsets[i]);
+        }
+    }
+
+    /**
+     * Stops appends to the log; subsequent reads are served from a memory-mapped buffer.
+     */
+    void seal() throws IOException {
+        FileChannel channel = this.channel;
+
+        if (channel != null) {
+            channel.force(false);
+
+            buffer       = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            this.channel = null;
+
+            channel.close();
+        }
+    }
+
+    void close() throws IOException {
+        FileChannel channel = this.channel;
+
+        if (channel != null) {
+            this.channel = null;
+
+            channel.close();
+        }
+    }
+
+    void delete() throws IOException {
+        close();
+
+        Files.deleteIfExists(file.toPath());
+    }
+
+    /**
+     * Adds records of the given type, with key starting with prefix, from fromKey onwards, to the given map - up to
+     * maxRecords records. fromKey must not be less than prefix.
+     */
+    void read(String prefix, String fromKey, byte type, int maxRecords, Map<String, Record> records) throws IOException {
+        int count = 0;
+
+        if (isSorted) {
+            Map.Entry<String, Long> entry    = index.floorEntry(fromKey);
+            ByteBuffer              buffer   = this.buffer.duplicate();
+            long                    position = entry != null ? entry.getValue() : HEADER_SIZE;
+
+            while (count < maxRecords && position < size) {
+                Record record = readRecord(buffer, position);
+
+                position += record.getSize();
+
+                if (record.getKey().compareTo(fromKey) < 0) {
+                    continue;
+                }
+
+                if (!record.getKey().startsWith(prefix)) {
+                    break;
+                }
+
+                if (record.getType() == type) {
+                    records.put(record.getKey(), record);
+
+                    count++;
+                }
+            }
+        } else {
+            for (Map.Entry<String, Long> entry : index.tailMap(fromKey).entrySet()) {
+                if (count >= maxRecords || !entry.getKey().startsWith(prefix)) {
+                    break;
+                }
+
+                Record record = readRecord(entry.getValue());
+
+                if (record.getType() == type) {
+                    records.put(record.getKey(), record);
+
+                    count++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return all records of the segment, in the order of their keys
+     */
+    Iterator<Record> iterator() {
+        if (isSorted) {
+            final ByteBuffer buffer = this.buffer.duplicate();
+
+            return new Iterator<Record>() {
+                private long position = HEADER_SIZE;
+
+                @Override
+                public boolean hasNext() {
+                    return position < size;
+                }
+
+                @Override
+                public Record next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    Record ret = readRecord(buffer, position);
+
+                    position += ret.getSize();
+
+                    return ret;
+                }
+            };
+        } else {
+            final Iterator<Long> offsets = index.values().iterator();
+
+            return new Iterator<Record>() {
+                @Override
+                public boolean hasNext() {
+                    return offsets.hasNext();
+                }
+
+                @Override
+                public Record next() {
+                    try {
+                        return readRecord(offsets.next());
+                    } catch (IOException excp) {
+                        throw new IllegalStateException(file + ": failed to read audit record", excp);
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Merges records from iterators that are in the order of keys. For records with the same key, the one from the
+     * later iterator is retained.
+     */
+    static Iterator<Record> merge(List<Iterator<Record>> iterators) {
+        final List<PeekingIterator<Record>> sources = new ArrayList<>(iterators.size());
+
+        for (Iterator<Record> iterator : iterators) {
+            sources.add(Iterators.peekingIterator(iterator));
+        }
+
+        return new Iterator<Record>() {
+            @Override
+            public boolean hasNext() {
+                for (PeekingIterator<Record> source : sources) {
+                    if (source.hasNext()) {
+                        return true;
+                    }
+                }
+
+                return false;
+            }
+
+            @Override
+            public Record next() {
+                String minKey = null;
+
+                for (PeekingIterator<Record> source : sources) {
+                    if (source.hasNext() && (minKey == null || source.peek().getKey().compareTo(minKey) < 0)) {
+                        minKey = source.peek().getKey();
+                    }
+                }
+
+                if (minKey == null) {
+                    throw new NoSuchElementException();
+                }
+
+                Record ret = null;
+
+                for (PeekingIterator<Record> source : sources) {
+                    if (source.hasNext() && source.peek().getKey().equals(minKey)) {
+                        ret = source.next();
+                    }
+                }
+
+                return ret;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return file.getName();
+    }
+
+    private void load(int indexInterval) {
+        ByteBuffer buffer   = this.buffer.duplicate();
+        int        limit    = buffer.limit();
+        int        position = HEADER_SIZE;
+        int        count    = 0;
+        long       maxTs    = Long.MIN_VALUE;
+
+        while (position + 4 <= limit) {
+            int length    = buffer.getInt(position);
+            int keyLength = length >= RECORD_OVERHEAD && length <= limit - position - 4 ? buffer.getInt(position + 4) : -1;
+
+            if (keyLength < 0 || keyLength > length - RECORD_OVERHEAD) {
+                LOG.warn("{}: ignoring incomplete record at offset {}", file, position);
+
+                break;
+            }
+
+            if (count % indexInterval == 0) {
+                index.put(readRecord(buffer, position).getKey(), (long) position);
+            }
+
+            maxTs     = Math.max(maxTs, buffer.getLong(position + 4 + 4 + keyLength));
+            position += 4 + length;
+            count++;
+        }
+
+        this.size         = position;
+        this.maxTimestamp = maxTs;
+        this.recordCount  = count;
+    }
+
+    private Record readRecord(long position) throws IOException {
+        ByteBuffer buffer = this.buffer;
+
+        if (buffer == null) {
+            FileChannel channel = this.channel;
+
+            try {
+                if (channel != null) {
+                    return readRecord(channel, position);
+                }
+            } catch (ClosedChannelException excp) {
+                // the log was sealed after this read started; read from the mapped buffer
+            }
+
+            buffer = this.buffer;
+
+            if (buffer == null) {
+                throw new IOException(file + ": segment is closed");
+            }
+        }
+
+        return readRecord(buffer.duplicate(), position);
+    }
+
+    private static Record readRecord(ByteBuffer buffer, long position) {
+        buffer.position((int) position);
+
+        int length = buffer.getInt();
+
+        return Record.read(buffer, length);
+    }
+
+    private static Record readRecord(FileChannel channel, long position) throws IOException {
+        ByteBuffer lengthBuf = ByteBuffer.allocate(4);
+
+        readFully(channel, lengthBuf, position);
+
+        ByteBuffer recordBuf = ByteBuffer.allocate(lengthBuf.getInt(0));
+
+        readFully(channel, recordBuf, position + 4);
+
+        recordBuf.flip();
+
+        return Record.read(recordBuf, recordBuf.limit());
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new IOException("unexpected end of audit segment");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf, position + buf.position());
+        }
+    }
+
+    private static String getFileName(long id, String suffix) {
+        return FILE_PREFIX + String.format("%019d", id) + suffix;
+    }
+
+    static final class Record {
+        private final String key;
+        private final byte[] keyBytes;
+        private final long   timestamp;
+        private final byte   type;
+        private final byte[] value;
+
+        Record(String key, long timestamp, byte type, byte[] value) {
+            this(key, key.getBytes(StandardCharsets.UTF_8), timestamp, type, value);
+        }
+
+        private Record(String key, byte[] keyBytes, long timestamp, byte type, byte[] value) {
+            this.key       = key;
+            this.keyBytes  = keyBytes;
+            this.timestamp = timestamp;
+            this.type      = type;
+            this.value     = value;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        byte getType() {
+            return type;
+        }
+
+        byte[] getValue() {
+            return value;
+        }
+
+        /**
+         * @return number of bytes taken by the record in a segment file, including the length field
+         */
+        int getSize() {
+            return 4 + RECORD_OVERHEAD + keyBytes.length + value.length;
+        }
+
+        void write(ByteBuffer buf) {
+            buf.putInt(RECORD_OVERHEAD + keyBytes.length + value.length);
+            buf.putInt(keyBytes.length);
+            buf.put(keyBytes);
+            buf.putLong(timestamp);
+            buf.put(type);
+            buf.put(value);
+        }
+
+        private static Record read(ByteBuffer buf, int length) {
+            byte[] keyBytes = new byte[buf.getInt()];
+
+            buf.get(keyBytes);
+
+            long   timestamp = buf.getLong();
+            byte   type      = buf.get();
+            byte[] value     = new byte[length - RECORD_OVERHEAD - keyBytes.length];
+
+            buf.get(value);
+
+            return new Record(new String(keyBytes, StandardCharsets.UTF_8), keyBytes, timestamp, type, value);
+        }
+    }
+}
@@ -67,12 +67,14 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
     private static final Logger LOG = LoggerFactory.getLogger(EntityAuditListenerV2.class);
 
     private final EntityAuditRepository  auditRepository;
+    private final AsyncEntityAuditWriter auditWriter;
     private final AtlasTypeRegistry      typeRegistry;
     private final AtlasInstanceConverter instanceConverter;
 
     @Inject
-    public EntityAuditListenerV2(EntityAuditRepository auditRepository, AtlasTypeRegistry typeRegistry, AtlasInstanceConverter instanceConverter) {
+    public EntityAuditListenerV2(EntityAuditRepository auditRepository, AsyncEntityAuditWriter auditWriter, AtlasTypeRegistry typeRegistry, AtlasInstanceConverter instanceConverter) {
         this.auditRepository   = auditRepository;
+        this.auditWriter       = auditWriter;
         this.typeRegistry      = typeRegistry;
         this.instanceConverter = instanceConverter;
     }
@@ -89,7 +91,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             events.add(event);
         }
 
-        auditRepository.putEventsV2(events);
+        auditWriter.putEventsV2(events);
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -106,7 +108,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             events.add(event);
         }
 
-        auditRepository.putEventsV2(events);
+        auditWriter.putEventsV2(events);
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -123,7 +125,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
             events.add(event);
         }
 
-        auditRepository.putEventsV2(events);
+        auditWriter.putEventsV2(events);
 
         RequestContext.get().endMetricRecord(metric);
     }
@@ -143,7 +145,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEventsV2(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -171,7 +173,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEventsV2(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -192,7 +194,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEventsV2(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -213,7 +215,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEventsV2(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
@@ -234,7 +236,7 @@ public class EntityAuditListenerV2 implements EntityChangeListenerV2 {
                 }
             }
 
-            auditRepository.putEventsV2(events);
+            auditWriter.putEventsV2(events);
 
             RequestContext.get().endMetricRecord(metric);
         }
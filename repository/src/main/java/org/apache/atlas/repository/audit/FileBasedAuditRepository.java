@@ -0,0 +1,520 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterators;
+import org.apache.atlas.ApplicationProperties;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.EntityAuditEvent;
+import org.apache.atlas.EntityAuditEvent.EntityAuditAction;
+import org.apache.atlas.annotation.ConditionalOnAtlasProperty;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditActionV2;
+import org.apache.atlas.repository.audit.AuditSegment.Record;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Singleton;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditType.ENTITY_AUDIT_V2;
+
+/**
+ * Entity audit repository that stores audit events in files on local disk, for deployments without HBase or Cassandra.
+ * <p>
+ * Events are appended to a log segment. When the log reaches the configured size, a new log is started and the earlier
+ * one is rewritten by a background compaction into a segment sorted by event key. As in the HBase row key, the event key
+ * is entity id + timestamp; the timestamp is reversed so that the latest events of an entity come first. Listing events
+ * of an entity is then a seek in the index of each segment followed by a sequential read. Compaction also merges
+ * adjacent sorted segments, up to the configured size, and removes events older than the retention period.
+ * <p>
+ * Events are visible only to the server that wrote them, hence this repository can't be used when HA is enabled; the
+ * server fails to start in that case.
+ */
+@Singleton
+@Component
+@ConditionalOnAtlasProperty(property = "atlas.EntityAuditRepository.impl")
+public class FileBasedAuditRepository extends AbstractStorageBasedAuditRepository {
+    private static final Logger LOG = LoggerFactory.getLogger(FileBasedAuditRepository.class);
+
+    public static final String CONFIG_DIRECTORY                  = CONFIG_PREFIX + ".file.directory";
+    public static final String CONFIG_SEGMENT_SIZE_MB            = CONFIG_PREFIX + ".file.segment.size.mb";
+    public static final String CONFIG_MAX_SORTED_SEGMENT_SIZE_MB = CONFIG_PREFIX + ".file.sorted.segment.max.size.mb";
+    public static final String CONFIG_INDEX_INTERVAL             = CONFIG_PREFIX + ".file.index.interval";
+    public static final String CONFIG_RETENTION_DAYS             = CONFIG_PREFIX + ".file.retention.days";
+    public static final String CONFIG_COMPACTION_INTERVAL_SECS   = CONFIG_PREFIX + ".file.compaction.interval.secs";
+    public static final String CONFIG_SYNC                       = CONFIG_PREFIX + ".file.sync";
+
+    private static final long DEFAULT_SEGMENT_SIZE_MB            = 64;
+    private static final long DEFAULT_MAX_SORTED_SEGMENT_SIZE_MB = 1024;
+    private static final int  DEFAULT_INDEX_INTERVAL             = 64;
+    private static final int  DEFAULT_RETENTION_DAYS             = 0;
+    private static final long DEFAULT_COMPACTION_INTERVAL_SECS   = 300;
+    private static final long MAX_SORTED_SEGMENT_SIZE            = Integer.MAX_VALUE; // sorted segments are mapped in a single buffer
+
+    private static final byte   TYPE_V1          = 1;
+    private static final byte   TYPE_V2          = 2;
+    private static final String VALUE_USER       = "u";
+    private static final String VALUE_ACTION     = "a";
+    private static final String VALUE_DETAIL     = "d";
+    private static final String VALUE_DEFINITION = "f";
+
+    private final Object                writeLock          = new Object();
+    private final Object                compactionLock     = new Object();
+    private volatile List<AuditSegment> segments           = Collections.emptyList(); // in the order of ids; the last one is the active log
+    private AuditSegment                activeLog;                                    // guarded by writeLock
+    private ScheduledExecutorService    compactionExecutor;
+    private File                        directory;
+    private long                        segmentSize;
+    private long                        maxSortedSegmentSize;
+    private int                         indexInterval;
+    private long                        retentionMs;
+    private boolean                     isSync;
+
+    @Override
+    public void putEventsV1(List<EntityAuditEvent> events) throws AtlasException {
+        List<Record> records = new ArrayList<>(events.size());
+
+        for (int index = 0; index < events.size(); index++) {
+            EntityAuditEvent event = events.get(index);
+            String           key   = getEventKey(event.getEntityId(), event.getTimestamp(), index);
+
+            event.setEventKey(key);
+
+            records.add(toRecord(key, event.getTimestamp(), TYPE_V1, event.getUser(), String.valueOf(event.getAction()), event.getDetails(),
+                                 persistEntityDefinition ? event.getEntityDefinitionString() : null));
+        }
+
+        try {
+            append(records);
+        } catch (IOException e) {
+            throw new AtlasException(e);
+        }
+    }
+
+    @Override
+    public List<EntityAuditEvent> listEventsV1(String entityId, String startKey, short n) throws AtlasException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Listing events for entity id {}, starting timestamp {}, #records {}", entityId, startKey, n);
+        }
+
+        List<EntityAuditEvent> ret = new ArrayList<>();
+
+        try {
+            for (Record record : read(entityId, startKey, TYPE_V1, n)) {
+                Map<String, String> value = getValue(record);
+                EntityAuditEvent    event = new EntityAuditEvent();
+
+                event.setEntityId(entityId);
+                event.setTimestamp(record.getTimestamp());
+                event.setEventKey(record.getKey());
+                event.setUser(value.get(VALUE_USER));
+                event.setAction(EntityAuditAction.fromString(value.get(VALUE_ACTION)));
+                event.setDetails(value.get(VALUE_DETAIL));
+
+                if (persistEntityDefinition && value.get(VALUE_DEFINITION) != null) {
+                    event.setEntityDefinition(value.get(VALUE_DEFINITION));
+                }
+
+                ret.add(event);
+            }
+        } catch (IOException e) {
+            throw new AtlasException(e);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public void putEventsV2(List<EntityAuditEventV2> events) throws AtlasBaseException {
+        List<Record> records = new ArrayList<>(events.size());
+
+        for (int index = 0; index < events.size(); index++) {
+            EntityAuditEventV2 event = events.get(index);
+            String             key   = getEventKey(event.getEntityId(), event.getTimestamp(), index);
+
+            event.setEventKey(key);
+
+            records.add(toRecord(key, event.getTimestamp(), TYPE_V2, event.getUser(), String.valueOf(event.getAction()), event.getDetails(),
+                                 persistEntityDefinition ? event.getEntityDefinitionString() : null));
+        }
+
+        try {
+            append(records);
+        } catch (IOException e) {
+            throw new AtlasBaseException(e);
+        }
+    }
+
+    @Override
+    public List<EntityAuditEventV2> listEventsV2(String entityId, String startKey, short n) throws AtlasBaseException {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Listing events for entity id {}, starting timestamp {}, #records {}", entityId, startKey, n);
+        }
+
+        List<EntityAuditEventV2> ret = new ArrayList<>();
+
+        try {
+            for (Record record : read(entityId, startKey, TYPE_V2, n)) {
+                Map<String, String> value = getValue(record);
+                EntityAuditEventV2  event = new EntityAuditEventV2();
+
+                event.setEntityId(entityId);
+                event.setTimestamp(record.getTimestamp());
+                event.setEventKey(record.getKey());
+                event.setUser(value.get(VALUE_USER));
+                event.setAction(EntityAuditActionV2.fromString(value.get(VALUE_ACTION)));
+                event.setDetails(value.get(VALUE_DETAIL));
+                event.setType(ENTITY_AUDIT_V2);
+
+                if (persistEntityDefinition && value.get(VALUE_DEFINITION) != null) {
+                    event.setEntityDefinition(value.get(VALUE_DEFINITION));
+                }
+
+                ret.add(event);
+            }
+        } catch (IOException e) {
+            throw new AtlasBaseException(e);
+        }
+
+        return ret;
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        startInternal(ApplicationProperties.get());
+    }
+
+    @VisibleForTesting
+    void startInternal(Configuration atlasConf) throws AtlasException {
+        if (HAConfiguration.isHAEnabled(atlasConf)) {
+            throw new AtlasException(getClass().getSimpleName() + " stores audit events on local disk, hence can't be used when HA is enabled (" + HAConfiguration.ATLAS_SERVER_HA_ENABLED_KEY + "=true); use HBaseBasedAuditRepository or CassandraBasedAuditRepository instead");
+        }
+
+        directory            = getDirectory(atlasConf);
+        segmentSize          = atlasConf.getLong(CONFIG_SEGMENT_SIZE_MB, DEFAULT_SEGMENT_SIZE_MB) * 1024 * 1024;
+        maxSortedSegmentSize = Math.min(atlasConf.getLong(CONFIG_MAX_SORTED_SEGMENT_SIZE_MB, DEFAULT_MAX_SORTED_SEGMENT_SIZE_MB) * 1024 * 1024, MAX_SORTED_SEGMENT_SIZE);
+        indexInterval        = atlasConf.getInt(CONFIG_INDEX_INTERVAL, DEFAULT_INDEX_INTERVAL);
+        retentionMs          = TimeUnit.DAYS.toMillis(atlasConf.getInt(CONFIG_RETENTION_DAYS, DEFAULT_RETENTION_DAYS));
+        isSync               = atlasConf.getBoolean(CONFIG_SYNC, false);
+
+        long compactionIntervalSecs = atlasConf.getLong(CONFIG_COMPACTION_INTERVAL_SECS, DEFAULT_COMPACTION_INTERVAL_SECS);
+
+        try {
+            openSegments();
+        } catch (IOException e) {
+            throw new AtlasException("failed to open audit segments in " + directory, e);
+        }
+
+        compactionExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread ret = new Thread(r, "atlas-audit-compaction");
+
+            ret.setDaemon(true);
+
+            return ret;
+        });
+
+        if (compactionIntervalSecs > 0) {
+            compactionExecutor.scheduleWithFixedDelay(this::compactQuietly, 0, compactionIntervalSecs, TimeUnit.SECONDS);
+        }
+
+        LOG.info("FileBasedAuditRepository: started; directory={}, segments={}", directory, segments.size());
+    }
+
+    @Override
+    public void stop() throws AtlasException {
+        if (compactionExecutor != null) {
+            compactionExecutor.shutdownNow();
+
+            try {
+                compactionExecutor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            compactionExecutor = null;
+        }
+
+        synchronized (writeLock) {
+            if (activeLog != null) {
+                try {
+                    activeLog.close();
+                } catch (IOException e) {
+                    throw new AtlasException(e);
+                }
+
+                activeLog = null;
+            }
+        }
+    }
+
+    /**
+     * Rewrites logs that are no longer appended to as sorted segments, removes expired events and merges adjacent
+     * sorted segments.
+     */
+    @VisibleForTesting
+    void compact() throws IOException {
+        synchronized (compactionLock) {
+            long minTimestamp = retentionMs > 0 ? System.currentTimeMillis() - retentionMs : Long.MIN_VALUE;
+
+            for (AuditSegment segment : segments) {
+                if (!segment.isSorted() && !segment.isAppendable()) {
+                    AuditSegment sorted = AuditSegment.writeSorted(directory, segment.getId(), segment.getMinSourceId(), filter(segment.iterator(), minTimestamp), indexInterval);
+
+                    replace(Collections.singletonList(segment), sorted);
+                }
+            }
+
+            for (AuditSegment segment : segments) {
+                if (segment.isSorted() && segment.getMaxTimestamp() < minTimestamp) {
+                    LOG.info("FileBasedAuditRepository: removing segment {} - all events are older than retention period", segment);
+
+                    replace(Collections.singletonList(segment), null);
+                }
+            }
+
+            for (boolean isMerged = true; isMerged; ) {
+                isMerged = false;
+
+                List<AuditSegment> segments = this.segments;
+
+                for (int i = 1; i < segments.size(); i++) {
+                    AuditSegment older = segments.get(i - 1);
+                    AuditSegment newer = segments.get(i);
+
+                    if (older.isSorted() && newer.isSorted() && older.getSize() + newer.getSize() <= maxSortedSegmentSize) {
+                        Iterator<Record> records = AuditSegment.merge(Arrays.asList(older.iterator(), newer.iterator()));
+                        AuditSegment     merged  = AuditSegment.writeSorted(directory, newer.getId(), older.getMinSourceId(), filter(records, minTimestamp), indexInterval);
+
+                        replace(Arrays.asList(older, newer), merged);
+
+                        isMerged = true;
+
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    @VisibleForTesting
+    List<AuditSegment> getSegments() {
+        return segments;
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (Throwable t) {
+            LOG.warn("FileBasedAuditRepository: compaction failed; will be retried", t);
+        }
+    }
+
+    private void append(List<Record> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        synchronized (writeLock) {
+            if (activeLog == null) {
+                throw new IOException("audit repository is not started");
+            }
+
+            activeLog.append(records, isSync);
+
+            if (activeLog.getSize() >= segmentSize) {
+                AuditSegment newLog = AuditSegment.createLog(directory, activeLog.getId() + 1);
+
+                activeLog.seal();
+
+                activeLog = newLog;
+
+                List<AuditSegment> segments = new ArrayList<>(this.segments);
+
+                segments.add(newLog);
+
+                this.segments = Collections.unmodifiableList(segments);
+
+                if (compactionExecutor != null) {
+                    compactionExecutor.execute(this::compactQuietly);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return up to n records of the given type for the entity, from startKey onwards, in the order of keys
+     */
+    private List<Record> read(String entityId, String startKey, byte type, int n) throws IOException {
+        String                  prefix  = entityId + FIELD_SEPARATOR;
+        String                  fromKey = StringUtils.isEmpty(startKey) || startKey.compareTo(prefix) < 0 ? prefix : startKey;
+        TreeMap<String, Record> records = new TreeMap<>();
+
+        // segments are in the order of ids, so that a record replaces a record with the same key from an earlier segment
+        for (AuditSegment segment : segments) {
+            segment.read(prefix, fromKey, type, n, records);
+        }
+
+        List<Record> ret = new ArrayList<>(Math.min(n, records.size()));
+
+        for (Record record : records.values()) {
+            if (ret.size() >= n) {
+                break;
+            }
+
+            ret.add(record);
+        }
+
+        return ret;
+    }
+
+    /**
+     * Replaces the given segments with the given segment, and deletes their files
+     */
+    private void replace(List<AuditSegment> oldSegments, AuditSegment newSegment) throws IOException {
+        synchronized (writeLock) {
+            List<AuditSegment> segments = new ArrayList<>(this.segments);
+            int                idx      = segments.indexOf(oldSegments.get(0));
+
+            segments.removeAll(oldSegments);
+
+            if (newSegment != null) {
+                segments.add(idx, newSegment);
+            }
+
+            this.segments = Collections.unmodifiableList(segments);
+        }
+
+        for (AuditSegment segment : oldSegments) {
+            if (newSegment == null || !segment.getFile().equals(newSegment.getFile())) {
+                segment.delete();
+            }
+        }
+    }
+
+    private void openSegments() throws IOException {
+        Files.createDirectories(directory.toPath());
+
+        File[]             files    = directory.listFiles();
+        List<AuditSegment> segments = new ArrayList<>();
+
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(AuditSegment.TMP_SUFFIX)) { // left over from an interrupted compaction
+                    Files.deleteIfExists(file.toPath());
+                } else if (AuditSegment.getId(file) != null) {
+                    segments.add(AuditSegment.open(file, indexInterval));
+                }
+            }
+        }
+
+        List<AuditSegment> ret = new ArrayList<>();
+
+        for (AuditSegment segment : segments) {
+            boolean isCovered = false;
+
+            for (AuditSegment other : segments) {
+                if (other.covers(segment)) {
+                    isCovered = true;
+
+                    break;
+                }
+            }
+
+            if (isCovered) {
+                LOG.info("FileBasedAuditRepository: removing segment {} - its events are included in another segment", segment);
+
+                segment.delete();
+            } else {
+                ret.add(segment);
+            }
+        }
+
+        ret.sort(Comparator.comparingLong(AuditSegment::getId));
+
+        long nextId = ret.isEmpty() ? 1 : ret.get(ret.size() - 1).getId() + 1;
+
+        synchronized (writeLock) {
+            activeLog = AuditSegment.createLog(directory, nextId);
+
+            ret.add(activeLog);
+
+            this.segments = Collections.unmodifiableList(ret);
+        }
+    }
+
+    private static String getEventKey(String entityId, long timestamp, int index) {
+        return entityId + FIELD_SEPARATOR + String.format("%019d", Long.MAX_VALUE - timestamp) + FIELD_SEPARATOR + index;
+    }
+
+    private static Record toRecord(String key, long timestamp, byte type, String user, String action, String details, String definition) {
+        Map<String, String> value = new HashMap<>();
+
+        value.put(VALUE_USER, user);
+        value.put(VALUE_ACTION, action);
+        value.put(VALUE_DETAIL, details);
+
+        if (definition != null) {
+            value.put(VALUE_DEFINITION, definition);
+        }
+
+        return new Record(key, timestamp, type, AtlasType.toJson(value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> getValue(Record record) {
+        return AtlasType.fromJson(new String(record.getValue(), StandardCharsets.UTF_8), Map.class);
+    }
+
+    private static Iterator<Record> filter(Iterator<Record> records, long minTimestamp) {
+        return minTimestamp == Long.MIN_VALUE ? records : Iterators.filter(records, record -> record.getTimestamp() >= minTimestamp);
+    }
+
+    private static File getDirectory(Configuration atlasConf) {
+        String directory = atlasConf.getString(CONFIG_DIRECTORY);
+
+        if (StringUtils.isEmpty(directory)) {
+            String atlasHomeDir = System.getProperty("atlas.home");
+
+            directory = (StringUtils.isEmpty(atlasHomeDir) ? "." : atlasHomeDir) + File.separator + "data" + File.separator + "audit";
+        }
+
+        return new File(directory);
+    }
+}
@@ -779,7 +779,7 @@ public final class GraphHelper {
         bindings.put("guid", guid);
 
         try {
-            Object resultObj = graph.executeGremlinScript(scriptEngine, bindings, query, false);
+            Object resultObj = graph.executeGremlinScript(scriptEngine, bindings, query, false, true);
 
             if (resultObj instanceof List && CollectionUtils.isNotEmpty((List) resultObj)) {
                 List<?> results = (List) resultObj;
@@ -791,6 +791,8 @@ public final class GraphHelper {
             }
         } catch (ScriptException e) {
             throw new AtlasBaseException(AtlasErrorCode.GREMLIN_SCRIPT_EXECUTION_FAILED, e);
+        } finally {
+            graph.releaseGremlinScriptEngine(scriptEngine);
         }
 
         return ret;
@@ -835,7 +837,7 @@ public final class GraphHelper {
         }
 
         try {
-            Object resultObj = graph.executeGremlinScript(scriptEngine, bindings, query, false);
+            Object resultObj = graph.executeGremlinScript(scriptEngine, bindings, query, false, true);
 
             if (resultObj instanceof List && CollectionUtils.isNotEmpty((List) resultObj)) {
                 List<?> results      = (List) resultObj;
@@ -847,6 +849,8 @@ public final class GraphHelper {
             }
         } catch (ScriptException e) {
             throw new AtlasBaseException(AtlasErrorCode.GREMLIN_SCRIPT_EXECUTION_FAILED, e);
+        } finally {
+            graph.releaseGremlinScriptEngine(scriptEngine);
         }
 
         return ret;
@@ -863,7 +867,7 @@ public final class GraphHelper {
         bindings.put("relationshipGuid", relationshipGuid);
 
         try {
-            Object resultObj = graph.executeGremlinScript(scriptEngine, bindings, query, false);
+            Object resultObj = graph.executeGremlinScript(scriptEngine, bindings, query, false, true);
 
             if (resultObj instanceof List && CollectionUtils.isNotEmpty((List) resultObj)) {
                 List<?> results = (List) resultObj;
@@ -875,6 +879,8 @@ public final class GraphHelper {
             }
         } catch (ScriptException e) {
             throw new AtlasBaseException(AtlasErrorCode.GREMLIN_SCRIPT_EXECUTION_FAILED, e);
+        } finally {
+            graph.releaseGremlinScriptEngine(scriptEngine);
         }
 
         return ret;
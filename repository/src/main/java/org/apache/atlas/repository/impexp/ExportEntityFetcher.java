@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Fetches entities to export ahead of their processing, on a pool of worker threads. Entities are taken in the order
+ * their guids were submitted, so that export order is not affected by the number of workers. Number of entities
+ * fetched ahead is bounded by bufferSize.
+ *
+ * With a single worker, entities are fetched in the calling thread as they are taken.
+ */
+class ExportEntityFetcher {
+    private static final Logger LOG = LoggerFactory.getLogger(ExportEntityFetcher.class);
+
+    private static final String WORKER_NAME_FORMAT = "atlas-export-worker-%d";
+
+    private final EntityGraphRetriever entityGraphRetriever;
+    private final AtlasGraph           graph;
+    private final int                  bufferSize;
+    private final ExecutorService      executor;
+    private final Deque<FetchTask>     pending = new ArrayDeque<>();
+
+    ExportEntityFetcher(EntityGraphRetriever entityGraphRetriever, AtlasGraph graph, int numWorkers, int bufferSize) {
+        this.entityGraphRetriever = entityGraphRetriever;
+        this.graph                = graph;
+        this.bufferSize           = Math.max(bufferSize, 1);
+        this.executor             = numWorkers > 1 ? Executors.newFixedThreadPool(numWorkers, new ThreadFactoryBuilder().setNameFormat(WORKER_NAME_FORMAT).setDaemon(true).build()) : null;
+
+        LOG.info("ExportEntityFetcher: numWorkers={}, bufferSize={}", numWorkers, this.bufferSize);
+    }
+
+    /**
+     * @return number of guids to be submitted to fill the buffer; 0 while the buffer is more than half full, so that
+     * callers take guids to submit in chunks
+     */
+    public int getRefillSize() {
+        return pending.size() <= bufferSize / 2 ? bufferSize - pending.size() : 0;
+    }
+
+    public void submit(String guid) {
+        FetchTask task;
+
+        if (executor != null) {
+            task = new FetchTask(guid, () -> {
+                // each fetch is done in its own graph transaction, in the worker thread
+                try {
+                    return entityGraphRetriever.toAtlasEntityWithExtInfo(guid);
+                } finally {
+                    RequestContext.clear();
+
+                    graph.rollback();
+                }
+            });
+
+            executor.execute(task);
+        } else {
+            task = new FetchTask(guid, () -> entityGraphRetriever.toAtlasEntityWithExtInfo(guid));
+        }
+
+        pending.addLast(task);
+    }
+
+    /**
+     * @return the task for the earliest submitted guid; null if no guid is pending
+     */
+    public FetchTask take() {
+        return pending.pollFirst();
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Discards all pending fetches
+     */
+    public void clear() {
+        for (FetchTask task : pending) {
+            task.cancel(false);
+        }
+
+        pending.clear();
+    }
+
+    public void shutdown() {
+        clear();
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    class FetchTask extends FutureTask<AtlasEntityWithExtInfo> {
+        private final String guid;
+
+        FetchTask(String guid, Callable<AtlasEntityWithExtInfo> callable) {
+            super(callable);
+
+            this.guid = guid;
+        }
+
+        public String getGuid() {
+            return guid;
+        }
+
+        /**
+         * @return the fetched entity, waiting for the fetch to complete if necessary
+         */
+        public AtlasEntityWithExtInfo getEntity() throws AtlasBaseException {
+            if (executor == null) {
+                run();
+            }
+
+            try {
+                return get();
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+
+                throw new AtlasBaseException(excp);
+            } catch (ExecutionException excp) {
+                Throwable cause = excp.getCause();
+
+                if (cause instanceof AtlasBaseException) {
+                    throw (AtlasBaseException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+
+                throw new AtlasBaseException(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,489 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.impexp.AtlasExportImportJob;
+import org.apache.atlas.model.impexp.AtlasExportImportJob.JobType;
+import org.apache.atlas.model.impexp.AtlasExportImportJob.Status;
+import org.apache.atlas.model.impexp.AtlasExportRequest;
+import org.apache.atlas.model.impexp.AtlasExportResult;
+import org.apache.atlas.model.impexp.AtlasImportRequest;
+import org.apache.atlas.model.impexp.AtlasImportResult;
+import org.apache.atlas.repository.store.graph.v2.EntityImportStream;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs exports and imports in the background, so that a long running operation doesn't hold an HTTP request.
+ * Output of an export job is spooled to a file in the jobs directory, to be downloaded after the job completes;
+ * the ZIP file to import is spooled to the jobs directory before the job is queued.
+ *
+ * Jobs run one at a time. The lock held by a job is the same lock held by exports and imports run in HTTP requests,
+ * so that only one export or import runs at a time. Status of completed jobs is saved in the jobs directory, and is
+ * retained, along with the export output, for atlas.export.import.jobs.retention.hours.
+ */
+@Component
+public class ExportImportJobService {
+    private static final Logger LOG = LoggerFactory.getLogger(ExportImportJobService.class);
+
+    private static final String WORKER_NAME_FORMAT = "atlas-export-import-job-%d";
+    private static final String EXPORT_FILE_SUFFIX = ".zip";
+    private static final String IMPORT_FILE_SUFFIX = "-import.zip";
+    private static final String STATUS_FILE_SUFFIX = ".json";
+    private static final String TEMP_FILE_SUFFIX   = ".tmp";
+
+    private final ExportService                     exportService;
+    private final ImportService                     importService;
+    private final File                              directory;
+    private final int                               queueSize;
+    private final long                              retentionMs;
+    private final ReentrantLock                     operationLock = new ReentrantLock();
+    private final Map<String, AtlasExportImportJob> jobs          = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor                executor;
+
+    @Inject
+    public ExportImportJobService(ExportService exportService, ImportService importService) {
+        this(exportService, importService, getJobsDirectory(), AtlasConfiguration.EXPORT_IMPORT_JOBS_QUEUE_SIZE.getInt(),
+             TimeUnit.HOURS.toMillis(AtlasConfiguration.EXPORT_IMPORT_JOBS_RETENTION_HOURS.getLong()));
+    }
+
+    @VisibleForTesting
+    ExportImportJobService(ExportService exportService, ImportService importService, File directory, int queueSize, long retentionMs) {
+        this.exportService = exportService;
+        this.importService = importService;
+        this.directory     = directory;
+        this.queueSize     = Math.max(queueSize, 1);
+        this.retentionMs   = retentionMs;
+        this.executor      = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(this.queueSize),
+                                                    new ThreadFactoryBuilder().setNameFormat(WORKER_NAME_FORMAT).setDaemon(true).build());
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!directory.exists() && !directory.mkdirs()) {
+            LOG.warn("failed to create export/import jobs directory {}", directory);
+
+            return;
+        }
+
+        File[] files = directory.listFiles();
+
+        if (files == null) {
+            return;
+        }
+
+        // jobs that didn't complete before the restart are not resumed; remove their files
+        for (File file : files) {
+            String fileName = file.getName();
+
+            if (fileName.endsWith(STATUS_FILE_SUFFIX)) {
+                AtlasExportImportJob job = readStatus(file);
+
+                if (job != null && (job.getType() == JobType.IMPORT || getExportFile(job.getGuid()).exists())) {
+                    jobs.put(job.getGuid(), job);
+
+                    continue;
+                }
+            } else if (fileName.endsWith(IMPORT_FILE_SUFFIX) || fileName.endsWith(TEMP_FILE_SUFFIX)) {
+                deleteFile(file);
+            }
+        }
+
+        for (File file : files) {
+            String fileName = file.getName();
+
+            if (fileName.endsWith(STATUS_FILE_SUFFIX) || fileName.endsWith(EXPORT_FILE_SUFFIX)) {
+                String guid = StringUtils.removeEnd(StringUtils.removeEnd(fileName, STATUS_FILE_SUFFIX), EXPORT_FILE_SUFFIX);
+
+                if (!jobs.containsKey(guid)) {
+                    deleteFile(file);
+                }
+            }
+        }
+
+        LOG.info("ExportImportJobService: directory={}, queueSize={}, retentionMs={}, completed jobs found={}", directory, queueSize, retentionMs, jobs.size());
+
+        purgeExpiredJobs();
+    }
+
+    @PreDestroy
+    public void cleanUp() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Acquires the lock held during an export or an import; fails if another export or import is in progress.
+     */
+    public void acquireOperationLock(String activity) throws AtlasBaseException {
+        if (!operationLock.tryLock()) {
+            LOG.warn("Another export or import is currently in progress..aborting this {}", activity);
+
+            throw new AtlasBaseException(AtlasErrorCode.FAILED_TO_OBTAIN_IMPORT_EXPORT_LOCK);
+        }
+    }
+
+    public void releaseOperationLock() {
+        operationLock.unlock();
+    }
+
+    public AtlasExportImportJob submitExport(AtlasExportRequest request, String userName, String hostName, String requestingIP) throws AtlasBaseException {
+        AtlasExportImportJob job        = new AtlasExportImportJob(UUID.randomUUID().toString(), JobType.EXPORT, userName);
+        Set<String>          userGroups = RequestContext.get().getUserGroups();
+
+        submit(job, () -> runExport(job, request, userGroups, hostName, requestingIP));
+
+        return getJob(job.getGuid());
+    }
+
+    /**
+     * Spools the given ZIP file to the jobs directory and queues its import.
+     */
+    public AtlasExportImportJob submitImport(AtlasImportRequest request, InputStream inputStream, String userName, String hostName, String requestingIP) throws AtlasBaseException {
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new AtlasBaseException(AtlasErrorCode.EXPORT_IMPORT_JOB_QUEUE_FULL, String.valueOf(queueSize));
+        }
+
+        AtlasExportImportJob job        = new AtlasExportImportJob(UUID.randomUUID().toString(), JobType.IMPORT, userName);
+        Set<String>          userGroups = RequestContext.get().getUserGroups();
+        File                 importFile = getImportFile(job.getGuid());
+        MessageDigest        digest     = getDigest();
+
+        try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(importFile)), digest)) {
+            job.setFileSize(IOUtils.copyLarge(inputStream, out));
+        } catch (IOException excp) {
+            deleteFile(importFile);
+
+            throw new AtlasBaseException(excp);
+        }
+
+        job.setChecksum(new String(Hex.encodeHex(digest.digest())));
+
+        try {
+            submit(job, () -> runImport(job, request, importFile, userGroups, hostName, requestingIP));
+        } catch (AtlasBaseException excp) {
+            deleteFile(importFile);
+
+            throw excp;
+        }
+
+        return getJob(job.getGuid());
+    }
+
+    public AtlasExportImportJob getJob(String guid) throws AtlasBaseException {
+        AtlasExportImportJob job = jobs.get(guid);
+
+        if (job == null) {
+            throw new AtlasBaseException(AtlasErrorCode.EXPORT_IMPORT_JOB_NOT_FOUND, guid);
+        }
+
+        return copyOf(job);
+    }
+
+    /**
+     * @return jobs in the order of their creation
+     */
+    public List<AtlasExportImportJob> getJobs() {
+        purgeExpiredJobs();
+
+        List<AtlasExportImportJob> ret = new ArrayList<>();
+
+        for (AtlasExportImportJob job : jobs.values()) {
+            ret.add(copyOf(job));
+        }
+
+        ret.sort(Comparator.comparingLong(AtlasExportImportJob::getCreatedTime));
+
+        return ret;
+    }
+
+    /**
+     * @return the ZIP file exported by the given job
+     */
+    public File getExportOutput(String guid) throws AtlasBaseException {
+        AtlasExportImportJob job  = getJob(guid);
+        File                 file = getExportFile(guid);
+
+        if (job.getType() != JobType.EXPORT || job.getStatus() != Status.COMPLETE || !file.exists()) {
+            throw new AtlasBaseException(AtlasErrorCode.EXPORT_IMPORT_JOB_OUTPUT_NOT_AVAILABLE, guid, String.valueOf(job.getStatus()));
+        }
+
+        return file;
+    }
+
+    private void submit(AtlasExportImportJob job, Runnable task) throws AtlasBaseException {
+        purgeExpiredJobs();
+
+        jobs.put(job.getGuid(), job);
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException excp) {
+            jobs.remove(job.getGuid());
+
+            throw new AtlasBaseException(AtlasErrorCode.EXPORT_IMPORT_JOB_QUEUE_FULL, String.valueOf(queueSize));
+        }
+
+        LOG.info("queued {}", job);
+    }
+
+    private void runExport(AtlasExportImportJob job, AtlasExportRequest request, Set<String> userGroups, String hostName, String requestingIP) {
+        File tempFile = new File(directory, job.getGuid() + EXPORT_FILE_SUFFIX + TEMP_FILE_SUFFIX);
+
+        start(job, userGroups, requestingIP);
+
+        try {
+            MessageDigest     digest = getDigest();
+            ZipSink           sink   = new ZipSink(new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)), digest));
+            AtlasExportResult result;
+
+            try {
+                result = exportService.run(sink, request, job.getCreatedBy(), hostName, requestingIP, (processedCount, totalCount) -> setProgress(job, processedCount, totalCount));
+            } finally {
+                sink.close();
+            }
+
+            File exportFile = getExportFile(job.getGuid());
+
+            Files.move(tempFile.toPath(), exportFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+            synchronized (job) {
+                job.setExportResult(result);
+                job.setFileSize(exportFile.length());
+                job.setChecksum(new String(Hex.encodeHex(digest.digest())));
+            }
+
+            finish(job, result.getOperationStatus() == AtlasExportResult.OperationStatus.FAIL ? "export failed" : null);
+        } catch (Throwable t) {
+            LOG.error("export job {} failed", job.getGuid(), t);
+
+            deleteFile(tempFile);
+
+            finish(job, getErrorMessage(t));
+        } finally {
+            operationLock.unlock();
+
+            RequestContext.clear();
+        }
+    }
+
+    private void runImport(AtlasExportImportJob job, AtlasImportRequest request, File importFile, Set<String> userGroups, String hostName, String requestingIP) {
+        start(job, userGroups, requestingIP);
+
+        try {
+            AtlasImportResult result = importService.run(getImportSource(importFile), request, job.getCreatedBy(), hostName, requestingIP, (processedCount, totalCount) -> setProgress(job, processedCount, totalCount));
+
+            synchronized (job) {
+                job.setImportResult(result);
+            }
+
+            finish(job, null);
+        } catch (AtlasBaseException excp) {
+            if (excp.getAtlasErrorCode() == AtlasErrorCode.IMPORT_ATTEMPTING_EMPTY_ZIP) {
+                LOG.info("import job {}: {}", job.getGuid(), excp.getMessage());
+
+                finish(job, null);
+            } else {
+                LOG.error("import job {} failed", job.getGuid(), excp);
+
+                finish(job, getErrorMessage(excp));
+            }
+        } catch (Throwable t) {
+            LOG.error("import job {} failed", job.getGuid(), t);
+
+            finish(job, getErrorMessage(t));
+        } finally {
+            deleteFile(importFile);
+
+            operationLock.unlock();
+
+            RequestContext.clear();
+        }
+    }
+
+    private static EntityImportStream getImportSource(File importFile) throws IOException, AtlasBaseException {
+        if (AtlasConfiguration.IMPORT_USE_BACKING_FILE.getBoolean()) {
+            return new ZipSourceWithBackingFile(importFile, null);
+        }
+
+        // ZipSource reads the entire file during construction
+        try (InputStream inputStream = new FileInputStream(importFile)) {
+            return new ZipSource(inputStream);
+        }
+    }
+
+    private void start(AtlasExportImportJob job, Set<String> userGroups, String requestingIP) {
+        RequestContext requestContext = RequestContext.get();
+
+        requestContext.setUser(job.getCreatedBy(), userGroups);
+        requestContext.setClientIPAddress(requestingIP);
+
+        // wait for export or import in progress, if any, to complete
+        operationLock.lock();
+
+        synchronized (job) {
+            job.setStatus(Status.IN_PROGRESS);
+            job.setStartTime(System.currentTimeMillis());
+        }
+
+        LOG.info("==> {}", job);
+    }
+
+    private void finish(AtlasExportImportJob job, String errorMessage) {
+        synchronized (job) {
+            job.setStatus(errorMessage == null ? Status.COMPLETE : Status.FAILED);
+            job.setErrorMessage(errorMessage);
+            job.setEndTime(System.currentTimeMillis());
+
+            writeStatus(job); // before the status is visible to getJob()
+        }
+
+        LOG.info("<== {}", job);
+    }
+
+    private void setProgress(AtlasExportImportJob job, long processedCount, long totalCount) {
+        synchronized (job) {
+            job.setProcessedCount(processedCount);
+            job.setTotalCount(totalCount);
+        }
+    }
+
+    private void purgeExpiredJobs() {
+        long expiryTime = System.currentTimeMillis() - retentionMs;
+
+        for (Iterator<AtlasExportImportJob> iter = jobs.values().iterator(); iter.hasNext(); ) {
+            AtlasExportImportJob job     = iter.next();
+            Long                 endTime = job.getEndTime();
+
+            if (endTime != null && endTime < expiryTime) {
+                iter.remove();
+
+                deleteFile(getExportFile(job.getGuid()));
+                deleteFile(getStatusFile(job.getGuid()));
+
+                LOG.info("removed expired job {}", job.getGuid());
+            }
+        }
+    }
+
+    private void writeStatus(AtlasExportImportJob job) {
+        try {
+            Files.write(getStatusFile(job.getGuid()).toPath(), AtlasType.toJson(copyOf(job)).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException excp) {
+            LOG.warn("failed to save status of job {}; the job will not be available after restart", job.getGuid(), excp);
+        }
+    }
+
+    private AtlasExportImportJob readStatus(File file) {
+        try {
+            return AtlasType.fromJson(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8), AtlasExportImportJob.class);
+        } catch (IOException excp) {
+            LOG.warn("failed to read job status from {}", file, excp);
+
+            return null;
+        }
+    }
+
+    private static AtlasExportImportJob copyOf(AtlasExportImportJob job) {
+        synchronized (job) {
+            return AtlasType.fromJson(AtlasType.toJson(job), AtlasExportImportJob.class);
+        }
+    }
+
+    private File getExportFile(String guid) {
+        return new File(directory, guid + EXPORT_FILE_SUFFIX);
+    }
+
+    private File getImportFile(String guid) {
+        return new File(directory, guid + IMPORT_FILE_SUFFIX);
+    }
+
+    private File getStatusFile(String guid) {
+        return new File(directory, guid + STATUS_FILE_SUFFIX);
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            LOG.warn("{}: failed to delete", file);
+        }
+    }
+
+    private static String getErrorMessage(Throwable t) {
+        return t.getMessage() != null ? t.getMessage() : t.getClass().getName();
+    }
+
+    private static MessageDigest getDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException excp) {
+            throw new IllegalStateException(excp);
+        }
+    }
+
+    private static File getJobsDirectory() {
+        String directory = AtlasConfiguration.EXPORT_IMPORT_JOBS_DIRECTORY.getString();
+
+        if (StringUtils.isEmpty(directory)) {
+            String atlasHomeDir = System.getProperty("atlas.home");
+
+            directory = (StringUtils.isEmpty(atlasHomeDir) ? "." : atlasHomeDir) + File.separator + "data" + File.separator + "export-import-jobs";
+        }
+
+        return new File(directory);
+    }
+}
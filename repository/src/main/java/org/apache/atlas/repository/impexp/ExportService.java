@@ -18,6 +18,7 @@
 package org.apache.atlas.repository.impexp;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.exception.AtlasBaseException;
@@ -38,6 +39,8 @@ import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
+import org.apache.atlas.repository.util.GuidMap;
+import org.apache.atlas.repository.util.GuidSet;
 import org.apache.atlas.repository.util.UniqueList;
 import org.apache.atlas.type.AtlasArrayType;
 import org.apache.atlas.type.AtlasClassificationType;
@@ -83,6 +86,7 @@ public class ExportService {
     private       ExportTypeProcessor       exportTypeProcessor;
     private final HdfsPathEntityCreator     hdfsPathEntityCreator;
     private       IncrementalExportEntityProvider incrementalExportEntityProvider;
+    private       ExportEntityFetcher       entityFetcher;
 
     @Inject
     public ExportService(final AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph,
@@ -97,12 +101,22 @@ public class ExportService {
 
     public AtlasExportResult run(ZipSink exportSink, AtlasExportRequest request, String userName, String hostName,
                                  String requestingIP) throws AtlasBaseException {
+        return run(exportSink, request, userName, hostName, requestingIP, null);
+    }
+
+    /**
+     * @param progressListener receives number of entities exported as the export progresses; can be null
+     */
+    public AtlasExportResult run(ZipSink exportSink, AtlasExportRequest request, String userName, String hostName,
+                                 String requestingIP, ProgressListener progressListener) throws AtlasBaseException {
         long startTime = System.currentTimeMillis();
         AtlasExportResult result = new AtlasExportResult(request, userName, requestingIP,
                 hostName, startTime, getCurrentChangeMarker());
 
-        ExportContext context = new ExportContext(atlasGraph, result, exportSink);
+        ExportContext context = new ExportContext(atlasGraph, result, exportSink, progressListener);
         exportTypeProcessor = new ExportTypeProcessor(typeRegistry, context);
+        entityFetcher = new ExportEntityFetcher(entityGraphRetriever, atlasGraph, AtlasConfiguration.EXPORT_NUM_WORKERS.getInt(),
+                                                AtlasConfiguration.EXPORT_FETCH_BUFFER_SIZE.getInt());
 
         try {
             LOG.info("==> export(user={}, from={})", userName, requestingIP);
@@ -115,12 +129,14 @@ public class ExportService {
         } catch(Exception ex) {
             LOG.error("Operation failed: ", ex);
         } finally {
+            entityFetcher.shutdown();
             atlasGraph.releaseGremlinScriptEngine(context.scriptEngine);
             LOG.info("<== export(user={}, from={}): status {}: changeMarker: {}",
                     userName, requestingIP, context.result.getOperationStatus(), context.result.getChangeMarker());
             context.clear();
             result.clear();
             incrementalExportEntityProvider = null;
+            entityFetcher = null;
         }
 
         return context.result;
@@ -135,13 +151,13 @@ public class ExportService {
                                                 long startTime, long endTime) throws AtlasBaseException {
         int duration = getOperationDuration(startTime, endTime);
         context.result.setSourceClusterName(AuditsWriter.getCurrentClusterName());
-        context.addToEntityCreationOrder(context.lineageProcessed);
+        context.lineageProcessed.forEach(context::addToEntityCreationOrder);
 
-        context.sink.setExportOrder(context.entityCreationOrder.getList());
+        context.sink.setExportOrder(context.entityCreationOrder);
         context.sink.setTypesDef(context.result.getData().getTypesDef());
         context.result.setOperationStatus(getOverallOperationStatus(statuses));
         context.result.incrementMeticsCounter("duration", duration);
-        auditsWriter.write(userName, context.result, startTime, endTime, context.entityCreationOrder.getList());
+        auditsWriter.write(userName, context.result, startTime, endTime, context.entityCreationOrder);
 
         context.result.setData(null);
         context.sink.setResult(context.result);
@@ -224,10 +240,7 @@ public class ExportService {
             }
 
             while (!context.guidsToProcess.isEmpty()) {
-                while (!context.guidsToProcess.isEmpty()) {
-                    String guid = context.guidsToProcess.remove(0);
-                    processEntityGuid(guid, context);
-                }
+                processEntityGuids(context);
 
                 if (!context.lineageToProcess.isEmpty()) {
                     context.guidsToProcess.addAll(context.lineageToProcess);
@@ -236,6 +249,8 @@ public class ExportService {
                 }
             }
         } catch (AtlasBaseException excp) {
+            entityFetcher.clear();
+
             LOG.error("Fetching entity failed for: {}", item, excp);
             return AtlasExportResult.OperationStatus.FAIL;
         }
@@ -366,7 +381,7 @@ public class ExportService {
             return;
         }
 
-        TraversalDirection direction = context.guidDirection.get(guid);
+        TraversalDirection direction = context.getGuidDirection(guid);
         AtlasEntityWithExtInfo entityWithExtInfo = entityGraphRetriever.toAtlasEntityWithExtInfo(guid);
 
         processEntity(guid, entityWithExtInfo, context, direction);
@@ -374,6 +389,45 @@ public class ExportService {
         debugLog("<== processEntityGuid({})", guid);
     }
 
+    /**
+     * Processes guidsToProcess in order, until the list is empty. Entities are fetched by entityFetcher ahead of their
+     * processing; guids found while processing an entity are appended to guidsToProcess, as before.
+     */
+    private void processEntityGuids(ExportContext context) throws AtlasBaseException {
+        while (!context.guidsToProcess.isEmpty() || !entityFetcher.isEmpty()) {
+            int refillSize = entityFetcher.getRefillSize();
+
+            if (refillSize > 0) {
+                for (String guid : context.guidsToProcess.removeFirst(refillSize)) {
+                    if (!context.guidsProcessed.contains(guid)) {
+                        entityFetcher.submit(guid);
+                    }
+                }
+            }
+
+            ExportEntityFetcher.FetchTask task = entityFetcher.take();
+
+            if (task == null) {
+                continue;
+            }
+
+            String guid = task.getGuid();
+
+            // the entity might have been processed, as a referred entity, after its guid was submitted
+            if (context.guidsProcessed.contains(guid)) {
+                task.cancel(false);
+
+                continue;
+            }
+
+            debugLog("==> processEntityGuid({})", guid);
+
+            processEntity(guid, task.getEntity(), context, context.getGuidDirection(guid));
+
+            debugLog("<== processEntityGuid({})", guid);
+        }
+    }
+
     public void processEntity(String guid, AtlasEntityWithExtInfo entityWithExtInfo,
                                ExportContext context,
                                TraversalDirection direction) throws AtlasBaseException {
@@ -420,7 +474,7 @@ public class ExportService {
             return;
         }
 
-        incrementalExportEntityProvider = new IncrementalExportEntityProvider(atlasGraph, context.scriptEngine);
+        incrementalExportEntityProvider = new IncrementalExportEntityProvider(atlasGraph, context.scriptEngine, typeRegistry);
         incrementalExportEntityProvider.populate(topLevelEntityGuid, context.changeMarker, context.guidsToProcess);
     }
 
@@ -466,7 +520,7 @@ public class ExportService {
 
             for (Map<String, Object> hashMap : result) {
                 String             guid             = (String) hashMap.get(PROPERTY_GUID);
-                TraversalDirection currentDirection = context.guidDirection.get(guid);
+                TraversalDirection currentDirection = context.getGuidDirection(guid);
                 boolean            isLineage        = (boolean) hashMap.get(PROPERTY_IS_PROCESS);
 
                 if(context.skipLineage && isLineage) continue;
@@ -743,12 +797,13 @@ public class ExportService {
         private static final String ATLAS_TYPE_HIVE_DB = "hive_db";
 
 
-        final UniqueList<String>              entityCreationOrder = new UniqueList<>();
-        final Set<String>                     guidsProcessed = new HashSet<>();
+        final List<String>                    entityCreationOrder = new ArrayList<>();
+        final GuidSet                         entityCreationOrderGuids = new GuidSet();
+        final GuidSet                         guidsProcessed = new GuidSet();
         final private UniqueList<String>      guidsToProcess = new UniqueList<>();
         final UniqueList<String>              lineageToProcess = new UniqueList<>();
-        final Set<String>                     lineageProcessed = new HashSet<>();
-        final Map<String, TraversalDirection> guidDirection  = new HashMap<>();
+        final GuidSet                         lineageProcessed = new GuidSet();
+        final GuidMap                         guidDirection  = new GuidMap();
         final Set<String>                     entityTypes         = new HashSet<>();
         final Set<String>                     classificationTypes = new HashSet<>();
         final Set<String>                     structTypes         = new HashSet<>();
@@ -764,12 +819,18 @@ public class ExportService {
         private final boolean             skipLineage;
         private final long                changeMarker;
         private final boolean isHiveDBIncremental;
+        private final ProgressListener    progressListener;
 
         private       int                 progressReportCount = 0;
 
         ExportContext(AtlasGraph atlasGraph, AtlasExportResult result, ZipSink sink) throws AtlasBaseException {
-            this.result = result;
-            this.sink   = sink;
+            this(atlasGraph, result, sink, null);
+        }
+
+        ExportContext(AtlasGraph atlasGraph, AtlasExportResult result, ZipSink sink, ProgressListener progressListener) throws AtlasBaseException {
+            this.result           = result;
+            this.sink             = sink;
+            this.progressListener = progressListener;
 
             scriptEngine = atlasGraph.getGremlinScriptEngine();
             bindings     = new HashMap<>();
@@ -814,6 +875,7 @@ public class ExportService {
             guidsToProcess.clear();
             guidsProcessed.clear();
             guidDirection.clear();
+            entityCreationOrderGuids.clear();
         }
 
         public void addToBeProcessed(boolean isSuperTypeProcess, String guid, TraversalDirection direction) {
@@ -823,7 +885,21 @@ public class ExportService {
                 guidsToProcess.add(guid);
             }
 
-            guidDirection.put(guid, direction);
+            setGuidDirection(guid, direction);
+        }
+
+        public TraversalDirection getGuidDirection(String guid) {
+            byte value = guidDirection.get(guid);
+
+            return value != 0 ? TraversalDirection.values()[value - 1] : null;
+        }
+
+        private void setGuidDirection(String guid, TraversalDirection direction) {
+            if (direction != null) {
+                guidDirection.put(guid, (byte) (direction.ordinal() + 1)); // GuidMap values must be positive
+            } else {
+                guidDirection.remove(guid);
+            }
         }
 
         public void reportProgress() {
@@ -831,6 +907,10 @@ public class ExportService {
                 progressReportCount = guidsProcessed.size();
 
                 LOG.info("export(): in progress.. number of entities exported: {}", this.guidsProcessed.size());
+
+                if (progressListener != null) {
+                    progressListener.onProgress(progressReportCount, -1);
+                }
             }
         }
 
@@ -855,11 +935,9 @@ public class ExportService {
         }
 
         public void addToEntityCreationOrder(String guid) {
-            entityCreationOrder.add(guid);
-        }
-
-        public void addToEntityCreationOrder(Collection<String> guids) {
-            entityCreationOrder.addAll(guids);
+            if (entityCreationOrderGuids.add(guid)) {
+                entityCreationOrder.add(guid);
+            }
         }
     }
 }
@@ -18,8 +18,16 @@
 
 package org.apache.atlas.repository.impexp;
 
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.repository.graphdb.AtlasEdge;
+import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.repository.util.GuidSet;
 import org.apache.atlas.repository.util.UniqueList;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,10 +35,14 @@ import javax.inject.Inject;
 import javax.script.ScriptEngine;
 import javax.script.ScriptException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
 
 public class IncrementalExportEntityProvider {
     private static final Logger LOG = LoggerFactory.getLogger(IncrementalExportEntityProvider.class);
@@ -47,12 +59,27 @@ public class IncrementalExportEntityProvider {
     private static final String TRANSFORM_CLAUSE = ".project('__guid').by('__guid').dedup().toList()";
     private static final String TIMESTAMP_CLAUSE = ".has('__modificationTimestamp', gt(modificationTimestamp))";
 
+    private static final String TYPE_HIVE_TABLE        = "hive_table";
+    private static final String TYPE_HIVE_STORAGEDESC  = "hive_storagedesc";
+    private static final String TYPE_HIVE_COLUMN       = "hive_column";
+    private static final String EDGE_LABEL_TABLE_DB      = "__hive_table.db";
+    private static final String EDGE_LABEL_TABLE_SD      = "__hive_table.sd";
+    private static final String EDGE_LABEL_TABLE_COLUMNS = "__hive_table.columns";
+
     private ScriptEngine scriptEngine;
+    private final AtlasTypeRegistry typeRegistry;
+    private final EntityChangeLog   changeLog;
 
     @Inject
-    public IncrementalExportEntityProvider(AtlasGraph atlasGraph, ScriptEngine scriptEngine) {
+    public IncrementalExportEntityProvider(AtlasGraph atlasGraph, ScriptEngine scriptEngine, AtlasTypeRegistry typeRegistry) {
+        this(atlasGraph, scriptEngine, typeRegistry, AtlasConfiguration.EXPORT_INCREMENTAL_USE_CHANGE_LOG.getBoolean());
+    }
+
+    IncrementalExportEntityProvider(AtlasGraph atlasGraph, ScriptEngine scriptEngine, AtlasTypeRegistry typeRegistry, boolean useChangeLog) {
         this.atlasGraph = atlasGraph;
         this.scriptEngine = scriptEngine;
+        this.typeRegistry = typeRegistry;
+        this.changeLog    = useChangeLog ? new EntityChangeLog(atlasGraph) : null;
     }
 
     public void populate(String dbEntityGuid, long timeStamp, UniqueList<String> guidsToProcess) {
@@ -64,11 +91,112 @@ public class IncrementalExportEntityProvider {
     }
 
     private void partial(String dbEntityGuid, long timeStamp, UniqueList<String> guidsToProcess) {
+        if (changeLog != null) {
+            partialFromChangeLog(dbEntityGuid, timeStamp, guidsToProcess);
+
+            return;
+        }
+
         guidsToProcess.addAll(fetchGuids(dbEntityGuid, QUERY_TABLE, timeStamp));
         guidsToProcess.addAll(fetchGuids(dbEntityGuid, QUERY_SD, timeStamp));
         guidsToProcess.addAll(fetchGuids(dbEntityGuid, QUERY_COLUMN, timeStamp));
     }
 
+    /**
+     * Adds tables, storage descriptors and columns of the given database that changed after timeStamp. Instead of
+     * walking all tables of the database, entities changed after timeStamp are read from the change log; each is
+     * then added if its table belongs to the database.
+     */
+    private void partialFromChangeLog(String dbEntityGuid, long timeStamp, UniqueList<String> guidsToProcess) {
+        Set<String>  tableTypes   = getTypeAndAllSubTypes(TYPE_HIVE_TABLE);
+        Set<String>  sdTypes      = getTypeAndAllSubTypes(TYPE_HIVE_STORAGEDESC);
+        Set<String>  columnTypes  = getTypeAndAllSubTypes(TYPE_HIVE_COLUMN);
+        List<String> typeNames    = new ArrayList<>();
+        List<String> tables       = new ArrayList<>();
+        List<String> sds          = new ArrayList<>();
+        List<String> columns      = new ArrayList<>();
+        GuidSet      dbTables     = new GuidSet();
+        GuidSet      otherTables  = new GuidSet();
+        int          changedCount = 0;
+
+        typeNames.addAll(tableTypes);
+        typeNames.addAll(sdTypes);
+        typeNames.addAll(columnTypes);
+
+        for (AtlasVertex vertex : changeLog.getChangedEntities(timeStamp, typeNames)) {
+            String typeName = AtlasGraphUtilsV2.getEncodedProperty(vertex, ENTITY_TYPE_PROPERTY_KEY, String.class);
+            String guid     = AtlasGraphUtilsV2.getIdFromVertex(vertex);
+
+            changedCount++;
+
+            if (tableTypes.contains(typeName)) {
+                if (isTableInDb(vertex, dbEntityGuid, dbTables, otherTables)) {
+                    tables.add(guid);
+                }
+            } else if (sdTypes.contains(typeName)) {
+                if (isTableInDb(getTable(vertex, EDGE_LABEL_TABLE_SD), dbEntityGuid, dbTables, otherTables)) {
+                    sds.add(guid);
+                }
+            } else if (columnTypes.contains(typeName)) {
+                if (isTableInDb(getTable(vertex, EDGE_LABEL_TABLE_COLUMNS), dbEntityGuid, dbTables, otherTables)) {
+                    columns.add(guid);
+                }
+            }
+        }
+
+        LOG.info("incremental export of {}: {} changed entities since {}; tables={}, storage descriptors={}, columns={}",
+                 dbEntityGuid, changedCount, timeStamp, tables.size(), sds.size(), columns.size());
+
+        guidsToProcess.addAll(tables);
+        guidsToProcess.addAll(sds);
+        guidsToProcess.addAll(columns);
+    }
+
+    private boolean isTableInDb(AtlasVertex tableVertex, String dbEntityGuid, GuidSet dbTables, GuidSet otherTables) {
+        if (tableVertex == null) {
+            return false;
+        }
+
+        String tableGuid = AtlasGraphUtilsV2.getIdFromVertex(tableVertex);
+
+        if (dbTables.contains(tableGuid)) {
+            return true;
+        } else if (otherTables.contains(tableGuid)) {
+            return false;
+        }
+
+        boolean             ret   = false;
+        Iterable<AtlasEdge> edges = tableVertex.getEdges(AtlasEdgeDirection.OUT, EDGE_LABEL_TABLE_DB);
+
+        for (AtlasEdge edge : edges) {
+            if (dbEntityGuid.equals(AtlasGraphUtilsV2.getIdFromVertex(edge.getInVertex()))) {
+                ret = true;
+
+                break;
+            }
+        }
+
+        if (ret) {
+            dbTables.add(tableGuid);
+        } else {
+            otherTables.add(tableGuid);
+        }
+
+        return ret;
+    }
+
+    private static AtlasVertex getTable(AtlasVertex vertex, String edgeLabel) {
+        Iterator<AtlasEdge> edges = vertex.getEdges(AtlasEdgeDirection.IN, edgeLabel).iterator();
+
+        return edges.hasNext() ? edges.next().getOutVertex() : null;
+    }
+
+    private Set<String> getTypeAndAllSubTypes(String typeName) {
+        AtlasEntityType entityType = typeRegistry.getEntityTypeByName(typeName);
+
+        return entityType != null ? entityType.getTypeAndAllSubTypes() : Collections.singleton(typeName);
+    }
+
     private void full(String dbEntityGuid, UniqueList<String> guidsToProcess) {
         guidsToProcess.addAll(fetchGuids(dbEntityGuid, QUERY_TABLE, 0L));
     }
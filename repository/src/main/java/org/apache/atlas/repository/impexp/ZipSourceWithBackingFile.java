@@ -0,0 +1,373 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.entitytransform.BaseEntityHandler;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.impexp.AtlasExportResult;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.store.graph.v2.EntityImportStream;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+import static org.apache.atlas.AtlasErrorCode.IMPORT_ATTEMPTING_EMPTY_ZIP;
+
+/**
+ * Import source that reads entries of the export ZIP on demand, instead of loading all of them in memory like ZipSource.
+ *
+ * Only the ZIP's central directory, i.e. entry name to offset, and the creation order are kept in memory; a small
+ * LRU cache holds recently read entries. A ZIP received as a stream is first copied to a temporary file, which is
+ * deleted on close().
+ */
+public class ZipSourceWithBackingFile implements EntityImportStream {
+    private static final Logger LOG = LoggerFactory.getLogger(ZipSourceWithBackingFile.class);
+
+    private static final String JSON_SUFFIX        = ".json";
+    private static final String TEMP_FILE_PREFIX   = "atlas-import-";
+    private static final String TEMP_FILE_SUFFIX   = ".zip";
+
+    private final File                  file;
+    private final boolean               isTempFile;
+    private final ZipFile               zipFile;
+    private final Cache<String, String> entryCache;
+    private final Set<String>           importedGuids = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private List<String>                creationOrder;
+    private Iterator<String>            iterator;
+    private ImportTransforms            importTransform;
+    private List<BaseEntityHandler>     entityHandlers;
+    private int                         currentPosition;
+
+    public ZipSourceWithBackingFile(InputStream inputStream) throws IOException, AtlasBaseException {
+        this(inputStream, null);
+    }
+
+    public ZipSourceWithBackingFile(InputStream inputStream, ImportTransforms importTransform) throws IOException, AtlasBaseException {
+        this(createTempFile(inputStream), true, importTransform);
+    }
+
+    public ZipSourceWithBackingFile(File file, ImportTransforms importTransform) throws IOException, AtlasBaseException {
+        this(file, false, importTransform);
+    }
+
+    private ZipSourceWithBackingFile(File file, boolean isTempFile, ImportTransforms importTransform) throws IOException, AtlasBaseException {
+        this.file            = file;
+        this.isTempFile      = isTempFile;
+        this.importTransform = importTransform;
+        this.entryCache      = CacheBuilder.newBuilder().maximumSize(Math.max(AtlasConfiguration.IMPORT_ENTRY_CACHE_SIZE.getInt(), 0)).build();
+
+        ZipFile zipFile = null;
+
+        try {
+            zipFile = new ZipFile(file);
+        } catch (ZipException excp) {
+            LOG.warn("{}: not a valid ZIP file", file, excp);
+        } finally {
+            this.zipFile = zipFile;
+        }
+
+        if (isZipFileEmpty()) {
+            close();
+
+            throw new AtlasBaseException(IMPORT_ATTEMPTING_EMPTY_ZIP, "Attempting to import empty ZIP.");
+        }
+
+        setCreationOrder();
+    }
+
+    @Override
+    public ImportTransforms getImportTransform() { return this.importTransform; }
+
+    @Override
+    public void setImportTransform(ImportTransforms importTransform) {
+        this.importTransform = importTransform;
+    }
+
+    @Override
+    public List<BaseEntityHandler> getEntityHandlers() {
+        return entityHandlers;
+    }
+
+    @Override
+    public void setEntityHandlers(List<BaseEntityHandler> entityHandlers) {
+        this.entityHandlers = entityHandlers;
+    }
+
+    @Override
+    public AtlasTypesDef getTypesDef() throws AtlasBaseException {
+        return convertFromJson(AtlasTypesDef.class, getEntry(ZipExportFileNames.ATLAS_TYPESDEF_NAME.toString()));
+    }
+
+    @Override
+    public AtlasExportResult getExportResult() throws AtlasBaseException {
+        return convertFromJson(AtlasExportResult.class, getEntry(ZipExportFileNames.ATLAS_EXPORT_INFO_NAME.toString()));
+    }
+
+    @Override
+    public List<String> getCreationOrder() {
+        return this.creationOrder;
+    }
+
+    @Override
+    public AtlasEntityWithExtInfo getEntityWithExtInfo(String guid) throws AtlasBaseException {
+        AtlasEntityWithExtInfo entityWithExtInfo = convertFromJson(AtlasEntityWithExtInfo.class, getEntry(guid));
+
+        if (importTransform != null) {
+            entityWithExtInfo = importTransform.apply(entityWithExtInfo);
+        }
+
+        if (entityHandlers != null) {
+            applyTransformers(entityWithExtInfo);
+        }
+
+        return entityWithExtInfo;
+    }
+
+    @Override
+    public void close() {
+        entryCache.invalidateAll();
+
+        if (zipFile != null) {
+            try {
+                zipFile.close();
+            } catch (IOException ex) {
+                LOG.warn("{}: Error closing ZIP file.", file, ex);
+            }
+        }
+
+        if (isTempFile && file.exists() && !file.delete()) {
+            LOG.warn("{}: failed to delete temporary file", file);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return this.iterator.hasNext();
+    }
+
+    @Override
+    public AtlasEntity next() {
+        AtlasEntityWithExtInfo entityWithExtInfo = getNextEntityWithExtInfo();
+
+        return entityWithExtInfo != null ? entityWithExtInfo.getEntity() : null;
+    }
+
+    @Override
+    public AtlasEntityWithExtInfo getNextEntityWithExtInfo() {
+        try {
+            currentPosition++;
+            return getEntityWithExtInfo(this.iterator.next());
+        } catch (AtlasBaseException e) {
+            LOG.error("getNextEntityWithExtInfo", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void reset() {
+        this.iterator = this.creationOrder.iterator();
+    }
+
+    @Override
+    public AtlasEntity getByGuid(String guid) {
+        try {
+            if (importedGuids.contains(guid) || zipFile.getEntry(guid + JSON_SUFFIX) == null) {
+                return null;
+            }
+
+            AtlasEntityWithExtInfo extInfo = getEntityWithExtInfo(guid);
+
+            return (extInfo != null) ? extInfo.getEntity() : null;
+        } catch (AtlasBaseException e) {
+            LOG.error("getByGuid: {} failed!", guid, e);
+            return null;
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.creationOrder.size();
+    }
+
+    @Override
+    public void onImportComplete(String guid) {
+        importedGuids.add(guid);
+        entryCache.invalidate(guid);
+    }
+
+    @Override
+    public void setPosition(int index) {
+        currentPosition = index;
+        reset();
+        for (int i = 0; i < creationOrder.size() && i <= index; i++) {
+            iterator.next();
+        }
+    }
+
+    @Override
+    public void setPositionUsingEntityGuid(String guid) {
+        if (StringUtils.isBlank(guid)) {
+            return;
+        }
+
+        int index = creationOrder.indexOf(guid);
+        if (index == -1) {
+            return;
+        }
+
+        setPosition(index);
+    }
+
+    @Override
+    public int getPosition() {
+        return currentPosition;
+    }
+
+    private boolean isZipFileEmpty() {
+        if (zipFile == null || zipFile.size() == 0) {
+            return true;
+        }
+
+        String creationOrder = readEntry(ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME.toString());
+
+        return creationOrder != null && creationOrder.equals("[]");
+    }
+
+    private void setCreationOrder() {
+        String fileName = ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME.toString();
+
+        try {
+            this.creationOrder = convertFromJson(List.class, readEntry(fileName));
+            this.iterator      = this.creationOrder.iterator();
+        } catch (AtlasBaseException e) {
+            LOG.error(String.format("Error retrieving '%s' from zip.", fileName), e);
+        }
+    }
+
+    private void applyTransformers(AtlasEntityWithExtInfo entityWithExtInfo) {
+        if (entityWithExtInfo == null) {
+            return;
+        }
+
+        transform(entityWithExtInfo.getEntity());
+
+        if (MapUtils.isNotEmpty(entityWithExtInfo.getReferredEntities())) {
+            for (AtlasEntity e : entityWithExtInfo.getReferredEntities().values()) {
+                transform(e);
+            }
+        }
+    }
+
+    private void transform(AtlasEntity e) {
+        for (BaseEntityHandler handler : entityHandlers) {
+            handler.transform(e);
+        }
+    }
+
+    private <T> T convertFromJson(Class<T> clazz, String jsonData) throws AtlasBaseException {
+        T t;
+        try {
+            t = AtlasType.fromJson(jsonData, clazz);
+            if (t == null) {
+                throw new AtlasBaseException("Error converting file to JSON.");
+            }
+
+        } catch (Exception e) {
+            throw new AtlasBaseException("Error converting file to JSON.", e);
+        }
+
+        return t;
+    }
+
+    private String getEntry(String entryName) {
+        String ret = entryCache.getIfPresent(entryName);
+
+        if (ret == null) {
+            ret = readEntry(entryName);
+
+            if (ret != null) {
+                entryCache.put(entryName, ret);
+            }
+        }
+
+        return ret;
+    }
+
+    private String readEntry(String entryName) {
+        String   ret      = null;
+        ZipEntry zipEntry = zipFile.getEntry(entryName + JSON_SUFFIX);
+
+        if (zipEntry != null) {
+            try (InputStream is = zipFile.getInputStream(zipEntry)) {
+                ret = IOUtils.toString(is, StandardCharsets.UTF_8);
+            } catch (IOException excp) {
+                LOG.error("{}: failed to read entry {}", file, entryName, excp);
+            }
+        }
+
+        if (StringUtils.isEmpty(ret)) {
+            LOG.warn("Could not fetch requested contents of file: {}", entryName);
+        }
+
+        return ret;
+    }
+
+    private static File createTempFile(InputStream inputStream) throws IOException {
+        String tempDirectory = AtlasConfiguration.IMPORT_TEMP_DIRECTORY.getString();
+        File   ret           = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX, StringUtils.isNotEmpty(tempDirectory) ? new File(tempDirectory) : null);
+
+        try {
+            Files.copy(inputStream, ret.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException excp) {
+            if (!ret.delete()) {
+                LOG.warn("{}: failed to delete temporary file", ret);
+            }
+
+            throw excp;
+        } finally {
+            inputStream.close();
+        }
+
+        LOG.info("import: copied ZIP to temporary file {} ({} bytes)", ret, ret.length());
+
+        return ret;
+    }
+}
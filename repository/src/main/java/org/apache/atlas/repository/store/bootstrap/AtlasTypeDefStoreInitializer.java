@@ -22,6 +22,7 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.authorize.AtlasAuthorizerFactory;
@@ -37,10 +38,13 @@ import org.apache.atlas.model.typedef.AtlasRelationshipDef;
 import org.apache.atlas.model.typedef.AtlasStructDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.store.graph.TypeDefSnapshotWriter;
+import org.apache.atlas.repository.store.graph.TypeDefVersionRegistry;
 import org.apache.atlas.store.AtlasTypeDefStore;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.type.AtlasTypeUtil;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.configuration.Configuration;
@@ -56,8 +60,11 @@ import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlRootElement;
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -74,16 +81,24 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
     private static final Logger LOG = LoggerFactory.getLogger(AtlasTypeDefStoreInitializer.class);
     public static final String PATCHES_FOLDER_NAME = "patches";
 
-    private final AtlasTypeDefStore atlasTypeDefStore;
-    private final AtlasTypeRegistry atlasTypeRegistry;
-    private final Configuration     conf;
+    private final AtlasTypeDefStore      atlasTypeDefStore;
+    private final AtlasTypeRegistry      atlasTypeRegistry;
+    private final Configuration          conf;
+    private final TypeDefVersionRegistry typeDefVersionRegistry;
+    private final TypeDefSnapshotWriter  snapshotWriter;
+    private final boolean                isSnapshotEnabled;
+    private       int                    loadErrorCount;
 
 
     @Inject
-    public AtlasTypeDefStoreInitializer(AtlasTypeDefStore atlasTypeDefStore, AtlasTypeRegistry atlasTypeRegistry, Configuration conf) {
-        this.atlasTypeDefStore = atlasTypeDefStore;
-        this.atlasTypeRegistry = atlasTypeRegistry;
-        this.conf              = conf;
+    public AtlasTypeDefStoreInitializer(AtlasTypeDefStore atlasTypeDefStore, AtlasTypeRegistry atlasTypeRegistry, Configuration conf,
+                                        TypeDefVersionRegistry typeDefVersionRegistry, TypeDefSnapshotWriter snapshotWriter) {
+        this.atlasTypeDefStore      = atlasTypeDefStore;
+        this.atlasTypeRegistry      = atlasTypeRegistry;
+        this.conf                   = conf;
+        this.typeDefVersionRegistry = typeDefVersionRegistry;
+        this.snapshotWriter         = snapshotWriter;
+        this.isSnapshotEnabled      = AtlasConfiguration.TYPEDEF_SNAPSHOT_ENABLED.getBoolean();
     }
 
     @PostConstruct
@@ -116,9 +131,28 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
     private void loadBootstrapTypeDefs() {
         LOG.info("==> AtlasTypeDefStoreInitializer.loadBootstrapTypeDefs()");
 
-        String atlasHomeDir  = System.getProperty("atlas.home");
-        String modelsDirName = (StringUtils.isEmpty(atlasHomeDir) ? "." : atlasHomeDir) + File.separator + "models";
+        String atlasHomeDir   = System.getProperty("atlas.home");
+        String modelsDirName  = (StringUtils.isEmpty(atlasHomeDir) ? "." : atlasHomeDir) + File.separator + "models";
+        String modelsChecksum = isSnapshotEnabled ? getModelsChecksum(new File(modelsDirName)) : null;
 
+        if (modelsChecksum != null && typeDefVersionRegistry.isModelsLoaded(modelsChecksum)) {
+            LOG.info("Models in {} were loaded earlier, and types were not updated after that. Skipping load of models", modelsDirName);
+        } else {
+            loadErrorCount = 0;
+
+            loadModels(modelsDirName);
+
+            if (modelsChecksum != null && loadErrorCount == 0) {
+                typeDefVersionRegistry.setModelsLoaded(modelsChecksum);
+            }
+        }
+
+        snapshotWriter.schedule();
+
+        LOG.info("<== AtlasTypeDefStoreInitializer.loadBootstrapTypeDefs()");
+    }
+
+    private void loadModels(String modelsDirName) {
         if (modelsDirName == null || modelsDirName.length() == 0) {
             LOG.info("Types directory {} does not exist or not readable or has no typedef files", modelsDirName);
         } else {
@@ -143,7 +177,49 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
             // load any files in the top models folder and any associated patches.
             loadModelsInFolder(topModeltypesDir);
         }
-        LOG.info("<== AtlasTypeDefStoreInitializer.loadBootstrapTypeDefs()");
+    }
+
+    /**
+     * @return checksum of names and contents of all files under the models directory; null if the directory can't be read
+     */
+    private static String getModelsChecksum(File modelsDir) {
+        if (!modelsDir.isDirectory()) {
+            return null;
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            updateDigest(digest, modelsDir, "");
+
+            return new String(Hex.encodeHex(digest.digest()));
+        } catch (IOException | NoSuchAlgorithmException excp) {
+            LOG.warn("Failed to compute checksum of models in {}", modelsDir, excp);
+
+            return null;
+        }
+    }
+
+    private static void updateDigest(MessageDigest digest, File dir, String path) throws IOException {
+        File[] files = dir.listFiles();
+
+        if (files == null) {
+            throw new IOException("failed to list " + dir);
+        }
+
+        Arrays.sort(files);
+
+        for (File file : files) {
+            String filePath = path + "/" + file.getName();
+
+            digest.update(filePath.getBytes(StandardCharsets.UTF_8));
+
+            if (file.isDirectory()) {
+                updateDigest(digest, file, filePath);
+            } else {
+                digest.update(Files.readAllBytes(file.toPath()));
+            }
+        }
     }
 
     /**
@@ -187,6 +263,8 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
                         }
 
                     } catch (Throwable t) {
+                        loadErrorCount++;
+
                         LOG.error("error while registering types in file {}", typeDefFile.getAbsolutePath(), t);
                     }
                 }
@@ -446,10 +524,14 @@ public class AtlasTypeDefStoreInitializer implements ActiveStateChangeHandler {
                             try {
                                 patchHandler.applyPatch(patch);
                             } catch (AtlasBaseException excp) {
+                                loadErrorCount++;
+
                                 LOG.error("Failed to apply {} patch in file {}. Ignored", patch.getAction(), typePatchFile.getAbsolutePath(), excp);
                             }
                         }
                     } catch (Throwable t) {
+                        loadErrorCount++;
+
                         LOG.error("Failed to apply patches in file {}. Ignored", typePatchFile.getAbsolutePath(), t);
                     }
                 }
@@ -0,0 +1,171 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.bootstrap;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.repository.store.graph.TypeDefVersionRegistry;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the type registry of a passive instance, that serves reads, current with the type definitions in the graph.
+ *
+ * The active instance increments the version in TypeDefVersionRegistry along with every update to type definitions;
+ * a passive instance checks this version periodically and reloads its type registry when the version changes.
+ */
+@Component
+public class PassiveTypeRegistryRefresher implements ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(PassiveTypeRegistryRefresher.class);
+
+    private final    AtlasTypeDefStore        typeDefStore;
+    private final    TypeDefVersionRegistry   typeDefVersionRegistry;
+    private final    boolean                  isEnabled;
+    private final    long                     refreshIntervalMs;
+    private volatile ScheduledExecutorService executor;
+    private volatile long                     loadedVersion   = -1;
+    private volatile long                     lastRefreshTime = 0;
+
+    @Inject
+    public PassiveTypeRegistryRefresher(AtlasTypeDefStore typeDefStore, TypeDefVersionRegistry typeDefVersionRegistry, Configuration conf) {
+        this(typeDefStore, typeDefVersionRegistry, HAConfiguration.isHAEnabled(conf) && AtlasConfiguration.HA_PASSIVE_READS_ENABLED.getBoolean(),
+             AtlasConfiguration.HA_PASSIVE_TYPES_REFRESH_INTERVAL_MS.getLong());
+    }
+
+    PassiveTypeRegistryRefresher(AtlasTypeDefStore typeDefStore, TypeDefVersionRegistry typeDefVersionRegistry, boolean isEnabled, long refreshIntervalMs) {
+        this.typeDefStore           = typeDefStore;
+        this.typeDefVersionRegistry = typeDefVersionRegistry;
+        this.isEnabled              = isEnabled;
+        this.refreshIntervalMs      = refreshIntervalMs;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (isEnabled) {
+            // an instance starts as passive, and is notified only if it becomes active
+            start();
+        }
+    }
+
+    @PreDestroy
+    public void cleanUp() {
+        stop();
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * @return true if the type registry has been loaded, and is being kept current, for serving reads
+     */
+    public boolean isServingReads() {
+        return executor != null && lastRefreshTime > 0;
+    }
+
+    /**
+     * @return upper bound, in milliseconds, on how far the type registry could be behind the type definitions in the graph
+     */
+    public long getStalenessBoundMs() {
+        return lastRefreshTime > 0 ? System.currentTimeMillis() - lastRefreshTime : -1;
+    }
+
+    @Override
+    public void instanceIsActive() throws AtlasException {
+        LOG.info("==> PassiveTypeRegistryRefresher.instanceIsActive()");
+
+        // AtlasTypeDefStoreInitializer loads the types on activation, and the active instance keeps them current
+        stop();
+
+        LOG.info("<== PassiveTypeRegistryRefresher.instanceIsActive()");
+    }
+
+    @Override
+    public void instanceIsPassive() throws AtlasException {
+        LOG.info("==> PassiveTypeRegistryRefresher.instanceIsPassive()");
+
+        if (isEnabled) {
+            start();
+        }
+
+        LOG.info("<== PassiveTypeRegistryRefresher.instanceIsPassive()");
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.TYPE_REGISTRY_REFRESHER.getOrder();
+    }
+
+    void refresh() {
+        try {
+            // read the version before loading the types, so that an update made while loading is picked up in the next refresh
+            long version = typeDefVersionRegistry.getVersion();
+
+            if (version != loadedVersion) {
+                LOG.info("Type definitions version changed from {} to {}. Reloading types", loadedVersion, version);
+
+                typeDefStore.init();
+
+                loadedVersion = version;
+            }
+
+            lastRefreshTime = System.currentTimeMillis();
+        } catch (Throwable t) {
+            LOG.error("Failed to refresh type registry; will retry in {} ms", refreshIntervalMs, t);
+        }
+    }
+
+    private synchronized void start() {
+        if (executor == null) {
+            LOG.info("Refreshing type registry every {} ms, for serving reads from passive instance", refreshIntervalMs);
+
+            loadedVersion   = -1;
+            lastRefreshTime = 0;
+            executor        = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-type-registry-refresher").setDaemon(true).build());
+
+            executor.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    refresh();
+                }
+            }, 0, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+
+            executor        = null;
+            lastRefreshTime = 0;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.repository.store.graph.v2.EntityProjection;
 import org.apache.atlas.repository.store.graph.v2.EntityStream;
 import org.apache.atlas.type.AtlasEntityType;
 
@@ -62,6 +63,16 @@ public interface AtlasEntityStore {
      */
     AtlasEntityWithExtInfo getById(String guid, boolean isMinExtInfo) throws AtlasBaseException;
 
+    /**
+     *
+     * Get entity definition by its guid, with only the attributes in the given projection
+     * @param guid
+     * @param isMinExtInfo
+     * @param projection attributes, relationship attributes and page of relationship attribute values to retrieve
+     * @return AtlasEntity
+     */
+    AtlasEntityWithExtInfo getById(String guid, boolean isMinExtInfo, EntityProjection projection) throws AtlasBaseException;
+
     /**
      * Get entity header for the given GUID
      * @param guid
@@ -108,6 +119,18 @@ public interface AtlasEntityStore {
     AtlasEntityWithExtInfo getByUniqueAttributes(AtlasEntityType entityType, Map<String, Object> uniqAttributes, boolean isMinExtInfo)
             throws AtlasBaseException;
 
+    /**
+     *
+     * Get an entity by its unique attribute, with only the attributes in the given projection
+     * @param entityType     type of the entity
+     * @param uniqAttributes Attributes that uniquely identify the entity
+     * @param isMinExtInfo
+     * @param projection attributes, relationship attributes and page of relationship attribute values to retrieve
+     * @return AtlasEntity
+     */
+    AtlasEntityWithExtInfo getByUniqueAttributes(AtlasEntityType entityType, Map<String, Object> uniqAttributes, boolean isMinExtInfo, EntityProjection projection)
+            throws AtlasBaseException;
+
     /**
      * Check state of entities in the store
      * @param request AtlasCheckStateRequest
@@ -17,6 +17,7 @@
  */
 package org.apache.atlas.repository.store.graph;
 
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.GraphTransactionInterceptor;
 import org.apache.atlas.annotation.GraphTransaction;
@@ -58,13 +59,18 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
     private final AtlasTypeRegistry          typeRegistry;
     private final Set<TypeDefChangeListener> typeDefChangeListeners;
+    private final TypeDefVersionRegistry     typeDefVersionRegistry;
     private final int                        typeUpdateLockMaxWaitTimeSeconds;
+    private final boolean                    isSnapshotEnabled;
 
     protected AtlasTypeDefGraphStore(AtlasTypeRegistry typeRegistry,
-                                     Set<TypeDefChangeListener> typeDefChangeListeners) {
+                                     Set<TypeDefChangeListener> typeDefChangeListeners,
+                                     TypeDefVersionRegistry typeDefVersionRegistry) {
         this.typeRegistry                     = typeRegistry;
         this.typeDefChangeListeners           = typeDefChangeListeners;
+        this.typeDefVersionRegistry           = typeDefVersionRegistry;
         this.typeUpdateLockMaxWaitTimeSeconds = AtlasRepositoryConfiguration.getTypeUpdateLockMaxWaitTimeInSeconds();
+        this.isSnapshotEnabled                = AtlasConfiguration.TYPEDEF_SNAPSHOT_ENABLED.getBoolean();
     }
 
     protected abstract AtlasDefStore<AtlasEnumDef> getEnumDefStore(AtlasTypeRegistry typeRegistry);
@@ -89,13 +95,20 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
             ttr.clear();
 
-            AtlasTypesDef typesDef = new AtlasTypesDef(getEnumDefStore(ttr).getAll(),
-                    getStructDefStore(ttr).getAll(),
-                    getClassificationDefStore(ttr).getAll(),
-                    getEntityDefStore(ttr).getAll(),
-                    getRelationshipDefStore(ttr).getAll());
+            // a snapshot avoids reading every type vertex; it is used only if taken at the current version of type definitions
+            AtlasTypesDef typesDef = isSnapshotEnabled ? typeDefVersionRegistry.loadSnapshot() : null;
 
-            rectifyTypeErrorsIfAny(typesDef);
+            if (typesDef != null) {
+                LOG.info("Loading types from snapshot");
+            } else {
+                typesDef = new AtlasTypesDef(getEnumDefStore(ttr).getAll(),
+                        getStructDefStore(ttr).getAll(),
+                        getClassificationDefStore(ttr).getAll(),
+                        getEntityDefStore(ttr).getAll(),
+                        getRelationshipDefStore(ttr).getAll());
+
+                rectifyTypeErrorsIfAny(typesDef);
+            }
 
             ttr.addTypes(typesDef);
 
@@ -713,6 +726,9 @@ public abstract class AtlasTypeDefGraphStore implements AtlasTypeDefStore {
 
         new TypeRegistryUpdateHook(ttr);
 
+        // committed along with the type updates, for passive instances to detect the change and reload their type registry
+        typeDefVersionRegistry.increment();
+
         return ttr;
     }
 
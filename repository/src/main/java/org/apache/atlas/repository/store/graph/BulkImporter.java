@@ -20,6 +20,7 @@ package org.apache.atlas.repository.store.graph;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.impexp.AtlasImportResult;
 import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.repository.impexp.ProgressListener;
 import org.apache.atlas.repository.store.graph.v2.EntityImportStream;
 
 public interface BulkImporter {
@@ -31,4 +32,10 @@ public interface BulkImporter {
      * @throws AtlasBaseException
      */
     EntityMutationResponse bulkImport(EntityImportStream entityStream, AtlasImportResult importResult) throws AtlasBaseException;
+
+    /**
+     * Same as bulkImport(entityStream, importResult); progress of the import is reported to progressListener
+     * @param progressListener receives number of entities imported; can be null
+     */
+    EntityMutationResponse bulkImport(EntityImportStream entityStream, AtlasImportResult importResult, ProgressListener progressListener) throws AtlasBaseException;
 }
@@ -0,0 +1,122 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.listener.ChangedTypeDefs;
+import org.apache.atlas.listener.TypeDefChangeListener;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeRegistry.AtlasTransientTypeRegistry;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Saves a snapshot of the type registry in TypeDefVersionRegistry after type definitions are updated. Snapshots are
+ * saved in the background; updates made while a snapshot is pending are covered by the same snapshot.
+ */
+@Component
+public class TypeDefSnapshotWriter implements TypeDefChangeListener {
+    private static final Logger LOG = LoggerFactory.getLogger(TypeDefSnapshotWriter.class);
+
+    private final AtlasTypeRegistry      typeRegistry;
+    private final TypeDefVersionRegistry typeDefVersionRegistry;
+    private final boolean                isEnabled;
+    private final ExecutorService        executor;
+    private final AtomicBoolean          isPending = new AtomicBoolean(false);
+
+    @Inject
+    public TypeDefSnapshotWriter(AtlasTypeRegistry typeRegistry, TypeDefVersionRegistry typeDefVersionRegistry) {
+        this(typeRegistry, typeDefVersionRegistry, AtlasConfiguration.TYPEDEF_SNAPSHOT_ENABLED.getBoolean());
+    }
+
+    TypeDefSnapshotWriter(AtlasTypeRegistry typeRegistry, TypeDefVersionRegistry typeDefVersionRegistry, boolean isEnabled) {
+        this.typeRegistry           = typeRegistry;
+        this.typeDefVersionRegistry = typeDefVersionRegistry;
+        this.isEnabled              = isEnabled;
+        this.executor               = isEnabled ? Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-typedef-snapshot").setDaemon(true).build()) : null;
+    }
+
+    @PreDestroy
+    public void cleanUp() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void onChange(ChangedTypeDefs changedTypeDefs) {
+        schedule();
+    }
+
+    /**
+     * Saves a snapshot in the background, unless the saved snapshot is already of the current version
+     */
+    public void schedule() {
+        if (isEnabled && isPending.compareAndSet(false, true)) {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    isPending.set(false);
+
+                    save();
+                }
+            });
+        }
+    }
+
+    void save() {
+        try {
+            final long          version;
+            final AtlasTypesDef typesDef;
+
+            // no update can be in progress while the lock is held; hence the type registry is of the version in the graph
+            AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate(AtlasRepositoryConfiguration.getTypeUpdateLockMaxWaitTimeInSeconds());
+
+            try {
+                version = typeDefVersionRegistry.getVersion();
+
+                if (version == typeDefVersionRegistry.getSnapshotVersion()) {
+                    return;
+                }
+
+                typesDef = new AtlasTypesDef(new ArrayList<>(typeRegistry.getAllEnumDefs()),
+                                             new ArrayList<>(typeRegistry.getAllStructDefs()),
+                                             new ArrayList<>(typeRegistry.getAllClassificationDefs()),
+                                             new ArrayList<>(typeRegistry.getAllEntityDefs()),
+                                             new ArrayList<>(typeRegistry.getAllRelationshipDefs()));
+            } finally {
+                typeRegistry.releaseTypeRegistryForUpdate(ttr, false);
+            }
+
+            typeDefVersionRegistry.saveSnapshot(typesDef, version);
+        } catch (Throwable t) {
+            LOG.warn("Failed to save snapshot of type definitions; types will be loaded from type vertices on next startup", t);
+        }
+    }
+}
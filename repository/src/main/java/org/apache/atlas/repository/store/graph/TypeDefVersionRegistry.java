@@ -0,0 +1,237 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph;
+
+import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.apache.atlas.repository.Constants.TYPEDEF_MODELS_CHECKSUM;
+import static org.apache.atlas.repository.Constants.TYPEDEF_MODELS_VERSION;
+import static org.apache.atlas.repository.Constants.TYPEDEF_SNAPSHOT;
+import static org.apache.atlas.repository.Constants.TYPEDEF_SNAPSHOT_CHECKSUM;
+import static org.apache.atlas.repository.Constants.TYPEDEF_SNAPSHOT_VERSION;
+import static org.apache.atlas.repository.Constants.TYPEDEF_VERSION_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TYPEDEF_VERSION_TYPE_NAME;
+import static org.apache.atlas.repository.Constants.TYPEDEF_VERSION_UPDATE_TIME;
+import static org.apache.atlas.repository.Constants.VERTEX_TYPE_PROPERTY_KEY;
+
+/**
+ * Stores, in a vertex in the graph, a version number that is incremented along with every update to type definitions.
+ * Instances that don't update type definitions themselves, like passive instances serving reads, compare it with
+ * the version they loaded to find if their type registry is current.
+ *
+ * The same vertex holds a snapshot of all type definitions, as gzip-compressed JSON, along with the version it was
+ * taken at and its checksum; the snapshot is used to load types only when both match.
+ */
+@Component
+public class TypeDefVersionRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(TypeDefVersionRegistry.class);
+
+    private final AtlasGraph graph;
+
+    @Inject
+    public TypeDefVersionRegistry(AtlasGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Increments the version; to be called within the graph transaction that updates type definitions, so that
+     * the new version is committed (or rolled back) along with the type definitions.
+     */
+    public long increment() {
+        AtlasVertex vertex = findOrCreateVertex();
+        long        ret    = getVersion(vertex) + 1;
+
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TYPEDEF_VERSION_PROPERTY_KEY, ret);
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TYPEDEF_VERSION_UPDATE_TIME, System.currentTimeMillis());
+
+        return ret;
+    }
+
+    /**
+     * @return current version; 0 if type definitions were never updated after this version was introduced
+     */
+    @GraphTransaction
+    public long getVersion() {
+        return getVersion(findVertex());
+    }
+
+    /**
+     * @return version of the saved snapshot; -1 if no snapshot was saved
+     */
+    @GraphTransaction
+    public long getSnapshotVersion() {
+        AtlasVertex vertex  = findVertex();
+        Long        version = vertex != null ? AtlasGraphUtilsV2.getEncodedProperty(vertex, TYPEDEF_SNAPSHOT_VERSION, Long.class) : null;
+
+        return version != null ? version : -1;
+    }
+
+    /**
+     * @param typesDef all type definitions, as of the given version
+     */
+    @GraphTransaction
+    public void saveSnapshot(AtlasTypesDef typesDef, long version) throws IOException {
+        byte[] json = AtlasType.toJson(typesDef).getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 8);
+
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        }
+
+        String      snapshot = Base64.getEncoder().encodeToString(bytes.toByteArray());
+        AtlasVertex vertex   = findOrCreateVertex();
+
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TYPEDEF_SNAPSHOT, snapshot);
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TYPEDEF_SNAPSHOT_CHECKSUM, getChecksum(json));
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TYPEDEF_SNAPSHOT_VERSION, version);
+
+        LOG.info("Saved snapshot of type definitions at version {}: {} bytes", version, snapshot.length());
+    }
+
+    /**
+     * @return type definitions in the snapshot; null if there is no snapshot, or if the snapshot is not of the current
+     * version or doesn't match its checksum
+     */
+    public AtlasTypesDef loadSnapshot() {
+        AtlasVertex vertex = findVertex();
+
+        if (vertex == null) {
+            LOG.info("No snapshot of type definitions found");
+
+            return null;
+        }
+
+        long   version         = getVersion(vertex);
+        Long   snapshotVersion = AtlasGraphUtilsV2.getEncodedProperty(vertex, TYPEDEF_SNAPSHOT_VERSION, Long.class);
+        String snapshot        = AtlasGraphUtilsV2.getEncodedProperty(vertex, TYPEDEF_SNAPSHOT, String.class);
+        String checksum        = AtlasGraphUtilsV2.getEncodedProperty(vertex, TYPEDEF_SNAPSHOT_CHECKSUM, String.class);
+
+        if (snapshotVersion == null || StringUtils.isEmpty(snapshot)) {
+            LOG.info("No snapshot of type definitions found");
+
+            return null;
+        }
+
+        if (snapshotVersion != version) {
+            LOG.info("Snapshot of type definitions is of version {}, while current version is {}. Ignoring the snapshot", snapshotVersion, version);
+
+            return null;
+        }
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(snapshot)))) {
+            byte[] json = IOUtils.toByteArray(in);
+
+            if (!Objects.equals(getChecksum(json), checksum)) {
+                LOG.warn("Snapshot of type definitions at version {} doesn't match its checksum. Ignoring the snapshot", version);
+
+                return null;
+            }
+
+            return AtlasType.fromJson(new String(json, StandardCharsets.UTF_8), AtlasTypesDef.class);
+        } catch (IOException | IllegalArgumentException excp) {
+            LOG.warn("Failed to read snapshot of type definitions at version {}. Ignoring the snapshot", version, excp);
+
+            return null;
+        }
+    }
+
+    /**
+     * @return true if model files with the given checksum were loaded, and type definitions were not updated after that
+     */
+    @GraphTransaction
+    public boolean isModelsLoaded(String modelsChecksum) {
+        AtlasVertex vertex = findVertex();
+
+        if (vertex == null) {
+            return false;
+        }
+
+        String checksum = AtlasGraphUtilsV2.getEncodedProperty(vertex, TYPEDEF_MODELS_CHECKSUM, String.class);
+        Long   version  = AtlasGraphUtilsV2.getEncodedProperty(vertex, TYPEDEF_MODELS_VERSION, Long.class);
+
+        return StringUtils.equals(checksum, modelsChecksum) && version != null && version == getVersion(vertex);
+    }
+
+    /**
+     * Records that model files with the given checksum were loaded, at the current version
+     */
+    @GraphTransaction
+    public void setModelsLoaded(String modelsChecksum) {
+        AtlasVertex vertex = findOrCreateVertex();
+
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TYPEDEF_MODELS_CHECKSUM, modelsChecksum);
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TYPEDEF_MODELS_VERSION, getVersion(vertex));
+    }
+
+    private static long getVersion(AtlasVertex vertex) {
+        Long ret = vertex != null ? AtlasGraphUtilsV2.getEncodedProperty(vertex, TYPEDEF_VERSION_PROPERTY_KEY, Long.class) : null;
+
+        return ret != null ? ret : 0;
+    }
+
+    private AtlasVertex findOrCreateVertex() {
+        AtlasVertex ret = findVertex();
+
+        if (ret == null) {
+            ret = graph.addVertex();
+
+            AtlasGraphUtilsV2.setEncodedProperty(ret, VERTEX_TYPE_PROPERTY_KEY, TYPEDEF_VERSION_TYPE_NAME);
+        }
+
+        return ret;
+    }
+
+    private AtlasVertex findVertex() {
+        Iterator<AtlasVertex> vertices = graph.query().has(VERTEX_TYPE_PROPERTY_KEY, TYPEDEF_VERSION_TYPE_NAME).vertices().iterator();
+
+        return vertices.hasNext() ? vertices.next() : null;
+    }
+
+    private static String getChecksum(byte[] bytes) {
+        try {
+            return new String(Hex.encodeHex(MessageDigest.getInstance("SHA-256").digest(bytes)));
+        } catch (NoSuchAlgorithmException excp) {
+            throw new IllegalStateException(excp);
+        }
+    }
+}
@@ -35,6 +35,7 @@ import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.repository.store.graph.v2.EntityCountTracker;
 import org.apache.atlas.repository.store.graph.v2.EntityGraphRetriever;
 import org.apache.atlas.type.AtlasArrayType;
 import org.apache.atlas.type.AtlasClassificationType;
@@ -322,6 +323,8 @@ public abstract class DeleteHandlerV1 {
         return !softDelete || forceDelete;
     }
 
+    // propagation changes caused by relationship edges are made in the caller's transaction, even when atlas.tasks.enabled
+    // defers propagation of classification add/delete/update to tasks; an edge affects a subset of the propagated entities
     public void addTagPropagation(AtlasEdge edge, PropagateTags propagateTags) throws AtlasBaseException {
         if (edge == null) {
             return;
@@ -929,6 +932,10 @@ public abstract class DeleteHandlerV1 {
 
         // delete classification vertex only if it has no more entity references (direct or propagated)
         if (CollectionUtils.isEmpty(incomingClassificationEdges)) {
+            if (getState(classificationVertex) == ACTIVE) {
+                EntityCountTracker.onClassificationVertexDeleted(getTypeName(classificationVertex));
+            }
+
             _deleteVertex(classificationVertex, force);
         }
     }
@@ -38,6 +38,7 @@ import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.utils.AtlasPerfMetrics.MetricRecorder;
 import org.apache.atlas.v1.model.instance.Referenceable;
 import org.apache.atlas.v1.model.instance.Struct;
+import org.apache.atlas.discovery.LineageIndex;
 import org.apache.atlas.repository.converters.AtlasInstanceConverter;
 import org.apache.atlas.repository.graph.FullTextMapperV2;
 import org.apache.atlas.repository.graph.GraphHelper;
@@ -71,6 +72,7 @@ public class AtlasEntityChangeNotifier {
     private final AtlasInstanceConverter      instanceConverter;
     private final FullTextMapperV2            fullTextMapperV2;
     private final AtlasTypeRegistry           atlasTypeRegistry;
+    private final LineageIndex                lineageIndex;
     private final boolean                     isV2EntityNotificationEnabled;
 
 
@@ -79,16 +81,21 @@ public class AtlasEntityChangeNotifier {
                                      Set<EntityChangeListenerV2> entityChangeListenersV2,
                                      AtlasInstanceConverter instanceConverter,
                                      FullTextMapperV2 fullTextMapperV2,
-                                     AtlasTypeRegistry atlasTypeRegistry) {
+                                     AtlasTypeRegistry atlasTypeRegistry,
+                                     LineageIndex lineageIndex) {
         this.entityChangeListeners         = entityChangeListeners;
         this.entityChangeListenersV2       = entityChangeListenersV2;
         this.instanceConverter             = instanceConverter;
         this.fullTextMapperV2              = fullTextMapperV2;
         this.atlasTypeRegistry             = atlasTypeRegistry;
+        this.lineageIndex                  = lineageIndex;
         this.isV2EntityNotificationEnabled = AtlasRepositoryConfiguration.isV2EntityNotificationEnabled();
     }
 
     public void onEntitiesMutated(EntityMutationResponse entityMutationResponse, boolean isImport) throws AtlasBaseException {
+        lineageIndex.onEntitiesMutated(entityMutationResponse);
+        EntityCountTracker.onEntitiesMutated(entityMutationResponse);
+
         if (CollectionUtils.isEmpty(entityChangeListeners) || instanceConverter == null) {
             return;
         }
@@ -112,6 +119,10 @@ public class AtlasEntityChangeNotifier {
         notifyPropagatedEntities();
     }
 
+    public void onLineageEdgeMutated(String edgeLabel, AtlasVertex processVertex) {
+        lineageIndex.onLineageEdgeMutated(edgeLabel, processVertex);
+    }
+
     public void onClassificationAddedToEntity(AtlasEntity entity, List<AtlasClassification> addedClassifications) throws AtlasBaseException {
         if (isV2EntityNotificationEnabled) {
             doFullTextMapping(entity.getGuid());
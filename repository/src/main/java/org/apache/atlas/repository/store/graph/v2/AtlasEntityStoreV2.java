@@ -55,6 +55,7 @@ import java.util.*;
 
 import static org.apache.atlas.model.instance.EntityMutations.EntityOperation.DELETE;
 import static org.apache.atlas.model.instance.EntityMutations.EntityOperation.UPDATE;
+import static org.apache.atlas.repository.graph.GraphHelper.getTypeName;
 
 
 @Component
@@ -108,22 +109,38 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
     @Override
     @GraphTransaction
     public AtlasEntityWithExtInfo getById(final String guid, final boolean isMinExtInfo) throws AtlasBaseException {
+        return getById(guid, isMinExtInfo, EntityProjection.ALL);
+    }
+
+    @Override
+    @GraphTransaction
+    public AtlasEntityWithExtInfo getById(final String guid, final boolean isMinExtInfo, final EntityProjection projection) throws AtlasBaseException {
         if (LOG.isDebugEnabled()) {
-            LOG.debug("==> getById({}, {})", guid, isMinExtInfo);
+            LOG.debug("==> getById({}, {}, {})", guid, isMinExtInfo, projection);
         }
 
         EntityGraphRetriever entityRetriever = new EntityGraphRetriever(typeRegistry);
+        AtlasVertex          entityVertex    = entityRetriever.getEntityVertex(guid);
 
-        AtlasEntityWithExtInfo ret = entityRetriever.toAtlasEntityWithExtInfo(guid, isMinExtInfo);
+        // authorize against the entity header, as the projected entity might not include attributes used in policies
+        AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, entityRetriever.toAtlasEntityHeaderWithClassifications(entityVertex)), "read entity: guid=", guid);
+
+        if (!projection.isAll()) {
+            AtlasEntityType entityType = typeRegistry.getEntityTypeByName(getTypeName(entityVertex));
+
+            if (entityType != null) {
+                projection.validate(entityType);
+            }
+        }
+
+        AtlasEntityWithExtInfo ret = entityRetriever.toAtlasEntityWithExtInfo(entityVertex, isMinExtInfo, projection);
 
         if (ret == null) {
             throw new AtlasBaseException(AtlasErrorCode.INSTANCE_GUID_NOT_FOUND, guid);
         }
 
-        AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(ret.getEntity())), "read entity: guid=", guid);
-
         if (LOG.isDebugEnabled()) {
-            LOG.debug("<== getById({}, {}): {}", guid, isMinExtInfo, ret);
+            LOG.debug("<== getById({}, {}, {}): {}", guid, isMinExtInfo, projection, ret);
         }
 
         return ret;
@@ -196,25 +213,39 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
     @GraphTransaction
     public AtlasEntityWithExtInfo getByUniqueAttributes(AtlasEntityType entityType, Map<String, Object> uniqAttributes, boolean isMinExtInfo)
             throws AtlasBaseException {
+        return getByUniqueAttributes(entityType, uniqAttributes, isMinExtInfo, EntityProjection.ALL);
+    }
+
+    @Override
+    @GraphTransaction
+    public AtlasEntityWithExtInfo getByUniqueAttributes(AtlasEntityType entityType, Map<String, Object> uniqAttributes, boolean isMinExtInfo, EntityProjection projection)
+            throws AtlasBaseException {
         if (LOG.isDebugEnabled()) {
-            LOG.debug("==> getByUniqueAttribute({}, {})", entityType.getTypeName(), uniqAttributes);
+            LOG.debug("==> getByUniqueAttribute({}, {}, {})", entityType.getTypeName(), uniqAttributes, projection);
         }
 
         AtlasVertex entityVertex = AtlasGraphUtilsV2.getVertexByUniqueAttributes(entityType, uniqAttributes);
 
         EntityGraphRetriever entityRetriever = new EntityGraphRetriever(typeRegistry);
 
-        AtlasEntityWithExtInfo ret = entityRetriever.toAtlasEntityWithExtInfo(entityVertex, isMinExtInfo);
+        // authorize against the entity header, as the projected entity might not include attributes used in policies
+        AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, entityRetriever.toAtlasEntityHeaderWithClassifications(entityVertex)), "read entity: typeName=", entityType.getTypeName(), ", uniqueAttributes=", uniqAttributes);
+
+        if (!projection.isAll()) {
+            AtlasEntityType vertexEntityType = typeRegistry.getEntityTypeByName(getTypeName(entityVertex));
+
+            projection.validate(vertexEntityType != null ? vertexEntityType : entityType);
+        }
+
+        AtlasEntityWithExtInfo ret = entityRetriever.toAtlasEntityWithExtInfo(entityVertex, isMinExtInfo, projection);
 
         if (ret == null) {
             throw new AtlasBaseException(AtlasErrorCode.INSTANCE_BY_UNIQUE_ATTRIBUTE_NOT_FOUND, entityType.getTypeName(),
                                          uniqAttributes.toString());
         }
 
-        AtlasAuthorizationUtils.verifyAccess(new AtlasEntityAccessRequest(typeRegistry, AtlasPrivilege.ENTITY_READ, new AtlasEntityHeader(ret.getEntity())), "read entity: typeName=", entityType.getTypeName(), ", uniqueAttributes=", uniqAttributes);
-
         if (LOG.isDebugEnabled()) {
-            LOG.debug("<== getByUniqueAttribute({}, {}): {}", entityType.getTypeName(), uniqAttributes, ret);
+            LOG.debug("<== getByUniqueAttribute({}, {}, {}): {}", entityType.getTypeName(), uniqAttributes, projection, ret);
         }
 
         return ret;
@@ -711,6 +742,22 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
                     context.getUpdatedEntities().removeAll(entitiesToSkipUpdate);
                 }
 
+                List<AtlasObjectId> uniqAttrChanges = null;
+
+                for (AtlasEntity entity : context.getUpdatedEntities()) {
+                    AtlasObjectId uniqAttrChange = VertexIdCache.getUniqAttrChange(typeRegistry.getEntityTypeByName(entity.getTypeName()), entity, context.getVertex(entity.getGuid()));
+
+                    if (uniqAttrChange != null) {
+                        if (uniqAttrChanges == null) {
+                            uniqAttrChanges = new ArrayList<>();
+                        }
+
+                        uniqAttrChanges.add(uniqAttrChange);
+                    }
+                }
+
+                VertexIdCache.invalidateOnCommit(typeRegistry, uniqAttrChanges);
+
                 // Check if authorized to update entities
                 if (!RequestContext.get().isImportInProgress()) {
                     for (AtlasEntity entity : context.getUpdatedEntities()) {
@@ -847,6 +894,8 @@ public class AtlasEntityStoreV2 implements AtlasEntityStore {
             response.addEntity(DELETE, entity);
         }
 
+        VertexIdCache.invalidateOnCommit(typeRegistry, req.getDeletedEntities());
+
         for (AtlasObjectId entity : req.getUpdatedEntities()) {
             response.addEntity(UPDATE, entity);
         }
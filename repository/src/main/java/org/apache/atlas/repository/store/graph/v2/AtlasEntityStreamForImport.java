@@ -17,8 +17,15 @@
  */
 package org.apache.atlas.repository.store.graph.v2;
 
+import org.apache.atlas.entitytransform.BaseEntityHandler;
+import org.apache.atlas.model.impexp.AtlasExportResult;
 import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.impexp.ImportTransforms;
+
+import java.util.List;
 
 public class AtlasEntityStreamForImport extends AtlasEntityStream implements EntityImportStream {
     private int currentPosition = 0;
@@ -27,6 +34,10 @@ public class AtlasEntityStreamForImport extends AtlasEntityStream implements Ent
         super(entityWithExtInfo, entityStream);
     }
 
+    public AtlasEntityStreamForImport(AtlasEntitiesWithExtInfo entitiesWithExtInfo, EntityStream entityStream) {
+        super(entitiesWithExtInfo, entityStream);
+    }
+
     @Override
     public AtlasEntityWithExtInfo getNextEntityWithExtInfo() {
         currentPosition++;
@@ -48,7 +59,7 @@ public class AtlasEntityStreamForImport extends AtlasEntityStream implements Ent
 
     @Override
     public int size() {
-        return 1;
+        return entitiesWithExtInfo.getEntities().size();
     }
 
     @Override
@@ -69,4 +80,51 @@ public class AtlasEntityStreamForImport extends AtlasEntityStream implements Ent
     public void onImportComplete(String guid) {
 
     }
+
+    @Override
+    public AtlasEntityWithExtInfo getEntityWithExtInfo(String guid) {
+        AtlasEntity entity = getByGuid(guid);
+
+        return entity != null ? new AtlasEntityWithExtInfo(entity, super.entitiesWithExtInfo) : null;
+    }
+
+    @Override
+    public void setImportTransform(ImportTransforms importTransform) {
+        // not applicable for a single entity stream
+    }
+
+    @Override
+    public ImportTransforms getImportTransform() {
+        return null;
+    }
+
+    @Override
+    public void setEntityHandlers(List<BaseEntityHandler> entityHandlers) {
+        // not applicable for a single entity stream
+    }
+
+    @Override
+    public List<BaseEntityHandler> getEntityHandlers() {
+        return null;
+    }
+
+    @Override
+    public AtlasTypesDef getTypesDef() {
+        return null;
+    }
+
+    @Override
+    public AtlasExportResult getExportResult() {
+        return null;
+    }
+
+    @Override
+    public List<String> getCreationOrder() {
+        return null;
+    }
+
+    @Override
+    public void close() {
+
+    }
 }
@@ -284,6 +284,12 @@ public class AtlasGraphUtilsV2 {
                     continue;
                 }
 
+                vertex = VertexIdCache.getVertexByUniqueAttribute(AtlasGraphProvider.getGraphInstance(), entityType, attribute, attrValue);
+
+                if (vertex != null) {
+                    break;
+                }
+
                 if (canUseIndexQuery(entityType, attribute.getName())) {
                     vertex = AtlasGraphUtilsV2.getAtlasVertexFromIndexQuery(entityType, attribute, attrValue);
                 } else {
@@ -295,6 +301,8 @@ public class AtlasGraphUtilsV2 {
                     }
                 }
 
+                VertexIdCache.putUniqueAttribute(entityType, attribute, attrValue, vertex);
+
                 if (vertex != null) {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("findByUniqueAttributes(type={}, attrName={}, attrValue={}: found vertex {}",
@@ -312,12 +320,18 @@ public class AtlasGraphUtilsV2 {
     }
 
     public static AtlasVertex findByGuid(String guid) {
-        AtlasGraphQuery query = AtlasGraphProvider.getGraphInstance().query()
-                                                  .has(Constants.GUID_PROPERTY_KEY, guid);
+        AtlasVertex vertex = VertexIdCache.getVertexByGuid(AtlasGraphProvider.getGraphInstance(), guid);
 
-        Iterator<AtlasVertex> results = query.vertices().iterator();
+        if (vertex == null) {
+            AtlasGraphQuery query = AtlasGraphProvider.getGraphInstance().query()
+                                                      .has(Constants.GUID_PROPERTY_KEY, guid);
 
-        AtlasVertex vertex = results.hasNext() ? results.next() : null;
+            Iterator<AtlasVertex> results = query.vertices().iterator();
+
+            vertex = results.hasNext() ? results.next() : null;
+
+            VertexIdCache.putGuid(guid, vertex);
+        }
 
         return vertex;
     }
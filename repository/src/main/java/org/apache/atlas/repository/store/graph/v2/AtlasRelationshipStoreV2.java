@@ -124,6 +124,10 @@ public class AtlasRelationshipStoreV2 implements AtlasRelationshipStore {
 
         AtlasRelationship ret = edge != null ? entityRetriever.mapEdgeToAtlasRelationship(edge) : null;
 
+        if (edge != null) {
+            entityChangeNotifier.onLineageEdgeMutated(edge.getLabel(), edge.getOutVertex());
+        }
+
         if (LOG.isDebugEnabled()) {
             LOG.debug("<== create({}): {}", relationship, ret);
         }
@@ -278,8 +282,13 @@ public class AtlasRelationshipStoreV2 implements AtlasRelationshipStore {
         AtlasAuthorizationUtils.verifyAccess(new AtlasRelationshipAccessRequest(typeRegistry,AtlasPrivilege.RELATIONSHIP_REMOVE, relationShipType, end1Entity, end2Entity ));
 
 
+        String      edgeLabel = edge.getLabel();
+        AtlasVertex outVertex = edge.getOutVertex();
+
         deleteDelegate.getHandler().deleteRelationships(Collections.singleton(edge), forceDelete);
 
+        entityChangeNotifier.onLineageEdgeMutated(edgeLabel, outVertex);
+
         // notify entities for added/removed classification propagation
         entityChangeNotifier.notifyPropagatedEntities();
 
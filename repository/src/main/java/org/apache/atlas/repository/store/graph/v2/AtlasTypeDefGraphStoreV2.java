@@ -65,8 +65,9 @@ public class AtlasTypeDefGraphStoreV2 extends AtlasTypeDefGraphStore {
     @Inject
     public AtlasTypeDefGraphStoreV2(AtlasTypeRegistry typeRegistry,
                                     Set<TypeDefChangeListener> typeDefChangeListeners,
+                                    TypeDefVersionRegistry typeDefVersionRegistry,
                                     AtlasGraph atlasGraph) {
-        super(typeRegistry, typeDefChangeListeners);
+        super(typeRegistry, typeDefChangeListeners, typeDefVersionRegistry);
         this.atlasGraph = atlasGraph;
 
         LOG.debug("<== AtlasTypeDefGraphStoreV1()");
@@ -18,6 +18,7 @@
 package org.apache.atlas.repository.store.graph.v2;
 
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.exception.AtlasBaseException;
@@ -26,6 +27,7 @@ import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
 import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.repository.impexp.ProgressListener;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.BulkImporter;
 import org.slf4j.Logger;
@@ -52,6 +54,11 @@ public class BulkImporterImpl implements BulkImporter {
 
     @Override
     public EntityMutationResponse bulkImport(EntityImportStream entityStream, AtlasImportResult importResult) throws AtlasBaseException {
+        return bulkImport(entityStream, importResult, null);
+    }
+
+    @Override
+    public EntityMutationResponse bulkImport(EntityImportStream entityStream, AtlasImportResult importResult, ProgressListener progressListener) throws AtlasBaseException {
         if (LOG.isDebugEnabled()) {
             LOG.debug("==> bulkImport()");
         }
@@ -66,6 +73,12 @@ public class BulkImporterImpl implements BulkImporter {
         Set<String>  processedGuids = new HashSet<>();
         float        currentPercent = 0f;
         List<String> residualList   = new ArrayList<>();
+        int          numWorkers     = AtlasConfiguration.IMPORT_NUM_WORKERS.getInt();
+        int          batchSize      = AtlasConfiguration.IMPORT_BATCH_SIZE.getInt();
+
+        if (numWorkers > 1 || batchSize > 1) {
+            currentPercent = importInBatches(entityStream, importResult, ret, processedGuids, residualList, Math.max(batchSize, 1), Math.max(numWorkers, 1), progressListener);
+        }
 
         EntityImportStreamWithResidualList entityImportStreamWithResidualList = new EntityImportStreamWithResidualList(entityStream, residualList);
 
@@ -86,7 +99,7 @@ public class BulkImporterImpl implements BulkImporter {
                     ret.getGuidAssignments().putAll(resp.getGuidAssignments());
                 }
 
-                currentPercent = updateImportMetrics(entityWithExtInfo, resp, importResult, processedGuids, entityStream.getPosition(), entityImportStreamWithResidualList.getStreamSize(), currentPercent);
+                currentPercent = updateImportMetrics(entityWithExtInfo, resp, importResult, processedGuids, entityStream.getPosition(), entityImportStreamWithResidualList.getStreamSize(), currentPercent, progressListener);
 
                 entityStream.onImportComplete(entity.getGuid());
             } catch (AtlasBaseException e) {
@@ -111,8 +124,65 @@ public class BulkImporterImpl implements BulkImporter {
     }
 
 
+    /*
+     * Reads entities from the stream on the calling thread and imports them in batches using a pool of workers.
+     * Entities that failed due to references not yet imported are added to residualList, to be retried sequentially.
+     */
+    private float importInBatches(EntityImportStream entityStream, AtlasImportResult importResult, EntityMutationResponse ret,
+                                  Set<String> processedGuids, List<String> residualList, int batchSize, int numWorkers,
+                                  ProgressListener progressListener) throws AtlasBaseException {
+        EntityImportProcessManager processManager = new EntityImportProcessManager(entityStore, entityStream, batchSize, numWorkers);
+        float                      currentPercent = 0f;
+
+        try {
+            while (entityStream.hasNext()) {
+                AtlasEntityWithExtInfo entityWithExtInfo = entityStream.getNextEntityWithExtInfo();
+
+                if (entityWithExtInfo == null || entityWithExtInfo.getEntity() == null) {
+                    continue;
+                }
+
+                processManager.add(entityWithExtInfo, entityStream.getPosition());
+
+                currentPercent = updateImportMetrics(processManager.getCompletedBatches(), importResult, ret, processedGuids, residualList, entityStream.size(), currentPercent, progressListener);
+            }
+
+            currentPercent = updateImportMetrics(processManager.drain(), importResult, ret, processedGuids, residualList, entityStream.size(), currentPercent, progressListener);
+        } finally {
+            processManager.shutdown();
+        }
+
+        return currentPercent;
+    }
+
+    private float updateImportMetrics(List<EntityImportProcessManager.ImportBatch> batches, AtlasImportResult importResult, EntityMutationResponse ret,
+                                      Set<String> processedGuids, List<String> residualList, int streamSize, float currentPercent,
+                                      ProgressListener progressListener) throws AtlasBaseException {
+        for (EntityImportProcessManager.ImportBatch batch : batches) {
+            if (batch.getFailure() != null) {
+                throw batch.getFailure();
+            }
+
+            residualList.addAll(batch.getResidualList());
+
+            for (EntityMutationResponse resp : batch.getResponses()) {
+                if (resp.getGuidAssignments() != null) {
+                    ret.getGuidAssignments().putAll(resp.getGuidAssignments());
+                }
+
+                currentPercent = updateImportMetrics(batch.getLastEntity(), resp, importResult, processedGuids, batch.getPosition(), streamSize + residualList.size(), currentPercent, progressListener);
+            }
+        }
+
+        return currentPercent;
+    }
+
+    static boolean isResidualFailure(AtlasBaseException e) {
+        return e.getAtlasErrorCode().getErrorCode().equals(AtlasErrorCode.INVALID_OBJECT_ID.getErrorCode());
+    }
+
     private boolean updateResidualList(AtlasBaseException e, List<String> lineageList, String guid) {
-        if (!e.getAtlasErrorCode().getErrorCode().equals(AtlasErrorCode.INVALID_OBJECT_ID.getErrorCode())) {
+        if (!isResidualFailure(e)) {
             return false;
         }
 
@@ -125,11 +195,16 @@ public class BulkImporterImpl implements BulkImporter {
                                       EntityMutationResponse             resp,
                                       AtlasImportResult                  importResult,
                                       Set<String>                        processedGuids,
-                                      int currentIndex, int streamSize, float currentPercent) {
+                                      int currentIndex, int streamSize, float currentPercent,
+                                      ProgressListener                   progressListener) {
         updateImportMetrics("entity:%s:created", resp.getCreatedEntities(), processedGuids, importResult);
         updateImportMetrics("entity:%s:updated", resp.getUpdatedEntities(), processedGuids, importResult);
         updateImportMetrics("entity:%s:deleted", resp.getDeletedEntities(), processedGuids, importResult);
 
+        if (progressListener != null) {
+            progressListener.onProgress(currentIndex, Math.max(currentIndex, streamSize));
+        }
+
         String lastEntityImported = String.format("entity:last-imported:%s:[%s]:(%s)", currentEntity.getEntity().getTypeName(), currentIndex, currentEntity.getEntity().getGuid());
 
         return updateImportProgress(LOG, currentIndex, streamSize, currentPercent, lastEntityImported);
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.apache.atlas.repository.Constants.ENTITY_COUNTS_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.ENTITY_COUNTS_SAVED_TIME;
+import static org.apache.atlas.repository.Constants.ENTITY_COUNTS_TYPE_NAME;
+import static org.apache.atlas.repository.Constants.VERTEX_TYPE_PROPERTY_KEY;
+
+/**
+ * Stores the counts kept by EntityCountTracker in a vertex in the graph.
+ */
+@Component
+public class EntityCountRegistry {
+    private final AtlasGraph graph;
+
+    @Inject
+    public EntityCountRegistry(AtlasGraph graph) {
+        this.graph = graph;
+    }
+
+    @GraphTransaction
+    public void save(Map<String, Map<String, Long>> counts) {
+        AtlasVertex vertex = findVertex();
+
+        if (vertex == null) {
+            vertex = graph.addVertex();
+
+            AtlasGraphUtilsV2.setEncodedProperty(vertex, VERTEX_TYPE_PROPERTY_KEY, ENTITY_COUNTS_TYPE_NAME);
+        }
+
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, ENTITY_COUNTS_PROPERTY_KEY, AtlasType.toJson(counts));
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, ENTITY_COUNTS_SAVED_TIME, System.currentTimeMillis());
+    }
+
+    /**
+     * @return counts saved earlier; null if counts were never saved
+     */
+    @GraphTransaction
+    public Map<String, Map<String, Number>> load() {
+        AtlasVertex vertex = findVertex();
+        String      counts = vertex != null ? AtlasGraphUtilsV2.getEncodedProperty(vertex, ENTITY_COUNTS_PROPERTY_KEY, String.class) : null;
+
+        return StringUtils.isNotEmpty(counts) ? AtlasType.fromJson(counts, Map.class) : null;
+    }
+
+    /**
+     * @return time the counts were last saved at; 0 if counts were never saved
+     */
+    @GraphTransaction
+    public long getSavedTime() {
+        AtlasVertex vertex    = findVertex();
+        Long        savedTime = vertex != null ? AtlasGraphUtilsV2.getEncodedProperty(vertex, ENTITY_COUNTS_SAVED_TIME, Long.class) : null;
+
+        return savedTime != null ? savedTime : 0;
+    }
+
+    private AtlasVertex findVertex() {
+        Iterator<AtlasVertex> vertices = graph.query().has(VERTEX_TYPE_PROPERTY_KEY, ENTITY_COUNTS_TYPE_NAME).vertices().iterator();
+
+        return vertices.hasNext() ? vertices.next() : null;
+    }
+}
@@ -0,0 +1,515 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.model.instance.AtlasEntity.Status;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.atlas.discovery.SearchProcessor.AND_STR;
+import static org.apache.atlas.model.instance.AtlasEntity.Status.ACTIVE;
+import static org.apache.atlas.model.instance.AtlasEntity.Status.DELETED;
+import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.STATE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.VERTEX_INDEX;
+
+/**
+ * Keeps count of entities, by type and state, and of classifications, by type, so that metrics can be served without
+ * an index query per type.
+ *
+ * Counts are updated as entities and classifications are created and deleted; updates made in a graph transaction are
+ * applied once the transaction commits. Counts are saved in the graph periodically and on stop. When this server
+ * becomes active, saved counts are loaded and served. A full recount from the index, in parallel batches of types, is
+ * started only when no counts were saved or the saved counts are older than atlas.metrics.counts.max.age.secs; else
+ * a recount, to correct any drift like updates made after the last save by a server that went down, is to be requested.
+ *
+ * Counts are tracked only while this server is active; see isTracking().
+ */
+@Component
+public class EntityCountTracker implements Service, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCountTracker.class);
+
+    public static final String METRIC_RECOUNT_IN_PROGRESS   = "recountInProgress";
+    public static final String METRIC_RECOUNT_COUNT         = "recountCount";
+    public static final String METRIC_LAST_RECOUNT_TIME     = "lastRecountTime";
+    public static final String METRIC_LAST_RECOUNT_DURATION = "lastRecountDurationMs";
+    public static final String METRIC_LAST_SAVE_TIME        = "lastSaveTime";
+    public static final String METRIC_UPDATES_APPLIED       = "updatesApplied";
+    public static final String METRIC_UPDATES_DISCARDED     = "updatesDiscarded";
+
+    public static final String KEY_ACTIVE_ENTITIES  = "activeEntities";
+    public static final String KEY_DELETED_ENTITIES = "deletedEntities";
+    public static final String KEY_CLASSIFICATIONS  = "classifications";
+
+    private static final ConcurrentMap<String, LongAdder> ACTIVE_ENTITIES   = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongAdder> DELETED_ENTITIES  = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LongAdder> CLASSIFICATIONS   = new ConcurrentHashMap<>();
+    private static final ThreadLocal<CountUpdateHook>     UPDATE_HOOKS      = new ThreadLocal<>();
+    private static final AtomicLong                       UPDATES_APPLIED   = new AtomicLong();
+    private static final AtomicLong                       UPDATES_DISCARDED = new AtomicLong();
+
+    private final Configuration            configuration;
+    private final AtlasGraph               graph;
+    private final AtlasTypeRegistry        typeRegistry;
+    private final EntityCountRegistry      registry;
+    private final int                      saveIntervalSecs;
+    private final int                      recountThreads;
+    private final int                      recountBatchSize;
+    private final long                     countsMaxAgeMs;
+    private final String                   indexSearchPrefix = AtlasGraphUtilsV2.getIndexSearchPrefix();
+    private final ExecutorService          recountExecutor;
+    private final AtomicLong               recountCount      = new AtomicLong();
+    private ScheduledExecutorService       saveExecutor;
+    private Future<?>                      recountFuture;
+    private volatile long                  lastRecountTime     = 0;
+    private volatile long                  lastRecountDuration = 0;
+    private volatile long                  lastSaveTime        = 0;
+    private volatile boolean               isTracking          = false;
+
+    @Inject
+    public EntityCountTracker(Configuration configuration, AtlasGraph graph, AtlasTypeRegistry typeRegistry, EntityCountRegistry registry) {
+        this.configuration    = configuration;
+        this.graph            = graph;
+        this.typeRegistry     = typeRegistry;
+        this.registry         = registry;
+        this.saveIntervalSecs = AtlasConfiguration.METRICS_COUNTS_SAVE_INTERVAL_SECS.getInt();
+        this.recountThreads   = Math.max(AtlasConfiguration.METRICS_RECOUNT_THREADS.getInt(), 1);
+        this.recountBatchSize = Math.max(AtlasConfiguration.METRICS_RECOUNT_BATCH_SIZE.getInt(), 1);
+        this.countsMaxAgeMs   = AtlasConfiguration.METRICS_COUNTS_MAX_AGE_SECS.getLong() * 1000;
+        this.recountExecutor  = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-entity-recount-%d").setDaemon(true).build());
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (!HAConfiguration.isHAEnabled(configuration)) {
+            startTracking();
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopTracking();
+    }
+
+    @Override
+    public void instanceIsActive() {
+        startTracking();
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        stopTracking();
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.ENTITY_COUNT_TRACKER.getOrder();
+    }
+
+    /**
+     * Records creation and deletion of entities in the given mutation; to be called within the transaction that made
+     * the changes. A change in the state of an existing entity is recorded by onEntityStateChanged().
+     */
+    public static void onEntitiesMutated(EntityMutationResponse mutationResponse) {
+        if (mutationResponse == null) {
+            return;
+        }
+
+        if (CollectionUtils.isNotEmpty(mutationResponse.getCreatedEntities())) {
+            for (AtlasEntityHeader entity : mutationResponse.getCreatedEntities()) {
+                getUpdateHook().add(KEY_ACTIVE_ENTITIES, entity.getTypeName(), 1);
+            }
+        }
+
+        if (CollectionUtils.isNotEmpty(mutationResponse.getDeletedEntities())) {
+            for (AtlasEntityHeader entity : mutationResponse.getDeletedEntities()) {
+                CountUpdateHook hook = getUpdateHook();
+
+                hook.add(KEY_ACTIVE_ENTITIES, entity.getTypeName(), -1);
+
+                if (AtlasGraphUtilsV2.findByGuid(entity.getGuid()) != null) { // soft-delete; otherwise the vertex was removed
+                    hook.add(KEY_DELETED_ENTITIES, entity.getTypeName(), 1);
+                }
+            }
+        }
+    }
+
+    public static void onEntityStateChanged(String typeName, Status oldState, Status newState) {
+        if (oldState == newState) {
+            return;
+        }
+
+        CountUpdateHook hook = getUpdateHook();
+
+        hook.add(oldState == DELETED ? KEY_DELETED_ENTITIES : KEY_ACTIVE_ENTITIES, typeName, -1);
+        hook.add(newState == DELETED ? KEY_DELETED_ENTITIES : KEY_ACTIVE_ENTITIES, typeName, 1);
+    }
+
+    public static void onClassificationVertexCreated(String classificationName) {
+        getUpdateHook().add(KEY_CLASSIFICATIONS, classificationName, 1);
+    }
+
+    public static void onClassificationVertexDeleted(String classificationName) {
+        getUpdateHook().add(KEY_CLASSIFICATIONS, classificationName, -1);
+    }
+
+    public static long getActiveEntityCount(String typeName) {
+        return getCount(ACTIVE_ENTITIES, typeName);
+    }
+
+    public static long getDeletedEntityCount(String typeName) {
+        return getCount(DELETED_ENTITIES, typeName);
+    }
+
+    public static long getClassificationCount(String classificationName) {
+        return getCount(CLASSIFICATIONS, classificationName);
+    }
+
+    /**
+     * Starts recounting entities and classifications from the index in the background, unless a recount is already
+     * in progress.
+     *
+     * @return the recount in progress
+     */
+    public synchronized Future<?> recount() {
+        if (recountFuture == null || recountFuture.isDone()) {
+            recountFuture = recountExecutor.submit(() -> {
+                try {
+                    doRecount();
+                } catch (Throwable t) {
+                    LOG.error("EntityCountTracker: recount failed", t);
+                }
+            });
+        }
+
+        return recountFuture;
+    }
+
+    /**
+     * @return true if counts are being tracked, i.e. this server is active; otherwise counts might not reflect updates
+     * made by the active server, and countFromIndex() should be used instead
+     */
+    public boolean isTracking() {
+        return isTracking;
+    }
+
+    /**
+     * Counts entities and classifications from the index, without updating tracked counts.
+     *
+     * @return counts by type; keys are KEY_ACTIVE_ENTITIES, KEY_DELETED_ENTITIES and KEY_CLASSIFICATIONS
+     */
+    public Map<String, Map<String, Long>> countFromIndex() throws Exception {
+        ConcurrentMap<String, LongAdder> activeEntities  = new ConcurrentHashMap<>();
+        ConcurrentMap<String, LongAdder> deletedEntities = new ConcurrentHashMap<>();
+        ConcurrentMap<String, LongAdder> classifications = new ConcurrentHashMap<>();
+
+        countFromIndex(activeEntities, deletedEntities, classifications);
+
+        Map<String, Map<String, Long>> ret = new HashMap<>();
+
+        ret.put(KEY_ACTIVE_ENTITIES, toMap(activeEntities));
+        ret.put(KEY_DELETED_ENTITIES, toMap(deletedEntities));
+        ret.put(KEY_CLASSIFICATIONS, toMap(classifications));
+
+        return ret;
+    }
+
+    public synchronized boolean isRecountInProgress() {
+        return recountFuture != null && !recountFuture.isDone();
+    }
+
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> ret = new LinkedHashMap<>();
+
+        ret.put(METRIC_RECOUNT_IN_PROGRESS, isRecountInProgress());
+        ret.put(METRIC_RECOUNT_COUNT, recountCount.get());
+        ret.put(METRIC_LAST_RECOUNT_TIME, lastRecountTime);
+        ret.put(METRIC_LAST_RECOUNT_DURATION, lastRecountDuration);
+        ret.put(METRIC_LAST_SAVE_TIME, lastSaveTime);
+        ret.put(METRIC_UPDATES_APPLIED, UPDATES_APPLIED.get());
+        ret.put(METRIC_UPDATES_DISCARDED, UPDATES_DISCARDED.get());
+
+        return ret;
+    }
+
+    public static Map<String, Map<String, Long>> getCounts() {
+        Map<String, Map<String, Long>> ret = new HashMap<>();
+
+        ret.put(KEY_ACTIVE_ENTITIES, toMap(ACTIVE_ENTITIES));
+        ret.put(KEY_DELETED_ENTITIES, toMap(DELETED_ENTITIES));
+        ret.put(KEY_CLASSIFICATIONS, toMap(CLASSIFICATIONS));
+
+        return ret;
+    }
+
+    @VisibleForTesting
+    static void setCounts(Map<String, Map<String, Number>> counts) {
+        setCounts(ACTIVE_ENTITIES, counts.get(KEY_ACTIVE_ENTITIES));
+        setCounts(DELETED_ENTITIES, counts.get(KEY_DELETED_ENTITIES));
+        setCounts(CLASSIFICATIONS, counts.get(KEY_CLASSIFICATIONS));
+    }
+
+    private synchronized void startTracking() {
+        Map<String, Map<String, Number>> savedCounts = null;
+        long                             savedTime   = 0;
+
+        try {
+            savedCounts = registry.load();
+            savedTime   = registry.getSavedTime();
+        } catch (Exception excp) {
+            LOG.warn("EntityCountTracker: failed to load saved counts", excp);
+        }
+
+        final boolean needsRecount;
+
+        if (savedCounts == null) {
+            needsRecount = true;
+
+            LOG.info("EntityCountTracker: saved counts not found; starting recount");
+        } else {
+            setCounts(savedCounts);
+
+            long age = System.currentTimeMillis() - savedTime;
+
+            needsRecount = countsMaxAgeMs > 0 && age > countsMaxAgeMs;
+
+            if (needsRecount) {
+                LOG.info("EntityCountTracker: loaded saved counts, saved {} ms ago; starting recount as they are stale", age);
+            } else {
+                LOG.info("EntityCountTracker: loaded saved counts, saved {} ms ago", age);
+            }
+        }
+
+        isTracking = true;
+
+        if (needsRecount) {
+            recount();
+        }
+
+        if (saveExecutor == null && saveIntervalSecs > 0) {
+            saveExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("atlas-entity-count-save-%d").setDaemon(true).build());
+
+            saveExecutor.scheduleWithFixedDelay(this::saveCounts, saveIntervalSecs, saveIntervalSecs, TimeUnit.SECONDS);
+        }
+    }
+
+    private synchronized void stopTracking() {
+        isTracking = false;
+
+        if (saveExecutor != null) {
+            saveExecutor.shutdownNow();
+
+            saveExecutor = null;
+
+            saveCounts();
+        }
+    }
+
+    private void saveCounts() {
+        try {
+            registry.save(getCounts());
+
+            lastSaveTime = System.currentTimeMillis();
+        } catch (Throwable t) {
+            LOG.warn("EntityCountTracker: failed to save counts", t);
+        }
+    }
+
+    private void doRecount() throws Exception {
+        long startTime  = System.currentTimeMillis();
+        int  numBatches = countFromIndex(ACTIVE_ENTITIES, DELETED_ENTITIES, CLASSIFICATIONS);
+
+        lastRecountTime     = System.currentTimeMillis();
+        lastRecountDuration = lastRecountTime - startTime;
+
+        recountCount.incrementAndGet();
+
+        LOG.info("EntityCountTracker: recount of {} batches completed in {} ms", numBatches, lastRecountDuration);
+
+        synchronized (this) {
+            if (saveExecutor != null) {
+                saveCounts();
+            }
+        }
+    }
+
+    /**
+     * @return number of batches the types were counted in
+     */
+    private int countFromIndex(ConcurrentMap<String, LongAdder> activeEntities, ConcurrentMap<String, LongAdder> deletedEntities,
+                               ConcurrentMap<String, LongAdder> classifications) throws Exception {
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (List<String> typeNames : Lists.partition(new ArrayList<>(typeRegistry.getAllEntityDefNames()), recountBatchSize)) {
+            tasks.add(() -> {
+                for (String typeName : typeNames) {
+                    recountType(activeEntities, typeName, ACTIVE);
+                    recountType(deletedEntities, typeName, DELETED);
+                }
+
+                return null;
+            });
+        }
+
+        for (List<String> classificationNames : Lists.partition(new ArrayList<>(typeRegistry.getAllClassificationDefNames()), recountBatchSize)) {
+            tasks.add(() -> {
+                for (String classificationName : classificationNames) {
+                    recountType(classifications, classificationName, ACTIVE);
+                }
+
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(recountThreads, new ThreadFactoryBuilder().setNameFormat("atlas-entity-recount-worker-%d").setDaemon(true).build());
+
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return tasks.size();
+    }
+
+    // updates that commit while the index is being queried are retained, by adding the difference to the counter
+    private void recountType(ConcurrentMap<String, LongAdder> counters, String typeName, Status status) {
+        LongAdder counter = getCounter(counters, typeName);
+        long      before  = counter.sum();
+        String    query   = indexSearchPrefix + "\"" + ENTITY_TYPE_PROPERTY_KEY + "\" : (" + typeName + ")" + AND_STR +
+                            indexSearchPrefix + "\"" + STATE_PROPERTY_KEY + "\" : (" + status.name() + ")";
+
+        counter.add(graph.indexQuery(VERTEX_INDEX, query).vertexTotals() - before);
+    }
+
+    private static CountUpdateHook getUpdateHook() {
+        CountUpdateHook ret = UPDATE_HOOKS.get();
+
+        if (ret == null) {
+            ret = new CountUpdateHook();
+
+            UPDATE_HOOKS.set(ret);
+        }
+
+        return ret;
+    }
+
+    private static LongAdder getCounter(ConcurrentMap<String, LongAdder> counters, String typeName) {
+        return counters.computeIfAbsent(typeName, k -> new LongAdder());
+    }
+
+    private static long getCount(ConcurrentMap<String, LongAdder> counters, String typeName) {
+        LongAdder counter = counters.get(typeName);
+
+        return counter != null ? Math.max(counter.sum(), 0) : 0;
+    }
+
+    private static Map<String, Long> toMap(ConcurrentMap<String, LongAdder> counters) {
+        Map<String, Long> ret = new HashMap<>();
+
+        for (Map.Entry<String, LongAdder> entry : counters.entrySet()) {
+            long count = entry.getValue().sum();
+
+            if (count != 0) {
+                ret.put(entry.getKey(), count);
+            }
+        }
+
+        return ret;
+    }
+
+    private static void setCounts(ConcurrentMap<String, LongAdder> counters, Map<String, Number> counts) {
+        for (LongAdder counter : counters.values()) {
+            counter.reset();
+        }
+
+        if (MapUtils.isNotEmpty(counts)) {
+            for (Map.Entry<String, Number> entry : counts.entrySet()) {
+                getCounter(counters, entry.getKey()).add(entry.getValue().longValue());
+            }
+        }
+    }
+
+    private static void apply(ConcurrentMap<String, LongAdder> counters, Map<String, Long> deltas) {
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            getCounter(counters, entry.getKey()).add(entry.getValue());
+        }
+    }
+
+    private static class CountUpdateHook extends GraphTransactionInterceptor.PostTransactionHook {
+        private final Map<String, Map<String, Long>> deltas = new HashMap<>();
+
+        void add(String key, String typeName, long delta) {
+            if (typeName != null) {
+                deltas.computeIfAbsent(key, k -> new HashMap<>()).merge(typeName, delta, Long::sum);
+            }
+        }
+
+        @Override
+        public void onComplete(boolean isSuccess) {
+            UPDATE_HOOKS.remove();
+
+            if (isSuccess) {
+                apply(ACTIVE_ENTITIES, deltas.getOrDefault(KEY_ACTIVE_ENTITIES, Collections.emptyMap()));
+                apply(DELETED_ENTITIES, deltas.getOrDefault(KEY_DELETED_ENTITIES, Collections.emptyMap()));
+                apply(CLASSIFICATIONS, deltas.getOrDefault(KEY_CLASSIFICATIONS, Collections.emptyMap()));
+
+                UPDATES_APPLIED.incrementAndGet();
+            } else {
+                UPDATES_DISCARDED.incrementAndGet();
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.atlas.repository.store.graph.v2;
 import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.RequestContext;
+import org.apache.atlas.annotation.GraphTransaction;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.TimeBoundary;
 import org.apache.atlas.model.TypeCategory;
@@ -43,6 +44,8 @@ import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.repository.store.graph.AtlasRelationshipStore;
 import org.apache.atlas.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory;
+import org.apache.atlas.tasks.TaskManagement;
 import org.apache.atlas.type.AtlasArrayType;
 import org.apache.atlas.type.AtlasBuiltInTypes;
 import org.apache.atlas.type.AtlasClassificationType;
@@ -99,11 +102,12 @@ public class EntityGraphMapper {
     private final AtlasEntityChangeNotifier entityChangeNotifier;
     private final AtlasInstanceConverter    instanceConverter;
     private final EntityGraphRetriever      entityRetriever;
+    private final TaskManagement            taskManagement;
 
     @Inject
     public EntityGraphMapper(DeleteHandlerDelegate deleteDelegate, AtlasTypeRegistry typeRegistry, AtlasGraph atlasGraph,
                              AtlasRelationshipStore relationshipStore, AtlasEntityChangeNotifier entityChangeNotifier,
-                             AtlasInstanceConverter instanceConverter) {
+                             AtlasInstanceConverter instanceConverter, TaskManagement taskManagement) {
         this.deleteDelegate       = deleteDelegate;
         this.typeRegistry         = typeRegistry;
         this.graph                = atlasGraph;
@@ -111,6 +115,7 @@ public class EntityGraphMapper {
         this.entityChangeNotifier = entityChangeNotifier;
         this.instanceConverter    = instanceConverter;
         this.entityRetriever      = new EntityGraphRetriever(typeRegistry);
+        this.taskManagement       = taskManagement;
     }
 
     public AtlasVertex createVertex(AtlasEntity entity) {
@@ -139,7 +144,11 @@ public class EntityGraphMapper {
 
     public void updateSystemAttributes(AtlasVertex vertex, AtlasEntity entity) {
         if (entity.getStatus() != null) {
+            AtlasEntity.Status currentStatus = getStatus(vertex);
+
             AtlasGraphUtilsV2.setEncodedProperty(vertex, STATE_PROPERTY_KEY, entity.getStatus().name());
+
+            EntityCountTracker.onEntityStateChanged(entity.getTypeName(), currentStatus, entity.getStatus());
         }
 
         if (entity.getVersion() != null) {
@@ -279,6 +288,8 @@ public class EntityGraphMapper {
         AtlasGraphUtilsV2.setEncodedProperty(ret, CLASSIFICATION_ENTITY_GUID, classification.getEntityGuid());
         AtlasGraphUtilsV2.setEncodedProperty(ret, CLASSIFICATION_ENTITY_STATUS, classification.getEntityStatus().name());
 
+        EntityCountTracker.onClassificationVertexCreated(classification.getTypeName());
+
         return ret;
     }
 
@@ -1366,6 +1377,8 @@ public class EntityGraphMapper {
                 //Resurrect the vertex and edge to ACTIVE state
                 AtlasGraphUtilsV2.setEncodedProperty(edge, STATE_PROPERTY_KEY, ACTIVE.name());
                 AtlasGraphUtilsV2.setEncodedProperty(edge.getInVertex(), STATE_PROPERTY_KEY, ACTIVE.name());
+
+                EntityCountTracker.onEntityStateChanged(getTypeName(edge.getInVertex()), DELETED, ACTIVE);
             }
         }
     }
@@ -1440,7 +1453,9 @@ public class EntityGraphMapper {
                 mapClassification(EntityOperation.CREATE, context, classification, entityType, entityVertex, classificationVertex);
                 updateModificationMetadata(entityVertex);
 
-                if (propagateTags) {
+                if (propagateTags && isDeferredPropagation()) {
+                    createPropagateTask(ClassificationPropagateTaskFactory.CLASSIFICATION_PROPAGATION_ADD, guid, classificationName, null);
+                } else if (propagateTags) {
                     // compute propagatedEntityVertices only once
                     if (entitiesToPropagateTo == null) {
                         entitiesToPropagateTo = graphHelper.getImpactedVertices(guid);
@@ -1546,7 +1561,10 @@ public class EntityGraphMapper {
         AtlasClassification classification       = entityRetriever.toAtlasClassification(classificationVertex);
 
         // remove classification from propagated entities if propagation is turned on
-        if (isPropagationEnabled(classificationVertex)) {
+        if (isPropagationEnabled(classificationVertex) && isDeferredPropagation()) {
+            // classificationVertex is retained, since propagated edges refer to it, until the task removes them
+            createPropagateTask(ClassificationPropagateTaskFactory.CLASSIFICATION_PROPAGATION_DELETE, entityGuid, classificationName, classificationVertex.getIdForDisplay());
+        } else if (isPropagationEnabled(classificationVertex)) {
             List<AtlasVertex> propagatedEntityVertices = deleteDelegate.getHandler().removeTagPropagation(classificationVertex);
 
             // add propagated entities and deleted classification details to removeClassifications map
@@ -1699,7 +1717,11 @@ public class EntityGraphMapper {
 
             // compute propagatedEntityVertices once and use it for subsequent iterations and notifications
             if (updatedTagPropagation != null && currentTagPropagation != updatedTagPropagation) {
-                if (updatedTagPropagation) {
+                if (isDeferredPropagation()) {
+                    String taskType = updatedTagPropagation ? ClassificationPropagateTaskFactory.CLASSIFICATION_PROPAGATION_ADD : ClassificationPropagateTaskFactory.CLASSIFICATION_PROPAGATION_DELETE;
+
+                    createPropagateTask(taskType, guid, classificationName, classificationVertex.getIdForDisplay());
+                } else if (updatedTagPropagation) {
                     if (CollectionUtils.isEmpty(entitiesToPropagateTo)) {
                         entitiesToPropagateTo = graphHelper.getImpactedVerticesWithRestrictions(guid, classificationVertex.getIdForDisplay());
                     }
@@ -1774,6 +1796,123 @@ public class EntityGraphMapper {
         }
     }
 
+    /**
+     * @return ids of vertices the given classification is to be propagated to; empty if the classification is no
+     * longer associated with the entity, or its propagation is disabled
+     */
+    @GraphTransaction
+    public List<String> getClassificationPropagationTargets(String entityGuid, String classificationName) throws AtlasBaseException {
+        List<String> ret                  = new ArrayList<>();
+        AtlasVertex  classificationVertex = getPropagatingClassificationVertex(entityGuid, classificationName);
+
+        if (classificationVertex != null) {
+            List<AtlasVertex> impactedVertices = graphHelper.getImpactedVerticesWithRestrictions(entityGuid, classificationVertex.getIdForDisplay());
+
+            for (AtlasVertex impactedVertex : impactedVertices) {
+                ret.add(impactedVertex.getIdForDisplay());
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Propagates the classification to the given vertices, in a transaction of its own.
+     * @return number of vertices the classification was propagated to
+     */
+    @GraphTransaction
+    public int propagateClassification(String entityGuid, String classificationName, List<String> vertexIds) throws AtlasBaseException {
+        int         ret                  = 0;
+        AtlasVertex classificationVertex = getPropagatingClassificationVertex(entityGuid, classificationName);
+
+        if (classificationVertex != null && CollectionUtils.isNotEmpty(vertexIds)) {
+            List<AtlasVertex> entityVertices = new ArrayList<>(vertexIds.size());
+
+            for (String vertexId : vertexIds) {
+                AtlasVertex vertex = graph.getVertex(vertexId);
+
+                if (vertex != null) {
+                    entityVertices.add(vertex);
+                }
+            }
+
+            List<AtlasVertex> propagatedTo = deleteDelegate.getHandler().addTagPropagation(classificationVertex, entityVertices);
+
+            entityChangeNotifier.notifyPropagatedEntities();
+
+            ret = propagatedTo != null ? propagatedTo.size() : 0;
+        }
+
+        return ret;
+    }
+
+    /**
+     * Removes up to maxCount propagations of the given classification vertex, in a transaction of its own.
+     * @return number of propagations removed
+     */
+    @GraphTransaction
+    public int removeClassificationPropagation(String classificationVertexId, int maxCount) throws AtlasBaseException {
+        int         ret                  = 0;
+        AtlasVertex classificationVertex = graph.getVertex(classificationVertexId);
+
+        if (classificationVertex != null) {
+            List<AtlasEdge> propagatedEdges = getPropagatedEdges(classificationVertex);
+
+            if (CollectionUtils.isNotEmpty(propagatedEdges)) {
+                AtlasClassification classification = entityRetriever.toAtlasClassification(classificationVertex);
+                RequestContext      requestContext = RequestContext.get();
+
+                for (AtlasEdge propagatedEdge : propagatedEdges.subList(0, Math.min(maxCount, propagatedEdges.size()))) {
+                    requestContext.recordRemovedPropagation(GraphHelper.getGuid(propagatedEdge.getOutVertex()), classification);
+
+                    deleteDelegate.getHandler().deletePropagatedEdge(propagatedEdge);
+
+                    ret++;
+                }
+
+                entityChangeNotifier.notifyPropagatedEntities();
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Deletes the classification vertex, if it is no longer associated with any entity.
+     */
+    @GraphTransaction
+    public void deleteClassificationVertexIfUnused(String classificationVertexId) {
+        AtlasVertex classificationVertex = graph.getVertex(classificationVertexId);
+
+        if (classificationVertex != null) {
+            deleteDelegate.getHandler().deleteClassificationVertex(classificationVertex, true);
+        }
+    }
+
+    private AtlasVertex getPropagatingClassificationVertex(String entityGuid, String classificationName) {
+        AtlasVertex entityVertex         = AtlasGraphUtilsV2.findByGuid(entityGuid);
+        AtlasVertex classificationVertex = entityVertex != null ? getClassificationVertex(entityVertex, classificationName) : null;
+
+        return classificationVertex != null && isPropagationEnabled(classificationVertex) ? classificationVertex : null;
+    }
+
+    private boolean isDeferredPropagation() {
+        return taskManagement != null && taskManagement.isEnabled();
+    }
+
+    private void createPropagateTask(String taskType, String entityGuid, String classificationName, String classificationVertexId) throws AtlasBaseException {
+        Map<String, Object> parameters = new HashMap<>();
+
+        parameters.put(ClassificationPropagateTaskFactory.PARAM_ENTITY_GUID, entityGuid);
+        parameters.put(ClassificationPropagateTaskFactory.PARAM_CLASSIFICATION_NAME, classificationName);
+
+        if (classificationVertexId != null) {
+            parameters.put(ClassificationPropagateTaskFactory.PARAM_CLASSIFICATION_VERTEX_ID, classificationVertexId);
+        }
+
+        taskManagement.createTask(taskType, RequestContext.get().getUser(), parameters);
+    }
+
     private AtlasEdge mapClassification(EntityOperation operation,  final EntityMutationContext context, AtlasClassification classification,
                                         AtlasEntityType entityType, AtlasVertex parentInstanceVertex, AtlasVertex traitInstanceVertex)
                                         throws AtlasBaseException {
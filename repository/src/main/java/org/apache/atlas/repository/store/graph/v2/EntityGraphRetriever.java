@@ -18,7 +18,10 @@
 package org.apache.atlas.repository.store.graph.v2;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.collect.Iterators;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.RequestContext;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.TimeBoundary;
 import org.apache.atlas.model.glossary.enums.AtlasTermAssignmentStatus;
@@ -38,10 +41,12 @@ import org.apache.atlas.model.typedef.AtlasRelationshipDef;
 import org.apache.atlas.model.typedef.AtlasRelationshipEndDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
 import org.apache.atlas.repository.graph.GraphHelper;
 import org.apache.atlas.repository.graphdb.AtlasEdge;
 import org.apache.atlas.repository.graphdb.AtlasEdgeDirection;
 import org.apache.atlas.repository.graphdb.AtlasElement;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.graphdb.AtlasVertex;
 import org.apache.atlas.type.AtlasArrayType;
 import org.apache.atlas.type.AtlasEntityType;
@@ -53,6 +58,7 @@ import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.type.AtlasTypeUtil;
 import org.apache.atlas.utils.AtlasJson;
+import org.apache.atlas.utils.AtlasPerfMetrics.MetricRecorder;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -69,6 +75,7 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -112,20 +119,28 @@ public final class EntityGraphRetriever {
     public static final String QUALIFIED_NAME = "qualifiedName";
 
     private static final TypeReference<List<TimeBoundary>> TIME_BOUNDARIES_LIST_TYPE = new TypeReference<List<TimeBoundary>>() {};
-    private static final GraphHelper graphHelper = GraphHelper.getInstance();
+    private static final GraphHelper graphHelper         = GraphHelper.getInstance();
+    private static final int         PREFETCH_BATCH_SIZE = AtlasConfiguration.ENTITY_RETRIEVER_PREFETCH_BATCH_SIZE.getInt();
 
     private final AtlasTypeRegistry typeRegistry;
 
     private final boolean ignoreRelationshipAttr;
 
+    private final int prefetchBatchSize;
+
     @Inject
     public EntityGraphRetriever(AtlasTypeRegistry typeRegistry) {
         this(typeRegistry, false);
     }
 
     public EntityGraphRetriever(AtlasTypeRegistry typeRegistry, boolean ignoreRelationshipAttr) {
+        this(typeRegistry, ignoreRelationshipAttr, PREFETCH_BATCH_SIZE);
+    }
+
+    EntityGraphRetriever(AtlasTypeRegistry typeRegistry, boolean ignoreRelationshipAttr, int prefetchBatchSize) {
         this.typeRegistry = typeRegistry;
         this.ignoreRelationshipAttr = ignoreRelationshipAttr;
+        this.prefetchBatchSize = prefetchBatchSize;
     }
 
     public AtlasEntity toAtlasEntity(String guid) throws AtlasBaseException {
@@ -156,9 +171,20 @@ public final class EntityGraphRetriever {
         return toAtlasEntityWithExtInfo(entityVertex, false);
     }
 
+    public AtlasEntityWithExtInfo toAtlasEntityWithExtInfo(String guid, boolean isMinExtInfo, EntityProjection projection) throws AtlasBaseException {
+        return toAtlasEntityWithExtInfo(getEntityVertex(guid), isMinExtInfo, projection);
+    }
+
     public AtlasEntityWithExtInfo toAtlasEntityWithExtInfo(AtlasVertex entityVertex, boolean isMinExtInfo) throws AtlasBaseException {
+        return toAtlasEntityWithExtInfo(entityVertex, isMinExtInfo, EntityProjection.ALL);
+    }
+
+    /**
+     * @param projection attributes to retrieve for the given entity; referred entities are retrieved with all attributes
+     */
+    public AtlasEntityWithExtInfo toAtlasEntityWithExtInfo(AtlasVertex entityVertex, boolean isMinExtInfo, EntityProjection projection) throws AtlasBaseException {
         AtlasEntityExtInfo     entityExtInfo = new AtlasEntityExtInfo();
-        AtlasEntity            entity        = mapVertexToAtlasEntity(entityVertex, entityExtInfo, isMinExtInfo);
+        AtlasEntity            entity        = mapVertexToAtlasEntity(entityVertex, entityExtInfo, isMinExtInfo, projection);
         AtlasEntityWithExtInfo ret           = new AtlasEntityWithExtInfo(entity, entityExtInfo);
 
         ret.compact();
@@ -396,6 +422,10 @@ public final class EntityGraphRetriever {
     }
 
     private AtlasEntity mapVertexToAtlasEntity(AtlasVertex entityVertex, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo) throws AtlasBaseException {
+        return mapVertexToAtlasEntity(entityVertex, entityExtInfo, isMinExtInfo, EntityProjection.ALL);
+    }
+
+    private AtlasEntity mapVertexToAtlasEntity(AtlasVertex entityVertex, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo, EntityProjection projection) throws AtlasBaseException {
         String      guid   = GraphHelper.getGuid(entityVertex);
         AtlasEntity entity = entityExtInfo != null ? entityExtInfo.getEntity(guid) : null;
 
@@ -412,10 +442,10 @@ public final class EntityGraphRetriever {
 
             mapSystemAttributes(entityVertex, entity);
 
-            mapAttributes(entityVertex, entity, entityExtInfo, isMinExtInfo);
+            mapAttributes(entityVertex, entity, entityExtInfo, isMinExtInfo, projection);
 
             if (!ignoreRelationshipAttr) { // only map when really needed
-                mapRelationshipAttributes(entityVertex, entity);
+                mapRelationshipAttributes(entityVertex, entity, projection);
             }
 
             mapClassifications(entityVertex, entity);
@@ -556,6 +586,10 @@ public final class EntityGraphRetriever {
     }
 
     private void mapAttributes(AtlasVertex entityVertex, AtlasStruct struct, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo) throws AtlasBaseException {
+        mapAttributes(entityVertex, struct, entityExtInfo, isMinExtInfo, EntityProjection.ALL);
+    }
+
+    private void mapAttributes(AtlasVertex entityVertex, AtlasStruct struct, AtlasEntityExtInfo entityExtInfo, boolean isMinExtInfo, EntityProjection projection) throws AtlasBaseException {
         AtlasType objType = typeRegistry.getType(struct.getTypeName());
 
         if (!(objType instanceof AtlasStructType)) {
@@ -565,6 +599,10 @@ public final class EntityGraphRetriever {
         AtlasStructType structType = (AtlasStructType) objType;
 
         for (AtlasAttribute attribute : structType.getAllAttributes().values()) {
+            if (!projection.includesAttribute(attribute.getName())) {
+                continue;
+            }
+
             Object attrValue = mapVertexToAttribute(entityVertex, attribute, entityExtInfo, isMinExtInfo);
 
             struct.setAttribute(attribute.getName(), attrValue);
@@ -1016,6 +1054,10 @@ public final class EntityGraphRetriever {
     }
 
     private void mapRelationshipAttributes(AtlasVertex entityVertex, AtlasEntity entity) throws AtlasBaseException {
+        mapRelationshipAttributes(entityVertex, entity, EntityProjection.ALL);
+    }
+
+    private void mapRelationshipAttributes(AtlasVertex entityVertex, AtlasEntity entity, EntityProjection projection) throws AtlasBaseException {
         AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entity.getTypeName());
 
         if (entityType == null) {
@@ -1023,13 +1065,21 @@ public final class EntityGraphRetriever {
         }
 
         for (AtlasAttribute attribute : entityType.getRelationshipAttributes().values()) {
-            Object attrValue = mapVertexToRelationshipAttribute(entityVertex, entityType, attribute);
+            if (!projection.includesRelationshipAttribute(attribute.getName())) {
+                continue;
+            }
+
+            Object attrValue = mapVertexToRelationshipAttribute(entityVertex, entityType, attribute, projection);
 
             entity.setRelationshipAttribute(attribute.getName(), attrValue);
         }
     }
 
     private Object mapVertexToRelationshipAttribute(AtlasVertex entityVertex, AtlasEntityType entityType, AtlasAttribute attribute) throws AtlasBaseException {
+        return mapVertexToRelationshipAttribute(entityVertex, entityType, attribute, EntityProjection.ALL);
+    }
+
+    private Object mapVertexToRelationshipAttribute(AtlasVertex entityVertex, AtlasEntityType entityType, AtlasAttribute attribute, EntityProjection projection) throws AtlasBaseException {
         Object               ret             = null;
         AtlasRelationshipDef relationshipDef = graphHelper.getRelationshipDef(entityVertex, entityType, attribute.getName());
 
@@ -1060,7 +1110,7 @@ public final class EntityGraphRetriever {
 
             case LIST:
             case SET:
-                ret = mapRelationshipArrayAttribute(entityVertex, attribute);
+                ret = mapRelationshipArrayAttribute(entityVertex, attribute, projection.getRelationshipOffset(), projection.getRelationshipLimit());
                 break;
         }
 
@@ -1074,6 +1124,14 @@ public final class EntityGraphRetriever {
     }
 
     private List<AtlasRelatedObjectId> mapRelationshipArrayAttribute(AtlasVertex entityVertex, AtlasAttribute attribute) throws AtlasBaseException {
+        return mapRelationshipArrayAttribute(entityVertex, attribute, 0, -1);
+    }
+
+    /**
+     * @param offset number of edges to skip; skipped edges are not mapped
+     * @param limit  maximum number of edges to map; negative for no limit
+     */
+    private List<AtlasRelatedObjectId> mapRelationshipArrayAttribute(AtlasVertex entityVertex, AtlasAttribute attribute, int offset, int limit) throws AtlasBaseException {
         List<AtlasRelatedObjectId> ret   = new ArrayList<>();
         Iterator<AtlasEdge>        edges = null;
 
@@ -1086,12 +1144,38 @@ public final class EntityGraphRetriever {
         }
 
         if (edges != null) {
-            while (edges.hasNext()) {
-                AtlasEdge relationshipEdge = edges.next();
+            for (int i = 0; i < offset && edges.hasNext(); i++) {
+                edges.next();
+            }
+
+            if (limit >= 0) {
+                edges = Iterators.limit(edges, limit);
+            }
+
+            if (prefetchBatchSize > 0) {
+                List<AtlasEdge> batch = new ArrayList<>();
+
+                while (edges.hasNext()) {
+                    batch.add(edges.next());
+
+                    if (batch.size() >= prefetchBatchSize || !edges.hasNext()) {
+                        Map<Object, Map<String, Object>> vertexProperties = prefetchVertexProperties(entityVertex, batch);
+
+                        for (AtlasEdge relationshipEdge : batch) {
+                            ret.add(mapVertexToRelatedObjectId(entityVertex, relationshipEdge, vertexProperties));
+                        }
+
+                        batch.clear();
+                    }
+                }
+            } else {
+                while (edges.hasNext()) {
+                    AtlasEdge relationshipEdge = edges.next();
 
-                AtlasRelatedObjectId relatedObjectId = mapVertexToRelatedObjectId(entityVertex, relationshipEdge);
+                    AtlasRelatedObjectId relatedObjectId = mapVertexToRelatedObjectId(entityVertex, relationshipEdge);
 
-                ret.add(relatedObjectId);
+                    ret.add(relatedObjectId);
+                }
             }
         }
 
@@ -1099,6 +1183,14 @@ public final class EntityGraphRetriever {
     }
 
     private AtlasRelatedObjectId mapVertexToRelatedObjectId(AtlasVertex entityVertex, AtlasEdge edge) throws AtlasBaseException {
+        return mapVertexToRelatedObjectId(entityVertex, edge, null);
+    }
+
+    /**
+     * @param vertexProperties properties of the vertices at both ends of the edge, keyed by vertex id; properties of
+     *                         vertices not in this map are read from the graph
+     */
+    private AtlasRelatedObjectId mapVertexToRelatedObjectId(AtlasVertex entityVertex, AtlasEdge edge, Map<Object, Map<String, Object>> vertexProperties) throws AtlasBaseException {
         AtlasRelatedObjectId ret = null;
 
         if (GraphHelper.elementExists(edge)) {
@@ -1109,16 +1201,17 @@ public final class EntityGraphRetriever {
             }
 
             if (referenceVertex != null) {
-                String             entityTypeName = getTypeName(referenceVertex);
-                String             entityGuid     = getGuid(referenceVertex);
-                AtlasEntity.Status entityStatus   = GraphHelper.getStatus(referenceVertex);
-                AtlasRelationship  relationship   = mapEdgeToAtlasRelationship(edge);
+                Map<String, Object> properties     = vertexProperties != null ? vertexProperties.get(referenceVertex.getId()) : null;
+                String              entityTypeName = properties != null ? (String) properties.get(Constants.ENTITY_TYPE_PROPERTY_KEY) : getTypeName(referenceVertex);
+                String              entityGuid     = properties != null ? (String) properties.get(Constants.GUID_PROPERTY_KEY) : getGuid(referenceVertex);
+                AtlasEntity.Status  entityStatus   = properties != null ? toStatus(properties) : GraphHelper.getStatus(referenceVertex);
+                AtlasRelationship   relationship   = mapEdgeToAtlasRelationship(edge, false, vertexProperties).getRelationship();
 
                 ret = new AtlasRelatedObjectId(entityGuid, entityTypeName, entityStatus,
                                                relationship.getGuid(), relationship.getStatus(),
                                                new AtlasStruct(relationship.getTypeName(), relationship.getAttributes()));
 
-                Object displayText = getDisplayText(referenceVertex, entityTypeName);
+                Object displayText = getDisplayText(referenceVertex, entityTypeName, properties);
 
                 if (displayText != null) {
                     ret.setDisplayText(displayText.toString());
@@ -1129,25 +1222,69 @@ public final class EntityGraphRetriever {
         return ret;
     }
 
+    /**
+     * Reads properties of the entity vertex and of vertices at the other end of the given edges in a single batch
+     */
+    private Map<Object, Map<String, Object>> prefetchVertexProperties(AtlasVertex entityVertex, List<AtlasEdge> edges) {
+        MetricRecorder   metric   = RequestContext.get().startMetricRecord("prefetchVertexProperties");
+        Set<AtlasVertex>  vertices = new LinkedHashSet<>();
+
+        try {
+            vertices.add(entityVertex);
+
+            for (AtlasEdge edge : edges) {
+                if (GraphHelper.elementExists(edge)) {
+                    vertices.add(edge.getInVertex());
+                    vertices.add(edge.getOutVertex());
+                }
+            }
+
+            AtlasGraph graph = AtlasGraphProvider.getGraphInstance();
+
+            return graph.getVertexProperties(vertices);
+        } finally {
+            RequestContext.get().endMetricRecord(metric);
+        }
+    }
+
     private Object getDisplayText(AtlasVertex entityVertex, String entityTypeName) throws AtlasBaseException {
+        return getDisplayText(entityVertex, entityTypeName, null);
+    }
+
+    private Object getDisplayText(AtlasVertex entityVertex, String entityTypeName, Map<String, Object> properties) throws AtlasBaseException {
         AtlasEntityType entityType = typeRegistry.getEntityTypeByName(entityTypeName);
         Object          ret        = null;
 
         if (entityType != null) {
-            ret = getVertexAttribute(entityVertex, entityType.getAttribute(NAME));
+            ret = getVertexAttribute(entityVertex, entityType.getAttribute(NAME), properties);
 
             if (ret == null) {
-                ret = getVertexAttribute(entityVertex, entityType.getAttribute(DISPLAY_NAME));
+                ret = getVertexAttribute(entityVertex, entityType.getAttribute(DISPLAY_NAME), properties);
             }
 
             if (ret == null) {
-                ret = getVertexAttribute(entityVertex, entityType.getAttribute(QUALIFIED_NAME));
+                ret = getVertexAttribute(entityVertex, entityType.getAttribute(QUALIFIED_NAME), properties);
             }
         }
 
         return ret;
     }
 
+    /**
+     * Reads string attributes from the given properties, when available; other attributes from the vertex
+     */
+    private Object getVertexAttribute(AtlasVertex vertex, AtlasAttribute attribute, Map<String, Object> properties) throws AtlasBaseException {
+        if (properties != null && attribute != null && ATLAS_TYPE_STRING.equals(attribute.getTypeName())) {
+            return properties.get(attribute.getVertexPropertyName());
+        }
+
+        return getVertexAttribute(vertex, attribute);
+    }
+
+    private static AtlasEntity.Status toStatus(Map<String, Object> properties) {
+        return AtlasEntity.Status.DELETED.name().equals(properties.get(Constants.STATE_PROPERTY_KEY)) ? AtlasEntity.Status.DELETED : AtlasEntity.Status.ACTIVE;
+    }
+
     public AtlasRelationship mapEdgeToAtlasRelationship(AtlasEdge edge) throws AtlasBaseException {
         return mapEdgeToAtlasRelationship(edge, false).getRelationship();
     }
@@ -1157,16 +1294,20 @@ public final class EntityGraphRetriever {
     }
 
     public AtlasRelationshipWithExtInfo mapEdgeToAtlasRelationship(AtlasEdge edge, boolean extendedInfo) throws AtlasBaseException {
+        return mapEdgeToAtlasRelationship(edge, extendedInfo, null);
+    }
+
+    private AtlasRelationshipWithExtInfo mapEdgeToAtlasRelationship(AtlasEdge edge, boolean extendedInfo, Map<Object, Map<String, Object>> vertexProperties) throws AtlasBaseException {
         AtlasRelationshipWithExtInfo ret = new AtlasRelationshipWithExtInfo();
 
-        mapSystemAttributes(edge, ret, extendedInfo);
+        mapSystemAttributes(edge, ret, extendedInfo, vertexProperties);
 
         mapAttributes(edge, ret);
 
         return ret;
     }
 
-    private AtlasRelationshipWithExtInfo mapSystemAttributes(AtlasEdge edge, AtlasRelationshipWithExtInfo relationshipWithExtInfo, boolean extendedInfo) throws AtlasBaseException {
+    private AtlasRelationshipWithExtInfo mapSystemAttributes(AtlasEdge edge, AtlasRelationshipWithExtInfo relationshipWithExtInfo, boolean extendedInfo, Map<Object, Map<String, Object>> vertexProperties) throws AtlasBaseException {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Mapping system attributes for relationship");
         }
@@ -1206,8 +1347,8 @@ public final class EntityGraphRetriever {
         AtlasVertex end1Vertex = edge.getOutVertex();
         AtlasVertex end2Vertex = edge.getInVertex();
 
-        relationship.setEnd1(new AtlasObjectId(getGuid(end1Vertex), getTypeName(end1Vertex)));
-        relationship.setEnd2(new AtlasObjectId(getGuid(end2Vertex), getTypeName(end2Vertex)));
+        relationship.setEnd1(toRelationshipEnd(end1Vertex, vertexProperties));
+        relationship.setEnd2(toRelationshipEnd(end2Vertex, vertexProperties));
 
         relationship.setLabel(edge.getLabel());
         relationship.setPropagateTags(getPropagateTags(edge));
@@ -1223,6 +1364,16 @@ public final class EntityGraphRetriever {
         return relationshipWithExtInfo;
     }
 
+    private AtlasObjectId toRelationshipEnd(AtlasVertex vertex, Map<Object, Map<String, Object>> vertexProperties) {
+        Map<String, Object> properties = vertexProperties != null ? vertexProperties.get(vertex.getId()) : null;
+
+        if (properties != null) {
+            return new AtlasObjectId((String) properties.get(Constants.GUID_PROPERTY_KEY), (String) properties.get(Constants.ENTITY_TYPE_PROPERTY_KEY));
+        }
+
+        return new AtlasObjectId(getGuid(vertex), getTypeName(vertex));
+    }
+
     private void readClassificationsFromEdge(AtlasEdge edge, AtlasRelationshipWithExtInfo relationshipWithExtInfo, boolean extendedInfo) throws AtlasBaseException {
         List<AtlasVertex>        classificationVertices    = getClassificationVertices(edge);
         List<String>             blockedClassificationIds  = getBlockedClassificationIds(edge);
@@ -0,0 +1,420 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.pc.WorkItemBuilder;
+import org.apache.atlas.pc.WorkItemConsumer;
+import org.apache.atlas.pc.WorkItemManager;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.commons.collections.MapUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Imports entities read from an EntityImportStream using a pool of consumers, each batch of entities in one transaction.
+ *
+ * Batches are formed in creation order. An entity that refers to, or shares a referred entity with, a batch that is
+ * still being imported waits for that batch to complete; this preserves the ordering guarantees of the sequential
+ * import. Completed batches are handed back in submission order, so that metrics are updated by a single thread.
+ */
+class EntityImportProcessManager {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityImportProcessManager.class);
+
+    private static final String WORKER_NAME_PREFIX = "atlas-import-worker";
+
+    private final WorkItemsManager          workItemsManager;
+    private final int                       batchSize;
+    private final Map<String, ImportBatch>  inProgressGuids = new ConcurrentHashMap<>();
+    private final Deque<ImportBatch>        submitted       = new ArrayDeque<>();
+    private       ImportBatch               current;
+
+    EntityImportProcessManager(AtlasEntityStore entityStore, EntityImportStream entityStream, int batchSize, int numWorkers) {
+        RequestContext  requestContext = RequestContext.get();
+        ConsumerBuilder builder        = new ConsumerBuilder(entityStore, entityStream, inProgressGuids, requestContext.getUser(), requestContext.getUserGroups(), requestContext.getClientIPAddress());
+
+        this.batchSize        = batchSize;
+        this.workItemsManager = new WorkItemsManager(builder, 1, numWorkers);
+        this.current          = new ImportBatch();
+
+        LOG.info("EntityImportProcessManager: batchSize={}, numWorkers={}", batchSize, numWorkers);
+    }
+
+    public void add(AtlasEntityWithExtInfo entityWithExtInfo, int position) throws AtlasBaseException {
+        Set<String> entityGuids     = getEntityGuids(entityWithExtInfo);
+        Set<String> referencedGuids = getReferencedGuids(entityWithExtInfo);
+
+        awaitConflictingBatches(entityGuids);
+        awaitConflictingBatches(referencedGuids);
+
+        current.add(entityWithExtInfo, position, entityGuids);
+
+        for (String guid : entityGuids) {
+            inProgressGuids.put(guid, current);
+        }
+
+        if (current.size() >= batchSize) {
+            submitCurrent();
+        }
+    }
+
+    /**
+     * @return batches that completed, in the order they were submitted
+     */
+    public List<ImportBatch> getCompletedBatches() {
+        List<ImportBatch> ret = new ArrayList<>();
+
+        while (!submitted.isEmpty() && submitted.peekFirst().isDone()) {
+            ret.add(submitted.pollFirst());
+        }
+
+        return ret;
+    }
+
+    /**
+     * Submits the partially filled batch, if any, and waits for all submitted batches to complete.
+     * @return batches that completed, in the order they were submitted
+     */
+    public List<ImportBatch> drain() throws AtlasBaseException {
+        if (current.size() > 0) {
+            submitCurrent();
+        }
+
+        List<ImportBatch> ret = new ArrayList<>();
+
+        while (!submitted.isEmpty()) {
+            ImportBatch batch = submitted.pollFirst();
+
+            batch.await();
+
+            ret.add(batch);
+        }
+
+        return ret;
+    }
+
+    public void shutdown() {
+        try {
+            workItemsManager.shutdown();
+        } catch (InterruptedException excp) {
+            LOG.warn("EntityImportProcessManager: interrupted while waiting for workers to complete", excp);
+
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submitCurrent() {
+        submitted.addLast(current);
+
+        workItemsManager.produce(current);
+
+        current = new ImportBatch();
+    }
+
+    private void awaitConflictingBatches(Set<String> guids) throws AtlasBaseException {
+        for (String guid : guids) {
+            ImportBatch batch = inProgressGuids.get(guid);
+
+            if (batch != null && batch != current) {
+                batch.await();
+            }
+        }
+    }
+
+    static Set<String> getEntityGuids(AtlasEntityWithExtInfo entityWithExtInfo) {
+        Set<String> ret = new HashSet<>();
+
+        ret.add(entityWithExtInfo.getEntity().getGuid());
+
+        if (MapUtils.isNotEmpty(entityWithExtInfo.getReferredEntities())) {
+            ret.addAll(entityWithExtInfo.getReferredEntities().keySet());
+        }
+
+        return ret;
+    }
+
+    static Set<String> getReferencedGuids(AtlasEntityWithExtInfo entityWithExtInfo) {
+        Set<String> ret = new HashSet<>();
+
+        collectReferencedGuids(entityWithExtInfo.getEntity(), ret);
+
+        if (MapUtils.isNotEmpty(entityWithExtInfo.getReferredEntities())) {
+            for (AtlasEntity referredEntity : entityWithExtInfo.getReferredEntities().values()) {
+                collectReferencedGuids(referredEntity, ret);
+            }
+        }
+
+        return ret;
+    }
+
+    private static void collectReferencedGuids(AtlasEntity entity, Set<String> guids) {
+        if (entity == null) {
+            return;
+        }
+
+        if (MapUtils.isNotEmpty(entity.getAttributes())) {
+            collectReferencedGuids(entity.getAttributes().values(), guids);
+        }
+
+        if (MapUtils.isNotEmpty(entity.getRelationshipAttributes())) {
+            collectReferencedGuids(entity.getRelationshipAttributes().values(), guids);
+        }
+    }
+
+    private static void collectReferencedGuids(Collection<?> values, Set<String> guids) {
+        for (Object value : values) {
+            if (value instanceof AtlasObjectId) {
+                String guid = ((AtlasObjectId) value).getGuid();
+
+                if (guid != null) {
+                    guids.add(guid);
+                }
+            } else if (value instanceof Map) {
+                Object guid = ((Map) value).get(AtlasObjectId.KEY_GUID);
+
+                if (guid instanceof String) {
+                    guids.add((String) guid);
+                } else {
+                    collectReferencedGuids(((Map) value).values(), guids);
+                }
+            } else if (value instanceof Collection) {
+                collectReferencedGuids((Collection) value, guids);
+            }
+        }
+    }
+
+    static class ImportBatch {
+        private final List<AtlasEntityWithExtInfo> entities     = new ArrayList<>();
+        private final Set<String>                  guids        = new HashSet<>();
+        private final CountDownLatch               done         = new CountDownLatch(1);
+        private final List<EntityMutationResponse> responses    = new ArrayList<>();
+        private final List<String>                 residualList = new ArrayList<>();
+        private       AtlasEntityWithExtInfo       lastEntity;
+        private       int                          position;
+        private       AtlasBaseException           failure;
+
+        void add(AtlasEntityWithExtInfo entityWithExtInfo, int position, Set<String> entityGuids) {
+            this.entities.add(entityWithExtInfo);
+            this.guids.addAll(entityGuids);
+
+            this.lastEntity = entityWithExtInfo;
+            this.position   = position;
+        }
+
+        int size() {
+            return entities.size();
+        }
+
+        boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        void await() throws AtlasBaseException {
+            try {
+                done.await();
+            } catch (InterruptedException excp) {
+                Thread.currentThread().interrupt();
+
+                throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, excp, "import interrupted");
+            }
+        }
+
+        public List<EntityMutationResponse> getResponses() {
+            return responses;
+        }
+
+        public List<String> getResidualList() {
+            return residualList;
+        }
+
+        public AtlasEntityWithExtInfo getLastEntity() {
+            return lastEntity;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        public AtlasBaseException getFailure() {
+            return failure;
+        }
+    }
+
+    static class Consumer extends WorkItemConsumer<ImportBatch> {
+        private final AtlasEntityStore         entityStore;
+        private final EntityImportStream       entityStream;
+        private final Map<String, ImportBatch> inProgressGuids;
+        private final String                   user;
+        private final Set<String>              userGroups;
+        private final String                   clientIPAddress;
+
+        public Consumer(BlockingQueue<ImportBatch> queue, AtlasEntityStore entityStore, EntityImportStream entityStream, Map<String, ImportBatch> inProgressGuids,
+                        String user, Set<String> userGroups, String clientIPAddress) {
+            super(queue);
+
+            this.entityStore     = entityStore;
+            this.entityStream    = entityStream;
+            this.inProgressGuids = inProgressGuids;
+            this.user            = user;
+            this.userGroups      = userGroups;
+            this.clientIPAddress = clientIPAddress;
+        }
+
+        @Override
+        protected void processItem(ImportBatch batch) {
+            try {
+                RequestContext requestContext = RequestContext.get();
+
+                requestContext.setUser(user, userGroups);
+                requestContext.setClientIPAddress(clientIPAddress);
+                requestContext.setImportInProgress(true);
+
+                if (batch.size() == 1 || !importBatch(batch)) {
+                    for (AtlasEntityWithExtInfo entityWithExtInfo : batch.entities) {
+                        if (!importEntity(batch, entityWithExtInfo)) {
+                            break;
+                        }
+                    }
+                }
+            } catch (Throwable t) {
+                LOG.error("import of batch ending at position {} failed", batch.position, t);
+
+                batch.failure = (t instanceof AtlasBaseException) ? (AtlasBaseException) t : new AtlasBaseException(t);
+            } finally {
+                RequestContext.clear();
+
+                for (String guid : batch.guids) {
+                    inProgressGuids.remove(guid, batch);
+                }
+
+                batch.entities.clear();
+                batch.done.countDown();
+            }
+        }
+
+        @Override
+        protected void doCommit() {
+            // each batch is committed by the graph transaction in AtlasEntityStore.createOrUpdateForImport()
+        }
+
+        private boolean importBatch(ImportBatch batch) {
+            AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo();
+
+            for (AtlasEntityWithExtInfo entityWithExtInfo : batch.entities) {
+                entities.addEntity(entityWithExtInfo.getEntity());
+
+                if (MapUtils.isNotEmpty(entityWithExtInfo.getReferredEntities())) {
+                    for (AtlasEntity referredEntity : entityWithExtInfo.getReferredEntities().values()) {
+                        entities.addReferredEntity(referredEntity);
+                    }
+                }
+            }
+
+            try {
+                batch.responses.add(entityStore.createOrUpdateForImport(new AtlasEntityStreamForImport(entities, entityStream)));
+
+                for (AtlasEntityWithExtInfo entityWithExtInfo : batch.entities) {
+                    entityStream.onImportComplete(entityWithExtInfo.getEntity().getGuid());
+                }
+
+                return true;
+            } catch (Throwable t) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("import of batch ending at position {} failed; retrying one entity at a time", batch.position, t);
+                }
+
+                return false;
+            } finally {
+                RequestContext.get().clearCache();
+            }
+        }
+
+        private boolean importEntity(ImportBatch batch, AtlasEntityWithExtInfo entityWithExtInfo) {
+            String guid = entityWithExtInfo.getEntity().getGuid();
+
+            try {
+                batch.responses.add(entityStore.createOrUpdateForImport(new AtlasEntityStreamForImport(entityWithExtInfo, entityStream)));
+
+                entityStream.onImportComplete(guid);
+            } catch (Throwable t) {
+                AtlasBaseException excp = (t instanceof AtlasBaseException) ? (AtlasBaseException) t : new AtlasBaseException(t);
+
+                if (!BulkImporterImpl.isResidualFailure(excp)) {
+                    batch.failure = excp;
+
+                    return false;
+                }
+
+                batch.residualList.add(guid);
+            } finally {
+                RequestContext.get().clearCache();
+            }
+
+            return true;
+        }
+    }
+
+    private static class ConsumerBuilder implements WorkItemBuilder<Consumer, ImportBatch> {
+        private final AtlasEntityStore         entityStore;
+        private final EntityImportStream       entityStream;
+        private final Map<String, ImportBatch> inProgressGuids;
+        private final String                   user;
+        private final Set<String>              userGroups;
+        private final String                   clientIPAddress;
+
+        public ConsumerBuilder(AtlasEntityStore entityStore, EntityImportStream entityStream, Map<String, ImportBatch> inProgressGuids,
+                               String user, Set<String> userGroups, String clientIPAddress) {
+            this.entityStore     = entityStore;
+            this.entityStream    = entityStream;
+            this.inProgressGuids = inProgressGuids;
+            this.user            = user;
+            this.userGroups      = userGroups;
+            this.clientIPAddress = clientIPAddress;
+        }
+
+        @Override
+        public Consumer build(BlockingQueue<ImportBatch> queue) {
+            return new Consumer(queue, entityStore, entityStream, inProgressGuids, user, userGroups, clientIPAddress);
+        }
+    }
+
+    static class WorkItemsManager extends WorkItemManager<ImportBatch, Consumer> {
+        public WorkItemsManager(WorkItemBuilder builder, int batchSize, int numWorkers) {
+            super(builder, WORKER_NAME_PREFIX, batchSize, numWorkers);
+        }
+    }
+}
@@ -18,7 +18,14 @@
 package org.apache.atlas.repository.store.graph.v2;
 
 
+import org.apache.atlas.entitytransform.BaseEntityHandler;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.impexp.AtlasExportResult;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.impexp.ImportTransforms;
+
+import java.util.List;
 
 public interface EntityImportStream extends EntityStream {
 
@@ -31,4 +38,22 @@ public interface EntityImportStream extends EntityStream {
     AtlasEntityWithExtInfo getNextEntityWithExtInfo();
 
     void onImportComplete(String guid);
+
+    AtlasEntityWithExtInfo getEntityWithExtInfo(String guid) throws AtlasBaseException;
+
+    void setImportTransform(ImportTransforms importTransform);
+
+    ImportTransforms getImportTransform();
+
+    void setEntityHandlers(List<BaseEntityHandler> entityHandlers);
+
+    List<BaseEntityHandler> getEntityHandlers();
+
+    AtlasTypesDef getTypesDef() throws AtlasBaseException;
+
+    AtlasExportResult getExportResult() throws AtlasBaseException;
+
+    List<String> getCreationOrder();
+
+    void close();
 }
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.commons.collections.CollectionUtils;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Attributes and relationship attributes to be retrieved for an entity, along with the page of values to be retrieved
+ * for each relationship attribute of LIST or SET cardinality. Empty or null attribute names retrieve all attributes.
+ */
+public class EntityProjection {
+    public static final EntityProjection ALL = new EntityProjection(null, null, 0, -1);
+
+    private final Set<String> attributes;
+    private final Set<String> relationshipAttributes;
+    private final int         relationshipOffset;
+    private final int         relationshipLimit;
+
+    /**
+     * @param relationshipOffset number of values to skip in each relationship attribute
+     * @param relationshipLimit  maximum number of values to retrieve for each relationship attribute; negative for no limit
+     */
+    public EntityProjection(Collection<String> attributes, Collection<String> relationshipAttributes, int relationshipOffset, int relationshipLimit) {
+        this.attributes             = toSet(attributes);
+        this.relationshipAttributes = toSet(relationshipAttributes);
+        this.relationshipOffset     = Math.max(relationshipOffset, 0);
+        this.relationshipLimit      = relationshipLimit;
+    }
+
+    public boolean includesAttribute(String attributeName) {
+        return attributes == null || attributes.contains(attributeName);
+    }
+
+    public boolean includesRelationshipAttribute(String attributeName) {
+        return relationshipAttributes == null || relationshipAttributes.contains(attributeName);
+    }
+
+    public int getRelationshipOffset() {
+        return relationshipOffset;
+    }
+
+    public int getRelationshipLimit() {
+        return relationshipLimit;
+    }
+
+    /**
+     * @throws AtlasBaseException if an attribute or relationship attribute in the projection is not defined in the given type
+     */
+    public void validate(AtlasEntityType entityType) throws AtlasBaseException {
+        if (attributes != null) {
+            for (String attributeName : attributes) {
+                if (entityType.getAttribute(attributeName) == null) {
+                    throw new AtlasBaseException(AtlasErrorCode.UNKNOWN_ATTRIBUTE, attributeName, entityType.getTypeName());
+                }
+            }
+        }
+
+        if (relationshipAttributes != null) {
+            for (String attributeName : relationshipAttributes) {
+                if (!entityType.getRelationshipAttributes().containsKey(attributeName)) {
+                    throw new AtlasBaseException(AtlasErrorCode.UNKNOWN_ATTRIBUTE, attributeName, entityType.getTypeName());
+                }
+            }
+        }
+    }
+
+    public boolean isAll() {
+        return attributes == null && relationshipAttributes == null && relationshipOffset == 0 && relationshipLimit < 0;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityProjection{attributes=" + attributes + ", relationshipAttributes=" + relationshipAttributes +
+               ", relationshipOffset=" + relationshipOffset + ", relationshipLimit=" + relationshipLimit + "}";
+    }
+
+    private static Set<String> toSet(Collection<String> names) {
+        return CollectionUtils.isEmpty(names) ? null : Collections.unmodifiableSet(new HashSet<>(names));
+    }
+}
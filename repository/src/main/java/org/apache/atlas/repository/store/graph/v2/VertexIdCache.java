@@ -0,0 +1,338 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.service.Service;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-wide cache of guid and unique-attribute value to entity vertex-id, used by AtlasGraphUtilsV2.findByGuid()
+ * and findByUniqueAttributes() to avoid a graph/index query for entities that are looked up repeatedly.
+ *
+ * A cached vertex is verified on every hit - it must still exist and have the guid, or the unique-attribute value
+ * and ACTIVE state, that it was cached for; otherwise the entry is discarded and the lookup falls back to the query.
+ * Entries of entities deleted or updated with a new unique-attribute value are also removed once the change commits.
+ *
+ * The cache is enabled only while this server is active; it is cleared when the server becomes passive.
+ */
+@Component
+public class VertexIdCache implements Service, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(VertexIdCache.class);
+
+    private static final String KEY_SEPARATOR = "\u0001";
+
+    private static final Cache<String, String> GUID_CACHE      = createCache();
+    private static final Cache<String, String> UNIQ_ATTR_CACHE = createCache();
+    private static final AtomicLong            HITS            = new AtomicLong();
+    private static final AtomicLong            MISSES          = new AtomicLong();
+    private static final AtomicLong            STALE_ENTRIES   = new AtomicLong();
+    private static final AtomicLong            INVALIDATIONS   = new AtomicLong();
+
+    private static volatile boolean isActive = false;
+
+    private final Configuration configuration;
+    private final boolean       isEnabled;
+
+    @Inject
+    public VertexIdCache(Configuration configuration) {
+        this.configuration = configuration;
+        this.isEnabled     = AtlasConfiguration.VERTEX_ID_CACHE_ENABLED.getBoolean();
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (isEnabled && !HAConfiguration.isHAEnabled(configuration)) {
+            setActive(true);
+        }
+    }
+
+    @Override
+    public void stop() {
+        setActive(false);
+    }
+
+    @Override
+    public void instanceIsActive() {
+        if (isEnabled) {
+            setActive(true);
+        }
+    }
+
+    @Override
+    public void instanceIsPassive() {
+        setActive(false);
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.VERTEX_ID_CACHE.getOrder();
+    }
+
+    /**
+     * Removes entries of the given entities after the current transaction commits; to be called for entities being
+     * deleted or updated with a new unique-attribute value.
+     */
+    public static void invalidateOnCommit(AtlasTypeRegistry typeRegistry, Collection<AtlasObjectId> objectIds) {
+        if (!isActive || CollectionUtils.isEmpty(objectIds)) {
+            return;
+        }
+
+        final Set<String> guids        = new HashSet<>();
+        final Set<String> uniqAttrKeys = new HashSet<>();
+
+        for (AtlasObjectId objectId : objectIds) {
+            if (objectId.getGuid() != null) {
+                guids.add(objectId.getGuid());
+            }
+
+            addUniqAttrKeys(typeRegistry.getEntityTypeByName(objectId.getTypeName()), objectId.getUniqueAttributes(), uniqAttrKeys);
+        }
+
+        new GraphTransactionInterceptor.PostTransactionHook() {
+            @Override
+            public void onComplete(boolean isSuccess) {
+                if (isSuccess) {
+                    GUID_CACHE.invalidateAll(guids);
+                    UNIQ_ATTR_CACHE.invalidateAll(uniqAttrKeys);
+
+                    INVALIDATIONS.addAndGet(guids.size() + uniqAttrKeys.size());
+                }
+            }
+        };
+    }
+
+    /**
+     * @return id, with current unique-attribute values, of the entity if the update changes any of its unique-attribute
+     * values; null otherwise
+     */
+    public static AtlasObjectId getUniqAttrChange(AtlasEntityType entityType, AtlasEntity entity, AtlasVertex vertex) {
+        AtlasObjectId ret = null;
+
+        if (isActive && entityType != null && MapUtils.isNotEmpty(entityType.getUniqAttributes())) {
+            Map<String, Object> currentValues = null;
+
+            for (AtlasAttribute attribute : entityType.getUniqAttributes().values()) {
+                Object newValue     = entity.getAttribute(attribute.getName());
+                Object currentValue = vertex.getProperty(attribute.getVertexPropertyName(), Object.class);
+
+                if (currentValue != null && newValue != null && !Objects.equals(currentValue, newValue)) {
+                    if (currentValues == null) {
+                        currentValues = new LinkedHashMap<>();
+                    }
+
+                    currentValues.put(attribute.getName(), currentValue);
+                }
+            }
+
+            if (currentValues != null) {
+                ret = new AtlasObjectId(entity.getGuid(), entityType.getTypeName(), currentValues);
+            }
+        }
+
+        return ret;
+    }
+
+    public static Map<String, Object> getMetrics() {
+        Map<String, Object> ret    = new LinkedHashMap<>();
+        long                hits   = HITS.get();
+        long                misses = MISSES.get();
+
+        ret.put("enabled", isActive);
+        ret.put("guidEntries", GUID_CACHE.size());
+        ret.put("uniqueAttributeEntries", UNIQ_ATTR_CACHE.size());
+        ret.put("hits", hits);
+        ret.put("misses", misses);
+        ret.put("hitRate", (hits + misses) > 0 ? ((double) hits) / (hits + misses) : 0d);
+        ret.put("staleEntries", STALE_ENTRIES.get());
+        ret.put("invalidations", INVALIDATIONS.get());
+        ret.put("evictions", GUID_CACHE.stats().evictionCount() + UNIQ_ATTR_CACHE.stats().evictionCount());
+
+        return ret;
+    }
+
+    static AtlasVertex getVertexByGuid(AtlasGraph graph, String guid) {
+        AtlasVertex ret = null;
+
+        if (isActive && guid != null) {
+            String vertexId = GUID_CACHE.getIfPresent(guid);
+
+            if (vertexId != null) {
+                ret = getVertex(graph, vertexId);
+
+                if (ret == null || !guid.equals(ret.getProperty(Constants.GUID_PROPERTY_KEY, String.class))) {
+                    onStaleEntry(GUID_CACHE, guid);
+
+                    ret = null;
+                }
+            }
+
+            recordLookup(ret != null);
+        }
+
+        return ret;
+    }
+
+    static void putGuid(String guid, AtlasVertex vertex) {
+        if (isActive && guid != null && vertex != null) {
+            GUID_CACHE.put(guid, vertex.getIdForDisplay());
+        }
+    }
+
+    static AtlasVertex getVertexByUniqueAttribute(AtlasGraph graph, AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue) {
+        AtlasVertex ret = null;
+
+        if (isActive) {
+            String key      = getUniqAttrKey(entityType.getTypeName(), attribute.getName(), attrValue);
+            String vertexId = UNIQ_ATTR_CACHE.getIfPresent(key);
+
+            if (vertexId != null) {
+                ret = getVertex(graph, vertexId);
+
+                if (ret == null || !isValid(ret, entityType, attribute, attrValue)) {
+                    onStaleEntry(UNIQ_ATTR_CACHE, key);
+
+                    ret = null;
+                }
+            }
+
+            recordLookup(ret != null);
+        }
+
+        return ret;
+    }
+
+    static void putUniqueAttribute(AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue, AtlasVertex vertex) {
+        if (isActive && vertex != null) {
+            UNIQ_ATTR_CACHE.put(getUniqAttrKey(entityType.getTypeName(), attribute.getName(), attrValue), vertex.getIdForDisplay());
+        }
+    }
+
+    static void setActive(boolean active) {
+        if (isActive != active) {
+            LOG.info("VertexIdCache: {}", active ? "enabled" : "disabled");
+        }
+
+        isActive = active;
+
+        if (!active) {
+            GUID_CACHE.invalidateAll();
+            UNIQ_ATTR_CACHE.invalidateAll();
+        }
+    }
+
+    private static void addUniqAttrKeys(AtlasEntityType entityType, Map<String, Object> uniqAttributes, Set<String> keys) {
+        if (entityType == null || MapUtils.isEmpty(uniqAttributes)) {
+            return;
+        }
+
+        // entries might have been added by lookups on any of the supertypes
+        List<String> typeNames = new ArrayList<>(entityType.getAllSuperTypes());
+
+        typeNames.add(entityType.getTypeName());
+
+        for (Map.Entry<String, Object> entry : uniqAttributes.entrySet()) {
+            if (entry.getValue() == null) {
+                continue;
+            }
+
+            for (String name : typeNames) {
+                keys.add(getUniqAttrKey(name, entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    private static boolean isValid(AtlasVertex vertex, AtlasEntityType entityType, AtlasAttribute attribute, Object attrValue) {
+        String state    = vertex.getProperty(Constants.STATE_PROPERTY_KEY, String.class);
+        String typeName = vertex.getProperty(Constants.ENTITY_TYPE_PROPERTY_KEY, String.class);
+
+        if (!AtlasEntity.Status.ACTIVE.name().equals(state) || !entityType.getTypeAndAllSubTypes().contains(typeName)) {
+            return false;
+        }
+
+        Object vertexValue = vertex.getProperty(attribute.getVertexPropertyName(), Object.class);
+
+        if (attrValue instanceof String && vertexValue instanceof String) {
+            return ((String) attrValue).equalsIgnoreCase((String) vertexValue);
+        }
+
+        return Objects.equals(attrValue, vertexValue);
+    }
+
+    private static AtlasVertex getVertex(AtlasGraph graph, String vertexId) {
+        try {
+            return graph.getVertex(vertexId);
+        } catch (Exception excp) {
+            LOG.debug("VertexIdCache: failed to get vertex {}", vertexId, excp);
+
+            return null;
+        }
+    }
+
+    private static void onStaleEntry(Cache<String, String> cache, String key) {
+        cache.invalidate(key);
+
+        STALE_ENTRIES.incrementAndGet();
+    }
+
+    private static void recordLookup(boolean isHit) {
+        if (isHit) {
+            HITS.incrementAndGet();
+        } else {
+            MISSES.incrementAndGet();
+        }
+    }
+
+    private static String getUniqAttrKey(String typeName, String attrName, Object attrValue) {
+        return typeName + KEY_SEPARATOR + attrName + KEY_SEPARATOR + attrValue;
+    }
+
+    private static Cache<String, String> createCache() {
+        return CacheBuilder.newBuilder().maximumSize(Math.max(AtlasConfiguration.VERTEX_ID_CACHE_SIZE.getInt(), 0)).recordStats().build();
+    }
+}
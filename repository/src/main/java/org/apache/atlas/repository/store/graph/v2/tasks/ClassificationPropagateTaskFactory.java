@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2.tasks;
+
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphMapper;
+import org.apache.atlas.tasks.AbstractTask;
+import org.apache.atlas.tasks.TaskFactory;
+import org.apache.atlas.tasks.TaskManagement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Creates tasks that add or remove propagations of a classification.
+ */
+@Component
+public class ClassificationPropagateTaskFactory implements TaskFactory {
+    private static final Logger LOG = LoggerFactory.getLogger(ClassificationPropagateTaskFactory.class);
+
+    public static final String CLASSIFICATION_PROPAGATION_ADD    = "CLASSIFICATION_PROPAGATION_ADD";
+    public static final String CLASSIFICATION_PROPAGATION_DELETE = "CLASSIFICATION_PROPAGATION_DELETE";
+
+    public static final String PARAM_ENTITY_GUID                 = TaskManagement.PARAM_ENTITY_GUID;
+    public static final String PARAM_CLASSIFICATION_NAME         = "classificationName";
+    public static final String PARAM_CLASSIFICATION_VERTEX_ID    = "classificationVertexId";
+
+    private static final List<String> SUPPORTED_TYPES = Arrays.asList(CLASSIFICATION_PROPAGATION_ADD, CLASSIFICATION_PROPAGATION_DELETE);
+
+    private final TaskManagement    taskManagement;
+    private final EntityGraphMapper entityGraphMapper;
+
+    @Inject
+    public ClassificationPropagateTaskFactory(TaskManagement taskManagement, EntityGraphMapper entityGraphMapper) {
+        this.taskManagement    = taskManagement;
+        this.entityGraphMapper = entityGraphMapper;
+    }
+
+    @PostConstruct
+    public void init() {
+        taskManagement.addFactory(this);
+    }
+
+    @Override
+    public AbstractTask create(AtlasTask task) {
+        switch (task.getType()) {
+            case CLASSIFICATION_PROPAGATION_ADD:
+                return new ClassificationPropagationTasks.Add(task, entityGraphMapper);
+
+            case CLASSIFICATION_PROPAGATION_DELETE:
+                return new ClassificationPropagationTasks.Delete(task, entityGraphMapper);
+        }
+
+        LOG.warn("Type: {} - {} not found!", task.getType(), task.getGuid());
+
+        return null;
+    }
+
+    @Override
+    public List<String> getSupportedTypes() {
+        return SUPPORTED_TYPES;
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2.tasks;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphMapper;
+import org.apache.atlas.tasks.AbstractTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory.PARAM_CLASSIFICATION_NAME;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory.PARAM_CLASSIFICATION_VERTEX_ID;
+import static org.apache.atlas.repository.store.graph.v2.tasks.ClassificationPropagateTaskFactory.PARAM_ENTITY_GUID;
+
+/**
+ * Tasks that add or remove propagations of a classification, committing every atlas.tasks.chunk.size entities.
+ */
+public final class ClassificationPropagationTasks {
+    private static final Logger LOG = LoggerFactory.getLogger(ClassificationPropagationTasks.class);
+
+    private ClassificationPropagationTasks() { }
+
+    static int getChunkSize() {
+        return Math.max(AtlasConfiguration.TASKS_CHUNK_SIZE.getInt(), 1);
+    }
+
+    public static class Add extends AbstractTask {
+        private final EntityGraphMapper entityGraphMapper;
+
+        public Add(AtlasTask task, EntityGraphMapper entityGraphMapper) {
+            super(task);
+
+            this.entityGraphMapper = entityGraphMapper;
+        }
+
+        @Override
+        public void run() throws Exception {
+            String       entityGuid         = getParameter(PARAM_ENTITY_GUID);
+            String       classificationName = getParameter(PARAM_CLASSIFICATION_NAME);
+            List<String> vertexIds          = entityGraphMapper.getClassificationPropagationTargets(entityGuid, classificationName);
+            int          chunkSize          = getChunkSize();
+            int          propagatedCount    = 0;
+
+            for (int i = 0; i < vertexIds.size(); i += chunkSize) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("task " + getTaskGuid() + " interrupted");
+                }
+
+                propagatedCount += entityGraphMapper.propagateClassification(entityGuid, classificationName, vertexIds.subList(i, Math.min(i + chunkSize, vertexIds.size())));
+            }
+
+            LOG.info("propagated classification {} of entity {} to {} entities", classificationName, entityGuid, propagatedCount);
+        }
+    }
+
+    public static class Delete extends AbstractTask {
+        private final EntityGraphMapper entityGraphMapper;
+
+        public Delete(AtlasTask task, EntityGraphMapper entityGraphMapper) {
+            super(task);
+
+            this.entityGraphMapper = entityGraphMapper;
+        }
+
+        @Override
+        public void run() throws Exception {
+            String classificationVertexId = getParameter(PARAM_CLASSIFICATION_VERTEX_ID);
+            int    chunkSize              = getChunkSize();
+            int    removedCount           = 0;
+
+            for (int count = chunkSize; count == chunkSize; ) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("task " + getTaskGuid() + " interrupted");
+                }
+
+                count = entityGraphMapper.removeClassificationPropagation(classificationVertexId, chunkSize);
+
+                removedCount += count;
+            }
+
+            entityGraphMapper.deleteClassificationVertexIfUnused(classificationVertexId);
+
+            LOG.info("removed {} propagations of classification {} of entity {}", removedCount, getParameter(PARAM_CLASSIFICATION_NAME), getParameter(PARAM_ENTITY_GUID));
+        }
+    }
+}
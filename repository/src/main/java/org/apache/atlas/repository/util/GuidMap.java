@@ -0,0 +1,269 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Compact map of entity guids to small positive values, for bookkeeping of large number of guids, like during export.
+ * Guids in canonical UUID format, like the ones generated by Atlas, are stored as a pair of longs in an open-addressing
+ * table - instead of a String and a map entry for each guid; other guids are stored in a HashMap.
+ *
+ * Not thread-safe.
+ */
+public class GuidMap {
+    private static final int   INITIAL_CAPACITY = 1024;
+    private static final float MAX_LOAD_FACTOR  = 0.6f;
+    private static final byte  FREE             = 0;
+    private static final byte  REMOVED          = -1;
+
+    private final Map<String, Byte> otherGuids = new HashMap<>();
+    private       long[]            keys;      // most and least significant bits of the UUID in slot i are at 2*i and 2*i+1
+    private       byte[]            values;    // FREE, REMOVED or the value of the guid in the slot
+    private       int               size;      // number of slots having a value
+    private       int               usedSlots; // number of slots having a value or REMOVED
+    private       long              msb;
+    private       long              lsb;
+
+    public GuidMap() {
+        init(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @return value of the given guid; 0 if the guid is not present
+     */
+    public byte get(String guid) {
+        if (!parseUuid(guid)) {
+            Byte ret = otherGuids.get(guid);
+
+            return ret != null ? ret : 0;
+        }
+
+        int slot = findSlot();
+
+        return slot != -1 ? values[slot] : 0;
+    }
+
+    /**
+     * @param value must be positive
+     * @return previous value of the given guid; 0 if the guid was not present
+     */
+    public byte put(String guid, byte value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("value must be positive: " + value);
+        }
+
+        if (!parseUuid(guid)) {
+            Byte ret = otherGuids.put(guid, value);
+
+            return ret != null ? ret : 0;
+        }
+
+        int mask        = values.length - 1;
+        int removedSlot = -1;
+        int slot        = hash(msb, lsb) & mask;
+
+        for (; values[slot] != FREE; slot = (slot + 1) & mask) {
+            if (values[slot] == REMOVED) {
+                if (removedSlot == -1) {
+                    removedSlot = slot;
+                }
+            } else if (keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+                byte ret = values[slot];
+
+                values[slot] = value;
+
+                return ret;
+            }
+        }
+
+        if (removedSlot != -1) {
+            slot = removedSlot;
+        } else {
+            usedSlots++;
+        }
+
+        keys[2 * slot]     = msb;
+        keys[2 * slot + 1] = lsb;
+        values[slot]       = value;
+        size++;
+
+        if (usedSlots > values.length * MAX_LOAD_FACTOR) {
+            // grow only when live entries need the space; otherwise rehash in the same capacity to drop REMOVED slots
+            rehash(size > values.length * MAX_LOAD_FACTOR / 2 ? values.length * 2 : values.length);
+        }
+
+        return 0;
+    }
+
+    /**
+     * @return value of the removed guid; 0 if the guid was not present
+     */
+    public byte remove(String guid) {
+        if (!parseUuid(guid)) {
+            Byte ret = otherGuids.remove(guid);
+
+            return ret != null ? ret : 0;
+        }
+
+        int slot = findSlot();
+
+        if (slot == -1) {
+            return 0;
+        }
+
+        byte ret = values[slot];
+
+        values[slot] = REMOVED;
+        size--;
+
+        return ret;
+    }
+
+    public boolean containsKey(String guid) {
+        return get(guid) != 0;
+    }
+
+    public int size() {
+        return size + otherGuids.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        otherGuids.clear();
+
+        init(INITIAL_CAPACITY);
+    }
+
+    public void forEachKey(Consumer<String> action) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] > 0) {
+                action.accept(new UUID(keys[2 * slot], keys[2 * slot + 1]).toString());
+            }
+        }
+
+        otherGuids.keySet().forEach(action);
+    }
+
+    private void init(int capacity) {
+        keys      = new long[2 * capacity];
+        values    = new byte[capacity];
+        size      = 0;
+        usedSlots = 0;
+    }
+
+    private int findSlot() {
+        int mask = values.length - 1;
+
+        for (int slot = hash(msb, lsb) & mask; values[slot] != FREE; slot = (slot + 1) & mask) {
+            if (values[slot] != REMOVED && keys[2 * slot] == msb && keys[2 * slot + 1] == lsb) {
+                return slot;
+            }
+        }
+
+        return -1;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys   = keys;
+        byte[] oldValues = values;
+
+        init(capacity);
+
+        int mask = capacity - 1;
+
+        for (int oldSlot = 0; oldSlot < oldValues.length; oldSlot++) {
+            if (oldValues[oldSlot] > 0) {
+                long oldMsb = oldKeys[2 * oldSlot];
+                long oldLsb = oldKeys[2 * oldSlot + 1];
+                int  slot   = hash(oldMsb, oldLsb) & mask;
+
+                while (values[slot] != FREE) {
+                    slot = (slot + 1) & mask;
+                }
+
+                keys[2 * slot]     = oldMsb;
+                keys[2 * slot + 1] = oldLsb;
+                values[slot]       = oldValues[oldSlot];
+                size++;
+            }
+        }
+
+        usedSlots = size;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Parses the given guid into msb and lsb, if it is in canonical UUID format i.e. 8-4-4-4-12 lower-case hex digits.
+     * Guids in other formats are not parsed, so that forEachKey() returns guids exactly as they were added.
+     */
+    private boolean parseUuid(String guid) {
+        if (guid == null || guid.length() != 36) {
+            return false;
+        }
+
+        long hi = 0;
+        long lo = 0;
+
+        for (int i = 0, digits = 0; i < 36; i++) {
+            char c = guid.charAt(i);
+
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+
+                continue;
+            }
+
+            int digit;
+
+            if (c >= '0' && c <= '9') {
+                digit = c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                digit = c - 'a' + 10;
+            } else {
+                return false;
+            }
+
+            if (digits < 16) {
+                hi = (hi << 4) | digit;
+            } else {
+                lo = (lo << 4) | digit;
+            }
+
+            digits++;
+        }
+
+        msb = hi;
+        lsb = lo;
+
+        return true;
+    }
+}
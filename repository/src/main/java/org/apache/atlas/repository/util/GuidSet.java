@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.util;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Compact set of entity guids; see GuidMap.
+ *
+ * Not thread-safe.
+ */
+public class GuidSet {
+    private static final byte PRESENT = 1;
+
+    private final GuidMap guids = new GuidMap();
+
+    /**
+     * @return true if the guid was not already present
+     */
+    public boolean add(String guid) {
+        return guids.put(guid, PRESENT) == 0;
+    }
+
+    public void addAll(Collection<String> guids) {
+        for (String guid : guids) {
+            add(guid);
+        }
+    }
+
+    public boolean contains(String guid) {
+        return guids.containsKey(guid);
+    }
+
+    /**
+     * @return true if the guid was present
+     */
+    public boolean remove(String guid) {
+        return guids.remove(guid) != 0;
+    }
+
+    public int size() {
+        return guids.size();
+    }
+
+    public boolean isEmpty() {
+        return guids.isEmpty();
+    }
+
+    public void clear() {
+        guids.clear();
+    }
+
+    public void forEach(Consumer<String> action) {
+        guids.forEachKey(action);
+    }
+}
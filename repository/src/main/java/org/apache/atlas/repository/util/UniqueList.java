@@ -57,6 +57,22 @@ public class UniqueList<T> {
         return e;
     }
 
+    /**
+     * Removes up to count elements from the head of the list; cheaper than calling remove(0) for each element.
+     */
+    public List<T> removeFirst(int count) {
+        List<T> head = list.subList(0, Math.min(count, list.size()));
+        List<T> ret  = new ArrayList<>(head);
+
+        head.clear();
+
+        for (T e : ret) {
+            set.remove(e);
+        }
+
+        return ret;
+    }
+
     public boolean contains(T e) {
         return set.contains(e);
     }
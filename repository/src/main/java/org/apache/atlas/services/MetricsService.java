@@ -17,29 +17,32 @@
  */
 package org.apache.atlas.services;
 
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.GraphTransactionInterceptor;
 import org.apache.atlas.annotation.AtlasService;
-import org.apache.atlas.model.instance.AtlasEntity.Status;
 import org.apache.atlas.model.metrics.AtlasMetrics;
+import org.apache.atlas.query.DSLQueryPlanCache;
+import org.apache.atlas.repository.audit.AsyncEntityAuditWriter;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
-import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.repository.store.graph.v2.EntityCountTracker;
+import org.apache.atlas.repository.store.graph.v2.VertexIdCache;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.commons.collections.CollectionUtils;
-import org.apache.commons.configuration.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 
-import static org.apache.atlas.discovery.SearchProcessor.AND_STR;
-import static org.apache.atlas.model.instance.AtlasEntity.Status.ACTIVE;
-import static org.apache.atlas.model.instance.AtlasEntity.Status.DELETED;
-import static org.apache.atlas.repository.Constants.ENTITY_TYPE_PROPERTY_KEY;
-import static org.apache.atlas.repository.Constants.STATE_PROPERTY_KEY;
-import static org.apache.atlas.repository.Constants.VERTEX_INDEX;
-
+/**
+ * Serves metrics from counts kept by EntityCountTracker, hence without querying the index for every type. On a server
+ * that is not active, counts are not tracked; they are then read from the index and cached for
+ * atlas.metric.query.cache.ttlInSecs.
+ */
 @AtlasService
 public class MetricsService {
     private static final Logger LOG = LoggerFactory.getLogger(MetricsService.class);
@@ -58,118 +61,121 @@ public class MetricsService {
     protected static final String METRIC_ENTITY_ACTIVE     = ENTITY + "Active";
     protected static final String METRIC_TAG_COUNT         = TAG + "Count";
     protected static final String METRIC_ENTITIES_PER_TAG  = TAG + "Entities";
+    protected static final String METRIC_GREMLIN_ENGINE    = "gremlinScriptEngine";
+    protected static final String METRIC_VERTEX_ID_CACHE   = "vertexIdCache";
+    protected static final String METRIC_DSL_PLAN_CACHE    = "dslQueryPlanCache";
+    protected static final String METRIC_ENTITY_COUNTS     = "entityCountTracker";
+    protected static final String METRIC_AUDIT_WRITER      = "auditWriter";
+    protected static final String METRIC_ENTITY_LOCKS      = "entityLocks";
 
-    public static final String METRIC_QUERY_CACHE_TTL                = "atlas.metric.query.cache.ttlInSecs";
-    public static final String METRIC_QUERY_GREMLIN_TYPES_BATCH_SIZE = "atlas.metric.query.gremlin.typesBatchSize";
-    public static final int    DEFAULT_CACHE_TTL_IN_SECS             = 900;
-    public static final String METRIC_COLLECTION_TIME                = "collectionTime";
+    public static final String METRIC_COLLECTION_TIME = "collectionTime";
 
-    private final AtlasGraph        atlasGraph;
-    private final AtlasTypeRegistry typeRegistry;
-    private final int               cacheTTLInSecs;
-    private final String            indexSearchPrefix = AtlasGraphUtilsV2.getIndexSearchPrefix();
+    private final AtlasGraph             atlasGraph;
+    private final AtlasTypeRegistry      typeRegistry;
+    private final DSLQueryPlanCache      dslQueryPlanCache;
+    private final EntityCountTracker     entityCountTracker;
+    private final AsyncEntityAuditWriter auditWriter;
+    private final long                   cacheTTLInMs;
 
-    private AtlasMetrics cachedMetrics       = null;
-    private long         cacheExpirationTime = 0;
+    private Map<String, Map<String, Long>> cachedIndexCounts   = null;
+    private long                           cacheExpirationTime = 0;
 
     @Inject
-    public MetricsService(final Configuration configuration, final AtlasGraph graph, final AtlasTypeRegistry typeRegistry) {
-        this.atlasGraph = graph;
-        this.cacheTTLInSecs = configuration != null ? configuration.getInt(METRIC_QUERY_CACHE_TTL, DEFAULT_CACHE_TTL_IN_SECS) : DEFAULT_CACHE_TTL_IN_SECS;
-        this.typeRegistry = typeRegistry;
-
+    public MetricsService(final AtlasGraph graph, final AtlasTypeRegistry typeRegistry, final DSLQueryPlanCache dslQueryPlanCache,
+                          final EntityCountTracker entityCountTracker, final AsyncEntityAuditWriter auditWriter) {
+        this.atlasGraph         = graph;
+        this.typeRegistry       = typeRegistry;
+        this.dslQueryPlanCache  = dslQueryPlanCache;
+        this.entityCountTracker = entityCountTracker;
+        this.auditWriter        = auditWriter;
+        this.cacheTTLInMs       = AtlasConfiguration.METRICS_QUERY_CACHE_TTL_SECS.getLong() * 1000;
     }
 
-    @SuppressWarnings("unchecked")
-    public AtlasMetrics getMetrics(boolean ignoreCache) {
-        if (ignoreCache || !isCacheValid()) {
-            AtlasMetrics metrics = new AtlasMetrics();
-
-            metrics.addMetric(GENERAL, METRIC_TYPE_COUNT, getAllTypesCount());
-            metrics.addMetric(GENERAL, METRIC_TAG_COUNT, getAllTagsCount());
-
-            Map<String, Long> activeCountMap  = new HashMap<>();
-            Map<String, Long> deletedCountMap = new HashMap<>();
-
-            // metrics for classifications
-            Collection<String> classificationDefNames = typeRegistry.getAllClassificationDefNames();
-
-            if (classificationDefNames != null) {
-                for (String classificationDefName : classificationDefNames) {
-                    activeCountMap.put(classificationDefName, getTypeCount(classificationDefName, ACTIVE));
-                }
+    /**
+     * @param recount when true, entities and classifications are recounted from the index before collecting metrics
+     */
+    public AtlasMetrics getMetrics(boolean recount) {
+        final Map<String, Map<String, Long>> counts;
+
+        if (!entityCountTracker.isTracking()) {
+            counts = getIndexCounts(recount);
+        } else {
+            if (recount) {
+                waitForRecount();
             }
 
-            // metrics for entities
-            Collection<String> entityDefNames = typeRegistry.getAllEntityDefNames();
+            counts = EntityCountTracker.getCounts();
+        }
 
-            if (entityDefNames != null) {
-                for (String entityDefName : entityDefNames) {
-                    activeCountMap.put(entityDefName, getTypeCount(entityDefName, ACTIVE));
-                    deletedCountMap.put(entityDefName, getTypeCount(entityDefName, DELETED));
-                }
-            }
+        Map<String, Long> activeCounts         = counts.getOrDefault(EntityCountTracker.KEY_ACTIVE_ENTITIES, Collections.emptyMap());
+        Map<String, Long> deletedCounts        = counts.getOrDefault(EntityCountTracker.KEY_DELETED_ENTITIES, Collections.emptyMap());
+        Map<String, Long> classificationCounts = counts.getOrDefault(EntityCountTracker.KEY_CLASSIFICATIONS, Collections.emptyMap());
 
-            Map<String, Long> activeEntityCount  = new HashMap<>();
-            Map<String, Long> deletedEntityCount = new HashMap<>();
-            long              unusedTypeCount    = 0;
-            long              totalEntities      = 0;
+        AtlasMetrics metrics = new AtlasMetrics();
 
-            for (String entityDefName : typeRegistry.getAllEntityDefNames()) {
-                Long activeCount  = activeCountMap.get(entityDefName);
-                Long deletedCount = deletedCountMap.get(entityDefName);
+        metrics.addMetric(GENERAL, METRIC_TYPE_COUNT, getAllTypesCount());
+        metrics.addMetric(GENERAL, METRIC_TAG_COUNT, getAllTagsCount());
 
-                if (activeCount > 0) {
-                    activeEntityCount.put(entityDefName, activeCount);
-                    totalEntities += activeCount.longValue();
-                }
+        Map<String, Long> activeEntityCount  = new HashMap<>();
+        Map<String, Long> deletedEntityCount = new HashMap<>();
+        long              unusedTypeCount    = 0;
+        long              totalEntities      = 0;
 
-                if (deletedCount > 0) {
-                    deletedEntityCount.put(entityDefName, deletedCount);
-                    totalEntities += deletedCount.longValue();
-                }
+        for (String entityDefName : typeRegistry.getAllEntityDefNames()) {
+            long activeCount  = getCount(activeCounts, entityDefName);
+            long deletedCount = getCount(deletedCounts, entityDefName);
 
-                if (activeCount == 0 && deletedCount == 0) {
-                    unusedTypeCount++;
-                }
+            if (activeCount > 0) {
+                activeEntityCount.put(entityDefName, activeCount);
+                totalEntities += activeCount;
             }
 
-            metrics.addMetric(GENERAL, METRIC_TYPE_UNUSED_COUNT, unusedTypeCount);
-            metrics.addMetric(GENERAL, METRIC_ENTITY_COUNT, totalEntities);
-            metrics.addMetric(ENTITY, METRIC_ENTITY_ACTIVE, activeEntityCount);
-            metrics.addMetric(ENTITY, METRIC_ENTITY_DELETED, deletedEntityCount);
-
-            Map<String, Long> taggedEntityCount = new HashMap<>();
-
-            for (String classificationName : typeRegistry.getAllClassificationDefNames()) {
-                Long count = activeCountMap.get(classificationName);
+            if (deletedCount > 0) {
+                deletedEntityCount.put(entityDefName, deletedCount);
+                totalEntities += deletedCount;
+            }
 
-                if (count > 0) {
-                    taggedEntityCount.put(classificationName, count);
-                }
+            if (activeCount == 0 && deletedCount == 0) {
+                unusedTypeCount++;
             }
+        }
 
-            metrics.addMetric(TAG, METRIC_ENTITIES_PER_TAG, taggedEntityCount);
+        metrics.addMetric(GENERAL, METRIC_TYPE_UNUSED_COUNT, unusedTypeCount);
+        metrics.addMetric(GENERAL, METRIC_ENTITY_COUNT, totalEntities);
+        metrics.addMetric(ENTITY, METRIC_ENTITY_ACTIVE, activeEntityCount);
+        metrics.addMetric(ENTITY, METRIC_ENTITY_DELETED, deletedEntityCount);
 
-            // Miscellaneous metrics
-            long collectionTime = System.currentTimeMillis();
+        Map<String, Long> taggedEntityCount = new HashMap<>();
 
-            metrics.addMetric(GENERAL, METRIC_COLLECTION_TIME, collectionTime);
+        for (String classificationName : typeRegistry.getAllClassificationDefNames()) {
+            long count = getCount(classificationCounts, classificationName);
 
-            this.cachedMetrics       = metrics;
-            this.cacheExpirationTime = (collectionTime + cacheTTLInSecs * 1000);
+            if (count > 0) {
+                taggedEntityCount.put(classificationName, count);
+            }
         }
 
-        return cachedMetrics;
-    }
+        metrics.addMetric(TAG, METRIC_ENTITIES_PER_TAG, taggedEntityCount);
 
-    private Long getTypeCount(String typeName, Status status) {
-        String indexQuery = indexSearchPrefix + "\"" + ENTITY_TYPE_PROPERTY_KEY + "\" : (%s)" + AND_STR +
-                            indexSearchPrefix + "\"" + STATE_PROPERTY_KEY       + "\" : (%s)";
+        // Miscellaneous metrics
+        metrics.addMetric(GENERAL, METRIC_COLLECTION_TIME, System.currentTimeMillis());
+        metrics.addMetric(GENERAL, METRIC_GREMLIN_ENGINE, atlasGraph.getGremlinScriptEngineMetrics());
+        metrics.addMetric(GENERAL, METRIC_VERTEX_ID_CACHE, VertexIdCache.getMetrics());
+        metrics.addMetric(GENERAL, METRIC_DSL_PLAN_CACHE, dslQueryPlanCache.getMetrics());
+        metrics.addMetric(GENERAL, METRIC_ENTITY_COUNTS, entityCountTracker.getMetrics());
+        metrics.addMetric(GENERAL, METRIC_AUDIT_WRITER, auditWriter.getMetrics());
+        metrics.addMetric(GENERAL, METRIC_ENTITY_LOCKS, GraphTransactionInterceptor.getLockMetrics());
 
-        indexQuery = String.format(indexQuery, typeName, status.name());
+        return metrics;
+    }
+
+    /**
+     * Starts recounting entities and classifications from the index in the background.
+     */
+    public Map<String, Object> recount() {
+        entityCountTracker.recount();
 
-        return atlasGraph.indexQuery(VERTEX_INDEX, indexQuery).vertexTotals();
+        return entityCountTracker.getMetrics();
     }
 
     private int getAllTypesCount() {
@@ -184,15 +190,48 @@ public class MetricsService {
         return CollectionUtils.isNotEmpty(allTagNames) ? allTagNames.size() : 0;
     }
 
-    private boolean isCacheValid() {
-        boolean valid = cachedMetrics != null && System.currentTimeMillis() < cacheExpirationTime;
+    private synchronized Map<String, Map<String, Long>> getIndexCounts(boolean ignoreCache) {
+        long now = System.currentTimeMillis();
+
+        if (ignoreCache || cachedIndexCounts == null || now >= cacheExpirationTime) {
+            Map<String, Map<String, Long>> counts = countFromIndex();
+
+            if (!counts.isEmpty()) {
+                cachedIndexCounts   = counts;
+                cacheExpirationTime = now + cacheTTLInMs;
+            }
 
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("cachedMetrics: {}", cachedMetrics != null);
-            LOG.debug("cacheExpirationTime: {}", cacheExpirationTime);
-            LOG.debug("valid: {}", valid);
+            return counts;
         }
 
-        return valid;
+        return cachedIndexCounts;
+    }
+
+    private Map<String, Map<String, Long>> countFromIndex() {
+        try {
+            return entityCountTracker.countFromIndex();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LOG.warn("count from index failed", e);
+        }
+
+        return Collections.emptyMap();
+    }
+
+    private static long getCount(Map<String, Long> counts, String typeName) {
+        Long ret = counts.get(typeName);
+
+        return ret != null ? Math.max(ret, 0) : 0;
+    }
+
+    private void waitForRecount() {
+        try {
+            entityCountTracker.recount().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOG.warn("recount failed", e);
+        }
     }
-}
\ No newline at end of file
+}
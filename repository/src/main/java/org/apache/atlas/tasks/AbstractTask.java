@@ -0,0 +1,52 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.model.tasks.AtlasTask;
+
+import java.util.Objects;
+
+/**
+ * Base class for the executable of a background task. Implementations must be safe to run again after a partial
+ * execution, since a task interrupted by a restart or a failover is run again from the beginning.
+ */
+public abstract class AbstractTask {
+    private final AtlasTask task;
+
+    protected AbstractTask(AtlasTask task) {
+        this.task = task;
+    }
+
+    public AtlasTask getTask() {
+        return task;
+    }
+
+    public String getTaskGuid() {
+        return task.getGuid();
+    }
+
+    public String getTaskType() {
+        return task.getType();
+    }
+
+    protected String getParameter(String name) {
+        return Objects.toString(task.getParameter(name), null);
+    }
+
+    public abstract void run() throws Exception;
+}
@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.model.tasks.AtlasTask;
+
+import java.util.List;
+
+/**
+ * Creates the executable for tasks of the types it supports. Factories register themselves with TaskManagement.
+ */
+public interface TaskFactory {
+    /**
+     * @param task task to create the executable for
+     * @return executable for the given task
+     */
+    AbstractTask create(AtlasTask task);
+
+    /**
+     * @return task types supported by this factory
+     */
+    List<String> getSupportedTypes();
+}
@@ -0,0 +1,361 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.listener.ActiveStateChangeHandler;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.service.Service;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs background tasks persisted by TaskRegistry.
+ *
+ * A task created within a graph transaction is submitted for execution only after the transaction commits. Tasks are
+ * run by a fixed number of single-threaded lanes; tasks having the same value for parameter 'entityGuid' are run in
+ * the same lane, hence in the order of their creation. A failed task is retried in its lane after a backoff, before
+ * later tasks of the lane are run. Tasks that are not complete when the server stops, or becomes passive, are resumed
+ * on the next start of an active server.
+ */
+@Component
+public class TaskManagement implements Service, ActiveStateChangeHandler {
+    private static final Logger LOG = LoggerFactory.getLogger(TaskManagement.class);
+
+    public static final String PARAM_ENTITY_GUID = "entityGuid";
+
+    private static final String THREAD_NAME_PREFIX = "atlas-task-";
+    private static final long   SHUTDOWN_WAIT_MS   = 30 * 1000L;
+    private static final long   MAX_RETRY_WAIT_MS  = 5 * 60 * 1000L;
+
+    private final Configuration            configuration;
+    private final TaskRegistry             registry;
+    private final boolean                  isEnabled;
+    private final int                      numWorkers;
+    private final int                      maxAttempts;
+    private final long                     retryBackoffMs;
+    private final Map<String, TaskFactory> taskTypeFactoryMap = new ConcurrentHashMap<>();
+    private volatile ExecutorService[]     lanes;
+
+    @Inject
+    public TaskManagement(Configuration configuration, TaskRegistry registry) {
+        this(configuration, registry, AtlasConfiguration.TASKS_RETRY_BACKOFF_MS.getLong());
+    }
+
+    TaskManagement(Configuration configuration, TaskRegistry registry, long retryBackoffMs) {
+        this.configuration  = configuration;
+        this.registry       = registry;
+        this.isEnabled      = AtlasConfiguration.TASKS_ENABLED.getBoolean();
+        this.numWorkers     = Math.max(AtlasConfiguration.TASKS_WORKER_THREADS.getInt(), 1);
+        this.maxAttempts    = Math.max(AtlasConfiguration.TASKS_MAX_ATTEMPTS.getInt(), 1);
+        this.retryBackoffMs = Math.max(retryBackoffMs, 0);
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    public void addFactory(TaskFactory factory) {
+        for (String taskType : factory.getSupportedTypes()) {
+            taskTypeFactoryMap.put(taskType, factory);
+        }
+    }
+
+    /**
+     * Creates a task in the current graph transaction. The task is submitted for execution once the transaction commits.
+     */
+    public AtlasTask createTask(String taskType, String createdBy, Map<String, Object> parameters) throws AtlasBaseException {
+        if (!taskTypeFactoryMap.containsKey(taskType)) {
+            throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, "no factory registered for task type " + taskType);
+        }
+
+        final AtlasTask ret = new AtlasTask(taskType, createdBy, parameters);
+
+        registry.createVertex(ret);
+
+        new GraphTransactionInterceptor.PostTransactionHook() {
+            @Override
+            public void onComplete(boolean isSuccess) {
+                if (isSuccess) {
+                    submit(ret);
+                }
+            }
+        };
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("created task {}", ret);
+        }
+
+        return ret;
+    }
+
+    public AtlasTask getByGuid(String guid) throws AtlasBaseException {
+        AtlasTask ret = registry.getByGuid(guid);
+
+        if (ret == null) {
+            throw new AtlasBaseException(AtlasErrorCode.TASK_NOT_FOUND, guid);
+        }
+
+        return ret;
+    }
+
+    public List<AtlasTask> getTasks(AtlasTask.Status status) {
+        return registry.getTasks(status);
+    }
+
+    @Override
+    public void start() throws AtlasException {
+        if (!isEnabled) {
+            LOG.info("TaskManagement: background tasks are disabled. atlas.tasks.enabled = false");
+
+            return;
+        }
+
+        if (!HAConfiguration.isHAEnabled(configuration)) {
+            LOG.info("HA is disabled, starting task workers inline.");
+
+            startWorkers();
+        } else {
+            LOG.info("HA is enabled, task workers will be started on becoming active.");
+        }
+    }
+
+    @Override
+    public void stop() throws AtlasException {
+        stopWorkers();
+    }
+
+    @Override
+    public void instanceIsActive() throws AtlasException {
+        if (isEnabled) {
+            LOG.info("Reacting to active state: starting task workers");
+
+            startWorkers();
+        }
+    }
+
+    @Override
+    public void instanceIsPassive() throws AtlasException {
+        if (isEnabled) {
+            LOG.info("Reacting to passive state: stopping task workers");
+
+            stopWorkers();
+        }
+    }
+
+    @Override
+    public int getHandlerOrder() {
+        return HandlerOrder.TASK_MANAGEMENT.getOrder();
+    }
+
+    synchronized void startWorkers() {
+        if (lanes != null) {
+            return;
+        }
+
+        ExecutorService[] executors = new ExecutorService[numWorkers];
+
+        for (int i = 0; i < numWorkers; i++) {
+            final String threadName = THREAD_NAME_PREFIX + i;
+
+            executors[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread ret = new Thread(r, threadName);
+
+                ret.setDaemon(true);
+
+                return ret;
+            });
+        }
+
+        lanes = executors;
+
+        List<AtlasTask> pendingTasks = registry.getPendingTasks();
+
+        LOG.info("TaskManagement: started {} workers; {} pending tasks", numWorkers, pendingTasks.size());
+
+        for (AtlasTask task : pendingTasks) {
+            submit(task);
+        }
+    }
+
+    synchronized void stopWorkers() {
+        ExecutorService[] executors = lanes;
+
+        if (executors == null) {
+            return;
+        }
+
+        lanes = null;
+
+        for (ExecutorService executor : executors) {
+            executor.shutdownNow();
+        }
+
+        try {
+            for (ExecutorService executor : executors) {
+                if (!executor.awaitTermination(SHUTDOWN_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                    LOG.warn("TaskManagement: a task worker did not terminate in {}ms", SHUTDOWN_WAIT_MS);
+                }
+            }
+        } catch (InterruptedException excp) {
+            Thread.currentThread().interrupt();
+        }
+
+        LOG.info("TaskManagement: stopped workers");
+    }
+
+    void submit(AtlasTask task) {
+        ExecutorService[] executors = lanes;
+
+        if (executors == null) {
+            LOG.info("TaskManagement: workers are not running; task {} will be run on next start", task.getGuid());
+
+            return;
+        }
+
+        try {
+            executors[getLane(task, executors.length)].submit(() -> run(task));
+        } catch (RejectedExecutionException excp) {
+            LOG.info("TaskManagement: workers are shutting down; task {} will be run on next start", task.getGuid());
+        }
+    }
+
+    /**
+     * Runs the task, retrying it in place after a backoff until it completes or fails after max attempts; later tasks
+     * of the lane wait for the retries.
+     */
+    void run(AtlasTask task) {
+        while (runAttempt(task)) {
+            long waitMs = getRetryWaitMs(task.getAttemptCount());
+
+            LOG.info("TaskManagement: retrying task {} in {}ms", task.getGuid(), waitMs);
+
+            try {
+                Thread.sleep(waitMs);
+            } catch (InterruptedException excp) {
+                LOG.warn("TaskManagement: task {} interrupted; it will be run on next start", task.getGuid());
+
+                Thread.currentThread().interrupt();
+
+                return;
+            }
+
+            if (lanes == null) {
+                LOG.warn("TaskManagement: workers stopped; task {} will be run on next start", task.getGuid());
+
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true if the attempt failed and the task should be retried
+     */
+    private boolean runAttempt(AtlasTask task) {
+        TaskFactory factory = taskTypeFactoryMap.get(task.getType());
+
+        try {
+            RequestContext.clear();
+            RequestContext.get().setUser(task.getCreatedBy(), null);
+
+            task.setStatus(AtlasTask.Status.IN_PROGRESS);
+            task.setStartTime(System.currentTimeMillis());
+            task.setUpdatedTime(task.getStartTime());
+            task.setAttemptCount(task.getAttemptCount() + 1);
+
+            registry.updateStatus(task);
+
+            if (factory == null) {
+                throw new AtlasBaseException(AtlasErrorCode.INTERNAL_ERROR, "no factory registered for task type " + task.getType());
+            }
+
+            LOG.info("TaskManagement: running task {} (type={}, attempt={})", task.getGuid(), task.getType(), task.getAttemptCount());
+
+            factory.create(task).run();
+
+            task.setStatus(AtlasTask.Status.COMPLETE);
+            task.setErrorMessage(null);
+            task.setEndTime(System.currentTimeMillis());
+
+            LOG.info("TaskManagement: completed task {} in {}ms", task.getGuid(), task.getEndTime() - task.getStartTime());
+        } catch (Throwable t) {
+            if (Thread.currentThread().isInterrupted() || lanes == null) {
+                LOG.warn("TaskManagement: task {} interrupted; it will be run on next start", task.getGuid());
+
+                return false;
+            }
+
+            LOG.error("TaskManagement: task {} failed (attempt={})", task.getGuid(), task.getAttemptCount(), t);
+
+            task.setErrorMessage(StringUtils.defaultString(t.getMessage(), t.getClass().getName()));
+
+            if (factory == null || task.getAttemptCount() >= maxAttempts) {
+                task.setStatus(AtlasTask.Status.FAILED);
+                task.setEndTime(System.currentTimeMillis());
+            } else {
+                task.setStatus(AtlasTask.Status.PENDING);
+            }
+        } finally {
+            RequestContext.clear();
+        }
+
+        task.setUpdatedTime(System.currentTimeMillis());
+
+        registry.updateStatus(task);
+
+        return task.getStatus() == AtlasTask.Status.PENDING;
+    }
+
+    long getRetryWaitMs(int attemptCount) {
+        long ret = retryBackoffMs;
+
+        for (int i = 1; i < attemptCount && ret < MAX_RETRY_WAIT_MS; i++) {
+            ret *= 2;
+        }
+
+        return Math.min(ret, MAX_RETRY_WAIT_MS);
+    }
+
+    static int getLane(AtlasTask task, int numLanes) {
+        Object key = task.getParameter(PARAM_ENTITY_GUID);
+
+        if (key == null) {
+            key = task.getGuid();
+        }
+
+        return Math.floorMod(key.hashCode(), numLanes);
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.annotation.GraphTransaction;
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.type.AtlasType;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.atlas.repository.Constants.TASK_ATTEMPT_COUNT;
+import static org.apache.atlas.repository.Constants.TASK_CREATED_BY;
+import static org.apache.atlas.repository.Constants.TASK_CREATED_TIME;
+import static org.apache.atlas.repository.Constants.TASK_END_TIME;
+import static org.apache.atlas.repository.Constants.TASK_ERROR_MESSAGE;
+import static org.apache.atlas.repository.Constants.TASK_GUID;
+import static org.apache.atlas.repository.Constants.TASK_PARAMETERS;
+import static org.apache.atlas.repository.Constants.TASK_START_TIME;
+import static org.apache.atlas.repository.Constants.TASK_STATUS;
+import static org.apache.atlas.repository.Constants.TASK_TYPE_NAME;
+import static org.apache.atlas.repository.Constants.TASK_TYPE_PROPERTY_KEY;
+import static org.apache.atlas.repository.Constants.TASK_UPDATED_TIME;
+import static org.apache.atlas.repository.Constants.VERTEX_TYPE_PROPERTY_KEY;
+
+/**
+ * Stores background tasks as vertices in the graph.
+ */
+@Component
+public class TaskRegistry {
+    private static final Logger LOG = LoggerFactory.getLogger(TaskRegistry.class);
+
+    private final AtlasGraph graph;
+
+    @Inject
+    public TaskRegistry(AtlasGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Creates the vertex for the given task; when called within a graph transaction, the task is committed along with
+     * the rest of the changes in that transaction.
+     */
+    @GraphTransaction
+    public void createVertex(AtlasTask task) {
+        AtlasVertex vertex = graph.addVertex();
+
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, VERTEX_TYPE_PROPERTY_KEY, TASK_TYPE_NAME);
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TASK_GUID, task.getGuid());
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TASK_TYPE_PROPERTY_KEY, task.getType());
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TASK_CREATED_BY, task.getCreatedBy());
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TASK_CREATED_TIME, task.getCreatedTime());
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TASK_PARAMETERS, AtlasType.toJson(task.getParameters()));
+
+        setStatus(vertex, task);
+    }
+
+    @GraphTransaction
+    public void updateStatus(AtlasTask task) {
+        AtlasVertex vertex = findByGuid(task.getGuid());
+
+        if (vertex == null) {
+            LOG.warn("updateStatus(): task vertex not found for guid {}", task.getGuid());
+
+            return;
+        }
+
+        setStatus(vertex, task);
+    }
+
+    @GraphTransaction
+    public AtlasTask getByGuid(String guid) {
+        AtlasVertex vertex = findByGuid(guid);
+
+        return vertex != null ? toAtlasTask(vertex) : null;
+    }
+
+    /**
+     * @return tasks that are yet to complete, i.e. in PENDING or IN_PROGRESS status, in the order of their creation
+     */
+    @GraphTransaction
+    public List<AtlasTask> getPendingTasks() {
+        return getTasks(Arrays.asList(AtlasTask.Status.PENDING.name(), AtlasTask.Status.IN_PROGRESS.name()));
+    }
+
+    /**
+     * @param status status to filter on; tasks in all states are returned when null
+     */
+    @GraphTransaction
+    public List<AtlasTask> getTasks(AtlasTask.Status status) {
+        List<String> statuses = new ArrayList<>();
+
+        if (status != null) {
+            statuses.add(status.name());
+        } else {
+            for (AtlasTask.Status value : AtlasTask.Status.values()) {
+                statuses.add(value.name());
+            }
+        }
+
+        return getTasks(statuses);
+    }
+
+    private List<AtlasTask> getTasks(Collection<String> statuses) {
+        List<AtlasTask>       ret      = new ArrayList<>();
+        Iterator<AtlasVertex> vertices = graph.query().in(TASK_STATUS, statuses).vertices().iterator();
+
+        while (vertices.hasNext()) {
+            ret.add(toAtlasTask(vertices.next()));
+        }
+
+        Collections.sort(ret, Comparator.comparingLong(AtlasTask::getCreatedTime));
+
+        return ret;
+    }
+
+    private AtlasVertex findByGuid(String guid) {
+        Iterator<AtlasVertex> vertices = graph.query().has(TASK_GUID, guid).vertices().iterator();
+
+        return vertices.hasNext() ? vertices.next() : null;
+    }
+
+    private static void setStatus(AtlasVertex vertex, AtlasTask task) {
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TASK_STATUS, task.getStatus().name());
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TASK_UPDATED_TIME, task.getUpdatedTime());
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TASK_START_TIME, task.getStartTime());
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TASK_END_TIME, task.getEndTime());
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TASK_ATTEMPT_COUNT, task.getAttemptCount());
+        AtlasGraphUtilsV2.setEncodedProperty(vertex, TASK_ERROR_MESSAGE, task.getErrorMessage());
+    }
+
+    private static AtlasTask toAtlasTask(AtlasVertex vertex) {
+        AtlasTask ret          = new AtlasTask();
+        String    parameters   = AtlasGraphUtilsV2.getEncodedProperty(vertex, TASK_PARAMETERS, String.class);
+        Integer   attemptCount = AtlasGraphUtilsV2.getEncodedProperty(vertex, TASK_ATTEMPT_COUNT, Integer.class);
+        Long      createdTime  = AtlasGraphUtilsV2.getEncodedProperty(vertex, TASK_CREATED_TIME, Long.class);
+        Long      updatedTime  = AtlasGraphUtilsV2.getEncodedProperty(vertex, TASK_UPDATED_TIME, Long.class);
+
+        ret.setGuid(AtlasGraphUtilsV2.getEncodedProperty(vertex, TASK_GUID, String.class));
+        ret.setType(AtlasGraphUtilsV2.getEncodedProperty(vertex, TASK_TYPE_PROPERTY_KEY, String.class));
+        ret.setStatus(AtlasTask.Status.valueOf(AtlasGraphUtilsV2.getEncodedProperty(vertex, TASK_STATUS, String.class)));
+        ret.setCreatedBy(AtlasGraphUtilsV2.getEncodedProperty(vertex, TASK_CREATED_BY, String.class));
+        ret.setCreatedTime(createdTime != null ? createdTime : 0);
+        ret.setUpdatedTime(updatedTime != null ? updatedTime : 0);
+        ret.setStartTime(AtlasGraphUtilsV2.getEncodedProperty(vertex, TASK_START_TIME, Long.class));
+        ret.setEndTime(AtlasGraphUtilsV2.getEncodedProperty(vertex, TASK_END_TIME, Long.class));
+        ret.setAttemptCount(attemptCount != null ? attemptCount : 0);
+        ret.setErrorMessage(AtlasGraphUtilsV2.getEncodedProperty(vertex, TASK_ERROR_MESSAGE, String.class));
+
+        if (StringUtils.isNotEmpty(parameters)) {
+            ret.setParameters(AtlasType.fromJson(parameters, Map.class));
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.discovery.LineageIndex.Adjacency;
+import org.apache.atlas.discovery.LineageIndex.ProcessNode;
+import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection.INPUT;
+import static org.apache.atlas.model.lineage.AtlasLineageInfo.LineageDirection.OUTPUT;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class LineageIndexTest {
+    private Adjacency adjacency;
+
+    // d1 -> p1 -> d2 -> p2 -> d3; p3 reads d2 and has no outputs
+    @BeforeMethod
+    public void setUp() {
+        adjacency = new Adjacency();
+
+        adjacency.put(process(11, "p1", new long[] { 1 }, new long[] { 2 }));
+        adjacency.put(process(12, "p2", new long[] { 2 }, new long[] { 3 }));
+        adjacency.put(process(13, "p3", new long[] { 2 }, new long[0]));
+
+        adjacency.updatedDuringBuild = null;
+    }
+
+    @Test
+    public void outputLineageOfDataSet() {
+        Map<Long, String>    entities  = new HashMap<>();
+        Set<LineageRelation> relations = new HashSet<>();
+
+        adjacency.traverse("d1", OUTPUT, 0, true, entities, relations);
+
+        assertEquals(entities.size(), 5);
+        assertEquals(relations.size(), 4);
+        assertTrue(relations.contains(new LineageRelation("d1", "p1", "d1-p1")));
+        assertTrue(relations.contains(new LineageRelation("p2", "d3", "p2-d3")));
+        assertFalse(entities.containsValue("p3"));
+
+        entities.clear();
+        relations.clear();
+
+        adjacency.traverse("d1", OUTPUT, 1, true, entities, relations);
+
+        assertEquals(entities.size(), 3);
+        assertEquals(relations.size(), 2);
+    }
+
+    @Test
+    public void inputLineageOfDataSet() {
+        Map<Long, String>    entities  = new HashMap<>();
+        Set<LineageRelation> relations = new HashSet<>();
+
+        adjacency.traverse("d3", INPUT, 0, true, entities, relations);
+
+        assertEquals(entities.size(), 5);
+        assertTrue(relations.contains(new LineageRelation("d1", "p1", "d1-p1")));
+        assertTrue(relations.contains(new LineageRelation("d2", "p2", "d2-p2")));
+    }
+
+    @Test
+    public void lineageOfProcess() {
+        Map<Long, String>    entities  = new HashMap<>();
+        Set<LineageRelation> relations = new HashSet<>();
+
+        adjacency.traverse("p1", OUTPUT, 1, false, entities, relations);
+
+        assertEquals(entities.size(), 2);
+        assertTrue(relations.contains(new LineageRelation("p1", "d2", "p1-d2")));
+
+        entities.clear();
+        relations.clear();
+
+        adjacency.traverse("p1", OUTPUT, 2, false, entities, relations);
+
+        // processes are included in lineage of a process, even when they have no outputs
+        assertTrue(entities.containsValue("p3"));
+        assertTrue(entities.containsValue("d3"));
+    }
+
+    @Test
+    public void updateAndRemove() {
+        assertEquals(adjacency.processes.size(), 3);
+        assertEquals(adjacency.dataSetCount(), 3);
+        assertEquals(adjacency.edgeCount, 5);
+
+        // p2 now writes to d4 instead of d3
+        adjacency.put(process(12, "p2", new long[] { 2 }, new long[] { 4 }));
+
+        assertEquals(adjacency.edgeCount, 5);
+        assertNull(adjacency.producers.get(3L));
+        assertNull(adjacency.vertexIds.get("d3"));
+
+        Map<Long, String>    entities  = new HashMap<>();
+        Set<LineageRelation> relations = new HashSet<>();
+
+        adjacency.traverse("d1", OUTPUT, 0, true, entities, relations);
+
+        assertTrue(entities.containsValue("d4"));
+        assertFalse(entities.containsValue("d3"));
+
+        adjacency.remove("d2");
+
+        assertEquals(adjacency.edgeCount, 2);
+        assertNull(adjacency.vertexIds.get("d2"));
+
+        adjacency.remove("p1");
+
+        assertEquals(adjacency.processes.size(), 2);
+        assertEquals(adjacency.edgeCount, 1);
+        assertNull(adjacency.consumers.get(1L));
+    }
+
+    @Test
+    public void indexIsNotUsedOnPassiveInstance() throws Exception {
+        AtlasTypeRegistry typeRegistry = mock(AtlasTypeRegistry.class);
+        LineageIndex      index        = new LineageIndex(mock(AtlasGraph.class), typeRegistry, null, true, false); // no vertices are read
+
+        when(typeRegistry.getAllEntityTypes()).thenReturn(Collections.emptyList()); // graph has no processes
+
+        // lineage is computed from the graph, as the index would miss updates made by the active instance
+        assertFalse(index.isReady());
+        assertFalse(index.rebuild());
+        verify(typeRegistry, never()).getAllEntityTypes();
+
+        index.instanceIsActive();
+
+        waitUntilReady(index);
+
+        index.apply(Collections.singletonList(process(11, "p1", new long[] { 1 }, new long[] { 2 })), Collections.emptySet());
+
+        assertEquals(index.getMetrics().get(LineageIndex.METRIC_PROCESS_COUNT), 1);
+
+        index.instanceIsPassive();
+
+        assertFalse(index.isReady());
+        assertEquals(index.getMetrics().get(LineageIndex.METRIC_READY), false);
+
+        // a request that passed isReady() before the transition falls back to the graph
+        assertNull(index.getLineageInfo("d1", OUTPUT, 3, true));
+
+        // index is rebuilt from the graph on activation, instead of resuming with the index from before
+        index.instanceIsActive();
+
+        waitUntilReady(index);
+
+        assertEquals(index.getMetrics().get(LineageIndex.METRIC_PROCESS_COUNT), 0);
+    }
+
+    private static void waitUntilReady(LineageIndex index) throws InterruptedException {
+        for (int i = 0; i < 300 && !index.isReady(); i++) {
+            Thread.sleep(100);
+        }
+
+        assertTrue(index.isReady());
+    }
+
+    private static ProcessNode process(long processId, String guid, long[] inputs, long[] outputs) {
+        ProcessNode ret = new ProcessNode(processId, guid, inputs.length, outputs.length);
+
+        for (int i = 0; i < inputs.length; i++) {
+            ret.inputs[i]        = inputs[i];
+            ret.inputRelGuids[i] = "d" + inputs[i] + "-" + guid;
+
+            ret.dataSetGuids.put(inputs[i], "d" + inputs[i]);
+        }
+
+        for (int i = 0; i < outputs.length; i++) {
+            ret.outputs[i]        = outputs[i];
+            ret.outputRelGuids[i] = guid + "-d" + outputs[i];
+
+            ret.dataSetGuids.put(outputs[i], "d" + outputs[i]);
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.SortOrder;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
+import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeUtil;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Set;
+
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class SearchContextTest {
+    private static final String TABLE_TYPE = "sort_table";
+
+    private AtlasTypeRegistry typeRegistry;
+    private Set<String>       indexedKeys;
+    private AtlasGraph        graph;
+    private AtlasIndexQuery   indexQuery;
+
+    @BeforeClass
+    public void setUpTypes() throws AtlasBaseException {
+        AtlasTypesDef typesDef = new AtlasTypesDef();
+
+        typesDef.setEntityDefs(Collections.singletonList(AtlasTypeUtil.createClassTypeDef(TABLE_TYPE, Collections.<String>emptySet(),
+                                                                                          AtlasTypeUtil.createUniqueRequiredAttrDef("name", "string"),
+                                                                                          AtlasTypeUtil.createOptionalAttrDef("comment", "string"))));
+
+        typeRegistry = new AtlasTypeRegistry();
+
+        AtlasTypeRegistry.AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+        ttr.addTypes(typesDef);
+
+        typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+
+        indexedKeys = Collections.singleton(getNameProperty());
+    }
+
+    @BeforeMethod
+    public void setUpGraph() {
+        graph      = mock(AtlasGraph.class);
+        indexQuery = mock(AtlasIndexQuery.class);
+
+        when(graph.indexQuery(anyString(), anyString())).thenReturn(indexQuery);
+    }
+
+    @Test
+    public void sortIsPushedToIndexQuery() throws AtlasBaseException {
+        SearchParameters params = searchParameters(TABLE_TYPE, "name", SortOrder.DESCENDING);
+        SearchContext    context = new SearchContext(params, typeRegistry, graph, indexedKeys);
+
+        assertTrue(context.getSearchProcessor() instanceof EntitySearchProcessor);
+        assertEquals(context.getSortKey(), getNameProperty());
+        assertEquals(context.getSortOrder(), AtlasGraphQuery.SortOrder.DESC);
+
+        verify(indexQuery).orderBy(getNameProperty(), AtlasGraphQuery.SortOrder.DESC);
+    }
+
+    @Test
+    public void sortOrderDefaultsToAscending() throws AtlasBaseException {
+        SearchContext context = new SearchContext(searchParameters(TABLE_TYPE, "name", null), typeRegistry, graph, indexedKeys);
+
+        assertEquals(context.getSortOrder(), AtlasGraphQuery.SortOrder.ASC);
+    }
+
+    @Test
+    public void noSortWithoutSortBy() throws AtlasBaseException {
+        SearchContext context = new SearchContext(searchParameters(TABLE_TYPE, null, SortOrder.DESCENDING), typeRegistry, graph, indexedKeys);
+
+        assertNull(context.getSortKey());
+        assertNull(context.getSortOrder());
+    }
+
+    @Test
+    public void sortByRequiresTypeName() {
+        SearchParameters params = searchParameters(null, "name", SortOrder.ASCENDING);
+
+        params.setQuery("sales");
+
+        assertInvalidParameters(params, "requires typeName");
+    }
+
+    @Test
+    public void sortByRequiresIndexedAttribute() {
+        assertInvalidParameters(searchParameters(TABLE_TYPE, "comment", SortOrder.ASCENDING), "not indexed");
+        assertRejected(searchParameters(TABLE_TYPE, "nosuchattr", SortOrder.ASCENDING), AtlasErrorCode.UNKNOWN_ATTRIBUTE, "nosuchattr");
+    }
+
+    @Test
+    public void sortByIsRejectedWithFullTextQuery() {
+        SearchParameters params = searchParameters(TABLE_TYPE, "name", SortOrder.ASCENDING);
+
+        params.setQuery("sales");
+
+        assertInvalidParameters(params, "not supported");
+    }
+
+    private void assertInvalidParameters(SearchParameters params, String expectedMessage) {
+        assertRejected(params, AtlasErrorCode.INVALID_PARAMETERS, expectedMessage);
+    }
+
+    private void assertRejected(SearchParameters params, AtlasErrorCode expectedErrorCode, String expectedMessage) {
+        try {
+            new SearchContext(params, typeRegistry, graph, indexedKeys);
+
+            fail("expected sortBy=" + params.getSortBy() + " to be rejected");
+        } catch (AtlasBaseException excp) {
+            assertEquals(excp.getAtlasErrorCode(), expectedErrorCode);
+            assertTrue(excp.getMessage().contains(expectedMessage), excp.getMessage());
+        }
+    }
+
+    private String getNameProperty() throws AtlasBaseException {
+        return typeRegistry.getEntityTypeByName(TABLE_TYPE).getQualifiedAttributeName("name");
+    }
+
+    private static SearchParameters searchParameters(String typeName, String sortBy, SortOrder sortOrder) {
+        SearchParameters ret = new SearchParameters();
+
+        ret.setTypeName(typeName);
+        ret.setSortBy(sortBy);
+        ret.setSortOrder(sortOrder);
+        ret.setLimit(10);
+
+        return ret;
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+public class SearchContinuationTest {
+    @Test
+    public void tokenRoundTrip() throws AtlasBaseException {
+        SearchParameters   params = searchParameters("hive_table", 25);
+        String             token  = new SearchContinuation(100, 7).toToken(params);
+        SearchContinuation ret    = SearchContinuation.fromToken(token, searchParameters("hive_table", 50));
+
+        assertEquals(ret.getQueryOffset(), 100);
+        assertEquals(ret.getSkipCount(), 7);
+    }
+
+    @Test(expectedExceptions = AtlasBaseException.class)
+    public void tokenOfDifferentSearchIsRejected() throws AtlasBaseException {
+        String token = new SearchContinuation(100, 7).toToken(searchParameters("hive_table", 25));
+
+        SearchContinuation.fromToken(token, searchParameters("hive_column", 25));
+    }
+
+    @Test(expectedExceptions = AtlasBaseException.class)
+    public void malformedTokenIsRejected() throws AtlasBaseException {
+        SearchContinuation.fromToken("not-a-token", searchParameters("hive_table", 25));
+    }
+
+    private static SearchParameters searchParameters(String typeName, int limit) {
+        SearchParameters ret = new SearchParameters();
+
+        ret.setTypeName(typeName);
+        ret.setLimit(limit);
+
+        return ret;
+    }
+}
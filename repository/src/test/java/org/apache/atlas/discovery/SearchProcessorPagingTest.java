@@ -0,0 +1,331 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.SortOrder;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.model.discovery.SearchParameters.FilterCriteria;
+import org.apache.atlas.model.discovery.SearchParameters.Operator;
+import org.apache.atlas.model.instance.AtlasClassification;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.typedef.AtlasClassificationDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.GraphBackedSearchIndexer;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.repository.store.graph.v2.AtlasEntityStream;
+import org.apache.atlas.repository.store.graph.v2.AtlasGraphUtilsV2;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeUtil;
+import org.testng.SkipException;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/*
+ * Page N of a basic search read with the continuation token of page N-1 must be the same as page N read by offset;
+ * sorted pages must be in the order of the sort attribute.
+ */
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class SearchProcessorPagingTest {
+    private static final String DATASET_TYPE   = "paging_dataset";
+    private static final String TAG_TYPE       = "paging_tag";
+    private static final String TAG_SUB_TYPE_1 = "paging_tag_1";
+    private static final String TAG_SUB_TYPE_2 = "paging_tag_2";
+    private static final int    NUM_ENTITIES   = 20;
+    private static final int    PAGE_SIZE      = 3;
+
+    @Inject
+    private AtlasTypeDefStore typeDefStore;
+
+    @Inject
+    private AtlasTypeRegistry typeRegistry;
+
+    @Inject
+    private AtlasEntityStore entityStore;
+
+    @Inject
+    private AtlasGraph graph;
+
+    @Inject
+    private GraphBackedSearchIndexer indexer;
+
+    private final Set<String> multiTaggedGuids = new HashSet<>();
+
+    @BeforeClass
+    public void setup() throws AtlasBaseException {
+        RequestContext.clear();
+
+        createTypes();
+        createEntities();
+    }
+
+    @AfterClass
+    public void clear() throws Exception {
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void entitySearchPagesByTokenMatchPagesByOffset() throws AtlasBaseException {
+        SearchParameters params = new SearchParameters();
+
+        params.setTypeName(DATASET_TYPE);
+        params.setEntityFilters(filter("size", Operator.GT, "4"));
+
+        List<List<String>> pagesByOffset = getPagesByOffset(params);
+        List<List<String>> pagesByToken  = getPagesByToken(params);
+
+        assertEquals(getCount(pagesByOffset), NUM_ENTITIES - 5);
+        assertEquals(pagesByToken, pagesByOffset);
+    }
+
+    @Test
+    public void classificationSearchPagesByTokenMatchPagesByOffset() throws AtlasBaseException {
+        SearchParameters params = new SearchParameters();
+
+        params.setClassification(TAG_SUB_TYPE_1);
+        params.setIncludeSubClassifications(false);
+        params.setTagFilters(filter("level", Operator.GT, "1"));
+
+        List<List<String>> pagesByOffset = getPagesByOffset(params);
+        List<List<String>> pagesByToken  = getPagesByToken(params);
+
+        assertTrue(getCount(pagesByOffset) > PAGE_SIZE);
+        assertEquals(pagesByToken, pagesByOffset);
+    }
+
+    @Test
+    public void classificationSearchByTokenSkipsNoResult() throws AtlasBaseException {
+        SearchParameters params = new SearchParameters();
+
+        params.setClassification(TAG_TYPE);
+        params.setIncludeSubClassifications(true);
+        params.setTagFilters(filter("level", Operator.GT, "1"));
+
+        Set<String>  guidsByOffset = new HashSet<>();
+        List<String> guidsByToken  = new ArrayList<>();
+
+        for (List<String> page : getPagesByOffset(params)) {
+            guidsByOffset.addAll(page);
+        }
+
+        for (List<String> page : getPagesByToken(params)) {
+            guidsByToken.addAll(page);
+        }
+
+        assertEquals(new HashSet<>(guidsByToken), guidsByOffset);
+
+        // only entities having more than one matching classification can be returned again in a later page
+        Set<String> seen = new HashSet<>();
+
+        for (String guid : guidsByToken) {
+            assertTrue(seen.add(guid) || multiTaggedGuids.contains(guid), guid + " returned more than once");
+        }
+    }
+
+    @Test
+    public void entitySearchIsSortedByIndex() throws AtlasBaseException {
+        if (!graph.isIndexSortSupported()) {
+            throw new SkipException("index backend does not support sorting");
+        }
+
+        for (SortOrder sortOrder : SortOrder.values()) {
+            SearchParameters params = new SearchParameters();
+
+            params.setTypeName(DATASET_TYPE);
+            params.setEntityFilters(filter("size", Operator.GT, "4"));
+            params.setSortBy("name");
+            params.setSortOrder(sortOrder);
+
+            List<String> names = new ArrayList<>();
+
+            for (List<String> page : getPagesByOffset(params)) {
+                for (String guid : page) {
+                    names.add(getName(guid));
+                }
+            }
+
+            List<String> expected = new ArrayList<>(names);
+
+            expected.sort(sortOrder == SortOrder.ASCENDING ? Comparator.<String>naturalOrder() : Comparator.<String>reverseOrder());
+
+            assertEquals(names.size(), NUM_ENTITIES - 5);
+            assertEquals(names, expected);
+        }
+    }
+
+    private List<List<String>> getPagesByOffset(SearchParameters params) throws AtlasBaseException {
+        List<List<String>> ret = new ArrayList<>();
+
+        for (int offset = 0; ; offset += PAGE_SIZE) {
+            SearchContext context = execute(params, offset, null);
+            List<String>  page    = getGuids(context.getSearchProcessor().execute());
+
+            if (page.isEmpty()) {
+                break;
+            }
+
+            ret.add(page);
+        }
+
+        return ret;
+    }
+
+    private List<List<String>> getPagesByToken(SearchParameters params) throws AtlasBaseException {
+        List<List<String>> ret   = new ArrayList<>();
+        String             token = null;
+
+        do {
+            SearchContext context = execute(params, 0, token);
+            List<String>  page    = getGuids(context.getSearchProcessor().execute());
+
+            if (page.isEmpty()) {
+                assertNull(context.getNextContinuation());
+
+                break;
+            }
+
+            ret.add(page);
+
+            token = context.getNextContinuation() != null ? context.getNextContinuation().toToken(params) : null;
+        } while (token != null);
+
+        return ret;
+    }
+
+    private SearchContext execute(SearchParameters params, int offset, String token) throws AtlasBaseException {
+        params.setLimit(PAGE_SIZE);
+        params.setOffset(offset);
+        params.setContinuationToken(token);
+
+        SearchContext ret = new SearchContext(params, typeRegistry, graph, indexer.getVertexIndexKeys());
+
+        assertNotNull(ret.getSearchProcessor());
+
+        return ret;
+    }
+
+    private static List<String> getGuids(List<AtlasVertex> vertices) {
+        List<String> ret = new ArrayList<>();
+
+        for (AtlasVertex vertex : vertices) {
+            ret.add(AtlasGraphUtilsV2.getIdFromVertex(vertex));
+        }
+
+        return ret;
+    }
+
+    private String getName(String guid) throws AtlasBaseException {
+        AtlasVertex vertex = AtlasGraphUtilsV2.findByGuid(guid);
+
+        return vertex.getProperty(typeRegistry.getEntityTypeByName(DATASET_TYPE).getQualifiedAttributeName("name"), String.class);
+    }
+
+    private static FilterCriteria filter(String attrName, Operator operator, String attrValue) {
+        FilterCriteria ret = new FilterCriteria();
+
+        ret.setAttributeName(attrName);
+        ret.setOperator(operator);
+        ret.setAttributeValue(attrValue);
+
+        return ret;
+    }
+
+    private static int getCount(List<List<String>> pages) {
+        int ret = 0;
+
+        for (List<String> page : pages) {
+            ret += page.size();
+        }
+
+        return ret;
+    }
+
+    private void createTypes() throws AtlasBaseException {
+        AtlasClassificationDef tagDef     = AtlasTypeUtil.createTraitTypeDef(TAG_TYPE, Collections.<String>emptySet(),
+                                                                             AtlasTypeUtil.createOptionalAttrDef("level", "int"));
+        AtlasClassificationDef subTagDef1 = AtlasTypeUtil.createTraitTypeDef(TAG_SUB_TYPE_1, Collections.singleton(TAG_TYPE));
+        AtlasClassificationDef subTagDef2 = AtlasTypeUtil.createTraitTypeDef(TAG_SUB_TYPE_2, Collections.singleton(TAG_TYPE));
+        AtlasTypesDef          typesDef   = new AtlasTypesDef();
+
+        typesDef.setEntityDefs(Collections.singletonList(AtlasTypeUtil.createClassTypeDef(DATASET_TYPE, Collections.<String>emptySet(),
+                                                                                          AtlasTypeUtil.createUniqueRequiredAttrDef("name", "string"),
+                                                                                          AtlasTypeUtil.createOptionalAttrDef("size", "int"))));
+        typesDef.setClassificationDefs(Arrays.asList(tagDef, subTagDef1, subTagDef2));
+
+        typeDefStore.createTypesDef(typesDef);
+    }
+
+    private void createEntities() throws AtlasBaseException {
+        AtlasEntitiesWithExtInfo entities             = new AtlasEntitiesWithExtInfo();
+        List<String>             multiTaggedTempGuids = new ArrayList<>();
+
+        for (int i = 0; i < NUM_ENTITIES; i++) {
+            AtlasEntity entity = new AtlasEntity(DATASET_TYPE);
+
+            entity.setAttribute("name", "paging-" + i);
+            entity.setAttribute("size", i);
+
+            // levels 0..3 - so that the tag filter drops some of the classifications
+            entity.addClassifications(Collections.singletonList(new AtlasClassification(TAG_SUB_TYPE_1, Collections.<String, Object>singletonMap("level", i % 4))));
+
+            if (i % 3 == 0) {
+                entity.addClassifications(Collections.singletonList(new AtlasClassification(TAG_SUB_TYPE_2, Collections.<String, Object>singletonMap("level", 2))));
+
+                multiTaggedTempGuids.add(entity.getGuid());
+            }
+
+            entities.addEntity(entity);
+        }
+
+        EntityMutationResponse response = entityStore.createOrUpdate(new AtlasEntityStream(entities), false);
+
+        for (String tempGuid : multiTaggedTempGuids) {
+            multiTaggedGuids.add(response.getGuidAssignments().get(tempGuid));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.discovery;
+
+import org.apache.atlas.model.discovery.SearchParameters;
+import org.apache.atlas.repository.graphdb.AtlasGraphQuery;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+public class TermSearchProcessorTest {
+    private static final String SORT_KEY = "sort_table.name";
+
+    @Test
+    public void assignedEntitiesAreSortedAscending() {
+        List<AtlasVertex> assignedEntities = vertices("b", null, "c", "a");
+
+        assertEquals(getNames(execute(assignedEntities, AtlasGraphQuery.SortOrder.ASC, 0, 10)), Arrays.asList("a", "b", "c", null));
+    }
+
+    @Test
+    public void assignedEntitiesAreSortedDescending() {
+        List<AtlasVertex> assignedEntities = vertices("b", null, "c", "a");
+
+        // vertices without the property stay last
+        assertEquals(getNames(execute(assignedEntities, AtlasGraphQuery.SortOrder.DESC, 0, 10)), Arrays.asList("c", "b", "a", null));
+    }
+
+    @Test
+    public void pagesAreReadFromSortedEntities() {
+        List<AtlasVertex> assignedEntities = vertices("d", "b", "e", "a", "c");
+
+        assertEquals(getNames(execute(assignedEntities, AtlasGraphQuery.SortOrder.ASC, 0, 2)), Arrays.asList("a", "b"));
+        assertEquals(getNames(execute(assignedEntities, AtlasGraphQuery.SortOrder.ASC, 2, 2)), Arrays.asList("c", "d"));
+        assertEquals(getNames(execute(assignedEntities, AtlasGraphQuery.SortOrder.ASC, 4, 2)), Arrays.asList("e"));
+    }
+
+    @Test
+    public void assignedEntitiesAreNotReorderedWithoutSortKey() {
+        List<AtlasVertex> assignedEntities = vertices("b", "c", "a");
+
+        assertEquals(getNames(execute(assignedEntities, null, 0, 10)), Arrays.asList("b", "c", "a"));
+    }
+
+    private static List<AtlasVertex> execute(List<AtlasVertex> assignedEntities, AtlasGraphQuery.SortOrder sortOrder, int offset, int limit) {
+        SearchContext    context = mock(SearchContext.class);
+        SearchParameters params  = new SearchParameters();
+
+        params.setOffset(offset);
+        params.setLimit(limit);
+
+        when(context.getSearchParameters()).thenReturn(params);
+        when(context.getSortKey()).thenReturn(sortOrder != null ? SORT_KEY : null);
+        when(context.getSortOrder()).thenReturn(sortOrder);
+
+        List<AtlasVertex> ret = new TermSearchProcessor(context, assignedEntities).execute();
+
+        assertNotNull(ret);
+
+        return ret;
+    }
+
+    private static List<AtlasVertex> vertices(String... names) {
+        List<AtlasVertex> ret = new ArrayList<>();
+
+        for (String name : names) {
+            AtlasVertex vertex = mock(AtlasVertex.class);
+
+            when(vertex.getProperty(SORT_KEY, Object.class)).thenReturn(name);
+            when(vertex.getProperty(SORT_KEY, String.class)).thenReturn(name);
+
+            ret.add(vertex);
+        }
+
+        return ret;
+    }
+
+    private static List<String> getNames(List<AtlasVertex> vertices) {
+        List<String> ret = new ArrayList<>();
+
+        for (AtlasVertex vertex : vertices) {
+            ret.add(vertex.getProperty(SORT_KEY, String.class));
+        }
+
+        return ret;
+    }
+}
@@ -862,6 +862,34 @@ public class GlossaryServiceTest {
         }
     }
 
+    @Test(groups = "Glossary.GET.postUpdate", dependsOnGroups = "Glossary.UPDATE")
+    public void testGetGlossaryTermsPagesInSortOrder() {
+        String guid = bankGlossary.getGuid();
+
+        try {
+            for (SortOrder sortOrder : SortOrder.values()) {
+                // unpaged listing is sorted in memory; pages are read from the index when the index can sort
+                List<AtlasRelatedTermHeader> allTerms   = glossaryService.getGlossaryTermsHeaders(guid, 0, -1, sortOrder);
+                List<String>                 pagedNames = new ArrayList<>();
+                List<String>                 allNames   = new ArrayList<>();
+
+                for (int offset = 0; offset < allTerms.size(); offset += 3) {
+                    for (AtlasRelatedTermHeader term : glossaryService.getGlossaryTermsHeaders(guid, offset, 3, sortOrder)) {
+                        pagedNames.add(term.getDisplayText());
+                    }
+                }
+
+                for (AtlasRelatedTermHeader term : allTerms) {
+                    allNames.add(term.getDisplayText());
+                }
+
+                assertEquals(pagedNames, allNames, "sortOrder=" + sortOrder);
+            }
+        } catch (AtlasBaseException e) {
+            fail("Glossary term fetching should've succeeded", e);
+        }
+    }
+
     @DataProvider
     public Object[][] getGlossaryCategoriesProvider() {
         return new Object[][]{
@@ -0,0 +1,188 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.query;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeUtil;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.apache.atlas.query.DSLQueryPlanCache.METRIC_HITS;
+import static org.apache.atlas.query.DSLQueryPlanCache.METRIC_INVALIDATIONS;
+import static org.apache.atlas.query.DSLQueryPlanCache.METRIC_MISSES;
+import static org.apache.atlas.query.DSLQueryPlanCache.METRIC_NOT_CACHEABLE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class DSLQueryPlanTest {
+    private AtlasTypeRegistry typeRegistry;
+
+    @BeforeMethod
+    public void setUp() throws AtlasBaseException {
+        typeRegistry = new AtlasTypeRegistry();
+
+        addType("test_table", AtlasTypeUtil.createOptionalAttrDef("name", "string"),
+                              AtlasTypeUtil.createOptionalAttrDef("size", "long"),
+                              AtlasTypeUtil.createOptionalAttrDef("createTime", "date"));
+    }
+
+    @Test
+    public void normalize() {
+        AtlasDSL.NormalizedQuery query1 = AtlasDSL.Parser.normalize("test_table where name = \"t1\" and size > 10 limit 5");
+        AtlasDSL.NormalizedQuery query2 = AtlasDSL.Parser.normalize("test_table  where name='t2' and size > 20   limit 5");
+
+        assertEquals(query1.getShape(), "test_table where name = '$value0' and size > '$value1' limit 5");
+        assertEquals(query1.getValues(), Arrays.asList("\"t1\"", "10"));
+        assertEquals(query2.getShape(), query1.getShape());
+        assertEquals(query2.getValues(), Arrays.asList("'t2'", "20"));
+
+        AtlasDSL.NormalizedQuery query3 = AtlasDSL.Parser.normalize("test_table where name = [\"t1\", \"t2\"]");
+
+        assertEquals(query3.getShape(), "test_table where name = '$list0'");
+        assertEquals(query3.getValues(), Collections.singletonList(Arrays.asList("\"t1\"", "\"t2\"")));
+
+        // values in arithmetic expressions are left as is
+        AtlasDSL.NormalizedQuery query4 = AtlasDSL.Parser.normalize("test_table where size > 10 + 5");
+
+        assertEquals(query4.getShape(), "test_table where size > 10 + 5");
+        assertTrue(query4.getValues().isEmpty());
+    }
+
+    @Test
+    public void planWithBindings() throws AtlasBaseException {
+        AtlasDSL.NormalizedQuery query = AtlasDSL.Parser.normalize("test_table where name = \"t1\" and size > 10");
+        DSLQueryPlan             plan  = DSLQueryPlan.create(query, typeRegistry);
+
+        assertNotNull(plan);
+        assertFalse(plan.getGremlinQuery().contains("t1"));
+        assertTrue(plan.getGremlinQuery().contains("eq(dslParam0)"));
+        assertTrue(plan.getGremlinQuery().contains("gt(dslParam1)"));
+        assertTrue(plan.getGremlinQuery().contains("range(dslOffset, dslOffset + dslLimit)"));
+
+        GremlinQuery gremlinQuery = plan.bind(query, 25, 50);
+
+        assertEquals(gremlinQuery.queryStr(), plan.getGremlinQuery());
+        assertEquals(gremlinQuery.getBindings().get("dslParam0"), "t1");
+        assertEquals(gremlinQuery.getBindings().get("dslParam1"), 10L);
+        assertEquals(gremlinQuery.getBindings().get(DSLQueryPlan.PARAM_LIMIT), 25);
+        assertEquals(gremlinQuery.getBindings().get(DSLQueryPlan.PARAM_OFFSET), 50);
+    }
+
+    @Test
+    public void bindValues() throws AtlasBaseException {
+        AtlasDSL.NormalizedQuery query = AtlasDSL.Parser.normalize("test_table where name like \"t*\" and createTime > \"2018-01-01\" and name = [\"a\", \"b\"]");
+        DSLQueryPlan             plan  = DSLQueryPlan.create(query, typeRegistry);
+        GremlinQuery             ret   = plan.bind(query, 25, 0);
+
+        assertTrue(plan.getGremlinQuery().contains("textRegex(dslParam0)"));
+        assertTrue(plan.getGremlinQuery().contains("within(dslParam2)"));
+        assertEquals(ret.getBindings().get("dslParam0"), "t.*");
+        assertEquals(ret.getBindings().get("dslParam1"), "1514764800000");
+        assertEquals(ret.getBindings().get("dslParam2"), Arrays.asList("a", "b"));
+
+        // values that Groovy would interpret, like escape sequences, are not bound
+        assertNull(plan.bind(AtlasDSL.Parser.normalize("test_table where name like \"t\\\\*\" and createTime > \"2018-01-01\" and name = [\"a\", \"b\"]"), 25, 0));
+
+        try {
+            plan.bind(AtlasDSL.Parser.normalize("test_table where name like \"t*\" and createTime > \"yesterday\" and name = [\"a\", \"b\"]"), 25, 0);
+
+            fail("invalid date should have been reported");
+        } catch (AtlasBaseException excp) {
+            assertTrue(excp.getMessage().contains("yesterday"));
+        }
+    }
+
+    @Test
+    public void groovyValues() {
+        assertEquals(DSLQueryPlan.toGroovyValue("'abc'"), "abc");
+        assertEquals(DSLQueryPlan.toGroovyValue("\"abc\""), "abc");
+        assertNull(DSLQueryPlan.toGroovyValue("\"a$b\""));
+        assertEquals(DSLQueryPlan.toGroovyValue("true"), Boolean.TRUE);
+        assertEquals(DSLQueryPlan.toGroovyValue("10"), 10);
+        assertEquals(DSLQueryPlan.toGroovyValue("10000000000"), 10000000000L);
+        assertEquals(DSLQueryPlan.toGroovyValue("-10L"), -10L);
+        assertEquals(DSLQueryPlan.toGroovyValue("1.5"), new BigDecimal("1.5"));
+        assertEquals(DSLQueryPlan.toGroovyValue("1.5f"), 1.5f);
+        assertEquals(DSLQueryPlan.toGroovyValue("1.5d"), 1.5d);
+        assertNull(DSLQueryPlan.toGroovyValue("1.5L"));
+        assertNull(DSLQueryPlan.toGroovyValue("010"));
+        assertNull(DSLQueryPlan.toGroovyValue("abc"));
+    }
+
+    @Test
+    public void cache() throws AtlasBaseException {
+        DSLQueryPlanCache cache = new DSLQueryPlanCache(typeRegistry, 10);
+
+        GremlinQuery query1 = cache.getGremlinQuery("test_table where name = \"t1\"", 25, 0);
+        GremlinQuery query2 = cache.getGremlinQuery("test_table where name = \"t2\"", 25, 0);
+
+        assertEquals(query1.queryStr(), query2.queryStr());
+        assertEquals(query2.getBindings().get("dslParam0"), "t2");
+        assertEquals(cache.getMetrics().get(METRIC_HITS), 1L);
+        assertEquals(cache.getMetrics().get(METRIC_MISSES), 1L);
+
+        // values inlined when they can't be bound
+        GremlinQuery query3 = cache.getGremlinQuery("test_table where name = \"t\\\\1\"", 25, 0);
+
+        assertTrue(query3.getBindings().isEmpty());
+        assertEquals(cache.getMetrics().get(METRIC_NOT_CACHEABLE), 1L);
+
+        // invalid queries are reported the same way as without the cache
+        try {
+            cache.getGremlinQuery("unknown_table where name = \"t1\"", 25, 0);
+
+            fail("unknown type should have been reported");
+        } catch (AtlasBaseException excp) {
+            assertTrue(excp.getMessage().contains("unknown_table"));
+        }
+
+        // updates to types clear the cache
+        addType("test_db", AtlasTypeUtil.createOptionalAttrDef("name", "string"));
+
+        cache.getGremlinQuery("test_table where name = \"t3\"", 25, 0);
+
+        assertEquals(cache.getMetrics().get(METRIC_INVALIDATIONS), 1L);
+        assertEquals(cache.getMetrics().get(METRIC_HITS), 2L);
+        assertEquals(cache.getMetrics().get(METRIC_MISSES), 3L);
+    }
+
+    private void addType(String typeName, AtlasAttributeDef... attributes) throws AtlasBaseException {
+        AtlasEntityDef entityDef = AtlasTypeUtil.createClassTypeDef(typeName, Collections.<String>emptySet(), attributes);
+        AtlasTypesDef  typesDef  = new AtlasTypesDef();
+
+        typesDef.setEntityDefs(Collections.singletonList(entityDef));
+
+        AtlasTypeRegistry.AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+        ttr.addTypes(typesDef);
+
+        typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditActionV2;
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class AsyncEntityAuditWriterTest {
+    private static final long WAIT_MS = 10000;
+
+    private File           journalDirectory;
+    private TestRepository repository;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        journalDirectory = Files.createTempDirectory("audit-journal").toFile();
+        repository       = new TestRepository();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        FileUtils.deleteQuietly(journalDirectory);
+    }
+
+    @Test
+    public void writesEventsInBatches() throws Exception {
+        AsyncEntityAuditWriter writer = createWriter(100);
+
+        writer.start();
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                writer.putEventsV2(Collections.singletonList(event("e" + i)));
+            }
+
+            waitForEvents(10);
+        } finally {
+            writer.stop();
+        }
+
+        assertEquals(repository.getEntityIds().size(), 10);
+        assertEquals(repository.getEntityIds().get(0), "e0");
+        assertTrue(repository.getBatchCount() <= 10);
+        assertEquals(writer.getMetrics().get(AsyncEntityAuditWriter.METRIC_SYNC_WRITES), 0L);
+    }
+
+    @Test
+    public void spilledEventsAreWrittenAfterRepositoryRecovers() throws Exception {
+        AsyncEntityAuditWriter writer = createWriter(2);
+
+        repository.setFailing(true);
+
+        writer.start();
+
+        try {
+            for (int i = 0; i < 5; i++) {
+                writer.putEventsV2(Collections.singletonList(event("e" + i)));
+            }
+
+            assertEquals(writer.getMetrics().get(AsyncEntityAuditWriter.METRIC_SPILLING), true);
+
+            while (repository.getFailureCount() == 0) {
+                Thread.sleep(10);
+            }
+
+            repository.setFailing(false);
+
+            waitForEvents(5);
+        } finally {
+            writer.stop();
+        }
+
+        assertEquals(repository.getEntityIds().size(), 5);
+        assertTrue((Long) writer.getMetrics().get(AsyncEntityAuditWriter.METRIC_WRITE_FAILURES) > 0);
+    }
+
+    @Test
+    public void pendingEventsAreWrittenAfterRestart() throws Exception {
+        AsyncEntityAuditWriter writer = createWriter(100);
+
+        repository.setFailing(true);
+
+        writer.start();
+
+        writer.putEventsV2(Collections.singletonList(event("e1")));
+        writer.putEventsV2(Collections.singletonList(event("e2")));
+
+        writer.stop();
+
+        assertEquals(repository.getEntityIds().size(), 0);
+
+        repository.setFailing(false);
+
+        writer = createWriter(100);
+
+        writer.start();
+
+        try {
+            waitForEvents(2);
+        } finally {
+            writer.stop();
+        }
+
+        assertEquals(repository.getEntityIds().size(), 2);
+        assertEquals(writer.getMetrics().get(AsyncEntityAuditWriter.METRIC_EVENTS_WRITTEN), 2L);
+    }
+
+    @Test
+    public void incompleteAckLineIsIgnoredOnRecovery() throws Exception {
+        AuditJournal journal = new AuditJournal(journalDirectory, 1024 * 1024, false);
+        List<AuditJournal.Entry> entries = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 12; i++) {
+                entries.add(journal.append(Collections.singletonList(event("e" + i))));
+            }
+
+            journal.ack(entries.subList(0, 1));
+        } finally {
+            journal.close();
+        }
+
+        File[] ackFiles = journalDirectory.listFiles((dir, name) -> name.endsWith(AuditJournal.ACK_SUFFIX));
+
+        assertEquals(ackFiles.length, 1);
+
+        // server went down while the ack of entry 11 was being written
+        Files.write(ackFiles[0].toPath(), "1".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        journal = new AuditJournal(journalDirectory, 1024 * 1024, false);
+
+        try {
+            List<AuditJournal.Entry> pending = journal.read(journal.getFirstSeq(), 100);
+
+            assertEquals(pending.size(), 11);
+            assertEquals(pending.get(0).getSeq(), entries.get(1).getSeq());
+        } finally {
+            journal.close();
+        }
+    }
+
+    private AsyncEntityAuditWriter createWriter(int bufferSize) {
+        return new AsyncEntityAuditWriter(repository, true, bufferSize, 3, 10, journalDirectory, 1024, 1024 * 1024, false);
+    }
+
+    private void waitForEvents(int count) throws InterruptedException {
+        long endTime = System.currentTimeMillis() + WAIT_MS;
+
+        while (repository.getEntityIds().size() < count && System.currentTimeMillis() < endTime) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static EntityAuditEventV2 event(String entityId) {
+        return new EntityAuditEventV2(entityId, System.currentTimeMillis(), "admin", EntityAuditActionV2.ENTITY_CREATE, "test", null);
+    }
+
+    private static class TestRepository extends InMemoryEntityAuditRepository {
+        private final List<String> entityIds    = new ArrayList<>();
+        private volatile boolean   isFailing    = false;
+        private int                batchCount   = 0;
+        private int                failureCount = 0;
+
+        @Override
+        public synchronized void putEventsV2(List<EntityAuditEventV2> events) {
+            if (isFailing) {
+                failureCount++;
+
+                throw new IllegalStateException("audit repository is not available");
+            }
+
+            batchCount++;
+
+            for (EntityAuditEventV2 event : events) {
+                entityIds.add(event.getEntityId());
+            }
+        }
+
+        void setFailing(boolean isFailing) {
+            this.isFailing = isFailing;
+        }
+
+        synchronized List<String> getEntityIds() {
+            return new ArrayList<>(entityIds);
+        }
+
+        synchronized int getBatchCount() {
+            return batchCount;
+        }
+
+        synchronized int getFailureCount() {
+            return failureCount;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.audit;
+
+import org.apache.atlas.AtlasException;
+import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.model.audit.EntityAuditEventV2;
+import org.apache.atlas.model.audit.EntityAuditEventV2.EntityAuditActionV2;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.MapConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class FileBasedAuditRepositoryTest extends AuditRepositoryTestBase {
+    private final List<File> directories = new ArrayList<>();
+
+    @BeforeClass
+    public void setup() throws Exception {
+        eventRepository = createRepository(createDirectory(), 0);
+    }
+
+    @AfterClass
+    public void tearDown() throws Exception {
+        ((FileBasedAuditRepository) eventRepository).stop();
+
+        for (File directory : directories) {
+            FileUtils.deleteQuietly(directory);
+        }
+    }
+
+    @Test
+    public void testListAfterCompactionAndRestart() throws Exception {
+        File                     directory  = createDirectory();
+        FileBasedAuditRepository repository = createRepository(directory, 0);
+        String                   details    = StringUtils.repeat("x", 1024);
+        long                     ts         = System.currentTimeMillis();
+
+        for (int i = 0; i < 400; i++) {
+            for (String entityId : new String[] { "e1", "e2", "e3" }) {
+                repository.putEventsV2(new EntityAuditEventV2(entityId, ts + i, "user", EntityAuditActionV2.ENTITY_UPDATE, details + i, null));
+            }
+        }
+
+        repository.compact();
+
+        assertTrue(repository.getSegments().size() > 1);
+        assertTrue(repository.getSegments().get(0).isSorted());
+        assertLatestEvents(repository, "e2", ts, 399);
+
+        repository.stop();
+
+        repository = createRepository(directory, 0);
+
+        repository.compact();
+
+        assertEquals(repository.getSegments().size(), 2);
+        assertLatestEvents(repository, "e2", ts, 399);
+
+        repository.stop();
+    }
+
+    @Test
+    public void testRetention() throws Exception {
+        File                     directory  = createDirectory();
+        FileBasedAuditRepository repository = createRepository(directory, 1);
+        long                     ts         = System.currentTimeMillis();
+
+        repository.putEventsV2(new EntityAuditEventV2("e1", ts - TimeUnit.DAYS.toMillis(3), "user", EntityAuditActionV2.ENTITY_CREATE, "old", null));
+        repository.putEventsV2(new EntityAuditEventV2("e1", ts, "user", EntityAuditActionV2.ENTITY_UPDATE, "new", null));
+
+        assertEquals(repository.listEventsV2("e1", null, (short) 10).size(), 2);
+
+        repository.stop();
+
+        repository = createRepository(directory, 1);
+
+        repository.compact();
+
+        List<EntityAuditEventV2> events = repository.listEventsV2("e1", null, (short) 10);
+
+        assertEquals(events.size(), 1);
+        assertEquals(events.get(0).getDetails(), "new");
+
+        repository.stop();
+    }
+
+    @Test(expectedExceptions = AtlasException.class)
+    public void testStartFailsWhenHAIsEnabled() throws Exception {
+        Map<String, Object> props = new HashMap<>();
+
+        props.put(FileBasedAuditRepository.CONFIG_DIRECTORY, createDirectory().getAbsolutePath());
+        props.put(HAConfiguration.ATLAS_SERVER_HA_ENABLED_KEY, true);
+
+        new FileBasedAuditRepository().startInternal(new MapConfiguration(props));
+    }
+
+    private void assertLatestEvents(FileBasedAuditRepository repository, String entityId, long ts, int latest) throws Exception {
+        List<EntityAuditEventV2> events = repository.listEventsV2(entityId, null, (short) 5);
+
+        assertEquals(events.size(), 5);
+
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(events.get(i).getEntityId(), entityId);
+            assertEquals(events.get(i).getTimestamp(), ts + latest - i);
+        }
+
+        events = repository.listEventsV2(entityId, events.get(4).getEventKey(), (short) 2);
+
+        assertEquals(events.size(), 2);
+        assertEquals(events.get(0).getTimestamp(), ts + latest - 4);
+        assertEquals(events.get(1).getTimestamp(), ts + latest - 5);
+    }
+
+    private FileBasedAuditRepository createRepository(File directory, int retentionDays) throws Exception {
+        Map<String, Object> props = new HashMap<>();
+
+        props.put(FileBasedAuditRepository.CONFIG_DIRECTORY, directory.getAbsolutePath());
+        props.put(FileBasedAuditRepository.CONFIG_SEGMENT_SIZE_MB, 1);
+        props.put(FileBasedAuditRepository.CONFIG_INDEX_INTERVAL, 4);
+        props.put(FileBasedAuditRepository.CONFIG_RETENTION_DAYS, retentionDays);
+        props.put(FileBasedAuditRepository.CONFIG_COMPACTION_INTERVAL_SECS, 0);
+
+        Configuration            atlasConf = new MapConfiguration(props);
+        FileBasedAuditRepository ret       = new FileBasedAuditRepository();
+
+        ret.startInternal(atlasConf);
+
+        return ret;
+    }
+
+    private File createDirectory() throws Exception {
+        File ret = Files.createTempDirectory("audit-repository").toFile();
+
+        directories.add(ret);
+
+        return ret;
+    }
+}
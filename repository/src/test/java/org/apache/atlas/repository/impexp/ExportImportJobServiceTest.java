@@ -0,0 +1,196 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.impexp.AtlasExportImportJob;
+import org.apache.atlas.model.impexp.AtlasExportImportJob.Status;
+import org.apache.atlas.model.impexp.AtlasExportRequest;
+import org.apache.atlas.model.impexp.AtlasExportResult;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FileUtils;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class ExportImportJobServiceTest {
+    private static final long RETENTION_MS = TimeUnit.HOURS.toMillis(1);
+
+    private File           directory;
+    private ExportService  exportService;
+    private CountDownLatch exportLatch;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        directory     = Files.createTempDirectory("export-import-jobs").toFile();
+        exportService = mock(ExportService.class);
+        exportLatch   = new CountDownLatch(0);
+
+        when(exportService.run(any(ZipSink.class), any(AtlasExportRequest.class), anyString(), anyString(), anyString(), any(ProgressListener.class))).thenAnswer(new Answer<AtlasExportResult>() {
+            @Override
+            public AtlasExportResult answer(InvocationOnMock invocation) throws Throwable {
+                ZipSink          sink     = (ZipSink) invocation.getArguments()[0];
+                ProgressListener listener = (ProgressListener) invocation.getArguments()[5];
+                AtlasEntity      entity   = new AtlasEntity("hive_db");
+
+                exportLatch.await();
+
+                entity.setGuid("e1");
+                sink.add(entity);
+                listener.onProgress(1, -1);
+
+                AtlasExportResult ret = new AtlasExportResult();
+
+                ret.setOperationStatus(AtlasExportResult.OperationStatus.SUCCESS);
+
+                return ret;
+            }
+        });
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void exportOutputIsSpooledWithChecksum() throws Exception {
+        ExportImportJobService service = createService(2);
+        AtlasExportImportJob   job     = waitForCompletion(service, service.submitExport(new AtlasExportRequest(), "admin", "localhost", "127.0.0.1"));
+
+        assertEquals(job.getStatus(), Status.COMPLETE);
+        assertEquals(job.getProcessedCount(), 1);
+        assertNotNull(job.getExportResult());
+
+        File output = service.getExportOutput(job.getGuid());
+
+        assertEquals(job.getFileSize(), output.length());
+        assertEquals(job.getChecksum(), new String(Hex.encodeHex(MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(output.toPath())))));
+
+        service.cleanUp();
+    }
+
+    @Test
+    public void completedJobsAreReloaded() throws Exception {
+        ExportImportJobService service = createService(2);
+        AtlasExportImportJob   job     = waitForCompletion(service, service.submitExport(new AtlasExportRequest(), "admin", "localhost", "127.0.0.1"));
+
+        service.cleanUp();
+
+        new File(directory, "orphan.zip.tmp").createNewFile();
+
+        ExportImportJobService restarted = createService(2);
+
+        assertEquals(restarted.getJobs().size(), 1);
+        assertEquals(restarted.getJob(job.getGuid()).getChecksum(), job.getChecksum());
+        assertTrue(restarted.getExportOutput(job.getGuid()).exists());
+        assertTrue(!new File(directory, "orphan.zip.tmp").exists());
+
+        restarted.cleanUp();
+    }
+
+    @Test
+    public void jobsAreRejectedWhenQueueIsFull() throws Exception {
+        ExportImportJobService service = createService(1);
+
+        exportLatch = new CountDownLatch(1);
+
+        try {
+            AtlasExportImportJob running = service.submitExport(new AtlasExportRequest(), "admin", "localhost", "127.0.0.1");
+
+            waitForStatus(service, running.getGuid(), Status.IN_PROGRESS);
+
+            service.submitExport(new AtlasExportRequest(), "admin", "localhost", "127.0.0.1");
+
+            try {
+                service.submitExport(new AtlasExportRequest(), "admin", "localhost", "127.0.0.1");
+
+                fail("queue-full error expected");
+            } catch (AtlasBaseException excp) {
+                assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.EXPORT_IMPORT_JOB_QUEUE_FULL);
+            }
+
+            try {
+                service.acquireOperationLock("export");
+
+                fail("lock held by the running job");
+            } catch (AtlasBaseException excp) {
+                assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.FAILED_TO_OBTAIN_IMPORT_EXPORT_LOCK);
+            }
+
+            try {
+                service.getExportOutput(running.getGuid());
+
+                fail("output of a running job is not available");
+            } catch (AtlasBaseException excp) {
+                assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.EXPORT_IMPORT_JOB_OUTPUT_NOT_AVAILABLE);
+            }
+
+            assertEquals(service.getJobs().size(), 2);
+        } finally {
+            exportLatch.countDown();
+            service.cleanUp();
+        }
+    }
+
+    private ExportImportJobService createService(int queueSize) {
+        ExportImportJobService ret = new ExportImportJobService(exportService, mock(ImportService.class), directory, queueSize, RETENTION_MS);
+
+        ret.init();
+
+        return ret;
+    }
+
+    private static AtlasExportImportJob waitForCompletion(ExportImportJobService service, AtlasExportImportJob job) throws Exception {
+        return waitForStatus(service, job.getGuid(), Status.COMPLETE);
+    }
+
+    private static AtlasExportImportJob waitForStatus(ExportImportJobService service, String guid, Status status) throws Exception {
+        for (int i = 0; i < 500; i++) {
+            AtlasExportImportJob ret = service.getJob(guid);
+
+            if (ret.getStatus() == status) {
+                return ret;
+            }
+
+            Thread.sleep(10);
+        }
+
+        throw new AssertionError("job " + guid + " did not reach status " + status);
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.repository.util.GuidMap;
+import org.apache.atlas.repository.util.GuidSet;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class GuidSetTest {
+    @Test
+    public void addContainsRemove() {
+        GuidSet guidSet = new GuidSet();
+        String  uuid    = UUID.randomUUID().toString();
+        String  other   = "111-222-333-0";
+        String  upper   = uuid.toUpperCase();
+
+        assertTrue(guidSet.add(uuid));
+        assertFalse(guidSet.add(uuid));
+        assertTrue(guidSet.add(other));
+        assertTrue(guidSet.add(upper));
+        assertEquals(guidSet.size(), 3);
+
+        assertTrue(guidSet.contains(uuid));
+        assertTrue(guidSet.contains(other));
+        assertTrue(guidSet.contains(upper));
+        assertFalse(guidSet.contains(UUID.randomUUID().toString()));
+
+        assertTrue(guidSet.remove(uuid));
+        assertFalse(guidSet.remove(uuid));
+        assertFalse(guidSet.contains(uuid));
+        assertTrue(guidSet.contains(upper));
+        assertEquals(guidSet.size(), 2);
+
+        Set<String> guids = new HashSet<>();
+        guidSet.forEach(guids::add);
+
+        assertEquals(guids.size(), 2);
+        assertTrue(guids.contains(other));
+        assertTrue(guids.contains(upper));
+
+        guidSet.clear();
+        assertTrue(guidSet.isEmpty());
+        assertFalse(guidSet.contains(other));
+    }
+
+    @Test
+    public void growsAndReusesRemovedSlots() {
+        GuidSet      guidSet = new GuidSet();
+        List<String> guids   = new ArrayList<>();
+
+        for (int i = 0; i < 20000; i++) {
+            guids.add(UUID.randomUUID().toString());
+        }
+
+        guidSet.addAll(guids);
+        assertEquals(guidSet.size(), guids.size());
+
+        for (int i = 0; i < guids.size(); i += 2) {
+            assertTrue(guidSet.remove(guids.get(i)));
+        }
+
+        for (int i = 0; i < guids.size(); i++) {
+            assertEquals(guidSet.contains(guids.get(i)), i % 2 == 1);
+        }
+
+        for (int i = 0; i < 50000; i++) {
+            String guid = UUID.randomUUID().toString();
+
+            assertTrue(guidSet.add(guid));
+            assertTrue(guidSet.remove(guid));
+        }
+
+        assertEquals(guidSet.size(), guids.size() / 2);
+
+        Set<String> remaining = new HashSet<>();
+        guidSet.forEach(remaining::add);
+
+        for (int i = 1; i < guids.size(); i += 2) {
+            assertTrue(remaining.contains(guids.get(i)));
+        }
+    }
+
+    @Test
+    public void guidMapValues() {
+        GuidMap guidMap = new GuidMap();
+        String  guid    = UUID.randomUUID().toString();
+
+        assertEquals(guidMap.get(guid), 0);
+        assertEquals(guidMap.put(guid, (byte) 2), 0);
+        assertEquals(guidMap.put(guid, (byte) 3), 2);
+        assertEquals(guidMap.get(guid), 3);
+        assertEquals(guidMap.remove(guid), 3);
+        assertEquals(guidMap.get(guid), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void guidMapValuesMustBePositive() {
+        new GuidMap().put(UUID.randomUUID().toString(), (byte) 0);
+    }
+}
@@ -21,8 +21,11 @@ package org.apache.atlas.repository.impexp;
 
 import org.apache.atlas.TestModules;
 import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
 import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.store.graph.v2.AtlasEntityStoreV2;
+import org.apache.atlas.repository.store.graph.v2.AtlasEntityStream;
 import org.apache.atlas.repository.util.UniqueList;
 import org.apache.atlas.store.AtlasTypeDefStore;
 import org.apache.atlas.type.AtlasTypeRegistry;
@@ -34,8 +37,14 @@ import org.testng.annotations.Test;
 import javax.inject.Inject;
 import javax.script.ScriptEngine;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
+import static org.apache.atlas.type.AtlasTypeUtil.getAtlasObjectId;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 @Guice(modules = TestModules.TestOnlyModule.class)
@@ -63,7 +72,7 @@ public class IncrementalExportEntityProviderTest extends ExportImportTestBase {
         verifyCreatedEntities(entityStore, entityGuids, 2);
 
         gremlinScriptEngine = atlasGraph.getGremlinScriptEngine();
-        incrementalExportEntityProvider = new IncrementalExportEntityProvider(atlasGraph, gremlinScriptEngine);
+        incrementalExportEntityProvider = new IncrementalExportEntityProvider(atlasGraph, gremlinScriptEngine, typeRegistry);
     }
 
     @AfterClass
@@ -79,6 +88,87 @@ public class IncrementalExportEntityProviderTest extends ExportImportTestBase {
         executeQueries(1L, 9);
     }
 
+    @Test(dependsOnMethods = "verify")
+    public void changeLogAndGraphTraversalReturnSameEntities() throws Exception {
+        IncrementalExportEntityProvider fromChangeLog = new IncrementalExportEntityProvider(atlasGraph, gremlinScriptEngine, typeRegistry, true);
+        IncrementalExportEntityProvider fromTraversal = new IncrementalExportEntityProvider(atlasGraph, gremlinScriptEngine, typeRegistry, false);
+        long                            changeMarker  = System.currentTimeMillis();
+
+        Thread.sleep(2);
+
+        // a table in another database, whose storage descriptor and columns are changed after changeMarker
+        Map<String, String> otherDbGuids = createOtherDbTable();
+
+        entityStore.updateEntityAttributeByGuid(COLUMN_GUID_HIGH, "comment", "changed");
+
+        Set<String> changed = populate(fromChangeLog, changeMarker);
+
+        assertEquals(changed, populate(fromTraversal, changeMarker));
+        assertTrue(changed.contains(COLUMN_GUID_HIGH));
+
+        for (String guid : otherDbGuids.values()) {
+            assertFalse(changed.contains(guid));
+        }
+
+        assertEquals(populate(fromChangeLog, 1L), populate(fromTraversal, 1L));
+
+        // only entities modified after the marker are returned; the column was modified at this time
+        long columnModifiedAt = entityStore.getById(COLUMN_GUID_HIGH).getEntity().getUpdateTime().getTime();
+
+        assertEquals(populate(fromChangeLog, columnModifiedAt), populate(fromTraversal, columnModifiedAt));
+        assertFalse(populate(fromChangeLog, columnModifiedAt).contains(COLUMN_GUID_HIGH));
+    }
+
+    private Map<String, String> createOtherDbTable() throws AtlasBaseException {
+        AtlasEntity db     = new AtlasEntity("hive_db");
+        AtlasEntity table  = new AtlasEntity("hive_table");
+        AtlasEntity sd     = new AtlasEntity("hive_storagedesc");
+        AtlasEntity column = new AtlasEntity("hive_column");
+
+        db.setAttribute("name", "other_db");
+        db.setAttribute("qualifiedName", "other_db@cl1");
+        db.setAttribute("clusterName", "cl1");
+
+        table.setAttribute("name", "other_table");
+        table.setAttribute("qualifiedName", "other_db.other_table@cl1");
+        table.setAttribute("db", getAtlasObjectId(db));
+        table.setAttribute("sd", getAtlasObjectId(sd));
+        table.setAttribute("columns", Collections.singletonList(getAtlasObjectId(column)));
+
+        sd.setAttribute("qualifiedName", "other_db.other_table@cl1_storage");
+        sd.setAttribute("location", "hdfs://localhost.localdomain:8020/apps/hive/warehouse/other_db.db/other_table");
+        sd.setAttribute("table", getAtlasObjectId(table));
+
+        column.setAttribute("name", "id");
+        column.setAttribute("qualifiedName", "other_db.other_table.id@cl1");
+        column.setAttribute("type", "int");
+        column.setAttribute("table", getAtlasObjectId(table));
+
+        AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo();
+
+        entities.addEntity(db);
+        entities.addEntity(table);
+        entities.addEntity(sd);
+        entities.addEntity(column);
+
+        Map<String, String> ret = entityStore.createOrUpdate(new AtlasEntityStream(entities), false).getGuidAssignments();
+
+        assertEquals(ret.size(), 4);
+
+        entityStore.updateEntityAttributeByGuid(ret.get(sd.getGuid()), "location", "hdfs://localhost.localdomain:8020/tmp/other_table");
+        entityStore.updateEntityAttributeByGuid(ret.get(column.getGuid()), "comment", "changed");
+
+        return ret;
+    }
+
+    private static Set<String> populate(IncrementalExportEntityProvider provider, long timeStamp) {
+        UniqueList<String> uniqueList = new UniqueList<>();
+
+        provider.populate(DB_GUID, timeStamp, uniqueList);
+
+        return new HashSet<>(uniqueList.getList());
+    }
+
     private void executeQueries(long timeStamp, int expectedEntityCount) {
         UniqueList<String> uniqueList = new UniqueList<>();
         incrementalExportEntityProvider.populate(DB_GUID, timeStamp, uniqueList);
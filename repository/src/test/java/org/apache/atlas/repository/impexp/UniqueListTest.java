@@ -21,7 +21,11 @@ import org.apache.atlas.repository.util.UniqueList;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
+
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class UniqueListTest {
     private final String firstElement = "firstElement";
@@ -67,4 +71,18 @@ public class UniqueListTest {
         assertEquals(2, uniqueList2.size());
         assertEquals(firstElement, removedElement);
     }
+
+    @Test
+    public void removeFirst_ElementsCanBeAddedAgain() {
+        UniqueList<String> uniqueList2 = new UniqueList<>();
+        uniqueList2.addAll(uniqueList);
+
+        assertEquals(Arrays.asList(firstElement, "def"), uniqueList2.removeFirst(2));
+        assertEquals(Collections.singletonList("ghi"), uniqueList2.getList());
+
+        uniqueList2.add(firstElement);
+        assertEquals(2, uniqueList2.size());
+        assertEquals(Arrays.asList("ghi", firstElement), uniqueList2.removeFirst(5));
+        assertTrue(uniqueList2.isEmpty());
+    }
 }
@@ -30,7 +30,7 @@ import org.testng.annotations.Test;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -47,23 +47,6 @@ public class ZipSinkTest {
     private AtlasExportResult defaultExportResult;
     private String knownEntityGuidFormat = "111-222-333-%s";
 
-    private class MockOutputStream extends OutputStream {
-        List<byte[]> collected = new ArrayList<>();
-
-        @Override
-        public void write(int b) throws IOException {
-        }
-
-        @Override
-        public void write(byte[] bytes) {
-            collected.add(bytes);
-        }
-
-        public List<byte[]> getCollected()  {
-            return collected;
-        }
-    };
-
     private void initZipSinkWithExportOrder() throws AtlasBaseException {
         zipSink = new ZipSink(byteArrayOutputStream);
         zipSink.setExportOrder(defaultExportOrder);
@@ -227,24 +210,41 @@ public class ZipSinkTest {
     }
 
     @Test
-    public void splitTest() throws IOException {
-        assertSplit("ABCDEFGHIJKLMNOPQRSTUVWXYZ01", 7, new String[] {"ABCDEFG", "HIJKLMN", "OPQRSTU", "VWXYZ01"});
-        assertSplit("ABCDEFGHIJKLMNOPQRSTUVWXYZ", 7, new String[] {"ABCDEFG", "HIJKLMN", "OPQRSTU", "VWXYZ"});
+    public void entityEntriesAreStreamedAsJson() throws AtlasBaseException, IOException {
+        ByteArrayOutputStream byteOutputStream = new ByteArrayOutputStream();
+        ZipSink zs = new ZipSink(byteOutputStream);
+
+        AtlasEntity entity = new AtlasEntity("hive_table");
+        entity.setGuid(String.format(knownEntityGuidFormat, 0));
+        entity.setAttribute("description", "\u00e9t\u00e9");
+
+        AtlasEntity.AtlasEntityWithExtInfo entityWithExtInfo = new AtlasEntity.AtlasEntityWithExtInfo(entity);
+        addReferredEntities(entityWithExtInfo, 2);
+
+        zs.add(entityWithExtInfo);
+        zs.setExportOrder(defaultExportOrder);
+        zs.close();
+
+        ZipInputStream zipStream = new ZipInputStream(new ByteArrayInputStream(byteOutputStream.toByteArray()));
+        ZipEntry entry = zipStream.getNextEntry();
+
+        assertEquals(entry.getName(), entity.getGuid() + ".json");
+        assertEquals(getZipEntryAsString(zipStream), AtlasType.toJson(entityWithExtInfo));
+
+        entry = zipStream.getNextEntry();
+        assertEquals(entry.getName().replace(".json", ""), ZipExportFileNames.ATLAS_EXPORT_ORDER_NAME.toString());
+        assertNull(zipStream.getNextEntry());
     }
 
-    private void assertSplit(String msg, int bufferSize, String[] splits) throws IOException {
-        MockOutputStream os = getOutputStream();
-        ZipSink.splitAndWriteBytes(msg, bufferSize, os);
-        assertEquals(os.getCollected().size(), splits.length);
+    private String getZipEntryAsString(ZipInputStream zis) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        int n;
 
-        for (int i = 0; i < os.collected.size(); i++) {
-            byte[] bytes = os.getCollected().get(i);
-            String s = new String(bytes);
-            assertEquals(s, splits[i]);
+        while ((n = zis.read(buf)) > -1) {
+            bos.write(buf, 0, n);
         }
-    }
 
-    private MockOutputStream getOutputStream() {
-        return new MockOutputStream();
+        return new String(bos.toByteArray(), StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.impexp;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ZipSourceWithBackingFileTest {
+    @DataProvider(name = "zipFileStocks")
+    public static Object[][] getDataFromZipFile() throws IOException, AtlasBaseException {
+        return new Object[][] {{ new ZipSourceWithBackingFile(ZipFileResourceTestUtils.getFileInputStream("stocks.zip")) }};
+    }
+
+    @DataProvider(name = "sales")
+    public static Object[][] getDataFromQuickStart_v1_Sales() throws IOException, AtlasBaseException {
+        return new Object[][] {{ new ZipSourceWithBackingFile(ZipFileResourceTestUtils.getFileInputStream("sales-v1-full.zip")) }};
+    }
+
+    @Test(expectedExceptions = AtlasBaseException.class)
+    public void invalidZip_Throws() throws IOException, AtlasBaseException {
+        new ZipSourceWithBackingFile(new ByteArrayInputStream(new byte[10]));
+    }
+
+    @Test(dataProvider = "zipFileStocks")
+    public void examineContents_BehavesAsExpected(ZipSourceWithBackingFile zipSource) throws AtlasBaseException {
+        List<String> creationOrder = zipSource.getCreationOrder();
+
+        assertNotNull(creationOrder);
+        assertEquals(creationOrder.size(), 4);
+
+        AtlasTypesDef typesDef = zipSource.getTypesDef();
+        assertNotNull(typesDef);
+        assertEquals(typesDef.getEntityDefs().size(), 6);
+        assertNotNull(zipSource.getExportResult());
+
+        for (String guid : creationOrder) {
+            assertNotNull(zipSource.getEntityWithExtInfo(guid));
+            assertNotNull(zipSource.getByGuid(guid));
+        }
+
+        assertNull(zipSource.getByGuid("non-existent-guid"));
+
+        String guid = creationOrder.get(0);
+
+        zipSource.onImportComplete(guid);
+        assertNull(zipSource.getByGuid(guid));
+
+        zipSource.close();
+    }
+
+    @Test(dataProvider = "zipFileStocks")
+    public void iteratorBehavor_WorksAsExpected(ZipSourceWithBackingFile zipSource) throws AtlasBaseException {
+        assertTrue(zipSource.hasNext());
+
+        List<String> creationOrder = zipSource.getCreationOrder();
+        for (int i = 0; i < creationOrder.size(); i++) {
+            AtlasEntity e = zipSource.next();
+
+            assertNotNull(e);
+            assertEquals(e.getGuid(), creationOrder.get(i));
+        }
+
+        assertFalse(zipSource.hasNext());
+
+        zipSource.close();
+    }
+
+    @Test(dataProvider = "sales")
+    public void iteratorSetPositionBehavor(ZipSourceWithBackingFile zipSource) throws AtlasBaseException {
+        List<String> creationOrder = zipSource.getCreationOrder();
+
+        zipSource.setPositionUsingEntityGuid(creationOrder.get(2));
+
+        assertEquals(zipSource.getPosition(), 2);
+        assertTrue(zipSource.hasNext());
+
+        for (int i = 1; i < 4; i++) {
+            AtlasEntity e = zipSource.next();
+
+            assertEquals(e.getGuid(), creationOrder.get(2 + i));
+            assertEquals(zipSource.getPosition(), 2 + i);
+        }
+
+        zipSource.close();
+    }
+
+    @Test(dataProvider = "zipFileStocks")
+    public void applyTransformation(ZipSourceWithBackingFile zipSource) throws AtlasBaseException {
+        zipSource.setImportTransform(ImportTransforms.fromJson("{ \"hive_db\": { \"qualifiedName\": [ \"replace:@cl1:@cl2\" ] } }"));
+
+        boolean dbFound = false;
+
+        while (zipSource.hasNext()) {
+            AtlasEntity e = zipSource.next();
+
+            if (e.getTypeName().equals("hive_db")) {
+                assertTrue(((String) e.getAttribute("qualifiedName")).contains("@cl2"));
+
+                dbFound = true;
+            }
+        }
+
+        assertTrue(dbFound);
+
+        zipSource.close();
+    }
+}
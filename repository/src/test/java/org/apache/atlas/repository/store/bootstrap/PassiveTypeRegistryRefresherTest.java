@@ -0,0 +1,75 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.bootstrap;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.repository.store.graph.TypeDefVersionRegistry;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class PassiveTypeRegistryRefresherTest {
+    private AtlasTypeDefStore            typeDefStore;
+    private TypeDefVersionRegistry       versionRegistry;
+    private PassiveTypeRegistryRefresher refresher;
+
+    @BeforeMethod
+    public void setUp() {
+        typeDefStore    = mock(AtlasTypeDefStore.class);
+        versionRegistry = mock(TypeDefVersionRegistry.class);
+        refresher       = new PassiveTypeRegistryRefresher(typeDefStore, versionRegistry, true, 60000);
+    }
+
+    @Test
+    public void reloadsTypesOnlyWhenVersionChanges() throws AtlasBaseException {
+        when(versionRegistry.getVersion()).thenReturn(0L, 0L, 3L, 3L);
+
+        assertEquals(refresher.getStalenessBoundMs(), -1);
+
+        for (int i = 0; i < 4; i++) {
+            refresher.refresh();
+        }
+
+        verify(typeDefStore, times(2)).init();
+        assertTrue(refresher.getStalenessBoundMs() >= 0);
+    }
+
+    @Test
+    public void failedReloadIsRetried() throws AtlasBaseException {
+        when(versionRegistry.getVersion()).thenReturn(1L);
+        doThrow(new RuntimeException("graph unavailable")).doNothing().when(typeDefStore).init();
+
+        refresher.refresh();
+
+        assertEquals(refresher.getStalenessBoundMs(), -1);
+
+        refresher.refresh();
+        refresher.refresh();
+
+        verify(typeDefStore, times(2)).init();
+        assertTrue(refresher.getStalenessBoundMs() >= 0);
+    }
+}
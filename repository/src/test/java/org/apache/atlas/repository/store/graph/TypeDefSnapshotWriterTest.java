@@ -0,0 +1,62 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph;
+
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TypeDefSnapshotWriterTest {
+    private AtlasTypeRegistry      typeRegistry;
+    private TypeDefVersionRegistry versionRegistry;
+
+    @BeforeMethod
+    public void setUp() {
+        typeRegistry    = new AtlasTypeRegistry();
+        versionRegistry = mock(TypeDefVersionRegistry.class);
+    }
+
+    @Test
+    public void savesSnapshotOfCurrentVersion() throws Exception {
+        when(versionRegistry.getVersion()).thenReturn(3L);
+        when(versionRegistry.getSnapshotVersion()).thenReturn(2L);
+
+        new TypeDefSnapshotWriter(typeRegistry, versionRegistry, true).save();
+
+        verify(versionRegistry).saveSnapshot(any(AtlasTypesDef.class), eq(3L));
+    }
+
+    @Test
+    public void skipsSaveWhenSnapshotIsCurrent() throws Exception {
+        when(versionRegistry.getVersion()).thenReturn(3L);
+        when(versionRegistry.getSnapshotVersion()).thenReturn(3L);
+
+        new TypeDefSnapshotWriter(typeRegistry, versionRegistry, true).save();
+
+        verify(versionRegistry, never()).saveSnapshot(any(AtlasTypesDef.class), anyLong());
+    }
+}
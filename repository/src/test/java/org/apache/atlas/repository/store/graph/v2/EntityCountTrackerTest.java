@@ -0,0 +1,236 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.atlas.AtlasConfiguration;
+import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasIndexQuery;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.atlas.model.instance.AtlasEntity.Status.ACTIVE;
+import static org.apache.atlas.model.instance.AtlasEntity.Status.DELETED;
+import static org.apache.atlas.model.instance.EntityMutations.EntityOperation.CREATE;
+import static org.apache.atlas.repository.store.graph.v2.EntityCountTracker.KEY_ACTIVE_ENTITIES;
+import static org.apache.atlas.repository.store.graph.v2.EntityCountTracker.KEY_CLASSIFICATIONS;
+import static org.apache.atlas.repository.store.graph.v2.EntityCountTracker.KEY_DELETED_ENTITIES;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class EntityCountTrackerTest {
+    private GraphTransactionInterceptor interceptor;
+
+    @BeforeMethod
+    public void setUp() {
+        interceptor = new GraphTransactionInterceptor(mock(AtlasGraph.class));
+
+        EntityCountTracker.setCounts(Collections.emptyMap());
+    }
+
+    @Test
+    public void committedUpdatesAreApplied() throws Throwable {
+        runInTransaction(() -> {
+            EntityMutationResponse response = new EntityMutationResponse();
+
+            response.addEntity(CREATE, new AtlasEntityHeader("hive_table"));
+            response.addEntity(CREATE, new AtlasEntityHeader("hive_table"));
+            response.addEntity(CREATE, new AtlasEntityHeader("hive_db"));
+
+            EntityCountTracker.onEntitiesMutated(response);
+            EntityCountTracker.onEntityStateChanged("hive_table", ACTIVE, DELETED);
+            EntityCountTracker.onEntityStateChanged("hive_db", ACTIVE, ACTIVE);
+            EntityCountTracker.onClassificationVertexCreated("PII");
+            EntityCountTracker.onClassificationVertexCreated("PII");
+            EntityCountTracker.onClassificationVertexDeleted("PII");
+
+            assertEquals(EntityCountTracker.getActiveEntityCount("hive_table"), 0); // not applied until commit
+        });
+
+        assertEquals(EntityCountTracker.getActiveEntityCount("hive_table"), 1);
+        assertEquals(EntityCountTracker.getDeletedEntityCount("hive_table"), 1);
+        assertEquals(EntityCountTracker.getActiveEntityCount("hive_db"), 1);
+        assertEquals(EntityCountTracker.getDeletedEntityCount("hive_db"), 0);
+        assertEquals(EntityCountTracker.getClassificationCount("PII"), 1);
+    }
+
+    @Test
+    public void rolledBackUpdatesAreDiscarded() throws Throwable {
+        try {
+            runInTransaction(() -> {
+                EntityCountTracker.onClassificationVertexCreated("PII");
+
+                throw new IllegalStateException("rollback");
+            });
+
+            fail("expected the transaction to fail");
+        } catch (IllegalStateException excp) {
+            // expected
+        }
+
+        assertEquals(EntityCountTracker.getClassificationCount("PII"), 0);
+    }
+
+    @Test
+    public void savedCountsAreRestored() throws Throwable {
+        Map<String, Map<String, Number>> saved = new HashMap<>();
+
+        saved.put(KEY_ACTIVE_ENTITIES, Collections.singletonMap("hive_table", 10)); // numbers read back from JSON could be Integer
+        saved.put(KEY_CLASSIFICATIONS, Collections.singletonMap("PII", 3L));
+
+        EntityCountTracker.setCounts(saved);
+
+        runInTransaction(() -> EntityCountTracker.onEntityStateChanged("hive_table", ACTIVE, DELETED));
+
+        assertEquals(EntityCountTracker.getActiveEntityCount("hive_table"), 9);
+        assertEquals(EntityCountTracker.getDeletedEntityCount("hive_table"), 1);
+        assertEquals(EntityCountTracker.getClassificationCount("PII"), 3);
+        assertEquals(EntityCountTracker.getCounts().get(KEY_ACTIVE_ENTITIES), Collections.singletonMap("hive_table", 9L));
+    }
+
+    @Test
+    public void countFromIndexDoesNotChangeTrackedCounts() throws Exception {
+        EntityCountTracker tracker = createTracker(null, 0);
+
+        assertFalse(tracker.isTracking());
+
+        Map<String, Map<String, Long>> counts = tracker.countFromIndex();
+
+        assertEquals(counts.get(KEY_ACTIVE_ENTITIES), Collections.singletonMap("hive_table", 7L));
+        assertEquals(counts.get(KEY_DELETED_ENTITIES), Collections.singletonMap("hive_table", 2L));
+        assertEquals(counts.get(KEY_CLASSIFICATIONS), Collections.singletonMap("PII", 7L));
+        assertEquals(EntityCountTracker.getActiveEntityCount("hive_table"), 0);
+    }
+
+    @Test
+    public void recentSavedCountsAreNotRecountedOnActivation() throws Exception {
+        Map<String, Map<String, Number>> saved = new HashMap<>();
+
+        saved.put(KEY_ACTIVE_ENTITIES, Collections.singletonMap("hive_table", 5L));
+
+        EntityCountTracker tracker = createTracker(saved, System.currentTimeMillis());
+
+        tracker.instanceIsActive();
+
+        try {
+            assertTrue(tracker.isTracking());
+            assertFalse(tracker.isRecountInProgress());
+            assertEquals(tracker.getMetrics().get(EntityCountTracker.METRIC_RECOUNT_COUNT), 0L);
+            assertEquals(EntityCountTracker.getActiveEntityCount("hive_table"), 5);
+
+            // recount when requested
+            tracker.recount().get(30, TimeUnit.SECONDS);
+
+            assertEquals(EntityCountTracker.getActiveEntityCount("hive_table"), 7);
+        } finally {
+            tracker.instanceIsPassive();
+        }
+    }
+
+    @Test
+    public void staleSavedCountsAreRecountedOnActivation() throws Exception {
+        Map<String, Map<String, Number>> saved = new HashMap<>();
+
+        saved.put(KEY_ACTIVE_ENTITIES, Collections.singletonMap("hive_table", 5L)); // drifted, e.g. not saved before a failover
+
+        long               savedTime = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(AtlasConfiguration.METRICS_COUNTS_MAX_AGE_SECS.getLong()) - 1000;
+        EntityCountTracker tracker   = createTracker(saved, savedTime);
+
+        tracker.instanceIsActive();
+
+        try {
+            assertTrue(tracker.isTracking());
+
+            waitForRecount(tracker);
+
+            assertEquals(EntityCountTracker.getActiveEntityCount("hive_table"), 7);
+            assertEquals(EntityCountTracker.getDeletedEntityCount("hive_table"), 2);
+        } finally {
+            tracker.instanceIsPassive();
+        }
+
+        assertFalse(tracker.isTracking());
+    }
+
+    @Test
+    public void countsAreRecountedOnActivationWhenNotSaved() throws Exception {
+        EntityCountTracker tracker = createTracker(null, 0);
+
+        tracker.instanceIsActive();
+
+        try {
+            waitForRecount(tracker);
+
+            assertEquals(EntityCountTracker.getActiveEntityCount("hive_table"), 7);
+        } finally {
+            tracker.instanceIsPassive();
+        }
+    }
+
+    private static void waitForRecount(EntityCountTracker tracker) throws InterruptedException {
+        for (int i = 0; i < 300 && (Long) tracker.getMetrics().get(EntityCountTracker.METRIC_RECOUNT_COUNT) == 0; i++) {
+            Thread.sleep(100);
+        }
+
+        assertEquals(tracker.getMetrics().get(EntityCountTracker.METRIC_RECOUNT_COUNT), 1L);
+    }
+
+    private EntityCountTracker createTracker(Map<String, Map<String, Number>> savedCounts, long savedTime) {
+        AtlasGraph          graph        = mock(AtlasGraph.class);
+        AtlasTypeRegistry   typeRegistry = mock(AtlasTypeRegistry.class);
+        EntityCountRegistry registry     = mock(EntityCountRegistry.class);
+        AtlasIndexQuery     activeQuery  = mock(AtlasIndexQuery.class);
+        AtlasIndexQuery     deletedQuery = mock(AtlasIndexQuery.class);
+
+        when(activeQuery.vertexTotals()).thenReturn(7L);
+        when(deletedQuery.vertexTotals()).thenReturn(2L);
+        when(graph.indexQuery(anyString(), anyString())).thenReturn(activeQuery);
+        when(graph.indexQuery(anyString(), contains("DELETED"))).thenReturn(deletedQuery);
+        when(typeRegistry.getAllEntityDefNames()).thenReturn(Collections.singletonList("hive_table"));
+        when(typeRegistry.getAllClassificationDefNames()).thenReturn(Collections.singletonList("PII"));
+        when(registry.load()).thenReturn(savedCounts);
+        when(registry.getSavedTime()).thenReturn(savedTime);
+
+        return new EntityCountTracker(new PropertiesConfiguration(), graph, typeRegistry, registry);
+    }
+
+    private void runInTransaction(Runnable runnable) throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+
+        when(invocation.getMethod()).thenReturn(Runnable.class.getMethod("run"));
+        when(invocation.proceed()).thenAnswer(i -> { runnable.run(); return null; });
+
+        interceptor.invoke(invocation);
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.apache.atlas.RequestContext;
+import org.apache.atlas.TestModules;
+import org.apache.atlas.TestUtilsV2;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
+import org.apache.atlas.model.instance.AtlasRelationship;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graph.GraphBackedSearchIndexer;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.atlas.runner.LocalSolrRunner;
+import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.store.DeleteType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Guice;
+import org.testng.annotations.Test;
+
+import javax.inject.Inject;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.apache.atlas.TestRelationshipUtilsV2.getDepartmentEmployeeInstances;
+import static org.apache.atlas.TestRelationshipUtilsV2.getDepartmentEmployeeTypes;
+import static org.apache.atlas.TestUtilsV2.NAME;
+import static org.apache.atlas.graph.GraphSandboxUtil.useLocalSolr;
+import static org.mockito.Mockito.mock;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Verifies that relationship attributes mapped with related entity properties read in batches are the same as those
+ * mapped reading each related entity from the graph.
+ */
+@Guice(modules = TestModules.TestOnlyModule.class)
+public class EntityGraphRetrieverPrefetchTest {
+    @Inject
+    AtlasTypeRegistry typeRegistry;
+
+    @Inject
+    AtlasTypeDefStore typeDefStore;
+
+    @Inject
+    DeleteHandlerDelegate deleteDelegate;
+
+    @Inject
+    EntityGraphMapper graphMapper;
+
+    private final Map<String, String> employeeNameGuidMap = new HashMap<>();
+
+    @BeforeClass
+    public void setUp() throws Exception {
+        new GraphBackedSearchIndexer(typeRegistry);
+
+        typeDefStore.createTypesDef(getDepartmentEmployeeTypes());
+
+        RequestContext.clear();
+        RequestContext.get().setUser(TestUtilsV2.TEST_USER, null);
+        RequestContext.get().setDeleteType(DeleteType.SOFT);
+
+        AtlasEntityStore         entityStore = new AtlasEntityStoreV2(deleteDelegate, typeRegistry, mock(AtlasEntityChangeNotifier.class), graphMapper);
+        AtlasEntitiesWithExtInfo employees   = getDepartmentEmployeeInstances();
+        EntityMutationResponse   response    = entityStore.createOrUpdate(new AtlasEntityStream(employees), false);
+
+        for (AtlasEntityHeader entityHeader : response.getCreatedEntities()) {
+            employeeNameGuidMap.put((String) entityHeader.getAttribute(NAME), entityHeader.getGuid());
+        }
+
+        // soft-deleted related entity: its relationship edges remain, with status DELETED
+        entityStore.deleteById(employeeNameGuidMap.get("Mike"));
+    }
+
+    @AfterClass
+    public void clear() throws Exception {
+        AtlasGraphProvider.cleanup();
+
+        if (useLocalSolr()) {
+            LocalSolrRunner.stop();
+        }
+    }
+
+    @Test
+    public void prefetchMapsSameRelatedObjectIds() throws Exception {
+        // batch size smaller than the number of employees, to map them in more than one batch
+        EntityGraphRetriever withPrefetch    = new EntityGraphRetriever(typeRegistry, false, 2);
+        EntityGraphRetriever withoutPrefetch = new EntityGraphRetriever(typeRegistry, false, 0);
+
+        List<AtlasRelatedObjectId> employees = verifySameRelationshipAttribute(withPrefetch, withoutPrefetch, "hr", "employees");
+
+        assertEquals(employees.size(), 5);
+
+        boolean hasDeletedEmployee = false;
+
+        for (AtlasRelatedObjectId employee : employees) {
+            assertNotNull(employee.getDisplayText());
+            assertNotNull(employee.getRelationshipGuid());
+
+            if (employee.getGuid().equals(employeeNameGuidMap.get("Mike"))) {
+                assertEquals(employee.getEntityStatus(), AtlasEntity.Status.DELETED);
+                assertEquals(employee.getRelationshipStatus(), AtlasRelationship.Status.DELETED);
+
+                hasDeletedEmployee = true;
+            }
+        }
+
+        assertTrue(hasDeletedEmployee);
+
+        verifySameRelationshipAttribute(withPrefetch, withoutPrefetch, "Max", "friends");
+        verifySameRelationshipAttribute(withPrefetch, withoutPrefetch, "Jane", "subordinates");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AtlasRelatedObjectId> verifySameRelationshipAttribute(EntityGraphRetriever withPrefetch, EntityGraphRetriever withoutPrefetch,
+                                                                       String entityName, String attrName) throws Exception {
+        String      guid     = employeeNameGuidMap.get(entityName);
+        AtlasEntity prefetch = withPrefetch.toAtlasEntity(guid);
+        AtlasEntity noFetch  = withoutPrefetch.toAtlasEntity(guid);
+
+        List<AtlasRelatedObjectId> ret = (List<AtlasRelatedObjectId>) prefetch.getRelationshipAttribute(attrName);
+
+        assertNotNull(ret);
+        assertEquals(ret, noFetch.getRelationshipAttribute(attrName));
+
+        return ret;
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.repository.store.graph.v2.EntityImportProcessManager.ImportBatch;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class EntityImportProcessManagerTest {
+    private AtlasEntityStore    entityStore;
+    private EntityImportStream  entityStream;
+    private List<List<String>>  imported;
+    private Set<String>         completed;
+    private Map<String, String> failures;
+
+    @BeforeMethod
+    public void setUp() throws AtlasBaseException {
+        entityStore  = mock(AtlasEntityStore.class);
+        entityStream = mock(EntityImportStream.class);
+        imported     = Collections.synchronizedList(new ArrayList<>());
+        completed    = ConcurrentHashMap.newKeySet();
+        failures     = new HashMap<>();
+
+        when(entityStore.createOrUpdateForImport(any(EntityStream.class))).thenAnswer(new Answer<EntityMutationResponse>() {
+            @Override
+            public EntityMutationResponse answer(InvocationOnMock invocation) throws Throwable {
+                EntityStream stream = (EntityStream) invocation.getArguments()[0];
+                List<String> guids  = new ArrayList<>();
+
+                while (stream.hasNext()) {
+                    guids.add(stream.next().getGuid());
+                }
+
+                for (String guid : guids) {
+                    if (failures.containsKey(guid)) {
+                        throw new AtlasBaseException(AtlasErrorCode.valueOf(failures.get(guid)), guid);
+                    }
+                }
+
+                imported.add(guids);
+
+                return new EntityMutationResponse();
+            }
+        });
+
+        mockOnImportComplete();
+    }
+
+    @Test
+    public void importsInBatches() throws AtlasBaseException {
+        List<ImportBatch> batches = run(2, 2, entity("e1"), entity("e2"), entity("e3"), entity("e4"), entity("e5"));
+
+        assertEquals(batches.size(), 3);
+        assertEquals(batches.get(0).getPosition(), 2);
+        assertEquals(batches.get(2).getPosition(), 5);
+        assertEquals(batches.get(2).getLastEntity().getEntity().getGuid(), "e5");
+        assertEquals(imported.size(), 3);
+        assertTrue(imported.contains(Arrays.asList("e1", "e2")));
+        assertTrue(imported.contains(Collections.singletonList("e5")));
+        assertEquals(completed.size(), 5);
+
+        for (ImportBatch batch : batches) {
+            assertNull(batch.getFailure());
+            assertEquals(batch.getResponses().size(), 1);
+        }
+    }
+
+    @Test
+    public void failedBatchIsRetriedPerEntity() throws AtlasBaseException {
+        failures.put("e2", AtlasErrorCode.INVALID_OBJECT_ID.name());
+
+        List<ImportBatch> batches = run(3, 1, entity("e1"), entity("e2"), entity("e3"));
+
+        assertEquals(batches.size(), 1);
+        assertNull(batches.get(0).getFailure());
+        assertEquals(batches.get(0).getResidualList(), Collections.singletonList("e2"));
+        assertEquals(imported, Arrays.asList(Collections.singletonList("e1"), Collections.singletonList("e3")));
+        assertEquals(completed.size(), 2);
+    }
+
+    @Test
+    public void failureIsReported() throws AtlasBaseException {
+        failures.put("e1", AtlasErrorCode.INTERNAL_ERROR.name());
+
+        List<ImportBatch> batches = run(1, 1, entity("e1"), entity("e2"));
+
+        assertNotNull(batches.get(0).getFailure());
+        assertNull(batches.get(1).getFailure());
+    }
+
+    @Test
+    public void referencedGuids() {
+        AtlasEntity         table = entity("t1");
+        AtlasEntity         col   = entity("c1");
+        Map<String, Object> dbId  = new HashMap<>();
+
+        dbId.put(AtlasObjectId.KEY_GUID, "db1");
+        dbId.put(AtlasObjectId.KEY_TYPENAME, "hive_db");
+
+        table.setAttribute("db", dbId);
+        table.setRelationshipAttribute("columns", Collections.singletonList(new AtlasObjectId("c1", "hive_column")));
+        col.setAttribute("table", new AtlasObjectId("t1", "hive_table"));
+
+        AtlasEntityWithExtInfo entityWithExtInfo = new AtlasEntityWithExtInfo(table);
+
+        entityWithExtInfo.addReferredEntity(col);
+
+        assertEquals(EntityImportProcessManager.getEntityGuids(entityWithExtInfo), new HashSet<>(Arrays.asList("t1", "c1")));
+        assertEquals(EntityImportProcessManager.getReferencedGuids(entityWithExtInfo), new HashSet<>(Arrays.asList("db1", "t1", "c1")));
+    }
+
+    private List<ImportBatch> run(int batchSize, int numWorkers, AtlasEntity... entities) throws AtlasBaseException {
+        EntityImportProcessManager manager = new EntityImportProcessManager(entityStore, entityStream, batchSize, numWorkers);
+        List<ImportBatch>          ret     = new ArrayList<>();
+
+        try {
+            int position = 0;
+
+            for (AtlasEntity entity : entities) {
+                manager.add(new AtlasEntityWithExtInfo(entity), ++position);
+
+                ret.addAll(manager.getCompletedBatches());
+            }
+
+            ret.addAll(manager.drain());
+        } finally {
+            manager.shutdown();
+        }
+
+        return ret;
+    }
+
+    private void mockOnImportComplete() {
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                completed.add((String) invocation.getArguments()[0]);
+
+                return null;
+            }
+        }).when(entityStream).onImportComplete(any(String.class));
+    }
+
+    private static AtlasEntity entity(String guid) {
+        AtlasEntity ret = new AtlasEntity("hive_table");
+
+        ret.setGuid(guid);
+
+        return ret;
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.apache.atlas.AtlasErrorCode;
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasRelationshipDef;
+import org.apache.atlas.model.typedef.AtlasRelationshipDef.PropagateTags;
+import org.apache.atlas.model.typedef.AtlasRelationshipDef.RelationshipCategory;
+import org.apache.atlas.model.typedef.AtlasRelationshipEndDef;
+import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef.Cardinality;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeUtil;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class EntityProjectionTest {
+    private AtlasEntityType deptType;
+
+    @BeforeClass
+    public void setUpTypes() throws AtlasBaseException {
+        AtlasTypeRegistry    typeRegistry = new AtlasTypeRegistry();
+        AtlasEntityDef       deptDef      = AtlasTypeUtil.createClassTypeDef("test_dept", Collections.<String>emptySet(),
+                                                                             AtlasTypeUtil.createUniqueRequiredAttrDef("name", "string"),
+                                                                             AtlasTypeUtil.createOptionalAttrDef("location", "string"));
+        AtlasEntityDef       empDef       = AtlasTypeUtil.createClassTypeDef("test_employee", Collections.<String>emptySet(),
+                                                                             AtlasTypeUtil.createUniqueRequiredAttrDef("name", "string"));
+        AtlasRelationshipDef relDef       = AtlasTypeUtil.createRelationshipTypeDef("test_dept_employees", "", "1.0", RelationshipCategory.ASSOCIATION, PropagateTags.NONE,
+                                                                                    new AtlasRelationshipEndDef("test_dept", "employees", Cardinality.SET),
+                                                                                    new AtlasRelationshipEndDef("test_employee", "dept", Cardinality.SINGLE));
+        AtlasTypesDef        typesDef     = new AtlasTypesDef();
+
+        typesDef.setEntityDefs(Arrays.asList(deptDef, empDef));
+        typesDef.setRelationshipDefs(Collections.singletonList(relDef));
+
+        AtlasTypeRegistry.AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+        ttr.addTypes(typesDef);
+
+        typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+
+        deptType = typeRegistry.getEntityTypeByName("test_dept");
+    }
+
+    @Test
+    public void includesOnlyProjectedAttributes() throws AtlasBaseException {
+        EntityProjection projection = new EntityProjection(Collections.singletonList("name"), Collections.singletonList("employees"), 10, 5);
+
+        projection.validate(deptType);
+
+        assertTrue(projection.includesAttribute("name"));
+        assertFalse(projection.includesAttribute("location"));
+        assertTrue(projection.includesRelationshipAttribute("employees"));
+        assertFalse(projection.isAll());
+        assertEquals(projection.getRelationshipOffset(), 10);
+        assertEquals(projection.getRelationshipLimit(), 5);
+
+        // empty names project all attributes
+        projection = new EntityProjection(Collections.<String>emptyList(), null, 0, -1);
+
+        assertTrue(projection.includesAttribute("location"));
+        assertTrue(projection.includesRelationshipAttribute("employees"));
+        assertTrue(projection.isAll());
+    }
+
+    @Test
+    public void unknownAttributesAreRejected() {
+        assertUnknownAttribute(new EntityProjection(Arrays.asList("name", "nosuchattr"), null, 0, -1), "nosuchattr");
+
+        // attributes and relationship attributes are validated separately
+        assertUnknownAttribute(new EntityProjection(Collections.singletonList("employees"), null, 0, -1), "employees");
+        assertUnknownAttribute(new EntityProjection(null, Collections.singletonList("location"), 0, -1), "location");
+    }
+
+    private void assertUnknownAttribute(EntityProjection projection, String attributeName) {
+        try {
+            projection.validate(deptType);
+
+            fail("expected validation of " + projection + " to fail");
+        } catch (AtlasBaseException excp) {
+            assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.UNKNOWN_ATTRIBUTE);
+            assertTrue(excp.getMessage().contains(attributeName));
+        }
+    }
+}
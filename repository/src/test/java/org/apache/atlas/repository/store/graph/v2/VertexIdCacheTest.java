@@ -0,0 +1,185 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.repository.store.graph.v2;
+
+import org.apache.atlas.exception.AtlasBaseException;
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.Constants;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.graphdb.AtlasVertex;
+import org.apache.atlas.type.AtlasEntityType;
+import org.apache.atlas.type.AtlasStructType.AtlasAttribute;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.apache.atlas.type.AtlasTypeUtil;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+public class VertexIdCacheTest {
+    private AtlasEntityType tableType;
+    private AtlasAttribute  qualifiedName;
+    private AtlasGraph      graph;
+
+    @BeforeClass
+    public void setUpTypes() throws AtlasBaseException {
+        AtlasTypeRegistry typeRegistry = new AtlasTypeRegistry();
+        AtlasEntityDef    tableDef     = AtlasTypeUtil.createClassTypeDef("test_table", Collections.<String>emptySet(),
+                                                                          AtlasTypeUtil.createUniqueRequiredAttrDef("qualifiedName", "string"));
+        AtlasTypesDef     typesDef     = new AtlasTypesDef();
+
+        typesDef.setEntityDefs(Collections.singletonList(tableDef));
+
+        AtlasTypeRegistry.AtlasTransientTypeRegistry ttr = typeRegistry.lockTypeRegistryForUpdate();
+
+        ttr.addTypes(typesDef);
+
+        typeRegistry.releaseTypeRegistryForUpdate(ttr, true);
+
+        tableType     = typeRegistry.getEntityTypeByName("test_table");
+        qualifiedName = tableType.getAttribute("qualifiedName");
+    }
+
+    @BeforeMethod
+    public void setUp() {
+        graph = mock(AtlasGraph.class);
+
+        VertexIdCache.setActive(true);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        VertexIdCache.setActive(false);
+    }
+
+    @Test
+    public void guidLookup() {
+        AtlasVertex vertex = vertex("v1", "guid1", "db.t1@cl1", AtlasEntity.Status.ACTIVE);
+
+        assertNull(VertexIdCache.getVertexByGuid(graph, "guid1"));
+
+        VertexIdCache.putGuid("guid1", vertex);
+
+        assertSame(VertexIdCache.getVertexByGuid(graph, "guid1"), vertex);
+
+        // vertex removed from the graph
+        when(graph.getVertex("v1")).thenReturn(null);
+
+        assertNull(VertexIdCache.getVertexByGuid(graph, "guid1"));
+    }
+
+    @Test
+    public void uniqueAttributeLookup() {
+        AtlasVertex vertex = vertex("v1", "guid1", "db.t1@cl1", AtlasEntity.Status.ACTIVE);
+
+        VertexIdCache.putUniqueAttribute(tableType, qualifiedName, "db.t1@cl1", vertex);
+
+        assertSame(VertexIdCache.getVertexByUniqueAttribute(graph, tableType, qualifiedName, "db.t1@cl1"), vertex);
+        assertNull(VertexIdCache.getVertexByUniqueAttribute(graph, tableType, qualifiedName, "db.t2@cl1"));
+
+        // qualifiedName of the entity changed
+        when(vertex.getProperty(qualifiedName.getVertexPropertyName(), Object.class)).thenReturn("db.t3@cl1");
+
+        assertNull(VertexIdCache.getVertexByUniqueAttribute(graph, tableType, qualifiedName, "db.t1@cl1"));
+
+        // entity deleted
+        VertexIdCache.putUniqueAttribute(tableType, qualifiedName, "db.t3@cl1", vertex);
+
+        when(vertex.getProperty(Constants.STATE_PROPERTY_KEY, String.class)).thenReturn(AtlasEntity.Status.DELETED.name());
+
+        assertNull(VertexIdCache.getVertexByUniqueAttribute(graph, tableType, qualifiedName, "db.t3@cl1"));
+    }
+
+    @Test
+    public void disabledCache() {
+        AtlasVertex vertex = vertex("v1", "guid1", "db.t1@cl1", AtlasEntity.Status.ACTIVE);
+
+        VertexIdCache.putGuid("guid1", vertex);
+        VertexIdCache.setActive(false);
+
+        assertNull(VertexIdCache.getVertexByGuid(graph, "guid1"));
+
+        VertexIdCache.putGuid("guid1", vertex);
+        VertexIdCache.setActive(true);
+
+        assertNull(VertexIdCache.getVertexByGuid(graph, "guid1"));
+    }
+
+    @Test
+    public void metrics() {
+        AtlasVertex vertex = vertex("v1", "guid1", "db.t1@cl1", AtlasEntity.Status.ACTIVE);
+        long        hits   = (Long) VertexIdCache.getMetrics().get("hits");
+        long        misses = (Long) VertexIdCache.getMetrics().get("misses");
+
+        VertexIdCache.putGuid("guid1", vertex);
+
+        VertexIdCache.getVertexByGuid(graph, "guid1");
+        VertexIdCache.getVertexByGuid(graph, "guid1");
+        VertexIdCache.getVertexByGuid(graph, "guid2");
+
+        Map<String, Object> metrics = VertexIdCache.getMetrics();
+
+        assertEquals(metrics.get("enabled"), Boolean.TRUE);
+        assertEquals(metrics.get("guidEntries"), 1L);
+        assertEquals((long) (Long) metrics.get("hits"), hits + 2);
+        assertEquals((long) (Long) metrics.get("misses"), misses + 1);
+    }
+
+    @Test
+    public void uniqAttrChange() {
+        AtlasVertex vertex = vertex("v1", "guid1", "db.t1@cl1", AtlasEntity.Status.ACTIVE);
+        AtlasEntity entity = new AtlasEntity("test_table");
+
+        entity.setGuid("guid1");
+        entity.setAttribute("qualifiedName", "db.t1@cl1");
+
+        assertNull(VertexIdCache.getUniqAttrChange(tableType, entity, vertex));
+
+        entity.setAttribute("qualifiedName", "db.t2@cl1");
+
+        AtlasObjectId change = VertexIdCache.getUniqAttrChange(tableType, entity, vertex);
+
+        assertEquals(change.getGuid(), "guid1");
+        assertEquals(change.getUniqueAttributes(), Collections.singletonMap("qualifiedName", "db.t1@cl1"));
+    }
+
+    private AtlasVertex vertex(String vertexId, String guid, String qualifiedNameValue, AtlasEntity.Status status) {
+        AtlasVertex ret = mock(AtlasVertex.class);
+
+        when(ret.getIdForDisplay()).thenReturn(vertexId);
+        when(ret.getProperty(Constants.GUID_PROPERTY_KEY, String.class)).thenReturn(guid);
+        when(ret.getProperty(Constants.ENTITY_TYPE_PROPERTY_KEY, String.class)).thenReturn(tableType.getTypeName());
+        when(ret.getProperty(Constants.STATE_PROPERTY_KEY, String.class)).thenReturn(status.name());
+        when(ret.getProperty(qualifiedName.getVertexPropertyName(), Object.class)).thenReturn(qualifiedNameValue);
+        when(graph.getVertex(vertexId)).thenReturn(ret);
+
+        return ret;
+    }
+}
@@ -32,14 +32,21 @@ import org.apache.atlas.model.lineage.AtlasLineageInfo.LineageRelation;
 import org.apache.atlas.model.typedef.AtlasClassificationDef;
 import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
+import org.apache.atlas.repository.converters.AtlasInstanceConverter;
 import org.apache.atlas.repository.graph.AtlasGraphProvider;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
 import org.apache.atlas.repository.impexp.ImportService;
 import org.apache.atlas.repository.impexp.ZipFileResourceTestUtils;
 import org.apache.atlas.repository.impexp.ZipSource;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.AtlasRelationshipStore;
+import org.apache.atlas.repository.store.graph.v1.DeleteHandlerDelegate;
+import org.apache.atlas.repository.store.graph.v2.AtlasEntityChangeNotifier;
+import org.apache.atlas.repository.store.graph.v2.AtlasEntityStoreV2;
+import org.apache.atlas.repository.store.graph.v2.EntityGraphMapper;
 import org.apache.atlas.runner.LocalSolrRunner;
 import org.apache.atlas.store.AtlasTypeDefStore;
+import org.apache.atlas.tasks.TaskManagement;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.commons.collections.CollectionUtils;
 import org.testng.SkipException;
@@ -68,6 +75,12 @@ import static org.apache.atlas.model.typedef.AtlasRelationshipDef.PropagateTags.
 import static org.apache.atlas.model.typedef.AtlasRelationshipDef.PropagateTags.TWO_TO_ONE;
 import static org.apache.atlas.repository.impexp.ZipFileResourceTestUtils.loadModelFromJson;
 import static org.apache.atlas.repository.impexp.ZipFileResourceTestUtils.runImportWithNoParameters;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
@@ -108,6 +121,18 @@ public class ClassificationPropagationTest {
     @Inject
     private AtlasLineageService lineageService;
 
+    @Inject
+    private DeleteHandlerDelegate deleteDelegate;
+
+    @Inject
+    private AtlasGraph atlasGraph;
+
+    @Inject
+    private AtlasEntityChangeNotifier entityChangeNotifier;
+
+    @Inject
+    private AtlasInstanceConverter instanceConverter;
+
     private Map<String, String> entitiesMap;
 
     private AtlasLineageInfo lineageInfo;
@@ -519,6 +544,52 @@ public class ClassificationPropagationTest {
         assertClassificationExistInEntity(US_EMPLOYEES_TABLE, tag1);
     }
 
+    /**
+     * Propagation changes caused by relationship updates and entity deletes are made by DeleteHandlerV1 in the same
+     * transaction, even when propagation of classification changes is deferred to tasks.
+     */
+    @Test(dependsOnMethods = {"addClassification_removePropagationsFalse_DeleteCase"})
+    public void relationshipChangesPropagateSynchronouslyWhenTasksEnabled() throws AtlasBaseException {
+        TaskManagement taskManagement = mock(TaskManagement.class);
+
+        when(taskManagement.isEnabled()).thenReturn(true);
+
+        EntityGraphMapper   graphMapper       = new EntityGraphMapper(deleteDelegate, typeRegistry, atlasGraph, relationshipStore, entityChangeNotifier, instanceConverter, taskManagement);
+        AtlasEntityStore    deferredTagsStore = new AtlasEntityStoreV2(deleteDelegate, typeRegistry, entityChangeNotifier, graphMapper);
+        AtlasEntity         employees2_table  = getEntity(EMPLOYEES2_TABLE);
+        AtlasClassification tag3              = new AtlasClassification("tag3");
+
+        tag3.setEntityGuid(employees2_table.getGuid());
+        tag3.setPropagate(true);
+        tag3.setRemovePropagationsOnEntityDelete(true);
+
+        addClassification(employees2_table, tag3);
+
+        assertClassificationExistInEntity(EMPLOYEES_UNION_TABLE, tag3);
+
+        // relationship update: propagation is removed and added back before update() returns
+        AtlasRelationship employees2_process_relationship = getRelationship(EMPLOYEES2_TABLE, EMPLOYEES_UNION_PROCESS);
+
+        employees2_process_relationship.setPropagateTags(NONE);
+        relationshipStore.update(employees2_process_relationship);
+
+        assertClassificationNotExistInEntity(EMPLOYEES_UNION_TABLE, tag3);
+
+        employees2_process_relationship = getRelationship(EMPLOYEES2_TABLE, EMPLOYEES_UNION_PROCESS);
+        employees2_process_relationship.setPropagateTags(TWO_TO_ONE);
+        relationshipStore.update(employees2_process_relationship);
+
+        assertClassificationExistInEntity(EMPLOYEES_UNION_TABLE, tag3);
+
+        // entity delete: propagations are removed before deleteById() returns
+        deferredTagsStore.deleteById(employees2_table.getGuid());
+
+        assertClassificationNotExistInEntity(EMPLOYEES_UNION_PROCESS, tag3);
+        assertClassificationNotExistInEntity(EMPLOYEES_UNION_TABLE, tag3);
+
+        verify(taskManagement, never()).createTask(anyString(), anyString(), anyMap());
+    }
+
     private void assertClassificationExistInList(Set<AtlasClassification> classifications, AtlasClassification classification) {
         String  classificationName  = classification.getTypeName();
         String  entityGuid          = classification.getEntityGuid();
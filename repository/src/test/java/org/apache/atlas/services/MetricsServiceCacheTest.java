@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.services;
+
+import org.apache.atlas.model.metrics.AtlasMetrics;
+import org.apache.atlas.query.DSLQueryPlanCache;
+import org.apache.atlas.repository.audit.AsyncEntityAuditWriter;
+import org.apache.atlas.repository.graphdb.AtlasGraph;
+import org.apache.atlas.repository.store.graph.v2.EntityCountTracker;
+import org.apache.atlas.type.AtlasTypeRegistry;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.apache.atlas.services.MetricsService.ENTITY;
+import static org.apache.atlas.services.MetricsService.METRIC_ENTITY_ACTIVE;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+
+public class MetricsServiceCacheTest {
+    private EntityCountTracker entityCountTracker;
+    private MetricsService     metricsService;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        AtlasTypeRegistry typeRegistry = mock(AtlasTypeRegistry.class);
+
+        entityCountTracker = mock(EntityCountTracker.class);
+
+        when(typeRegistry.getAllEntityDefNames()).thenReturn(Collections.singletonList("hive_table"));
+        when(entityCountTracker.countFromIndex()).thenReturn(Collections.singletonMap(EntityCountTracker.KEY_ACTIVE_ENTITIES, Collections.singletonMap("hive_table", 7L)));
+
+        metricsService = new MetricsService(mock(AtlasGraph.class), typeRegistry, mock(DSLQueryPlanCache.class), entityCountTracker, mock(AsyncEntityAuditWriter.class));
+    }
+
+    @Test
+    public void indexCountsAreCachedWhenNotTracking() throws Exception {
+        when(entityCountTracker.isTracking()).thenReturn(false);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(getActiveCounts(metricsService.getMetrics(false)), Collections.singletonMap("hive_table", 7L));
+        }
+
+        verify(entityCountTracker, times(1)).countFromIndex();
+
+        // ignoreCache reads the index again
+        metricsService.getMetrics(true);
+
+        verify(entityCountTracker, times(2)).countFromIndex();
+        verify(entityCountTracker, never()).recount();
+    }
+
+    @Test
+    public void indexIsNotReadWhenTracking() throws Exception {
+        when(entityCountTracker.isTracking()).thenReturn(true);
+
+        metricsService.getMetrics(false);
+
+        verify(entityCountTracker, never()).countFromIndex();
+    }
+
+    private static Map getActiveCounts(AtlasMetrics metrics) {
+        return (Map) metrics.getMetric(ENTITY, METRIC_ENTITY_ACTIVE);
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.tasks;
+
+import org.apache.atlas.model.tasks.AtlasTask;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TaskManagementTest {
+    private static final String TASK_TYPE = "TEST_TASK";
+
+    private TaskRegistry              registry;
+    private TaskManagement            taskManagement;
+    private Map<String, List<String>> statusUpdates;
+    private Map<String, Integer>      failuresToSimulate;
+    private List<String>              executed;
+    private CountDownLatch            terminated;
+
+    @BeforeMethod
+    public void setUp() {
+        registry           = mock(TaskRegistry.class);
+        taskManagement     = new TaskManagement(new PropertiesConfiguration(), registry, 10L);
+        statusUpdates      = new ConcurrentHashMap<>();
+        failuresToSimulate = new ConcurrentHashMap<>();
+        executed           = Collections.synchronizedList(new ArrayList<>());
+
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                AtlasTask task = (AtlasTask) invocation.getArguments()[0];
+
+                statusUpdates.computeIfAbsent(task.getGuid(), k -> Collections.synchronizedList(new ArrayList<>())).add(task.getStatus().name());
+
+                if (task.getStatus() == AtlasTask.Status.COMPLETE || task.getStatus() == AtlasTask.Status.FAILED) {
+                    terminated.countDown();
+                }
+
+                return null;
+            }
+        }).when(registry).updateStatus(any(AtlasTask.class));
+
+        taskManagement.addFactory(new TaskFactory() {
+            @Override
+            public AbstractTask create(AtlasTask task) {
+                return new AbstractTask(task) {
+                    @Override
+                    public void run() throws Exception {
+                        executed.add(getTaskGuid());
+
+                        Integer failures = failuresToSimulate.get(getTaskGuid());
+
+                        if (failures != null && failures > 0) {
+                            failuresToSimulate.put(getTaskGuid(), failures - 1);
+
+                            throw new Exception("simulated failure");
+                        }
+                    }
+                };
+            }
+
+            @Override
+            public List<String> getSupportedTypes() {
+                return Collections.singletonList(TASK_TYPE);
+            }
+        });
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        taskManagement.stopWorkers();
+    }
+
+    @Test
+    public void pendingTasksAreResumedInOrder() throws Exception {
+        AtlasTask t1 = task("t1", "e1");
+        AtlasTask t2 = task("t2", "e1");
+        AtlasTask t3 = task("t3", "e1");
+
+        t2.setStatus(AtlasTask.Status.IN_PROGRESS); // interrupted by a previous shutdown
+
+        when(registry.getPendingTasks()).thenReturn(Arrays.asList(t1, t2, t3));
+
+        run(3);
+
+        assertEquals(executed, Arrays.asList("t1", "t2", "t3"));
+        assertEquals(statusUpdates.get("t1"), Arrays.asList("IN_PROGRESS", "COMPLETE"));
+        assertEquals(t2.getAttemptCount(), 1);
+        assertNull(t2.getErrorMessage());
+    }
+
+    @Test
+    public void failedTaskIsRetried() throws Exception {
+        AtlasTask t1 = task("t1", "e1");
+
+        failuresToSimulate.put("t1", 1);
+
+        when(registry.getPendingTasks()).thenReturn(Collections.singletonList(t1));
+
+        run(1);
+
+        assertEquals(statusUpdates.get("t1"), Arrays.asList("IN_PROGRESS", "PENDING", "IN_PROGRESS", "COMPLETE"));
+        assertEquals(t1.getAttemptCount(), 2);
+        assertNull(t1.getErrorMessage());
+    }
+
+    @Test
+    public void failedTaskIsRetriedBeforeLaterTasksOfLane() throws Exception {
+        AtlasTask t1 = task("t1", "e1");
+        AtlasTask t2 = task("t2", "e1");
+
+        failuresToSimulate.put("t1", 2);
+
+        when(registry.getPendingTasks()).thenReturn(Arrays.asList(t1, t2));
+
+        run(2);
+
+        assertEquals(executed, Arrays.asList("t1", "t1", "t1", "t2"));
+        assertEquals(t1.getStatus(), AtlasTask.Status.COMPLETE);
+        assertEquals(t2.getStatus(), AtlasTask.Status.COMPLETE);
+    }
+
+    @Test
+    public void retryWaitIsDoubledPerAttempt() {
+        assertEquals(taskManagement.getRetryWaitMs(1), 10L);
+        assertEquals(taskManagement.getRetryWaitMs(2), 20L);
+        assertEquals(taskManagement.getRetryWaitMs(4), 80L);
+        assertEquals(taskManagement.getRetryWaitMs(100), 5 * 60 * 1000L);
+    }
+
+    @Test
+    public void taskFailsAfterMaxAttempts() throws Exception {
+        AtlasTask t1 = task("t1", "e1");
+        AtlasTask t2 = task("t2", "e2");
+
+        t2.setType("UNKNOWN_TYPE");
+        failuresToSimulate.put("t1", Integer.MAX_VALUE);
+
+        when(registry.getPendingTasks()).thenReturn(Arrays.asList(t1, t2));
+
+        run(2);
+
+        assertEquals(t1.getStatus(), AtlasTask.Status.FAILED);
+        assertEquals(t1.getAttemptCount(), 3);
+        assertEquals(t1.getErrorMessage(), "simulated failure");
+        assertTrue(t1.getEndTime() != null);
+
+        // tasks without a registered factory aren't retried
+        assertEquals(t2.getStatus(), AtlasTask.Status.FAILED);
+        assertEquals(t2.getAttemptCount(), 1);
+    }
+
+    @Test
+    public void lanesByEntityGuid() {
+        Set<Integer> lanes = new HashSet<>();
+
+        for (int i = 0; i < 100; i++) {
+            AtlasTask task = task("t" + i, "e" + (i % 10));
+
+            assertEquals(TaskManagement.getLane(task, 4), TaskManagement.getLane(task("x", "e" + (i % 10)), 4));
+
+            lanes.add(TaskManagement.getLane(task, 4));
+        }
+
+        assertEquals(lanes.size(), 4);
+
+        // tasks not associated with an entity are assigned a lane by their guid
+        assertEquals(TaskManagement.getLane(task("t1", null), 4), Math.floorMod("t1".hashCode(), 4));
+    }
+
+    private void run(int expectedTasks) throws InterruptedException {
+        terminated = new CountDownLatch(expectedTasks);
+
+        taskManagement.startWorkers();
+
+        assertTrue(terminated.await(30, TimeUnit.SECONDS));
+    }
+
+    private static AtlasTask task(String guid, String entityGuid) {
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (entityGuid != null) {
+            parameters.put(TaskManagement.PARAM_ENTITY_GUID, entityGuid);
+        }
+
+        AtlasTask ret = new AtlasTask(TASK_TYPE, "admin", parameters);
+
+        ret.setGuid(guid);
+
+        return ret;
+    }
+}
@@ -17,7 +17,9 @@
  */
 package org.apache.atlas.utils;
 
+import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.GraphTransactionInterceptor;
+import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.RandomStringUtils;
 import org.springframework.util.CollectionUtils;
@@ -25,10 +27,16 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class ObjectUpdateSynchronizerTest {
     private static final GraphTransactionInterceptor.ObjectUpdateSynchronizer objectUpdateSynchronizer = new GraphTransactionInterceptor.ObjectUpdateSynchronizer();
@@ -48,7 +56,12 @@ public class ObjectUpdateSynchronizerTest {
         }
 
         public void run() {
-            objectUpdateSynchronizer.lockObject(CollectionUtils.arrayToList(ids));
+            try {
+                objectUpdateSynchronizer.lockObject(CollectionUtils.arrayToList(ids));
+            } catch (AtlasBaseException excp) {
+                throw new RuntimeException(excp);
+            }
+
             for (int i = 0; i < MAX_COUNT; i++) {
                 outputList.add(i);
                 RandomStringUtils.randomAlphabetic(20);
@@ -166,6 +179,111 @@ public class ObjectUpdateSynchronizerTest {
         assertArrayEquals(populateExpectedArrayOutput(th.length));
     }
 
+    @Test
+    public void lockTimesOutWhenHeldByAnotherThread() throws Exception {
+        GraphTransactionInterceptor.ObjectUpdateSynchronizer synchronizer = new GraphTransactionInterceptor.ObjectUpdateSynchronizer(16, 100);
+        CountDownLatch                                       locked       = new CountDownLatch(1);
+        CountDownLatch                                       done         = new CountDownLatch(1);
+        Thread                                               holder       = new Thread(() -> {
+            try {
+                synchronizer.lockObject(Arrays.asList("1", "2"));
+                locked.countDown();
+                done.await();
+            } catch (Exception excp) {
+                throw new RuntimeException(excp);
+            } finally {
+                synchronizer.releaseLockedObjects();
+            }
+        });
+
+        holder.start();
+        locked.await();
+
+        try {
+            synchronizer.lockObject(Arrays.asList("2", "0"));
+
+            fail("lockObject() should have timed out");
+        } catch (AtlasBaseException excp) {
+            assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.FAILED_TO_OBTAIN_ENTITY_LOCK);
+        }
+
+        // lock on "0", acquired before timing out on "2", should have been released
+        AtomicBoolean otherLocked = new AtomicBoolean(false);
+        Thread        other       = new Thread(() -> {
+            try {
+                synchronizer.lockObject("0");
+
+                otherLocked.set(true);
+            } catch (AtlasBaseException excp) {
+                throw new RuntimeException(excp);
+            } finally {
+                synchronizer.releaseLockedObjects();
+            }
+        });
+
+        other.start();
+        other.join();
+
+        assertTrue(otherLocked.get());
+
+        done.countDown();
+        holder.join();
+
+        synchronizer.lockObject(Arrays.asList("0", "1", "2"));
+        synchronizer.releaseLockedObjects();
+
+        Map<String, Object> metrics = synchronizer.getMetrics();
+
+        assertEquals(metrics.get("numLocks"), 16);
+        assertEquals(metrics.get("lockRequests"), 4L);
+        assertEquals(metrics.get("timeouts"), 1L);
+        assertTrue((Long) metrics.get("contendedLocks") >= 1L);
+    }
+
+    @Test
+    public void lockWaitsWithoutLimitWhenNoTimeout() throws Exception {
+        GraphTransactionInterceptor.ObjectUpdateSynchronizer synchronizer = new GraphTransactionInterceptor.ObjectUpdateSynchronizer(16, 0);
+        CountDownLatch                                       locked       = new CountDownLatch(1);
+        Thread                                               holder       = new Thread(() -> {
+            try {
+                synchronizer.lockObject("1");
+                locked.countDown();
+                Thread.sleep(200);
+            } catch (Exception excp) {
+                throw new RuntimeException(excp);
+            } finally {
+                synchronizer.releaseLockedObjects();
+            }
+        });
+
+        holder.start();
+        locked.await();
+
+        synchronizer.lockObject("1");
+        synchronizer.releaseLockedObjects();
+
+        holder.join();
+
+        Map<String, Object> metrics = synchronizer.getMetrics();
+
+        assertEquals(metrics.get("timeouts"), 0L);
+        assertEquals(metrics.get("contendedLocks"), 1L);
+    }
+
+    @Test
+    public void lockIsReentrant() throws AtlasBaseException {
+        GraphTransactionInterceptor.ObjectUpdateSynchronizer synchronizer = new GraphTransactionInterceptor.ObjectUpdateSynchronizer(1, 100);
+
+        synchronizer.lockObject("1");
+        synchronizer.lockObject(Arrays.asList("2", "1"));
+        synchronizer.releaseLockedObjects();
+
+        Map<String, Object> metrics = synchronizer.getMetrics();
+
+        assertEquals(metrics.get("numLocks"), 1);
+        assertEquals(metrics.get("contendedLocks"), 0L);
+    }
+
     private void verifyMultipleThreadRun(int limit) throws InterruptedException {
         CounterThread[] th = getCounterThreads(limit);
         startCounterThreads(th);
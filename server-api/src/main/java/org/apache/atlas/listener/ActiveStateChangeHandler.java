@@ -31,7 +31,12 @@ public interface ActiveStateChangeHandler {
         GRAPH_BACKED_SEARCH_INDEXER(1),
         TYPEDEF_STORE_INITIALIZER(2),
         DEFAULT_METADATA_SERVICE(3),
-        NOTIFICATION_HOOK_CONSUMER(4);
+        NOTIFICATION_HOOK_CONSUMER(4),
+        TASK_MANAGEMENT(5),
+        VERTEX_ID_CACHE(6),
+        ENTITY_COUNT_TRACKER(7),
+        TYPE_REGISTRY_REFRESHER(8),
+        LINEAGE_INDEX(9);
 
 
         private final int order;
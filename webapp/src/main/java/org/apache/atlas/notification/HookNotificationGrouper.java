@@ -0,0 +1,489 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityPartialUpdateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityUpdateRequestV2;
+import org.apache.atlas.v1.model.instance.Id;
+import org.apache.atlas.v1.model.instance.Referenceable;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityDeleteRequest;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityPartialUpdateRequest;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Groups hook notifications so that notifications that don't touch common entities can be processed concurrently.
+ *
+ * Entities are identified by their qualifiedName or guid. Entities created or updated by a notification are its
+ * writes, and entities it only refers to are its reads. A notification is placed in the same group as earlier
+ * notifications that write an entity it reads or writes, or that read an entity it writes. Notifications within a
+ * group retain their order. A notification whose entities can't be identified is placed in the same group as all
+ * earlier and later notifications.
+ *
+ * An entity identified by both guid and qualifiedName in a notification has the same key in all notifications of the
+ * batch, whichever of the two they use. An entity identified only by a guid that no notification pairs with a
+ * qualifiedName might be one of the entities identified only by qualifiedName; a notification referring to such a guid
+ * is then handled like one whose entities can't be identified.
+ */
+final class HookNotificationGrouper {
+    private static final String ATTRIBUTE_QUALIFIED_NAME  = "qualifiedName";
+    private static final String KEY_PREFIX_GUID           = "guid:";
+    private static final String KEY_PREFIX_QUALIFIED_NAME = "qn:";
+
+    private HookNotificationGrouper() { }
+
+    static class EntityKeys {
+        final Set<String>         writes  = new HashSet<>();
+        final Set<String>         reads   = new HashSet<>();
+        final Map<String, String> aliases = new HashMap<>(); // guid key -> qualifiedName key, of the same entity
+    }
+
+    /**
+     * @return keys of entities read and written by the given notification; null if the entities can't be identified
+     */
+    static EntityKeys getEntityKeys(HookNotification message) {
+        EntityKeys ret = new EntityKeys();
+        boolean    isKnown;
+
+        switch (message.getType()) {
+            case ENTITY_CREATE:
+            case ENTITY_FULL_UPDATE:
+                isKnown = addReferenceables(ret, ((EntityCreateRequest) message).getEntities());
+            break;
+
+            case ENTITY_PARTIAL_UPDATE: {
+                EntityPartialUpdateRequest request = (EntityPartialUpdateRequest) message;
+
+                isKnown = addUniqueAttribute(ret, request.getAttribute(), request.getAttributeValue()) && addReferenceable(ret, request.getEntity(), false);
+            }
+            break;
+
+            case ENTITY_DELETE: {
+                EntityDeleteRequest request = (EntityDeleteRequest) message;
+
+                isKnown = addUniqueAttribute(ret, request.getAttribute(), request.getAttributeValue());
+            }
+            break;
+
+            case ENTITY_CREATE_V2:
+                isKnown = addEntities(ret, ((EntityCreateRequestV2) message).getEntities());
+            break;
+
+            case ENTITY_FULL_UPDATE_V2:
+                isKnown = addEntities(ret, ((EntityUpdateRequestV2) message).getEntities());
+            break;
+
+            case ENTITY_PARTIAL_UPDATE_V2: {
+                EntityPartialUpdateRequestV2 request = (EntityPartialUpdateRequestV2) message;
+                AtlasEntityWithExtInfo       entity  = request.getEntity();
+
+                isKnown = addObjectId(ret, ret.writes, request.getEntityId());
+
+                if (isKnown && entity != null) {
+                    addEntity(ret, entity.getEntity(), false);
+
+                    if (entity.getReferredEntities() != null) {
+                        isKnown = addEntities(ret, entity.getReferredEntities().values());
+                    }
+                }
+            }
+            break;
+
+            case ENTITY_DELETE_V2: {
+                List<AtlasObjectId> objectIds = ((EntityDeleteRequestV2) message).getEntities();
+
+                isKnown = objectIds != null;
+
+                if (isKnown) {
+                    for (AtlasObjectId objectId : objectIds) {
+                        isKnown = addObjectId(ret, ret.writes, objectId) && isKnown;
+                    }
+                }
+            }
+            break;
+
+            default:
+                isKnown = false;
+            break;
+        }
+
+        return isKnown ? ret : null;
+    }
+
+    /**
+     * @param entityKeys keys of entities read and written by each notification, in the order of notifications; null
+     *                   entries denote notifications whose entities can't be identified
+     * @return groups of notification indexes; each group is ordered by index, and groups are ordered by their first index
+     */
+    static List<List<Integer>> group(List<EntityKeys> notificationKeys) {
+        List<EntityKeys>           entityKeys = resolveAliases(notificationKeys);
+        int[]                      parents    = new int[entityKeys.size()];
+        Map<String, Integer>       writers    = new HashMap<>();
+        Map<String, List<Integer>> readers    = new HashMap<>();
+        Integer                    barrier    = null;
+
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+
+        for (int i = 0; i < parents.length; i++) {
+            EntityKeys keys = entityKeys.get(i);
+
+            if (barrier != null) {
+                union(parents, barrier, i);
+            }
+
+            if (keys == null) {
+                for (int j = 0; j < i; j++) {
+                    union(parents, j, i);
+                }
+
+                barrier = i;
+
+                continue;
+            }
+
+            for (String key : keys.writes) {
+                Integer       writer     = writers.put(key, i);
+                List<Integer> keyReaders = readers.remove(key);
+
+                if (writer != null) {
+                    union(parents, writer, i);
+                }
+
+                if (keyReaders != null) {
+                    for (Integer reader : keyReaders) {
+                        union(parents, reader, i);
+                    }
+                }
+            }
+
+            for (String key : keys.reads) {
+                if (keys.writes.contains(key)) {
+                    continue;
+                }
+
+                Integer writer = writers.get(key);
+
+                if (writer != null) {
+                    union(parents, writer, i);
+                }
+
+                readers.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+
+        for (int i = 0; i < parents.length; i++) {
+            groups.computeIfAbsent(find(parents, i), k -> new ArrayList<>()).add(i);
+        }
+
+        return new ArrayList<>(groups.values());
+    }
+
+    private static boolean addEntities(EntityKeys keys, AtlasEntitiesWithExtInfo entities) {
+        boolean ret = entities != null && entities.getEntities() != null;
+
+        if (ret) {
+            ret = addEntities(keys, entities.getEntities());
+
+            if (ret && entities.getReferredEntities() != null) {
+                ret = addEntities(keys, entities.getReferredEntities().values());
+            }
+        }
+
+        return ret;
+    }
+
+    private static boolean addEntities(EntityKeys keys, Collection<AtlasEntity> entities) {
+        boolean ret = true;
+
+        for (AtlasEntity entity : entities) {
+            ret = addEntity(keys, entity, true) && ret;
+        }
+
+        return ret;
+    }
+
+    private static boolean addEntity(EntityKeys keys, AtlasEntity entity, boolean isKeyRequired) {
+        if (entity == null) {
+            return true;
+        }
+
+        boolean ret = addKeys(keys, keys.writes, entity.getGuid(), entity.getAttribute(ATTRIBUTE_QUALIFIED_NAME));
+
+        addReferences(keys, entity.getAttributes());
+        addReferences(keys, entity.getRelationshipAttributes());
+
+        return ret || !isKeyRequired;
+    }
+
+    private static boolean addReferenceables(EntityKeys keys, List<Referenceable> entities) {
+        boolean ret = entities != null;
+
+        if (ret) {
+            for (Referenceable entity : entities) {
+                ret = addReferenceable(keys, entity, true) && ret;
+            }
+        }
+
+        return ret;
+    }
+
+    private static boolean addReferenceable(EntityKeys keys, Referenceable entity, boolean isKeyRequired) {
+        if (entity == null) {
+            return true;
+        }
+
+        Id      id  = entity.getId();
+        boolean ret = addKeys(keys, keys.writes, id != null ? id.getId() : null, entity.get(ATTRIBUTE_QUALIFIED_NAME));
+
+        if (entity.getValues() != null) {
+            for (Object value : entity.getValues().values()) {
+                ret = addReferenceableValue(keys, value) && ret;
+            }
+        }
+
+        return ret || !isKeyRequired;
+    }
+
+    // V1 notifications create or update nested Referenceables, hence these are considered as writes
+    private static boolean addReferenceableValue(EntityKeys keys, Object value) {
+        boolean ret = true;
+
+        if (value instanceof Referenceable) {
+            ret = addReferenceable(keys, (Referenceable) value, true);
+        } else if (value instanceof Id) {
+            addKeys(keys, keys.reads, ((Id) value).getId(), null);
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection) value) {
+                ret = addReferenceableValue(keys, element) && ret;
+            }
+        } else if (value instanceof Map) {
+            for (Object element : ((Map) value).values()) {
+                ret = addReferenceableValue(keys, element) && ret;
+            }
+        }
+
+        return ret;
+    }
+
+    private static void addReferences(EntityKeys keys, Map<String, Object> attributes) {
+        if (attributes != null) {
+            for (Object value : attributes.values()) {
+                addReference(keys, value);
+            }
+        }
+    }
+
+    private static void addReference(EntityKeys keys, Object value) {
+        if (value instanceof AtlasObjectId) {
+            addObjectId(keys, keys.reads, (AtlasObjectId) value);
+        } else if (value instanceof Collection) {
+            for (Object element : (Collection) value) {
+                addReference(keys, element);
+            }
+        } else if (value instanceof Map) {
+            Map map = (Map) value;
+
+            // object-ids in notifications are usually deserialized as maps
+            if (map.containsKey(AtlasObjectId.KEY_TYPENAME) && (map.containsKey(AtlasObjectId.KEY_GUID) || map.containsKey(AtlasObjectId.KEY_UNIQUE_ATTRIBUTES))) {
+                addObjectId(keys, keys.reads, new AtlasObjectId(map));
+            } else {
+                for (Object element : map.values()) {
+                    addReference(keys, element);
+                }
+            }
+        }
+    }
+
+    private static boolean addObjectId(EntityKeys entityKeys, Set<String> keys, AtlasObjectId objectId) {
+        if (objectId == null) {
+            return false;
+        }
+
+        Object qualifiedName = objectId.getUniqueAttributes() != null ? objectId.getUniqueAttributes().get(ATTRIBUTE_QUALIFIED_NAME) : null;
+
+        return addKeys(entityKeys, keys, objectId.getGuid(), qualifiedName);
+    }
+
+    private static boolean addUniqueAttribute(EntityKeys keys, String attrName, Object attrValue) {
+        return StringUtils.equals(attrName, ATTRIBUTE_QUALIFIED_NAME) && addKeys(keys, keys.writes, null, attrValue);
+    }
+
+    private static boolean addKeys(EntityKeys entityKeys, Set<String> keys, String guid, Object qualifiedName) {
+        String guidKey          = null;
+        String qualifiedNameKey = null;
+
+        // negative guids are placeholders, valid only within a notification
+        if (StringUtils.isNotEmpty(guid) && !guid.startsWith("-")) {
+            guidKey = KEY_PREFIX_GUID + guid;
+
+            keys.add(guidKey);
+        }
+
+        if (qualifiedName != null) {
+            qualifiedNameKey = KEY_PREFIX_QUALIFIED_NAME + qualifiedName;
+
+            keys.add(qualifiedNameKey);
+        }
+
+        if (guidKey != null && qualifiedNameKey != null) {
+            entityKeys.aliases.put(guidKey, qualifiedNameKey);
+        }
+
+        return guidKey != null || qualifiedNameKey != null;
+    }
+
+    /**
+     * @return keys of each notification, with keys of the same entity replaced by one of them; null for notifications
+     *         whose entities can't be identified
+     */
+    private static List<EntityKeys> resolveAliases(List<EntityKeys> entityKeys) {
+        Map<String, String> keyParents = new HashMap<>();
+
+        for (EntityKeys keys : entityKeys) {
+            if (keys != null) {
+                for (Map.Entry<String, String> alias : keys.aliases.entrySet()) {
+                    unionKeys(keyParents, alias.getKey(), alias.getValue());
+                }
+            }
+        }
+
+        Set<String> guidRoots          = new HashSet<>();
+        Set<String> qualifiedNameRoots = new HashSet<>();
+
+        for (EntityKeys keys : entityKeys) {
+            if (keys != null) {
+                addRoots(keyParents, keys.writes, guidRoots, qualifiedNameRoots);
+                addRoots(keyParents, keys.reads, guidRoots, qualifiedNameRoots);
+            }
+        }
+
+        boolean          hasQualifiedNameOnly = !guidRoots.containsAll(qualifiedNameRoots);
+        List<EntityKeys> ret                  = new ArrayList<>(entityKeys.size());
+
+        for (EntityKeys keys : entityKeys) {
+            EntityKeys resolved = null;
+
+            if (keys != null) {
+                resolved = new EntityKeys();
+
+                if (!resolveKeys(keyParents, keys.writes, resolved.writes, hasQualifiedNameOnly ? qualifiedNameRoots : null) ||
+                    !resolveKeys(keyParents, keys.reads, resolved.reads, hasQualifiedNameOnly ? qualifiedNameRoots : null)) {
+                    resolved = null;
+                }
+            }
+
+            ret.add(resolved);
+        }
+
+        return ret;
+    }
+
+    private static void addRoots(Map<String, String> keyParents, Set<String> keys, Set<String> guidRoots, Set<String> qualifiedNameRoots) {
+        for (String key : keys) {
+            String root = findKey(keyParents, key);
+
+            if (key.startsWith(KEY_PREFIX_GUID)) {
+                guidRoots.add(root);
+            } else {
+                qualifiedNameRoots.add(root);
+            }
+        }
+    }
+
+    /**
+     * @param qualifiedNameRoots if not null, a guid key without a qualifiedName alias in this set fails resolution
+     * @return false if a key can't be resolved
+     */
+    private static boolean resolveKeys(Map<String, String> keyParents, Set<String> keys, Set<String> resolvedKeys, Set<String> qualifiedNameRoots) {
+        for (String key : keys) {
+            String root = findKey(keyParents, key);
+
+            if (qualifiedNameRoots != null && key.startsWith(KEY_PREFIX_GUID) && !qualifiedNameRoots.contains(root)) {
+                return false;
+            }
+
+            resolvedKeys.add(root);
+        }
+
+        return true;
+    }
+
+    private static String findKey(Map<String, String> keyParents, String key) {
+        for (String parent = keyParents.get(key); parent != null; parent = keyParents.get(key)) {
+            String grandParent = keyParents.get(parent);
+
+            if (grandParent != null) {
+                keyParents.put(key, grandParent);
+            }
+
+            key = parent;
+        }
+
+        return key;
+    }
+
+    private static void unionKeys(Map<String, String> keyParents, String key1, String key2) {
+        String root1 = findKey(keyParents, key1);
+        String root2 = findKey(keyParents, key2);
+
+        if (!root1.equals(root2)) {
+            keyParents.put(root1, root2);
+        }
+    }
+
+    private static int find(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i          = parents[i];
+        }
+
+        return i;
+    }
+
+    private static void union(int[] parents, int i, int j) {
+        int rootI = find(parents, i);
+        int rootJ = find(parents, j);
+
+        // keep the lowest index as root, so that groups are ordered by their first notification
+        if (rootI < rootJ) {
+            parents[rootJ] = rootI;
+        } else if (rootJ < rootI) {
+            parents[rootI] = rootJ;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.atlas.AtlasException;
 import org.apache.atlas.AtlasServiceException;
 import org.apache.atlas.RequestContext;
 import org.apache.atlas.ha.HAConfiguration;
+import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.kafka.AtlasKafkaMessage;
 import org.apache.atlas.listener.ActiveStateChangeHandler;
 import org.apache.atlas.model.instance.AtlasEntity;
@@ -39,6 +40,7 @@ import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV
 import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
 import org.apache.atlas.model.notification.HookNotification.EntityUpdateRequestV2;
 import org.apache.atlas.model.notification.HookNotification.EntityPartialUpdateRequestV2;
+import org.apache.atlas.notification.HookNotificationGrouper.EntityKeys;
 import org.apache.atlas.notification.NotificationInterface.NotificationType;
 import org.apache.atlas.v1.model.instance.Referenceable;
 import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateRequest;
@@ -69,12 +71,19 @@ import javax.inject.Inject;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -106,6 +115,8 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     public static final String CONSUMER_MIN_RETRY_INTERVAL       = "atlas.notification.consumer.min.retry.interval";
     public static final String CONSUMER_MAX_RETRY_INTERVAL       = "atlas.notification.consumer.max.retry.interval";
     public static final String CONSUMER_DISABLED                 = "atlas.notification.consumer.disabled";
+    public static final String CONSUMER_WORKER_THREADS_PROPERTY  = "atlas.notification.hook.worker.threads";
+    public static final String CONSUMER_BATCH_MAX_MESSAGES       = "atlas.notification.hook.batch.max.messages";
 
     public static final String CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633                  = "atlas.notification.consumer.skip.hive_column_lineage.hive-20633";
     public static final String CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633_INPUTS_THRESHOLD = "atlas.notification.consumer.skip.hive_column_lineage.hive-20633.inputs.threshold";
@@ -124,11 +135,16 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     private final int                    skipHiveColumnLineageHive20633InputsThreshold;
     private final int                    largeMessageProcessingTimeThresholdMs;
     private final boolean                consumerDisabled;
+    private final int                    workerThreads;
+    private final int                    maxMessagesPerTransaction;
 
     private NotificationInterface notificationInterface;
     private ExecutorService       executors;
     private Configuration         applicationProperties;
 
+    @VisibleForTesting
+    ExecutorService workers;
+
     @VisibleForTesting
     final int consumerRetryInterval;
 
@@ -156,9 +172,13 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         skipHiveColumnLineageHive20633InputsThreshold = applicationProperties.getInt(CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633_INPUTS_THRESHOLD, 15); // skip if avg # of inputs is > 15
         consumerDisabled 							  = applicationProperties.getBoolean(CONSUMER_DISABLED, false);
         largeMessageProcessingTimeThresholdMs         = applicationProperties.getInt("atlas.notification.consumer.large.message.processing.time.threshold.ms", 60 * 1000);  //  60 sec by default
+        workerThreads                                 = applicationProperties.getInt(CONSUMER_WORKER_THREADS_PROPERTY, 1);
+        maxMessagesPerTransaction                     = applicationProperties.getInt(CONSUMER_BATCH_MAX_MESSAGES, 20);
 
         LOG.info("{}={}", CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633, skipHiveColumnLineageHive20633);
         LOG.info("{}={}", CONSUMER_SKIP_HIVE_COLUMN_LINEAGE_HIVE_20633_INPUTS_THRESHOLD, skipHiveColumnLineageHive20633InputsThreshold);
+        LOG.info("{}={}", CONSUMER_WORKER_THREADS_PROPERTY, workerThreads);
+        LOG.info("{}={}", CONSUMER_BATCH_MAX_MESSAGES, maxMessagesPerTransaction);
     }
 
     @Override
@@ -195,6 +215,10 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
 
         executors = executorService;
 
+        if (workerThreads > 1 && workers == null) {
+            workers = Executors.newFixedThreadPool(workerThreads, new ThreadFactoryBuilder().setNameFormat(THREADNAME_PREFIX + " worker-%d").setDaemon(true).build());
+        }
+
         for (final NotificationConsumer<HookNotification> consumer : notificationConsumers) {
             HookConsumer hookConsumer = new HookConsumer(consumer);
 
@@ -222,6 +246,16 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                 executors = null;
             }
 
+            if (workers != null) {
+                workers.shutdown();
+
+                if (!workers.awaitTermination(5000, TimeUnit.MILLISECONDS)) {
+                    LOG.error("Timed out waiting for consumer worker threads to shut down, exiting uncleanly");
+                }
+
+                workers = null;
+            }
+
             notificationInterface.close();
         } catch (InterruptedException e) {
             LOG.error("Failure in shutting down consumers");
@@ -342,7 +376,7 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
     class HookConsumer extends ShutdownableThread {
         private final NotificationConsumer<HookNotification> consumer;
         private final AtomicBoolean                          shouldRun      = new AtomicBoolean(false);
-        private final List<String>                           failedMessages = new ArrayList<>();
+        private final List<String>                           failedMessages = Collections.synchronizedList(new ArrayList<>());
         private final AdaptiveWaiter                         adaptiveWaiter = new AdaptiveWaiter(minWaitDuration, maxWaitDuration, minWaitDuration);
 
         @VisibleForTesting
@@ -370,8 +404,12 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                     try {
                         List<AtlasKafkaMessage<HookNotification>> messages = consumer.receive();
 
-                        for (AtlasKafkaMessage<HookNotification> msg : messages) {
-                            handleMessage(msg);
+                        if (workers != null && messages.size() > 1) {
+                            handleMessages(messages);
+                        } else {
+                            for (AtlasKafkaMessage<HookNotification> msg : messages) {
+                                handleMessage(msg);
+                            }
                         }
                     } catch (IllegalStateException ex) {
                         adaptiveWaiter.pause(ex);
@@ -398,6 +436,331 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
 
         @VisibleForTesting
         void handleMessage(AtlasKafkaMessage<HookNotification> kafkaMsg) throws AtlasServiceException, AtlasException {
+            if (failedCommitOffsetRecorder.isMessageReplayed(kafkaMsg.getOffset())) {
+                commit(kafkaMsg);
+                return;
+            }
+
+            preProcessNotificationMessage(kafkaMsg);
+
+            if (processMessage(kafkaMsg)) {
+                commit(kafkaMsg);
+            }
+        }
+
+        /**
+         * Processes messages of a batch received from the topic concurrently on worker threads, and commits the offsets
+         * once for the batch. Messages that touch common entities are processed in order by the same worker, and
+         * create/update messages that don't touch common entities are written to the graph in a single transaction.
+         *
+         * Messages that failed in a worker, along with later messages of their groups, are then processed serially in
+         * the order of the batch, as when workers are not configured. Offsets are committed only up to the last message, in each partition, below which all messages
+         * of the batch were handled.
+         */
+        @VisibleForTesting
+        void handleMessages(List<AtlasKafkaMessage<HookNotification>> kafkaMsgs) throws InterruptedException, AtlasServiceException, AtlasException {
+            AtlasPerfTracer perf = null;
+
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "handleMessages(" + kafkaMsgs.size() + ")");
+            }
+
+            Set<AtlasKafkaMessage<HookNotification>> handledMsgs = Collections.newSetFromMap(new IdentityHashMap<>());
+
+            try {
+                List<AtlasKafkaMessage<HookNotification>> messages = new ArrayList<>();
+
+                for (AtlasKafkaMessage<HookNotification> kafkaMsg : kafkaMsgs) {
+                    if (failedCommitOffsetRecorder.isMessageReplayed(kafkaMsg.getOffset())) {
+                        handledMsgs.add(kafkaMsg);
+                    } else {
+                        messages.add(kafkaMsg);
+                    }
+                }
+
+                // pre-process messages and find the entities they touch, in parallel
+                List<Callable<EntityKeys>> keyTasks = new ArrayList<>(messages.size());
+
+                for (AtlasKafkaMessage<HookNotification> kafkaMsg : messages) {
+                    keyTasks.add(() -> {
+                        preProcessNotificationMessage(kafkaMsg);
+
+                        return HookNotificationGrouper.getEntityKeys(kafkaMsg.getMessage());
+                    });
+                }
+
+                List<AtlasKafkaMessage<HookNotification>> preProcessedMsgs = new ArrayList<>(messages.size());
+                List<EntityKeys>                          entityKeys       = new ArrayList<>(messages.size());
+                List<Future<EntityKeys>>                  keyFutures       = workers.invokeAll(keyTasks);
+
+                for (int i = 0; i < keyFutures.size(); i++) {
+                    AtlasKafkaMessage<HookNotification> kafkaMsg = messages.get(i);
+
+                    try {
+                        entityKeys.add(keyFutures.get(i).get());
+                        preProcessedMsgs.add(kafkaMsg);
+                    } catch (ExecutionException e) {
+                        LOG.warn("Error pre-processing message at offset {}; it will be processed serially", kafkaMsg.getOffset(), e.getCause());
+                    }
+                }
+
+                List<List<AtlasKafkaMessage<HookNotification>>> groups = new ArrayList<>();
+
+                for (List<Integer> group : HookNotificationGrouper.group(entityKeys)) {
+                    List<AtlasKafkaMessage<HookNotification>> groupMsgs = new ArrayList<>(group.size());
+
+                    for (Integer idx : group) {
+                        groupMsgs.add(preProcessedMsgs.get(idx));
+                    }
+
+                    groups.add(groupMsgs);
+                }
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("handleMessages(): {} messages in {} groups", preProcessedMsgs.size(), groups.size());
+                }
+
+                List<Callable<List<AtlasKafkaMessage<HookNotification>>>> groupTasks = new ArrayList<>();
+
+                for (List<List<AtlasKafkaMessage<HookNotification>>> workerGroups : assignToWorkers(groups, workerThreads)) {
+                    groupTasks.add(() -> processGroups(workerGroups));
+                }
+
+                for (Future<List<AtlasKafkaMessage<HookNotification>>> future : workers.invokeAll(groupTasks)) {
+                    try {
+                        handledMsgs.addAll(future.get());
+                    } catch (ExecutionException e) {
+                        LOG.warn("Error handling messages; messages not handled will be processed serially", e.getCause());
+                    }
+                }
+
+                Set<AtlasKafkaMessage<HookNotification>> isPreProcessed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+                isPreProcessed.addAll(preProcessedMsgs);
+
+                for (AtlasKafkaMessage<HookNotification> kafkaMsg : messages) {
+                    if (handledMsgs.contains(kafkaMsg)) {
+                        continue;
+                    }
+
+                    if (!isPreProcessed.contains(kafkaMsg)) {
+                        preProcessNotificationMessage(kafkaMsg);
+                    }
+
+                    processMessage(kafkaMsg); // a message that fails after retries is recorded in failedMessages
+
+                    handledMsgs.add(kafkaMsg);
+                }
+            } finally {
+                commitHandledMessages(kafkaMsgs, handledMsgs);
+
+                AtlasPerfTracer.log(perf);
+            }
+        }
+
+        /**
+         * Commits, in each partition, the last message below which all messages of the batch were handled.
+         */
+        private void commitHandledMessages(List<AtlasKafkaMessage<HookNotification>> kafkaMsgs, Set<AtlasKafkaMessage<HookNotification>> handledMsgs) {
+            Map<Integer, AtlasKafkaMessage<HookNotification>> lastMsgs          = new HashMap<>();
+            Set<Integer>                                      blockedPartitions = new HashSet<>();
+
+            // messages of a partition are in the order of their offsets
+            for (AtlasKafkaMessage<HookNotification> kafkaMsg : kafkaMsgs) {
+                Integer partition = kafkaMsg.getPartition();
+
+                if (blockedPartitions.contains(partition)) {
+                    continue;
+                }
+
+                if (handledMsgs.contains(kafkaMsg)) {
+                    lastMsgs.put(partition, kafkaMsg);
+                } else {
+                    blockedPartitions.add(partition);
+
+                    LOG.warn("message at offset {} in partition {} was not handled; offsets will not be committed past it", kafkaMsg.getOffset(), partition);
+                }
+            }
+
+            for (AtlasKafkaMessage<HookNotification> kafkaMsg : lastMsgs.values()) {
+                commit(kafkaMsg);
+            }
+        }
+
+        /**
+         * Processes given groups of messages, in rounds: the n-th round processes the n-th message of each group.
+         * Messages in a round don't touch common entities, hence create/update messages in a round are written to the
+         * graph together.
+         *
+         * A group stops at a message that fails; neither it nor later messages of the group are returned, so that the
+         * caller processes them serially, in order, after this call.
+         *
+         * @return messages that were processed successfully
+         */
+        private List<AtlasKafkaMessage<HookNotification>> processGroups(List<List<AtlasKafkaMessage<HookNotification>>> groups) {
+            List<AtlasKafkaMessage<HookNotification>> ret       = new ArrayList<>();
+            boolean[]                                 isStopped = new boolean[groups.size()];
+
+            try {
+                for (int round = 0; ; round++) {
+                    Map<String, List<Integer>> userGroups = new LinkedHashMap<>(); // groups whose message in this round is a create/update, by user
+                    boolean                    isEmpty    = true;
+
+                    for (int i = 0; i < groups.size(); i++) {
+                        List<AtlasKafkaMessage<HookNotification>> group = groups.get(i);
+
+                        if (isStopped[i] || group.size() <= round) {
+                            continue;
+                        }
+
+                        AtlasKafkaMessage<HookNotification> kafkaMsg = group.get(round);
+
+                        isEmpty = false;
+
+                        if (isCreateOrUpdate(kafkaMsg.getMessage())) {
+                            userGroups.computeIfAbsent(String.valueOf(kafkaMsg.getMessage().getUser()), k -> new ArrayList<>()).add(i);
+                        } else {
+                            isStopped[i] = !processGroupMessage(kafkaMsg, ret);
+                        }
+                    }
+
+                    if (isEmpty) {
+                        break;
+                    }
+
+                    for (List<Integer> groupIdxs : userGroups.values()) {
+                        for (int i = 0; i < groupIdxs.size(); i += maxMessagesPerTransaction) {
+                            List<Integer>                             batchGroupIdxs = groupIdxs.subList(i, Math.min(i + maxMessagesPerTransaction, groupIdxs.size()));
+                            List<AtlasKafkaMessage<HookNotification>> batch          = new ArrayList<>(batchGroupIdxs.size());
+
+                            for (Integer groupIdx : batchGroupIdxs) {
+                                batch.add(groups.get(groupIdx).get(round));
+                            }
+
+                            if (batch.size() > 1 && createOrUpdate(batch)) {
+                                ret.addAll(batch);
+                            } else {
+                                for (Integer groupIdx : batchGroupIdxs) {
+                                    isStopped[groupIdx] = !processGroupMessage(groups.get(groupIdx).get(round), ret);
+                                }
+                            }
+                        }
+                    }
+                }
+            } catch (Throwable e) { // messages processed so far are returned, so that only the rest are processed again
+                LOG.warn("Error handling messages; messages not handled will be processed serially", e);
+            }
+
+            return ret;
+        }
+
+        /**
+         * @return false if the message failed; it is then left for the caller to retry
+         */
+        private boolean processGroupMessage(AtlasKafkaMessage<HookNotification> kafkaMsg, List<AtlasKafkaMessage<HookNotification>> processedMsgs) {
+            boolean ret;
+
+            try {
+                ret = processMessage(kafkaMsg, false);
+            } catch (Throwable e) {
+                LOG.warn("Error handling message at offset {}", kafkaMsg.getOffset(), e);
+
+                ret = false;
+            }
+
+            if (ret) {
+                processedMsgs.add(kafkaMsg);
+            } else {
+                LOG.warn("message at offset {} failed; it and later messages of its group will be processed serially", kafkaMsg.getOffset());
+            }
+
+            return ret;
+        }
+
+        /**
+         * Writes entities in the given create/update messages to the graph in a single transaction.
+         *
+         * @return false if the transaction failed; the messages should then be processed individually
+         */
+        private boolean createOrUpdate(List<AtlasKafkaMessage<HookNotification>> kafkaMsgs) {
+            AtlasPerfTracer perf      = null;
+            long            startTime = System.currentTimeMillis();
+            boolean         ret       = false;
+
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "createOrUpdate(" + kafkaMsgs.size() + ")");
+            }
+
+            try {
+                RequestContext requestContext = RequestContext.get();
+
+                requestContext.setAttemptCount(1);
+                requestContext.setMaxAttempts(1);
+                requestContext.setUser(kafkaMsgs.get(0).getMessage().getUser(), null);
+
+                AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo();
+                Set<String>              guids    = new HashSet<>();
+
+                for (AtlasKafkaMessage<HookNotification> kafkaMsg : kafkaMsgs) {
+                    AtlasEntitiesWithExtInfo msgEntities = getEntities(kafkaMsg.getMessage());
+
+                    if (msgEntities.getEntities() != null) {
+                        for (AtlasEntity entity : msgEntities.getEntities()) {
+                            if (!guids.add(entity.getGuid())) { // placeholder guids in different messages can collide
+                                return false;
+                            }
+
+                            entities.addEntity(entity);
+                        }
+                    }
+
+                    if (msgEntities.getReferredEntities() != null) {
+                        for (AtlasEntity entity : msgEntities.getReferredEntities().values()) {
+                            if (!guids.add(entity.getGuid())) {
+                                return false;
+                            }
+
+                            entities.addReferredEntity(entity);
+                        }
+                    }
+                }
+
+                atlasEntityStore.createOrUpdate(new AtlasEntityStream(entities), false);
+
+                ret = true;
+            } catch (Throwable e) {
+                LOG.warn("Error handling {} messages in a single transaction; will process them individually", kafkaMsgs.size(), e);
+            } finally {
+                RequestContext.clear();
+
+                AtlasPerfTracer.log(perf);
+            }
+
+            if (ret) {
+                long timeTaken = System.currentTimeMillis() - startTime;
+
+                for (AtlasKafkaMessage<HookNotification> kafkaMsg : kafkaMsgs) {
+                    AuditLog auditLog = createAuditLog(kafkaMsg.getMessage());
+
+                    auditLog.setHttpStatus(SC_OK);
+                    auditLog.setTimeTaken(timeTaken);
+
+                    AuditFilter.audit(auditLog);
+                }
+            }
+
+            return ret;
+        }
+
+        private boolean processMessage(AtlasKafkaMessage<HookNotification> kafkaMsg) {
+            return processMessage(kafkaMsg, true);
+        }
+
+        /**
+         * @param recordFailure whether to record the message as failed, once retries are exhausted
+         * @return false if the message failed after retries
+         */
+        private boolean processMessage(AtlasKafkaMessage<HookNotification> kafkaMsg, boolean recordFailure) {
             AtlasPerfTracer  perf        = null;
             HookNotification message     = kafkaMsg.getMessage();
             String           messageUser = message.getUser();
@@ -410,13 +773,6 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
             }
 
             try {
-                if(failedCommitOffsetRecorder.isMessageReplayed(kafkaMsg.getOffset())) {
-                    commit(kafkaMsg);
-                    return;
-                }
-
-                preProcessNotificationMessage(kafkaMsg);
-
                 // Used for intermediate conversions during create and update
                 for (int numRetries = 0; numRetries < maxRetries; numRetries++) {
                     if (LOG.isDebugEnabled()) {
@@ -580,12 +936,17 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
 
                             isFailedMsg = true;
 
-                            failedMessages.add(strMessage);
+                            if (recordFailure) {
+                                synchronized (failedMessages) {
+                                    failedMessages.add(strMessage);
 
-                            if (failedMessages.size() >= failedMsgCacheSize) {
-                                recordFailedMessages();
+                                    if (failedMessages.size() >= failedMsgCacheSize) {
+                                        recordFailedMessages();
+                                    }
+                                }
                             }
-                            return;
+
+                            return false;
                         } else {
                             LOG.warn("Error handling message", e);
 
@@ -602,7 +963,7 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
                     }
                 }
 
-                commit(kafkaMsg);
+                return true;
             } finally {
                 AtlasPerfTracer.log(perf);
 
@@ -625,12 +986,14 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         }
 
         private void recordFailedMessages() {
-            //logging failed messages
-            for (String message : failedMessages) {
-                FAILED_LOG.error("[DROPPED_NOTIFICATION] {}", message);
-            }
+            synchronized (failedMessages) {
+                //logging failed messages
+                for (String message : failedMessages) {
+                    FAILED_LOG.error("[DROPPED_NOTIFICATION] {}", message);
+                }
 
-            failedMessages.clear();
+                failedMessages.clear();
+            }
         }
 
         private void commit(AtlasKafkaMessage<HookNotification> kafkaMessage) {
@@ -695,6 +1058,81 @@ public class NotificationHookConsumer implements Service, ActiveStateChangeHandl
         }
     }
 
+    private static boolean isCreateOrUpdate(HookNotification message) {
+        switch (message.getType()) {
+            case ENTITY_CREATE:
+            case ENTITY_FULL_UPDATE:
+            case ENTITY_CREATE_V2:
+            case ENTITY_FULL_UPDATE_V2:
+                return true;
+
+            default:
+                return false;
+        }
+    }
+
+    private AtlasEntitiesWithExtInfo getEntities(HookNotification message) throws AtlasBaseException {
+        switch (message.getType()) {
+            case ENTITY_CREATE:
+            case ENTITY_FULL_UPDATE:
+                return instanceConverter.toAtlasEntities(((EntityCreateRequest) message).getEntities());
+
+            case ENTITY_CREATE_V2:
+                return ((EntityCreateRequestV2) message).getEntities();
+
+            case ENTITY_FULL_UPDATE_V2:
+                return ((EntityUpdateRequestV2) message).getEntities();
+
+            default:
+                throw new IllegalStateException("Not a create/update notification: " + message.getType().name());
+        }
+    }
+
+    private static AuditLog createAuditLog(HookNotification message) {
+        switch (message.getType()) {
+            case ENTITY_CREATE:
+                return new AuditLog(message.getUser(), THREADNAME_PREFIX, AtlasClient.API_V1.CREATE_ENTITY.getMethod(), AtlasClient.API_V1.CREATE_ENTITY.getNormalizedPath());
+
+            case ENTITY_CREATE_V2:
+                return new AuditLog(message.getUser(), THREADNAME_PREFIX, AtlasClientV2.API_V2.CREATE_ENTITY.getMethod(), AtlasClientV2.API_V2.CREATE_ENTITY.getNormalizedPath());
+
+            default:
+                return new AuditLog(message.getUser(), THREADNAME_PREFIX, AtlasClientV2.API_V2.UPDATE_ENTITY.getMethod(), AtlasClientV2.API_V2.UPDATE_ENTITY.getNormalizedPath());
+        }
+    }
+
+    /**
+     * Distributes groups of messages to workers, such that the number of messages assigned to workers is balanced.
+     */
+    @VisibleForTesting
+    static <T> List<List<List<T>>> assignToWorkers(List<List<T>> groups, int numWorkers) {
+        List<List<List<T>>> ret       = new ArrayList<>();
+        int[]               msgCounts = new int[Math.max(1, Math.min(numWorkers, groups.size()))];
+        List<List<T>>       sorted    = new ArrayList<>(groups);
+
+        for (int i = 0; i < msgCounts.length; i++) {
+            ret.add(new ArrayList<>());
+        }
+
+        sorted.sort((g1, g2) -> Integer.compare(g2.size(), g1.size()));
+
+        for (List<T> group : sorted) {
+            int worker = 0;
+
+            for (int i = 1; i < msgCounts.length; i++) {
+                if (msgCounts[i] < msgCounts[worker]) {
+                    worker = i;
+                }
+            }
+
+            ret.get(worker).add(group);
+
+            msgCounts[worker] += group.size();
+        }
+
+        return ret;
+    }
+
     private void preProcessNotificationMessage(AtlasKafkaMessage<HookNotification> kafkaMsg) {
         skipHiveColumnLineage(kafkaMsg);
     }
@@ -18,6 +18,11 @@
 
 package org.apache.atlas.web.filters;
 
+import org.apache.atlas.repository.audit.EntityAuditRepository;
+import org.apache.atlas.repository.audit.FileBasedAuditRepository;
+import org.apache.atlas.repository.audit.InMemoryEntityAuditRepository;
+import org.apache.atlas.repository.store.bootstrap.PassiveTypeRegistryRefresher;
+import org.apache.atlas.util.AtlasRepositoryConfiguration;
 import org.apache.atlas.web.service.ActiveInstanceState;
 import org.apache.atlas.web.service.ServiceState;
 import org.slf4j.Logger;
@@ -45,18 +50,42 @@ import java.io.IOException;
  * by identifying the currently active server. Requests to servers which are in transition are returned with
  * an error SERVICE_UNAVAILABLE. Identification of this state is carried out using
  * {@link ServiceState} and {@link ActiveInstanceState}.
+ *
+ * When reads from passive instances are enabled, read-only requests to entity, search, lineage and glossary
+ * REST APIs are served by a passive instance from the shared graph, once its type registry is loaded by
+ * {@link PassiveTypeRegistryRefresher}. Such responses carry the header {@link #STALE_READ_BOUND_HEADER}. Entity audit
+ * reads are redirected to the active instance when the audit repository keeps events local to the server that wrote
+ * them.
  */
 @Component
 public class ActiveServerFilter implements Filter {
 
     private static final Logger LOG = LoggerFactory.getLogger(ActiveServerFilter.class);
+
+    /**
+     * Upper bound, in milliseconds, on how far the type definitions seen by a passive instance could be behind the active instance
+     */
+    public static final String STALE_READ_BOUND_HEADER = "X-Atlas-Stale-Read-Bound-Ms";
+
+    private static final String[] PASSIVE_READ_URIS      = { "/v2/entity/", "/v2/search/", "/v2/lineage/", "/v2/glossary" };
+    private static final String[] PASSIVE_READ_POST_URIS = { "/v2/search/basic" };
+    private static final String   ENTITY_AUDIT_URI_SUFFIX = "/audit";
+
     private final ActiveInstanceState activeInstanceState;
     private ServiceState serviceState;
+    private final PassiveTypeRegistryRefresher typeRegistryRefresher;
+    private final boolean isPassiveAuditReadAllowed;
 
     @Inject
-    public ActiveServerFilter(ActiveInstanceState activeInstanceState, ServiceState serviceState) {
-        this.activeInstanceState = activeInstanceState;
-        this.serviceState = serviceState;
+    public ActiveServerFilter(ActiveInstanceState activeInstanceState, ServiceState serviceState, PassiveTypeRegistryRefresher typeRegistryRefresher) {
+        this(activeInstanceState, serviceState, typeRegistryRefresher, !isLocalAuditRepository(AtlasRepositoryConfiguration.getAuditRepositoryImpl()));
+    }
+
+    ActiveServerFilter(ActiveInstanceState activeInstanceState, ServiceState serviceState, PassiveTypeRegistryRefresher typeRegistryRefresher, boolean isPassiveAuditReadAllowed) {
+        this.activeInstanceState       = activeInstanceState;
+        this.serviceState              = serviceState;
+        this.typeRegistryRefresher     = typeRegistryRefresher;
+        this.isPassiveAuditReadAllowed = isPassiveAuditReadAllowed;
     }
 
     @Override
@@ -83,6 +112,10 @@ public class ActiveServerFilter implements Filter {
         } else if (isInstanceActive()) {
             LOG.debug("Active. Passing request downstream");
             filterChain.doFilter(servletRequest, servletResponse);
+        } else if (isPassiveRead(servletRequest)) {
+            LOG.debug("Passive. Serving read request {}", ((HttpServletRequest) servletRequest).getRequestURI());
+            ((HttpServletResponse) servletResponse).setHeader(STALE_READ_BOUND_HEADER, Long.toString(typeRegistryRefresher.getStalenessBoundMs()));
+            filterChain.doFilter(servletRequest, servletResponse);
         } else if (serviceState.isInstanceInTransition()) {
             HttpServletResponse httpServletResponse = (HttpServletResponse) servletResponse;
             LOG.error("Instance in transition. Service may not be ready to return a result");
@@ -104,7 +137,7 @@ public class ActiveServerFilter implements Filter {
         }
     }
 
-    final String adminUriNotFiltered[] = { "/admin/export", "/admin/import", "/admin/importfile" };
+    final String adminUriNotFiltered[] = { "/admin/export", "/admin/import", "/admin/importfile", "/admin/jobs" };
     private boolean isFilteredURI(ServletRequest servletRequest) {
         HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
         String requestURI = httpServletRequest.getRequestURI();
@@ -127,6 +160,45 @@ public class ActiveServerFilter implements Filter {
         return serviceState.getState() == ServiceState.ServiceStateValue.ACTIVE;
     }
 
+    private boolean isPassiveRead(ServletRequest servletRequest) {
+        if (serviceState.getState() != ServiceState.ServiceStateValue.PASSIVE || !typeRegistryRefresher.isServingReads()) {
+            return false;
+        }
+
+        HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
+        String             requestURI         = httpServletRequest.getRequestURI();
+        String             method             = httpServletRequest.getMethod();
+
+        if (HttpMethod.GET.equals(method)) {
+            if (!isPassiveAuditReadAllowed && requestURI != null && requestURI.endsWith(ENTITY_AUDIT_URI_SUFFIX)) {
+                return false;
+            }
+
+            return containsAny(requestURI, PASSIVE_READ_URIS);
+        } else if (HttpMethod.POST.equals(method)) {
+            return containsAny(requestURI, PASSIVE_READ_POST_URIS);
+        }
+
+        return false;
+    }
+
+    // audit events in these repositories are visible only to the server that wrote them
+    private static boolean isLocalAuditRepository(Class<? extends EntityAuditRepository> auditRepositoryImpl) {
+        return FileBasedAuditRepository.class.isAssignableFrom(auditRepositoryImpl) || InMemoryEntityAuditRepository.class.isAssignableFrom(auditRepositoryImpl);
+    }
+
+    private static boolean containsAny(String requestURI, String[] uris) {
+        if (requestURI != null) {
+            for (String uri : uris) {
+                if (requestURI.contains(uri)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     private void handleRedirect(HttpServletRequest servletRequest, HttpServletResponse httpServletResponse,
                                 String activeServerAddress) throws IOException {
         String requestURI = servletRequest.getRequestURI();
@@ -21,14 +21,17 @@ package org.apache.atlas.web.resources;
 import com.sun.jersey.multipart.FormDataParam;
 import org.apache.atlas.ApplicationProperties;
 import org.apache.atlas.AtlasClient;
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.authorize.AtlasAdminAccessRequest;
 import org.apache.atlas.authorize.AtlasEntityAccessRequest;
 import org.apache.atlas.authorize.AtlasPrivilege;
 import org.apache.atlas.authorize.AtlasAuthorizationUtils;
+import org.apache.atlas.discovery.LineageIndex;
 import org.apache.atlas.discovery.SearchContext;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.model.discovery.AtlasSearchResult;
+import org.apache.atlas.model.impexp.AtlasExportImportJob;
 import org.apache.atlas.model.impexp.AtlasServer;
 import org.apache.atlas.model.impexp.AtlasExportRequest;
 import org.apache.atlas.model.impexp.AtlasExportResult;
@@ -39,15 +42,20 @@ import org.apache.atlas.model.impexp.MigrationStatus;
 import org.apache.atlas.model.instance.AtlasCheckStateRequest;
 import org.apache.atlas.model.instance.AtlasCheckStateResult;
 import org.apache.atlas.model.metrics.AtlasMetrics;
+import org.apache.atlas.model.tasks.AtlasTask;
 import org.apache.atlas.repository.impexp.AtlasServerService;
 import org.apache.atlas.repository.impexp.ExportImportAuditService;
+import org.apache.atlas.repository.impexp.ExportImportJobService;
 import org.apache.atlas.repository.impexp.ExportService;
 import org.apache.atlas.repository.impexp.ImportService;
 import org.apache.atlas.repository.impexp.MigrationProgressService;
 import org.apache.atlas.repository.impexp.ZipSink;
 import org.apache.atlas.repository.impexp.ZipSource;
+import org.apache.atlas.repository.impexp.ZipSourceWithBackingFile;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
+import org.apache.atlas.repository.store.graph.v2.EntityImportStream;
 import org.apache.atlas.services.MetricsService;
+import org.apache.atlas.tasks.TaskManagement;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.util.SearchTracker;
@@ -59,6 +67,7 @@ import org.apache.atlas.web.util.Servlets;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.ConfigurationException;
 import org.apache.commons.configuration.PropertiesConfiguration;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -72,6 +81,7 @@ import javax.inject.Singleton;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
@@ -83,9 +93,14 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
@@ -94,7 +109,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 
 /**
@@ -116,6 +132,7 @@ public class AdminResource {
     private static final String editableEntityTypes            = "atlas.ui.editable.entity.types";
     private static final String DEFAULT_EDITABLE_ENTITY_TYPES  = "hdfs_path";
     private static final List TIMEZONE_LIST  = Arrays.asList(TimeZone.getAvailableIDs());
+    private static final Pattern BYTE_RANGE_PATTERN = Pattern.compile("^bytes=(\\d*)-(\\d*)$");
 
     @Context
     private HttpServletRequest httpServletRequest;
@@ -133,10 +150,12 @@ public class AdminResource {
     private final  SearchTracker            activeSearches;
     private final  AtlasTypeRegistry        typeRegistry;
     private final  MigrationProgressService migrationProgressService;
-    private final  ReentrantLock            importExportOperationLock;
     private final  ExportImportAuditService exportImportAuditService;
     private final  AtlasServerService       atlasServerService;
     private final  AtlasEntityStore         entityStore;
+    private final  LineageIndex             lineageIndex;
+    private final  TaskManagement           taskManagement;
+    private final  ExportImportJobService   exportImportJobService;
 
     static {
         try {
@@ -151,7 +170,9 @@ public class AdminResource {
                          ExportService exportService, ImportService importService, SearchTracker activeSearches,
                          MigrationProgressService migrationProgressService,
                          AtlasServerService serverService,
-                         ExportImportAuditService exportImportAuditService, AtlasEntityStore entityStore) {
+                         ExportImportAuditService exportImportAuditService, AtlasEntityStore entityStore,
+                         LineageIndex lineageIndex, TaskManagement taskManagement,
+                         ExportImportJobService exportImportJobService) {
         this.serviceState              = serviceState;
         this.metricsService            = metricsService;
         this.exportService             = exportService;
@@ -162,7 +183,9 @@ public class AdminResource {
         this.atlasServerService        = serverService;
         this.entityStore               = entityStore;
         this.exportImportAuditService  = exportImportAuditService;
-        this.importExportOperationLock = new ReentrantLock();
+        this.lineageIndex              = lineageIndex;
+        this.taskManagement            = taskManagement;
+        this.exportImportJobService    = exportImportJobService;
     }
 
     /**
@@ -319,11 +342,15 @@ public class AdminResource {
     @GET
     @Path("metrics")
     @Produces(Servlets.JSON_MEDIA_TYPE)
-    public AtlasMetrics getMetrics(@QueryParam("ignoreCache") boolean ignoreCache) {
+    public AtlasMetrics getMetrics(@QueryParam("ignoreCache") boolean ignoreCache) throws AtlasBaseException {
         if (LOG.isDebugEnabled()) {
             LOG.debug("==> AdminResource.getMetrics()");
         }
 
+        if (ignoreCache) { // runs a recount
+            AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_OPERATION), "getMetrics(ignoreCache=true)");
+        }
+
         AtlasMetrics metrics = metricsService.getMetrics(ignoreCache);
 
         if (LOG.isDebugEnabled()) {
@@ -333,8 +360,17 @@ public class AdminResource {
         return metrics;
     }
 
+    @POST
+    @Path("metrics/recount")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Map<String, Object> recountMetrics() throws AtlasBaseException {
+        AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_OPERATION), "recountMetrics");
+
+        return metricsService.recount();
+    }
+
     private void releaseExportImportLock() {
-        importExportOperationLock.unlock();
+        exportImportJobService.releaseOperationLock();
     }
 
     @POST
@@ -400,7 +436,7 @@ public class AdminResource {
 
         try {
             AtlasImportRequest request = AtlasType.fromJson(jsonData, AtlasImportRequest.class);
-            ZipSource zipSource = new ZipSource(inputStream);
+            EntityImportStream zipSource = AtlasConfiguration.IMPORT_USE_BACKING_FILE.getBoolean() ? new ZipSourceWithBackingFile(inputStream) : new ZipSource(inputStream);
 
             result = importService.run(zipSource, request, Servlets.getUserName(httpServletRequest),
                     Servlets.getHostName(httpServletRequest),
@@ -471,6 +507,156 @@ public class AdminResource {
         return result;
     }
 
+    /**
+     * Queues an export to run in the background; the exported ZIP file can be downloaded from
+     * admin/jobs/{guid}/download after the job completes.
+     * @param request export request
+     * @return the queued job
+     * @throws AtlasBaseException
+     */
+    @POST
+    @Path("jobs/export")
+    @Consumes(Servlets.JSON_MEDIA_TYPE)
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public AtlasExportImportJob submitExportJob(AtlasExportRequest request) throws AtlasBaseException {
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "submitExportJob()");
+            }
+
+            AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_EXPORT), "export");
+
+            return exportImportJobService.submitExport(request, Servlets.getUserName(httpServletRequest),
+                                                       Servlets.getHostName(httpServletRequest),
+                                                       AtlasAuthorizationUtils.getRequestIpAddress(httpServletRequest));
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * Queues an import to run in the background. The ZIP file is saved on the server before the job is queued,
+     * so that the request completes once the upload completes.
+     * @return the queued job
+     * @throws AtlasBaseException
+     */
+    @POST
+    @Path("jobs/import")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    public AtlasExportImportJob submitImportJob(@DefaultValue("{}") @FormDataParam("request") String jsonData,
+                                                @FormDataParam("data") InputStream inputStream) throws AtlasBaseException {
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "submitImportJob()");
+            }
+
+            AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_IMPORT), "importData");
+
+            if (inputStream == null) {
+                throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "data");
+            }
+
+            AtlasImportRequest request = AtlasType.fromJson(jsonData, AtlasImportRequest.class);
+
+            return exportImportJobService.submitImport(request, inputStream, Servlets.getUserName(httpServletRequest),
+                                                       Servlets.getHostName(httpServletRequest),
+                                                       AtlasAuthorizationUtils.getRequestIpAddress(httpServletRequest));
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    /**
+     * @return export and import jobs the caller is authorized to see, in the order of their creation
+     */
+    @GET
+    @Path("jobs")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public List<AtlasExportImportJob> getExportImportJobs() {
+        List<AtlasExportImportJob> ret = new ArrayList<>();
+
+        for (AtlasExportImportJob job : exportImportJobService.getJobs()) {
+            if (AtlasAuthorizationUtils.isAccessAllowed(getJobAccessRequest(job))) {
+                ret.add(job);
+            }
+        }
+
+        return ret;
+    }
+
+    @GET
+    @Path("jobs/{guid}")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public AtlasExportImportJob getExportImportJob(@PathParam("guid") String guid) throws AtlasBaseException {
+        AtlasExportImportJob ret = exportImportJobService.getJob(guid);
+
+        AtlasAuthorizationUtils.verifyAccess(getJobAccessRequest(ret), "getExportImportJob");
+
+        return ret;
+    }
+
+    /**
+     * Downloads the ZIP file exported by the given job. A byte range can be requested with the Range header, to resume
+     * an interrupted download; the ETag header carries the SHA-256 checksum of the entire file.
+     * @param guid guid of the export job
+     * @param range value of the Range header, like bytes=1024-
+     * @throws AtlasBaseException
+     */
+    @GET
+    @Path("jobs/{guid}/download")
+    @Produces("application/zip")
+    public Response downloadExport(@PathParam("guid") String guid, @HeaderParam("Range") String range) throws AtlasBaseException {
+        AtlasExportImportJob job = exportImportJobService.getJob(guid);
+
+        AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_EXPORT), "export");
+
+        File   file   = exportImportJobService.getExportOutput(guid);
+        long   length = file.length();
+        long   start  = 0;
+        long   end    = length - 1;
+        int    status = Response.Status.OK.getStatusCode();
+
+        if (StringUtils.isNotEmpty(range)) {
+            long[] offsets = parseByteRange(range, length);
+
+            if (offsets == null) {
+                return Response.status(416).header("Content-Range", "bytes */" + length).build();
+            }
+
+            start  = offsets[0];
+            end    = offsets[1];
+            status = 206;
+        }
+
+        final long      offset  = start;
+        final long      count   = end - start + 1;
+        StreamingOutput content = outputStream -> {
+            try (InputStream inputStream = new FileInputStream(file)) {
+                IOUtils.copyLarge(inputStream, outputStream, offset, count);
+            }
+        };
+
+        Response.ResponseBuilder builder = Response.status(status).entity(content)
+                                                   .header("Accept-Ranges", "bytes")
+                                                   .header(HttpHeaders.CONTENT_LENGTH, count)
+                                                   .header("Content-Disposition", "attachment; filename=" + file.getName());
+
+        if (job.getChecksum() != null) {
+            builder.header(HttpHeaders.ETAG, "\"" + job.getChecksum() + "\"");
+        }
+
+        if (status == 206) {
+            builder.header("Content-Range", "bytes " + start + "-" + end + "/" + length);
+        }
+
+        return builder.build();
+    }
+
     /**
      * Fetch details of a cluster.
      * @param serverName name of target cluster with which it is paired
@@ -555,6 +741,68 @@ public class AdminResource {
         }
     }
 
+    @GET
+    @Path("lineageIndex")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Map<String, Object> getLineageIndexStatus() throws AtlasBaseException {
+        AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_OPERATION), "getLineageIndexStatus");
+
+        return lineageIndex.getMetrics();
+    }
+
+    @POST
+    @Path("lineageIndex/rebuild")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public Map<String, Object> rebuildLineageIndex() throws AtlasBaseException {
+        AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_OPERATION), "rebuildLineageIndex");
+
+        if (!lineageIndex.isEnabled()) {
+            throw new AtlasBaseException(AtlasErrorCode.LINEAGE_INDEX_NOT_ENABLED);
+        }
+
+        lineageIndex.rebuild();
+
+        return lineageIndex.getMetrics();
+    }
+
+    @GET
+    @Path("tasks")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public List<AtlasTask> getTasks(@QueryParam("status") String status) throws AtlasBaseException {
+        AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_OPERATION), "getTasks");
+
+        AtlasPerfTracer perf = null;
+
+        try {
+            if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "getTasks(" + status + ")");
+            }
+
+            AtlasTask.Status taskStatus = null;
+
+            if (StringUtils.isNotEmpty(status)) {
+                try {
+                    taskStatus = AtlasTask.Status.valueOf(status.toUpperCase());
+                } catch (IllegalArgumentException excp) {
+                    throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "status=" + status);
+                }
+            }
+
+            return taskManagement.getTasks(taskStatus);
+        } finally {
+            AtlasPerfTracer.log(perf);
+        }
+    }
+
+    @GET
+    @Path("tasks/{guid}")
+    @Produces(Servlets.JSON_MEDIA_TYPE)
+    public AtlasTask getTask(@PathParam("guid") String guid) throws AtlasBaseException {
+        AtlasAuthorizationUtils.verifyAccess(new AtlasAdminAccessRequest(AtlasPrivilege.ADMIN_OPERATION), "getTask");
+
+        return taskManagement.getByGuid(guid);
+    }
+
     private String getEditableEntityTypes(Configuration config) {
         String ret = DEFAULT_EDITABLE_ENTITY_TYPES;
 
@@ -582,13 +830,34 @@ public class AdminResource {
     }
 
     private void acquireExportImportLock(String activity) throws AtlasBaseException {
-        boolean alreadyLocked = importExportOperationLock.isLocked();
-        if (alreadyLocked) {
-            LOG.warn("Another export or import is currently in progress..aborting this " + activity, Thread.currentThread().getName());
+        exportImportJobService.acquireOperationLock(activity);
+    }
+
+    private static AtlasAdminAccessRequest getJobAccessRequest(AtlasExportImportJob job) {
+        return new AtlasAdminAccessRequest(job.getType() == AtlasExportImportJob.JobType.EXPORT ? AtlasPrivilege.ADMIN_EXPORT : AtlasPrivilege.ADMIN_IMPORT);
+    }
+
+    /**
+     * @return start and end offsets, inclusive, of the given range; null if the range is not satisfiable
+     */
+    private static long[] parseByteRange(String range, long length) throws AtlasBaseException {
+        Matcher matcher = BYTE_RANGE_PATTERN.matcher(range.trim());
+
+        if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "Range=" + range);
+        }
+
+        long start;
+        long end;
 
-            throw new AtlasBaseException(AtlasErrorCode.FAILED_TO_OBTAIN_IMPORT_EXPORT_LOCK);
+        if (matcher.group(1).isEmpty()) { // suffix range: last N bytes
+            start = Math.max(length - Long.parseLong(matcher.group(2)), 0);
+            end   = length - 1;
+        } else {
+            start = Long.parseLong(matcher.group(1));
+            end   = matcher.group(2).isEmpty() ? length - 1 : Math.min(Long.parseLong(matcher.group(2)), length - 1);
         }
 
-        importExportOperationLock.lock();
+        return (start <= end && start < length) ? new long[] { start, end } : null;
     }
 }
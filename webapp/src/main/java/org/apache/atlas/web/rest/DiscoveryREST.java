@@ -176,6 +176,11 @@ public class DiscoveryREST {
      * @param classification limit the result to only entities tagged with the given classification or or its sub-types
      * @param limit          limit the result set to only include the specified number of entries
      * @param offset         start offset of the result set (useful for pagination)
+     * @param sortBy         sort the result on this attribute of typeName; the attribute must be indexed
+     * @param sortOrder      sorting order, ASCENDING (default) or DESCENDING
+     * @param continuationToken token returned with the previous page of results; when specified, offset is ignored.
+     *                          With a classification, an entity having more than one matching classification can be
+     *                          returned again in a later page
      * @return Search results
      * @throws AtlasBaseException
      * @HTTP 200 On successful FullText lookup with some results, might return an empty list if execution succeeded
@@ -189,9 +194,13 @@ public class DiscoveryREST {
                                               @QueryParam("classification")         String  classification,
                                               @QueryParam("excludeDeletedEntities") boolean excludeDeletedEntities,
                                               @QueryParam("limit")                  int     limit,
-                                              @QueryParam("offset")                 int     offset) throws AtlasBaseException {
+                                              @QueryParam("offset")                 int     offset,
+                                              @QueryParam("sortBy")                 String  sortBy,
+                                              @QueryParam("sortOrder")              SortOrder sortOrder,
+                                              @QueryParam("continuationToken")      String  continuationToken) throws AtlasBaseException {
         Servlets.validateQueryParamLength("typeName", typeName);
         Servlets.validateQueryParamLength("classification", classification);
+        Servlets.validateQueryParamLength("sortBy", sortBy);
         if (StringUtils.isNotEmpty(query) && query.length() > maxFullTextQueryLength) {
             throw new AtlasBaseException(AtlasErrorCode.INVALID_QUERY_LENGTH, Constants.MAX_FULLTEXT_QUERY_STR_LENGTH);
         }
@@ -211,6 +220,9 @@ public class DiscoveryREST {
             searchParameters.setExcludeDeletedEntities(excludeDeletedEntities);
             searchParameters.setLimit(limit);
             searchParameters.setOffset(offset);
+            searchParameters.setSortBy(sortBy);
+            searchParameters.setSortOrder(sortOrder);
+            searchParameters.setContinuationToken(continuationToken);
 
             return atlasDiscoveryService.searchWithParameters(searchParameters);
         } finally {
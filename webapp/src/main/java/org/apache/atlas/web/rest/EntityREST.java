@@ -33,6 +33,7 @@ import org.apache.atlas.repository.audit.EntityAuditRepository;
 import org.apache.atlas.repository.converters.AtlasInstanceConverter;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.v2.AtlasEntityStream;
+import org.apache.atlas.repository.store.graph.v2.EntityProjection;
 import org.apache.atlas.repository.store.graph.v2.EntityStream;
 import org.apache.atlas.type.AtlasClassificationType;
 import org.apache.atlas.type.AtlasEntityType;
@@ -93,19 +94,43 @@ public class EntityREST {
      * @return AtlasEntity
      * @throws AtlasBaseException
      */
+    public AtlasEntityWithExtInfo getById(String guid, boolean minExtInfo) throws AtlasBaseException {
+        return getById(guid, minExtInfo, null, null, 0, -1);
+    }
+
+    /**
+     * Fetch complete definition of an entity given its GUID.
+     * @param guid GUID for the entity
+     * @param attributes names of the attributes to return; all attributes are returned when none are given
+     * @param relationshipAttributes names of the relationship attributes to return; all relationship attributes are returned when none are given
+     * @param relationshipOffset number of values to skip in each relationship attribute
+     * @param relationshipLimit maximum number of values to return for each relationship attribute; -1 returns all values
+     * @return AtlasEntity
+     * @throws AtlasBaseException
+     */
     @GET
     @Path("/guid/{guid}")
-    public AtlasEntityWithExtInfo getById(@PathParam("guid") String guid, @QueryParam("minExtInfo") @DefaultValue("false") boolean minExtInfo) throws AtlasBaseException {
+    public AtlasEntityWithExtInfo getById(@PathParam("guid") String guid, @QueryParam("minExtInfo") @DefaultValue("false") boolean minExtInfo,
+                                          @QueryParam("attributes") List<String> attributes,
+                                          @QueryParam("relationshipAttributes") List<String> relationshipAttributes,
+                                          @QueryParam("relationshipOffset") @DefaultValue("0") int relationshipOffset,
+                                          @QueryParam("relationshipLimit") @DefaultValue("-1") int relationshipLimit) throws AtlasBaseException {
         Servlets.validateQueryParamLength("guid", guid);
 
+        if (relationshipOffset < 0) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "relationshipOffset=" + relationshipOffset);
+        }
+
         AtlasPerfTracer perf = null;
 
         try {
             if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
-                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.getById(" + guid + ", " + minExtInfo + " )");
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.getById(" + guid + ", " + minExtInfo + ", " + attributes + ", " + relationshipAttributes + ", " + relationshipOffset + ", " + relationshipLimit + " )");
             }
 
-            return entitiesStore.getById(guid, minExtInfo);
+            EntityProjection projection = new EntityProjection(attributes, relationshipAttributes, relationshipOffset, relationshipLimit);
+
+            return entitiesStore.getById(guid, minExtInfo, projection);
         } finally {
             AtlasPerfTracer.log(perf);
         }
@@ -152,26 +177,54 @@ public class EntityREST {
      * @return AtlasEntityWithExtInfo
      * @throws AtlasBaseException
      */
+    public AtlasEntityWithExtInfo getByUniqueAttributes(String typeName, boolean minExtInfo, HttpServletRequest servletRequest) throws AtlasBaseException {
+        return getByUniqueAttributes(typeName, minExtInfo, null, null, 0, -1, servletRequest);
+    }
+
+    /**
+     * Fetch complete definition of an entity given its type and unique attribute, with the attributes and relationship
+     * attributes selected as in getById().
+     *
+     * GET /v2/entity/uniqueAttribute/type/aType?attr:aTypeAttribute=someValue&attributes=name
+     *
+     * @param typeName
+     * @param attributes names of the attributes to return; all attributes are returned when none are given
+     * @param relationshipAttributes names of the relationship attributes to return; all relationship attributes are returned when none are given
+     * @param relationshipOffset number of values to skip in each relationship attribute
+     * @param relationshipLimit maximum number of values to return for each relationship attribute; -1 returns all values
+     * @return AtlasEntityWithExtInfo
+     * @throws AtlasBaseException
+     */
     @GET
     @Path("/uniqueAttribute/type/{typeName}")
     public AtlasEntityWithExtInfo getByUniqueAttributes(@PathParam("typeName") String typeName, @QueryParam("minExtInfo") @DefaultValue("false") boolean minExtInfo,
+                                                        @QueryParam("attributes") List<String> attributes,
+                                                        @QueryParam("relationshipAttributes") List<String> relationshipAttributes,
+                                                        @QueryParam("relationshipOffset") @DefaultValue("0") int relationshipOffset,
+                                                        @QueryParam("relationshipLimit") @DefaultValue("-1") int relationshipLimit,
                                                         @Context HttpServletRequest servletRequest) throws AtlasBaseException {
         Servlets.validateQueryParamLength("typeName", typeName);
 
+        if (relationshipOffset < 0) {
+            throw new AtlasBaseException(AtlasErrorCode.INVALID_PARAMETERS, "relationshipOffset=" + relationshipOffset);
+        }
+
         AtlasPerfTracer perf = null;
 
         try {
-            Map<String, Object> attributes = getAttributes(servletRequest);
+            Map<String, Object> uniqAttributes = getAttributes(servletRequest);
 
             if (AtlasPerfTracer.isPerfTraceEnabled(PERF_LOG)) {
-                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.getByUniqueAttributes(" + typeName + "," + attributes + ")");
+                perf = AtlasPerfTracer.getPerfTracer(PERF_LOG, "EntityREST.getByUniqueAttributes(" + typeName + "," + uniqAttributes + ", " + attributes + ", " + relationshipAttributes + ", " + relationshipOffset + ", " + relationshipLimit + ")");
             }
 
             AtlasEntityType entityType = ensureEntityType(typeName);
 
-            validateUniqueAttribute(entityType, attributes);
+            validateUniqueAttribute(entityType, uniqAttributes);
+
+            EntityProjection projection = new EntityProjection(attributes, relationshipAttributes, relationshipOffset, relationshipLimit);
 
-            return entitiesStore.getByUniqueAttributes(entityType, attributes, minExtInfo);
+            return entitiesStore.getByUniqueAttributes(entityType, uniqAttributes, minExtInfo, projection);
         } finally {
             AtlasPerfTracer.log(perf);
         }
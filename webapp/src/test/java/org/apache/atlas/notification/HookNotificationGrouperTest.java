@@ -0,0 +1,178 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.atlas.notification;
+
+import org.apache.atlas.model.instance.AtlasEntity;
+import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
+import org.apache.atlas.model.notification.HookNotification;
+import org.apache.atlas.model.notification.HookNotification.EntityCreateRequestV2;
+import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
+import org.apache.atlas.notification.HookNotificationGrouper.EntityKeys;
+import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityDeleteRequest;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class HookNotificationGrouperTest {
+    @Test
+    public void entityKeys() {
+        AtlasEntity db    = entity("hive_db", "db1@cl1");
+        AtlasEntity table = entity("hive_table", "db1.t1@cl1");
+
+        table.setAttribute("db", new AtlasObjectId("hive_db", "qualifiedName", "db1@cl1"));
+
+        EntityKeys keys = HookNotificationGrouper.getEntityKeys(createRequest(table));
+
+        assertNotNull(keys);
+        assertEquals(keys.writes, Collections.singleton("qn:db1.t1@cl1"));
+        assertEquals(keys.reads, Collections.singleton("qn:db1@cl1"));
+
+        keys = HookNotificationGrouper.getEntityKeys(createRequest(db, table));
+
+        assertNotNull(keys);
+        assertTrue(keys.writes.contains("qn:db1@cl1"));
+
+        // entity without qualifiedName and with placeholder guid can't be identified
+        assertNull(HookNotificationGrouper.getEntityKeys(createRequest(new AtlasEntity("hive_table"))));
+
+        // deletes by attributes other than qualifiedName can't be identified
+        assertNull(HookNotificationGrouper.getEntityKeys(new EntityDeleteRequest("user", "hive_table", "name", "t1")));
+    }
+
+    @Test
+    public void groupsRetainOrder() {
+        List<HookNotification> messages = new ArrayList<>();
+
+        messages.add(createRequest(entity("hive_db", "db1@cl1")));                           // 0
+        messages.add(createRequest(tableInDb("db2.t1@cl1", "db2@cl1")));                     // 1
+        messages.add(createRequest(tableInDb("db1.t1@cl1", "db1@cl1")));                     // 2: reads db1, written by 0
+        messages.add(createRequest(tableInDb("db2.t2@cl1", "db2@cl1")));                     // 3: only reads db2, like 1
+        messages.add(new EntityDeleteRequestV2("user", Collections.singletonList(new AtlasObjectId("hive_table", "qualifiedName", "db2.t1@cl1")))); // 4: writes 1
+        messages.add(createRequest(entity("hive_db", "db2@cl1")));                           // 5: writes db2, read by 1 and 3
+
+        assertEquals(group(messages), Arrays.asList(Arrays.asList(0, 2), Arrays.asList(1, 3, 4, 5)));
+
+        messages.remove(5);
+
+        assertEquals(group(messages), Arrays.asList(Arrays.asList(0, 2), Arrays.asList(1, 4), Collections.singletonList(3)));
+    }
+
+    @Test
+    public void unknownMessageIsBarrier() {
+        List<HookNotification> messages = new ArrayList<>();
+
+        messages.add(createRequest(entity("hive_db", "db1@cl1")));
+        messages.add(createRequest(entity("hive_db", "db2@cl1")));
+        messages.add(createRequest(new AtlasEntity("hive_table")));
+        messages.add(createRequest(entity("hive_db", "db3@cl1")));
+
+        assertEquals(group(messages), Collections.singletonList(Arrays.asList(0, 1, 2, 3)));
+    }
+
+    @Test
+    public void guidAndQualifiedNameOfEntityShareGroup() {
+        AtlasEntity table = entity("hive_table", "db1.t1@cl1");
+
+        table.setGuid("guid-t1");
+
+        List<HookNotification> messages = new ArrayList<>();
+
+        messages.add(new EntityDeleteRequestV2("user", Collections.singletonList(new AtlasObjectId("hive_table", "qualifiedName", "db1.t1@cl1")))); // 0
+        messages.add(createRequest(entity("hive_db", "db2@cl1")));                                                                                  // 1
+        messages.add(new EntityDeleteRequestV2("user", Collections.singletonList(new AtlasObjectId("guid-t1", "hive_table"))));                     // 2: t1, by guid
+        messages.add(createRequest(table));                                                                                                         // 3: pairs guid and qualifiedName of t1
+
+        assertEquals(group(messages), Arrays.asList(Arrays.asList(0, 2, 3), Collections.singletonList(1)));
+    }
+
+    @Test
+    public void unresolvedGuidIsBarrierWhenQualifiedNameOnlyEntitiesPresent() {
+        List<HookNotification> messages = new ArrayList<>();
+
+        messages.add(createRequest(entity("hive_db", "db1@cl1")));
+        messages.add(new EntityDeleteRequestV2("user", Collections.singletonList(new AtlasObjectId("guid-db2", "hive_db"))));
+        messages.add(createRequest(entity("hive_db", "db3@cl1")));
+
+        assertEquals(group(messages), Collections.singletonList(Arrays.asList(0, 1, 2)));
+
+        // with only guids, entities are known to be distinct
+        messages.clear();
+        messages.add(new EntityDeleteRequestV2("user", Collections.singletonList(new AtlasObjectId("guid-db1", "hive_db"))));
+        messages.add(new EntityDeleteRequestV2("user", Collections.singletonList(new AtlasObjectId("guid-db2", "hive_db"))));
+
+        assertEquals(group(messages), Arrays.asList(Collections.singletonList(0), Collections.singletonList(1)));
+    }
+
+    @Test
+    public void assignToWorkers() {
+        List<List<Integer>> groups = Arrays.asList(Arrays.asList(0, 1, 2), Collections.singletonList(3), Arrays.asList(4, 5), Collections.singletonList(6));
+
+        List<List<List<Integer>>> workers = NotificationHookConsumer.assignToWorkers(groups, 2);
+
+        assertEquals(workers.size(), 2);
+        assertEquals(workers.get(0), Arrays.asList(Arrays.asList(0, 1, 2), Collections.singletonList(6)));
+        assertEquals(workers.get(1), Arrays.asList(Arrays.asList(4, 5), Collections.singletonList(3)));
+
+        assertEquals(NotificationHookConsumer.assignToWorkers(groups, 10).size(), groups.size());
+    }
+
+    private static List<List<Integer>> group(List<HookNotification> messages) {
+        List<EntityKeys> keys = new ArrayList<>();
+
+        for (HookNotification message : messages) {
+            keys.add(HookNotificationGrouper.getEntityKeys(message));
+        }
+
+        return HookNotificationGrouper.group(keys);
+    }
+
+    private static AtlasEntity entity(String typeName, String qualifiedName) {
+        AtlasEntity ret = new AtlasEntity(typeName);
+
+        ret.setAttribute("qualifiedName", qualifiedName);
+
+        return ret;
+    }
+
+    private static AtlasEntity tableInDb(String qualifiedName, String dbQualifiedName) {
+        AtlasEntity ret = entity("hive_table", qualifiedName);
+
+        ret.setAttribute("db", new AtlasObjectId("hive_db", "qualifiedName", dbQualifiedName));
+
+        return ret;
+    }
+
+    private static EntityCreateRequestV2 createRequest(AtlasEntity... entities) {
+        AtlasEntitiesWithExtInfo entitiesWithExtInfo = new AtlasEntitiesWithExtInfo();
+
+        for (AtlasEntity entity : entities) {
+            entitiesWithExtInfo.addEntity(entity);
+        }
+
+        return new EntityCreateRequestV2("user", entitiesWithExtInfo);
+    }
+}
@@ -17,13 +17,16 @@
  */
 package org.apache.atlas.notification;
 
+import org.apache.atlas.AtlasConfiguration;
 import org.apache.atlas.AtlasException;
 import org.apache.atlas.AtlasServiceException;
 import org.apache.atlas.exception.AtlasBaseException;
 import org.apache.atlas.ha.HAConfiguration;
 import org.apache.atlas.kafka.AtlasKafkaMessage;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
+import org.apache.atlas.model.instance.AtlasObjectId;
 import org.apache.atlas.model.instance.EntityMutationResponse;
+import org.apache.atlas.model.notification.HookNotification.EntityDeleteRequestV2;
 import org.apache.atlas.model.notification.HookNotification.HookNotificationType;
 import org.apache.atlas.notification.NotificationInterface.NotificationType;
 import org.apache.atlas.v1.model.instance.Referenceable;
@@ -31,6 +34,7 @@ import org.apache.atlas.v1.model.notification.HookNotificationV1.EntityCreateReq
 import org.apache.atlas.repository.converters.AtlasInstanceConverter;
 import org.apache.atlas.repository.store.graph.AtlasEntityStore;
 import org.apache.atlas.repository.store.graph.v2.EntityStream;
+import org.apache.atlas.type.AtlasEntityType;
 import org.apache.atlas.type.AtlasType;
 import org.apache.atlas.type.AtlasTypeRegistry;
 import org.apache.atlas.web.service.ServiceState;
@@ -47,9 +51,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.mockito.Mockito.*;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
@@ -297,6 +304,104 @@ public class NotificationHookConsumerTest {
         notificationHookConsumer.consumers.get(0).shutdown();
     }
 
+    @Test
+    public void testMessagesOfFailedWorkerAreProcessedBeforeCommit() throws Exception {
+        NotificationHookConsumer              notificationHookConsumer = new NotificationHookConsumer(notificationInterface, atlasEntityStore, serviceState, instanceConverter, typeRegistry);
+        NotificationConsumer                  consumer                 = mock(NotificationConsumer.class);
+        NotificationHookConsumer.HookConsumer hookConsumer             = notificationHookConsumer.new HookConsumer(consumer);
+        EntityDeleteRequestV2                 message1                 = mock(EntityDeleteRequestV2.class);
+        EntityDeleteRequestV2                 message2                 = mock(EntityDeleteRequestV2.class);
+
+        // getType() fails in the worker, after the message is grouped
+        when(message1.getUser()).thenReturn("user");
+        when(message1.getType()).thenReturn(HookNotificationType.ENTITY_DELETE_V2).thenThrow(new RuntimeException("worker failure")).thenReturn(HookNotificationType.ENTITY_DELETE_V2);
+        when(message2.getUser()).thenReturn("user");
+        when(message2.getType()).thenReturn(HookNotificationType.ENTITY_DELETE_V2);
+
+        notificationHookConsumer.workers = Executors.newFixedThreadPool(2);
+
+        try {
+            hookConsumer.handleMessages(Arrays.asList(new AtlasKafkaMessage(message1, 10, 0), new AtlasKafkaMessage(message2, 11, 0)));
+        } finally {
+            notificationHookConsumer.workers.shutdownNow();
+        }
+
+        verify(message1, atLeast(3)).getType();
+        verify(consumer).commit(new TopicPartition(AtlasConfiguration.NOTIFICATION_HOOK_TOPIC_NAME.getString(), 0), 12L);
+    }
+
+    @Test
+    public void testMessagesFailingPreProcessingAreProcessedBeforeCommit() throws Exception {
+        NotificationHookConsumer              notificationHookConsumer = new NotificationHookConsumer(notificationInterface, atlasEntityStore, serviceState, instanceConverter, typeRegistry);
+        NotificationConsumer                  consumer                 = mock(NotificationConsumer.class);
+        NotificationHookConsumer.HookConsumer hookConsumer             = notificationHookConsumer.new HookConsumer(consumer);
+        EntityDeleteRequestV2                 message1                 = mock(EntityDeleteRequestV2.class);
+        EntityDeleteRequestV2                 message2                 = mock(EntityDeleteRequestV2.class);
+
+        // getType() fails while finding the entities touched by the message
+        when(message1.getUser()).thenReturn("user");
+        when(message1.getType()).thenThrow(new RuntimeException("pre-process failure")).thenReturn(HookNotificationType.ENTITY_DELETE_V2);
+        when(message2.getUser()).thenReturn("user");
+        when(message2.getType()).thenReturn(HookNotificationType.ENTITY_DELETE_V2);
+
+        notificationHookConsumer.workers = Executors.newFixedThreadPool(2);
+
+        try {
+            hookConsumer.handleMessages(Arrays.asList(new AtlasKafkaMessage(message1, 20, 1), new AtlasKafkaMessage(message2, 21, 1)));
+        } finally {
+            notificationHookConsumer.workers.shutdownNow();
+        }
+
+        verify(message1, atLeast(2)).getType();
+        verify(consumer).commit(new TopicPartition(AtlasConfiguration.NOTIFICATION_HOOK_TOPIC_NAME.getString(), 1), 22L);
+    }
+
+    @Test
+    public void testGroupStopsAtFailedMessage() throws Exception {
+        NotificationHookConsumer              notificationHookConsumer = new NotificationHookConsumer(notificationInterface, atlasEntityStore, serviceState, instanceConverter, typeRegistry);
+        NotificationConsumer                  consumer                 = mock(NotificationConsumer.class);
+        NotificationHookConsumer.HookConsumer hookConsumer             = notificationHookConsumer.new HookConsumer(consumer);
+        AtlasEntityType                       tableType                = mock(AtlasEntityType.class);
+        final Thread                          testThread               = Thread.currentThread();
+        final List<Object>                    deleted                  = Collections.synchronizedList(new ArrayList<>());
+
+        when(typeRegistry.getType("hive_table")).thenReturn(tableType);
+
+        // deleting t1 fails in workers, and succeeds when processed serially
+        doAnswer(new Answer() {
+            @Override
+            public Object answer(InvocationOnMock invocationOnMock) throws Throwable {
+                Object qualifiedName = ((Map) invocationOnMock.getArguments()[1]).get("qualifiedName");
+
+                if ("db1.t1@cl1".equals(qualifiedName) && Thread.currentThread() != testThread) {
+                    throw new RuntimeException("worker failure");
+                }
+
+                deleted.add(qualifiedName);
+
+                return null;
+            }
+        }).when(atlasEntityStore).deleteByUniqueAttributes(eq(tableType), anyMap());
+
+        EntityDeleteRequestV2 message1 = new EntityDeleteRequestV2("user", Collections.singletonList(tableId("db1.t1@cl1")));
+        EntityDeleteRequestV2 message2 = new EntityDeleteRequestV2("user", Arrays.asList(tableId("db1.t2@cl1"), tableId("db1.t1@cl1")));
+        EntityDeleteRequestV2 message3 = new EntityDeleteRequestV2("user", Collections.singletonList(tableId("db2.t1@cl1")));
+
+        notificationHookConsumer.workers = Executors.newFixedThreadPool(2);
+
+        try {
+            hookConsumer.handleMessages(Arrays.asList(new AtlasKafkaMessage(message1, 30, 2), new AtlasKafkaMessage(message2, 31, 2), new AtlasKafkaMessage(message3, 32, 2)));
+        } finally {
+            notificationHookConsumer.workers.shutdownNow();
+        }
+
+        deleted.remove("db2.t1@cl1");
+
+        // message2 is not applied in the worker after message1 failed; both are processed serially, in order
+        assertEquals(deleted, Arrays.asList("db1.t1@cl1", "db1.t2@cl1", "db1.t1@cl1"));
+        verify(consumer).commit(new TopicPartition(AtlasConfiguration.NOTIFICATION_HOOK_TOPIC_NAME.getString(), 2), 33L);
+    }
+
     @Test
     public void consumersThrowsIllegalStateExceptionPauseRetryLogicIsInterrupted() throws Exception {
         final NotificationHookConsumer notificationHookConsumer = setupNotificationHookConsumer();
@@ -334,4 +439,8 @@ public class NotificationHookConsumerTest {
 
         return new NotificationHookConsumer(notificationInterface, atlasEntityStore, serviceState, instanceConverter, typeRegistry);
     }
+
+    private static AtlasObjectId tableId(String qualifiedName) {
+        return new AtlasObjectId("hive_table", "qualifiedName", qualifiedName);
+    }
 }
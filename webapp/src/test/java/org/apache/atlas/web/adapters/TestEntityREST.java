@@ -27,11 +27,19 @@ import org.apache.atlas.model.instance.AtlasEntity;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntitiesWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntity.AtlasEntityWithExtInfo;
 import org.apache.atlas.model.instance.AtlasEntityHeader;
+import org.apache.atlas.model.instance.AtlasRelatedObjectId;
 import org.apache.atlas.model.instance.EntityMutationResponse;
 import org.apache.atlas.model.instance.EntityMutations;
+import org.apache.atlas.model.typedef.AtlasEntityDef;
+import org.apache.atlas.model.typedef.AtlasRelationshipDef;
+import org.apache.atlas.model.typedef.AtlasRelationshipDef.PropagateTags;
+import org.apache.atlas.model.typedef.AtlasRelationshipDef.RelationshipCategory;
+import org.apache.atlas.model.typedef.AtlasRelationshipEndDef;
+import org.apache.atlas.model.typedef.AtlasStructDef.AtlasAttributeDef.Cardinality;
 import org.apache.atlas.model.typedef.AtlasTypesDef;
 import org.apache.atlas.store.AtlasTypeDefStore;
 import org.apache.atlas.type.AtlasTypeUtil;
+import org.apache.atlas.AtlasErrorCode;
 import org.apache.atlas.web.rest.EntityREST;
 import org.mockito.Mockito;
 import org.testng.Assert;
@@ -47,8 +55,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Guice(modules = {TestModules.TestOnlyModule.class})
 public class TestEntityREST {
@@ -354,6 +364,112 @@ public class TestEntityREST {
         Assert.assertEquals(deleteResponse.getEntitiesByOperation(EntityMutations.EntityOperation.DELETE).get(0).getGuid(), dbGuid);
     }
 
+    @Test
+    public void testGetEntityByIdWithProjection() throws Exception {
+        AtlasEntity            dbEntity = TestUtilsV2.createDBEntity();
+        EntityMutationResponse response = entityREST.createOrUpdate(new AtlasEntitiesWithExtInfo(dbEntity));
+        String                 dbGuid   = response.getEntitiesByOperation(EntityMutations.EntityOperation.CREATE).get(0).getGuid();
+
+        AtlasEntityWithExtInfo entity = entityREST.getById(dbGuid, false, Collections.singletonList(TestUtilsV2.NAME), null, 0, -1);
+
+        Assert.assertEquals(entity.getEntity().getAttributes().keySet(), Collections.singleton(TestUtilsV2.NAME));
+        Assert.assertEquals(entity.getEntity().getAttribute(TestUtilsV2.NAME), dbEntity.getAttribute(TestUtilsV2.NAME));
+
+        try {
+            entityREST.getById(dbGuid, false, Arrays.asList(TestUtilsV2.NAME, "nosuchattr"), null, 0, -1);
+
+            Assert.fail("expected unknown attribute in projection to be rejected");
+        } catch (AtlasBaseException excp) {
+            Assert.assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.UNKNOWN_ATTRIBUTE);
+        }
+    }
+
+    @Test
+    public void testGetEntityByUniqueAttributesWithProjection() throws Exception {
+        AtlasEntity dbEntity = TestUtilsV2.createDBEntity();
+        String      dbName   = (String) dbEntity.getAttribute(TestUtilsV2.NAME);
+
+        entityREST.createOrUpdate(new AtlasEntitiesWithExtInfo(dbEntity));
+
+        AtlasEntityWithExtInfo entity = entityREST.getByUniqueAttributes(TestUtilsV2.DATABASE_TYPE, false, Collections.singletonList(TestUtilsV2.NAME), null, 0, -1,
+                                                                         toHttpServletRequest(TestUtilsV2.NAME, dbName));
+
+        Assert.assertEquals(entity.getEntity().getAttributes().keySet(), Collections.singleton(TestUtilsV2.NAME));
+        Assert.assertEquals(entity.getEntity().getAttribute(TestUtilsV2.NAME), dbName);
+
+        try {
+            entityREST.getByUniqueAttributes(TestUtilsV2.DATABASE_TYPE, false, Arrays.asList(TestUtilsV2.NAME, "nosuchattr"), null, 0, -1,
+                                             toHttpServletRequest(TestUtilsV2.NAME, dbName));
+
+            Assert.fail("expected unknown attribute in projection to be rejected");
+        } catch (AtlasBaseException excp) {
+            Assert.assertEquals(excp.getAtlasErrorCode(), AtlasErrorCode.UNKNOWN_ATTRIBUTE);
+        }
+    }
+
+    @Test
+    public void testGetEntityByIdWithRelationshipPaging() throws Exception {
+        createDeptEmployeeTypes();
+
+        AtlasEntity              dept     = new AtlasEntity("projection_dept");
+        AtlasEntitiesWithExtInfo entities = new AtlasEntitiesWithExtInfo(dept);
+        int                      numEmps  = 5;
+
+        dept.setAttribute(TestUtilsV2.NAME, "dept-" + System.currentTimeMillis());
+
+        for (int i = 0; i < numEmps; i++) {
+            AtlasEntity emp = new AtlasEntity("projection_employee");
+
+            emp.setAttribute(TestUtilsV2.NAME, dept.getAttribute(TestUtilsV2.NAME) + "-emp-" + i);
+            emp.setRelationshipAttribute("dept", AtlasTypeUtil.getAtlasObjectId(dept));
+
+            entities.addEntity(emp);
+        }
+
+        EntityMutationResponse response = entityREST.createOrUpdate(entities);
+        String                 deptGuid = response.getGuidAssignments().get(dept.getGuid());
+
+        Assert.assertEquals(getEmployees(deptGuid, 0, -1).size(), numEmps);
+
+        Set<String> pagedGuids = new HashSet<>();
+
+        for (int offset = 0; offset < numEmps; offset += 2) {
+            List<AtlasRelatedObjectId> page = getEmployees(deptGuid, offset, 2);
+
+            Assert.assertEquals(page.size(), Math.min(2, numEmps - offset));
+
+            for (AtlasRelatedObjectId emp : page) {
+                Assert.assertTrue(pagedGuids.add(emp.getGuid()), "employee " + emp.getGuid() + " returned in more than one page");
+            }
+        }
+
+        Assert.assertEquals(pagedGuids.size(), numEmps);
+        Assert.assertTrue(getEmployees(deptGuid, numEmps, 2).isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AtlasRelatedObjectId> getEmployees(String deptGuid, int offset, int limit) throws AtlasBaseException {
+        AtlasEntityWithExtInfo dept = entityREST.getById(deptGuid, true, Collections.singletonList(TestUtilsV2.NAME), Collections.singletonList("employees"), offset, limit);
+
+        return (List<AtlasRelatedObjectId>) dept.getEntity().getRelationshipAttribute("employees");
+    }
+
+    private void createDeptEmployeeTypes() throws AtlasBaseException {
+        AtlasEntityDef       deptDef  = AtlasTypeUtil.createClassTypeDef("projection_dept", Collections.<String>emptySet(),
+                                                                         AtlasTypeUtil.createUniqueRequiredAttrDef(TestUtilsV2.NAME, "string"));
+        AtlasEntityDef       empDef   = AtlasTypeUtil.createClassTypeDef("projection_employee", Collections.<String>emptySet(),
+                                                                         AtlasTypeUtil.createUniqueRequiredAttrDef(TestUtilsV2.NAME, "string"));
+        AtlasRelationshipDef relDef   = AtlasTypeUtil.createRelationshipTypeDef("projection_dept_employees", "", "1.0", RelationshipCategory.ASSOCIATION, PropagateTags.NONE,
+                                                                                new AtlasRelationshipEndDef("projection_dept", "employees", Cardinality.SET),
+                                                                                new AtlasRelationshipEndDef("projection_employee", "dept", Cardinality.SINGLE));
+        AtlasTypesDef        typesDef = new AtlasTypesDef();
+
+        typesDef.setEntityDefs(Arrays.asList(deptDef, empDef));
+        typesDef.setRelationshipDefs(Collections.singletonList(relDef));
+
+        typeStore.createTypesDef(typesDef);
+    }
+
     private HttpServletRequest toHttpServletRequest(String attrName, String attrValue) {
         HttpServletRequest    request   = Mockito.mock(HttpServletRequest.class);
         Map<String, String[]> paramsMap = toParametersMap(EntityREST.PREFIX_ATTR + attrName, attrValue);
@@ -18,6 +18,7 @@
 
 package org.apache.atlas.web.filters;
 
+import org.apache.atlas.repository.store.bootstrap.PassiveTypeRegistryRefresher;
 import org.apache.atlas.web.service.ActiveInstanceState;
 import org.apache.atlas.web.service.ServiceState;
 import org.mockito.Mock;
@@ -55,6 +56,9 @@ public class ActiveServerFilterTest {
     @Mock
     private ServiceState serviceState;
 
+    @Mock
+    private PassiveTypeRegistryRefresher typeRegistryRefresher;
+
     @BeforeMethod
     public void setUp() {
         MockitoAnnotations.initMocks(this);
@@ -65,7 +69,7 @@ public class ActiveServerFilterTest {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.ACTIVE);
         when(servletRequest.getRequestURI()).thenReturn("api/atlas/types");
 
-        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState);
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
 
         activeServerFilter.doFilter(servletRequest, servletResponse, filterChain);
 
@@ -77,7 +81,7 @@ public class ActiveServerFilterTest {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
         when(servletRequest.getRequestURI()).thenReturn("api/atlas/types");
 
-        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState);
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
 
         when(activeInstanceState.getActiveServerAddress()).thenReturn(null);
 
@@ -91,7 +95,7 @@ public class ActiveServerFilterTest {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
         when(servletRequest.getRequestURI()).thenReturn("api/atlas/types");
 
-        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState);
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
 
         when(activeInstanceState.getActiveServerAddress()).thenReturn(ACTIVE_SERVER_ADDRESS);
         when(servletRequest.getRequestURI()).thenReturn("types");
@@ -105,13 +109,13 @@ public class ActiveServerFilterTest {
 
     @Test
     public void adminImportRequestsToPassiveServerShouldToActiveServerAddress() throws IOException, ServletException {
-        String importExportUrls[] = {"api/admin/export", "api/admin/import", "api/admin/importfile"};
+        String importExportUrls[] = {"api/admin/export", "api/admin/import", "api/admin/importfile", "api/admin/jobs/export", "api/admin/jobs/abc-123/download"};
 
         for (String partialUrl : importExportUrls) {
             when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
             when(servletRequest.getRequestURI()).thenReturn(partialUrl);
 
-            ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState);
+            ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
 
             when(activeInstanceState.getActiveServerAddress()).thenReturn(ACTIVE_SERVER_ADDRESS);
             when(servletRequest.getRequestURI()).thenReturn(partialUrl);
@@ -128,7 +132,7 @@ public class ActiveServerFilterTest {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
         when(servletRequest.getRequestURI()).thenReturn("api/atlas/types");
 
-        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState);
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
 
         when(activeInstanceState.getActiveServerAddress()).thenReturn(ACTIVE_SERVER_ADDRESS);
         when(servletRequest.getMethod()).thenReturn(HttpMethod.GET);
@@ -145,7 +149,7 @@ public class ActiveServerFilterTest {
     public void testRedirectedRequestShouldContainEncodeQueryParameters() throws IOException, ServletException {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
 
-        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState);
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
 
         when(activeInstanceState.getActiveServerAddress()).thenReturn(ACTIVE_SERVER_ADDRESS);
         when(servletRequest.getMethod()).thenReturn(HttpMethod.GET);
@@ -165,7 +169,7 @@ public class ActiveServerFilterTest {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
         when(servletRequest.getRequestURI()).thenReturn("api/atlas/types");
 
-        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState);
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
 
         when(activeInstanceState.getActiveServerAddress()).thenReturn(ACTIVE_SERVER_ADDRESS);
         when(servletRequest.getMethod()).thenReturn(HttpMethod.POST);
@@ -182,7 +186,7 @@ public class ActiveServerFilterTest {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
         when(servletRequest.getRequestURI()).thenReturn("api/atlas/types");
 
-        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState);
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
 
         when(activeInstanceState.getActiveServerAddress()).thenReturn(ACTIVE_SERVER_ADDRESS);
         when(servletRequest.getMethod()).thenReturn(HttpMethod.PUT);
@@ -199,7 +203,7 @@ public class ActiveServerFilterTest {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
         when(servletRequest.getRequestURI()).thenReturn("api/atlas/types");
 
-        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState);
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
 
         when(activeInstanceState.getActiveServerAddress()).thenReturn(ACTIVE_SERVER_ADDRESS);
         when(servletRequest.getMethod()).thenReturn(HttpMethod.DELETE);
@@ -218,7 +222,7 @@ public class ActiveServerFilterTest {
         when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.BECOMING_ACTIVE);
         when(servletRequest.getRequestURI()).thenReturn("api/atlas/types");
 
-        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState);
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
 
         activeServerFilter.doFilter(servletRequest, servletResponse, filterChain);
 
@@ -232,10 +236,85 @@ public class ActiveServerFilterTest {
         when(servletRequest.getRequestURI()).
                 thenReturn("api/atlas/admin/asmasn"); // any Admin URI is fine.
 
-        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState);
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
+        activeServerFilter.doFilter(servletRequest, servletResponse, filterChain);
+
+        verify(filterChain).doFilter(servletRequest, servletResponse);
+        verifyZeroInteractions(activeInstanceState);
+    }
+
+    @Test
+    public void testShouldServeReadRequestsOnPassiveInstance() throws IOException, ServletException {
+        when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
+        when(typeRegistryRefresher.isServingReads()).thenReturn(true);
+        when(typeRegistryRefresher.getStalenessBoundMs()).thenReturn(1500L);
+        when(servletRequest.getMethod()).thenReturn(HttpMethod.GET);
+        when(servletRequest.getRequestURI()).thenReturn("/api/atlas/v2/entity/guid/6ebb039f-eaa5-4b9c-ae44-799c7910545d");
+
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
+
         activeServerFilter.doFilter(servletRequest, servletResponse, filterChain);
 
         verify(filterChain).doFilter(servletRequest, servletResponse);
+        verify(servletResponse).setHeader(ActiveServerFilter.STALE_READ_BOUND_HEADER, "1500");
         verifyZeroInteractions(activeInstanceState);
     }
+
+    @Test
+    public void testShouldRedirectAuditReadsOnPassiveInstanceWithLocalAuditRepository() throws IOException, ServletException {
+        String auditUri = "/api/atlas/v2/entity/6ebb039f-eaa5-4b9c-ae44-799c7910545d/audit";
+
+        when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
+        when(typeRegistryRefresher.isServingReads()).thenReturn(true);
+        when(activeInstanceState.getActiveServerAddress()).thenReturn(ACTIVE_SERVER_ADDRESS);
+        when(servletRequest.getMethod()).thenReturn(HttpMethod.GET);
+        when(servletRequest.getRequestURI()).thenReturn(auditUri);
+
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher, false);
+
+        activeServerFilter.doFilter(servletRequest, servletResponse, filterChain);
+
+        verify(servletResponse).sendRedirect(ACTIVE_SERVER_ADDRESS + auditUri);
+        verifyZeroInteractions(filterChain);
+
+        // served by the passive instance when audits are in a shared store
+        activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher, true);
+
+        activeServerFilter.doFilter(servletRequest, servletResponse, filterChain);
+
+        verify(filterChain).doFilter(servletRequest, servletResponse);
+    }
+
+    @Test
+    public void testShouldRedirectWriteRequestsOnPassiveInstanceServingReads() throws IOException, ServletException {
+        when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
+        when(typeRegistryRefresher.isServingReads()).thenReturn(true);
+        when(activeInstanceState.getActiveServerAddress()).thenReturn(ACTIVE_SERVER_ADDRESS);
+        when(servletRequest.getMethod()).thenReturn(HttpMethod.POST);
+        when(servletRequest.getRequestURI()).thenReturn("api/atlas/v2/entity/bulk");
+
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
+
+        activeServerFilter.doFilter(servletRequest, servletResponse, filterChain);
+
+        verify(servletResponse).setHeader("Location", ACTIVE_SERVER_ADDRESS + "api/atlas/v2/entity/bulk");
+        verify(servletResponse).setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
+        verifyZeroInteractions(filterChain);
+    }
+
+    @Test
+    public void testShouldRedirectReadRequestsUntilTypesAreLoaded() throws IOException, ServletException {
+        when(serviceState.getState()).thenReturn(ServiceState.ServiceStateValue.PASSIVE);
+        when(typeRegistryRefresher.isServingReads()).thenReturn(false);
+        when(activeInstanceState.getActiveServerAddress()).thenReturn(ACTIVE_SERVER_ADDRESS);
+        when(servletRequest.getMethod()).thenReturn(HttpMethod.POST);
+        when(servletRequest.getRequestURI()).thenReturn("api/atlas/v2/search/basic");
+
+        ActiveServerFilter activeServerFilter = new ActiveServerFilter(activeInstanceState, serviceState, typeRegistryRefresher);
+
+        activeServerFilter.doFilter(servletRequest, servletResponse, filterChain);
+
+        verify(servletResponse).setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
+        verifyZeroInteractions(filterChain);
+    }
 }